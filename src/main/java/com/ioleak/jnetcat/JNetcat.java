@@ -34,8 +34,11 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Timer;
 import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
 
+import com.ioleak.jnetcat.common.FileEventWatcher;
 import com.ioleak.jnetcat.common.FileWatcher;
+import com.ioleak.jnetcat.common.JsonChangeFilter;
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.parsers.ArgumentsParser;
 import com.ioleak.jnetcat.common.parsers.exception.UnknownArgumentParserException;
@@ -45,8 +48,12 @@ import com.ioleak.jnetcat.server.console.KeyCharReader;
 import com.ioleak.jnetcat.service.JNetcatProcess;
 import com.ioleak.jnetcat.service.JNetcatProcessResult;
 
+import org.slf4j.Logger;
+
 public class JNetcat {
 
+  private static final Logger LOGGER = Logging.getLogger(JNetcat.class);
+
   public static final String DESCRIPTION = "A useful network tool to debug for client/server";
   public static final String DEFAULT_CONFIG = Paths.get("external", "conf", "options.json").toString();
 
@@ -76,12 +83,12 @@ public class JNetcat {
     }
 
     String jsonParameters = argumentsParser.switchValue("-f", DEFAULT_CONFIG);
-    Logging.getLogger().info(String.format("Using parameter file: %s", jsonParameters));
+    LOGGER.info("Using parameter file: {}", jsonParameters);
     URL url = JsonUtils.getAbsolutePathTo(jsonParameters);
         
     try {
       File jsonFile = new File(url.toURI());
-      Logging.getLogger().info(String.format("Parameter file absolute path: %s", jsonFile.getAbsolutePath()));
+      LOGGER.info("Parameter file absolute path: {}", jsonFile.getAbsolutePath());
 
       if (!jsonFile.exists()) {
         throw new IllegalArgumentException("Path of the parameter file is not valid");
@@ -94,16 +101,23 @@ public class JNetcat {
 
       keepRunningIndefinitely();
     } catch (URISyntaxException ex) {
-      Logging.getLogger().error("Cannot start execution, invalid URI", ex);
+      LOGGER.error("Cannot start execution, invalid URI", ex);
     }
 
     System.exit(returnCode);
   }
 
   private static void startThreadFileWatcher(File jsonFile, int delayMs) {
-    FileWatcher fileWatcher = new FileWatcher(jsonFile, JNetcat::paramsHotReload);
-    Timer timer = new Timer();
-    timer.schedule(fileWatcher, new Date(), delayMs);
+    Consumer<File> reloadOnChange = new JsonChangeFilter<>(JNetcatParameters.class, JNetcat::paramsHotReload);
+    FileEventWatcher fileEventWatcher = new FileEventWatcher(jsonFile, reloadOnChange);
+
+    if (!fileEventWatcher.start()) {
+      LOGGER.warn("File events not available, checking file every {} ms", delayMs);
+
+      FileWatcher fileWatcher = new FileWatcher(jsonFile, reloadOnChange);
+      Timer timer = new Timer();
+      timer.schedule(fileWatcher, new Date(), delayMs);
+    }
   }
 
   private static void initJNetcatProcessRun(File jsonFile, ArgumentsParser argumentsParser) {
@@ -134,24 +148,29 @@ public class JNetcat {
     try {
       latch.await();
     } catch (InterruptedException ex) {
-      Logging.getLogger().error("Execution interrupted. Program will exit.", ex);
+      LOGGER.error("Execution interrupted. Program will exit.", ex);
     }
   }
 
   private static void paramsHotReload(File jsonParamsFile) {
-    Logging.getLogger().info(String.format("File (%s) modified since last check - reloading", jsonParamsFile.getAbsolutePath()));
+    LOGGER.info("File ({}) modified since last check - reloading", jsonParamsFile.getAbsolutePath());
 
     if (jnetcatThread != null) {
+      if (jnetcatRun.reconfigure()) {
+        LOGGER.info("Parameters applied to the next connections, the listener and the connected clients are kept");
+        return;
+      }
+
       jnetcatRun.stopExecutions();
       jnetcatThread.interrupt();
 
       try {
         jnetcatThread.join();
       } catch (InterruptedException ex) {
-        Logging.getLogger().warn("A running thread was interrupted (and it was expected to stop: this message is informative only)");
+        LOGGER.warn("A running thread was interrupted (and it was expected to stop: this message is informative only)");
       }
 
-      Logging.getLogger().warn(String.format("Existing thread stopped with return code: %s", jnetcatRun.getResultExecution()));
+      LOGGER.warn("Existing thread stopped with return code: {}", jnetcatRun.getResultExecution());
     }
 
     jnetcatThread = new Thread(jnetcatRun);
@@ -175,7 +194,7 @@ public class JNetcat {
                          (params.isStartAsServer() && params.isUseProtocolTCP() && params.getServerParametersTCP().isDaemon());
     
     if (!doNotExit) {
-      Logging.getLogger().debug("Not executing as a daemon, exiting...");
+      LOGGER.debug("Not executing as a daemon, exiting...");
       System.exit(resultExecution.getCode());
     }
   }
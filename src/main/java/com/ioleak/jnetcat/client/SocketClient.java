@@ -25,7 +25,7 @@
  */
 package com.ioleak.jnetcat.client;
 
-import com.ioleak.jnetcat.common.properties.ObjectProperty;
+import com.ioleak.jnetcat.common.properties.BooleanProperty;
 
 public interface SocketClient {
 
@@ -33,5 +33,5 @@ public interface SocketClient {
 
   public String readMessage();
 
-  public ObjectProperty<Boolean> connectedProperty();
+  public BooleanProperty connectedProperty();
 }
@@ -36,33 +36,58 @@ import java.net.SocketAddress;
 
 import com.ioleak.jnetcat.client.exception.ClientReadMessageException;
 import com.ioleak.jnetcat.client.exception.ClientSendMessageException;
+import com.ioleak.jnetcat.client.load.CaptureReplay;
+import com.ioleak.jnetcat.client.load.LoadGenerator;
+import com.ioleak.jnetcat.client.load.LoadReport;
+import com.ioleak.jnetcat.client.load.ReplayReport;
+import com.ioleak.jnetcat.client.load.TCPThroughputGenerator;
+import com.ioleak.jnetcat.client.load.ThroughputReport;
+import com.ioleak.jnetcat.common.FirstByteInputStream;
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.interfaces.ProcessAction;
-import com.ioleak.jnetcat.common.properties.ObjectProperty;
+import com.ioleak.jnetcat.common.properties.BooleanProperty;
 import com.ioleak.jnetcat.common.properties.Observable;
+import com.ioleak.jnetcat.common.stats.RequestLatencies;
 import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+import com.ioleak.jnetcat.formatter.exception.StreamFramingException;
 import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
 import com.ioleak.jnetcat.options.startup.ClientParametersTCP;
 
+import org.slf4j.Logger;
+
 public class TCPClient
         implements ProcessAction, SocketClient {
 
+  private static final Logger LOGGER = Logging.getLogger(TCPClient.class);
+
   private static final String EXCEPTION_CLIENT_NOT_CONNECTED = "Client is not connected to a server";
 
+  private final ClientParametersTCP clientParametersTCP;
   private final boolean interactive;
 
   private final String ip;
   private final int port;
   private final int soTimeout;
 
-  private final ObjectProperty<Boolean> connectedProperty = new ObjectProperty<>(false);
+  private final BooleanProperty connectedProperty = new BooleanProperty(false);
+  private final RequestLatencies requestLatencies = new RequestLatencies();
 
   private Socket clientSocket;
+  private FirstByteInputStream inputStream;
+  private volatile long requestStartNanos = 0;
   private Observable keyListener;
   private StreamFormatOutput streamFormatOutput;
+  private volatile LoadGenerator loadGenerator;
+  private volatile LoadReport loadReport;
+  private volatile TCPThroughputGenerator throughputGenerator;
+  private volatile ThroughputReport throughputReport;
+  private volatile CaptureReplay captureReplay;
+  private volatile ReplayReport replayReport;
 
   public TCPClient(ClientParametersTCP clientParametersTCP) {
+    this.clientParametersTCP = clientParametersTCP;
     this.ip = clientParametersTCP.getIp();
     this.port = clientParametersTCP.getPort();
     this.soTimeout = clientParametersTCP.getSoTimeout();
@@ -71,31 +96,59 @@ public class TCPClient
 
   @Override
   public void start() {
+    if (CaptureReplay.isEnabled(clientParametersTCP)) {
+      captureReplay = new CaptureReplay(clientParametersTCP, TransportProtocol.TCP);
+      replayReport = captureReplay.run();
+      return;
+    }
+
+    if (TCPThroughputGenerator.isEnabled(clientParametersTCP)) {
+      throughputGenerator = new TCPThroughputGenerator(clientParametersTCP);
+      throughputReport = throughputGenerator.run();
+      return;
+    }
+
+    if (isLoadGenerator()) {
+      loadGenerator = new LoadGenerator(clientParametersTCP, streamFormatOutput);
+      loadReport = loadGenerator.run();
+      return;
+    }
+
     try {
       if (connectedProperty().get()) {
-        Logging.getLogger().warn(String.format("TCP connection already open on %s:%d", ip, port));
+        LOGGER.warn("TCP connection already open on {}:{}", ip, port);
       } else {
-        Logging.getLogger().info(String.format("Trying to open a TCP connection [%s:%s]", ip, port));
+        LOGGER.info("Trying to open a TCP connection [{}:{}]", ip, port);
 
         clientSocket = new Socket();
         SocketAddress socketAddress = new InetSocketAddress(ip, port);
         clientSocket.setSoTimeout(soTimeout);
+
+        long connectStartNanos = System.nanoTime();
         clientSocket.connect(socketAddress, soTimeout);
+        requestLatencies.recordConnect(System.nanoTime() - connectStartNanos);
+        inputStream = new FirstByteInputStream(clientSocket);
+        if (streamFormatOutput != null) {
+          streamFormatOutput.setEndpoints(TransportProtocol.TCP, (InetSocketAddress) clientSocket.getLocalSocketAddress(),
+                                          (InetSocketAddress) clientSocket.getRemoteSocketAddress());
+        }
 
-        Logging.getLogger().info(String.format("TCP connection established on %s:%d", ip, port));
+        LOGGER.info("TCP connection established on {}:{}", ip, port);
       }
     } catch (IOException ex) {
-      Logging.getLogger().error(String.format("Unable to open a TCP connection on %s:%d [%s]", ip, port, ex.getMessage()));
+      LOGGER.error("Unable to open a TCP connection on {}:{} [{}]", ip, port, ex.getMessage());
     } finally {
       updateConnectedProperty();
     }
 
     if (interactive && connectedProperty.get()) {
-      Logging.getLogger().info(String.format("Interactive mode enabled [timeout set: %dms]", soTimeout));
+      LOGGER.info("Interactive mode enabled [timeout set: {}ms]", soTimeout);
 
       while (connectedProperty.get() && !Thread.currentThread().isInterrupted()) {
         readMessage();
       }
+
+      reportLatencies();
     }
   }
 
@@ -106,29 +159,35 @@ public class TCPClient
     }
 
     try {
-      String msgWithoutCRLF = StringUtils.removeLastCharIfCRLF(msg);
-      Logging.getLogger().info(String.format("Sending [to: %s] message:\n%s\t%s",
-                                             clientSocket.getRemoteSocketAddress(),
-                                             StringUtils.toHexWithSpaceSeparator(msgWithoutCRLF),
-                                             msgWithoutCRLF));
+      if (LOGGER.isInfoEnabled()) {
+        String msgWithoutCRLF = StringUtils.removeLastCharIfCRLF(msg);
+        LOGGER.info("Sending [to: {}] message:\n{}\t{}",
+                    clientSocket.getRemoteSocketAddress(), StringUtils.toHexWithSpaceSeparator(msgWithoutCRLF), msgWithoutCRLF);
+      }
 
       clientSocket.sendUrgentData(1);
 
       PrintWriter printWriter = getOutputStream(clientSocket);
+      inputStream.restartTimer();
+      requestStartNanos = System.nanoTime();
       printWriter.print(msg);
       printWriter.flush();
+      if (streamFormatOutput != null) {
+        byte[] sentData = StringUtils.getBytesFromString(msg);
+        streamFormatOutput.formatDataSent(sentData, 0, sentData.length);
+      }
 
       if (printWriter.checkError()) {
         clientSocket.close();
         throw new ClientSendMessageException(EXCEPTION_CLIENT_NOT_CONNECTED);
       }
     } catch (IOException ex) {
-      Logging.getLogger().error(String.format("Closing Socket. Unable to send message: %s", ex.getMessage()));
+      LOGGER.error("Closing Socket. Unable to send message: {}", ex.getMessage());
       if (clientSocket != null) {
         try {
           clientSocket.close();
         } catch (IOException e) {
-          Logging.getLogger().error("Unable to close client socket", e);
+          LOGGER.error("Unable to close client socket", e);
         }
       }
     } finally {
@@ -145,15 +204,16 @@ public class TCPClient
     String readData = "";
 
     try {
-      streamFormatOutput.startReading(clientSocket.getInputStream());
+      streamFormatOutput.startReading(inputStream);
+      recordResponseLatency();
       readData = streamFormatOutput.getEndOfStreamData();
 
-    } catch (StreamNoDataException | IOException ex) {
+    } catch (StreamNoDataException | StreamFramingException | IOException ex) {
       try {
         clientSocket.close();
-        Logging.getLogger().warn(String.format("Connection closed [%s:%d]", ip, port));
+        LOGGER.warn("Connection closed [{}:{}]", ip, port);
       } catch (IOException ex1) {
-        Logging.getLogger().error("Unable to close socket");
+        LOGGER.error("Unable to close socket");
       }
     } finally {
       updateConnectedProperty();
@@ -187,16 +247,56 @@ public class TCPClient
 
   @Override
   public boolean isStateSuccessful() {
+    if (CaptureReplay.isEnabled(clientParametersTCP)) {
+      return replayReport != null && replayReport.isSuccessful();
+    }
+
+    if (TCPThroughputGenerator.isEnabled(clientParametersTCP)) {
+      return throughputReport != null && throughputReport.isSuccessful();
+    }
+
+    if (isLoadGenerator()) {
+      return loadReport != null && loadReport.isSuccessful();
+    }
+
     return connectedProperty().get();
   }
 
+  public LoadReport getLoadReport() {
+    return loadReport;
+  }
+
+  public ThroughputReport getThroughputReport() {
+    return throughputReport;
+  }
+
+  public ReplayReport getReplayReport() {
+    return replayReport;
+  }
+
+  public RequestLatencies getRequestLatencies() {
+    return requestLatencies;
+  }
+
   @Override
-  public ObjectProperty<Boolean> connectedProperty() {
+  public BooleanProperty connectedProperty() {
     return connectedProperty;
   }
 
   @Override
   public boolean stopActiveExecution() {
+    if (captureReplay != null) {
+      return captureReplay.stop();
+    }
+
+    if (throughputGenerator != null) {
+      return throughputGenerator.stop();
+    }
+
+    if (loadGenerator != null) {
+      return loadGenerator.stop();
+    }
+
     boolean closed = false;
 
     try {
@@ -205,11 +305,11 @@ public class TCPClient
           clientSocket.close();
           closed = true;
         
-          Logging.getLogger().info(String.format("TCP connection closed on %s:%d", ip, port));
+          LOGGER.info("TCP connection closed on {}:{}", ip, port);
         }
       }
     } catch (IOException ex) {
-      Logging.getLogger().error(String.format("An error occurred while closing connection on %s:%d", ip, port), ex);
+      LOGGER.error("An error occurred while closing connection on {}:{}", ip, port, ex);
     } finally {
       updateConnectedProperty();
     }
@@ -219,7 +319,13 @@ public class TCPClient
 
   @Override
   public boolean stopExecutions() {
-    return stopActiveExecution(); // TODO multithread client must close multiple connections...
+    boolean stopped = stopActiveExecution(); // TODO multithread client must close multiple connections...
+
+    if (!interactive) {
+      reportLatencies();
+    }
+
+    return stopped;
   }
 
   private PrintWriter getOutputStream(Socket clientSocket) {
@@ -250,6 +356,31 @@ public class TCPClient
     return bufferedReader;
   }
 
+  private void recordResponseLatency() {
+    long startNanos = requestStartNanos;
+
+    if (startNanos != 0) {
+      long firstByteNanos = inputStream.getFirstByteNanos();
+      if (firstByteNanos >= startNanos) {
+        requestLatencies.recordFirstByte(firstByteNanos - startNanos);
+      }
+
+      requestLatencies.recordResponse(System.nanoTime() - startNanos, 0);
+      requestStartNanos = 0;
+    }
+  }
+
+  private void reportLatencies() {
+    if (!requestLatencies.isEmpty()) {
+      LOGGER.info("Request latencies [{}:{}]{}{}", ip, port, System.lineSeparator(), requestLatencies);
+      requestLatencies.exportTo(clientParametersTCP.getLatencyReportFile());
+    }
+  }
+
+  private boolean isLoadGenerator() {
+    return !interactive && (clientParametersTCP.getNbClientMax() > 1 || clientParametersTCP.getNbExecution() > 1);
+  }
+
   private void updateConnectedProperty() {
     connectedProperty.set(clientSocket != null && !clientSocket.isClosed() && clientSocket.isConnected());
   }
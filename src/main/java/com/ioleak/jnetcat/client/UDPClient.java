@@ -26,42 +26,61 @@
 package com.ioleak.jnetcat.client;
 
 import java.beans.PropertyChangeEvent;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 
 import com.ioleak.jnetcat.client.exception.ClientReadMessageException;
 import com.ioleak.jnetcat.client.exception.ClientSendMessageException;
+import com.ioleak.jnetcat.client.load.CaptureReplay;
+import com.ioleak.jnetcat.client.load.ReplayReport;
+import com.ioleak.jnetcat.client.load.UDPRateGenerator;
+import com.ioleak.jnetcat.client.load.UDPRateReport;
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.interfaces.ProcessAction;
-import com.ioleak.jnetcat.common.properties.ObjectProperty;
+import com.ioleak.jnetcat.common.properties.BooleanProperty;
 import com.ioleak.jnetcat.common.properties.Observable;
+import com.ioleak.jnetcat.common.stats.RequestLatencies;
 import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
 import com.ioleak.jnetcat.options.startup.ClientParametersUDP;
 
+import org.slf4j.Logger;
+
 public class UDPClient
         implements ProcessAction, SocketClient {
 
+  private static final Logger LOGGER = Logging.getLogger(UDPClient.class);
+
   private static final String SOCKET_NOT_INITIALIZATED = "Not correctly initializated: socket is null";
 
+  private final ClientParametersUDP clientParametersUDP;
   private final boolean interactive;
 
   private final String ip;
   private final int port;
   private final int soTimeout;
 
-  private final ObjectProperty<Boolean> connectedProperty = new ObjectProperty<>(false);
+  private final BooleanProperty connectedProperty = new BooleanProperty(false);
+  private final RequestLatencies requestLatencies = new RequestLatencies();
 
   private Observable keyListener;
-  private DatagramSocket clientSocket;
+  private volatile DatagramSocket clientSocket;
+  private volatile boolean stopRequested = false;
   private StreamFormatOutput streamFormatOutput;
+  private volatile long requestStartNanos = 0;
+  private volatile UDPRateGenerator rateGenerator;
+  private volatile UDPRateReport rateReport;
+  private volatile CaptureReplay captureReplay;
+  private volatile ReplayReport replayReport;
   
   public UDPClient(ClientParametersUDP clientParametersUDP) {
+    this.clientParametersUDP = clientParametersUDP;
     this.ip = clientParametersUDP.getIp();
     this.port = clientParametersUDP.getPort();
     this.soTimeout = clientParametersUDP.getSoTimeout();
@@ -70,23 +89,41 @@ public class UDPClient
 
   @Override
   public void start() {
+    if (CaptureReplay.isEnabled(clientParametersUDP)) {
+      captureReplay = new CaptureReplay(clientParametersUDP, TransportProtocol.UDP);
+      replayReport = captureReplay.run();
+      return;
+    }
+
+    if (UDPRateGenerator.isEnabled(clientParametersUDP)) {
+      rateGenerator = new UDPRateGenerator(clientParametersUDP);
+      rateReport = rateGenerator.run();
+      return;
+    }
+
     try {
       clientSocket = new DatagramSocket();
       clientSocket.setSoTimeout(soTimeout);
 
-      Logging.getLogger().info(String.format("Openning UDP connection: %s:%d", ip, port));
+      LOGGER.info("Openning UDP connection: {}:{}", ip, port);
 
       if (interactive) {
         clientSocket.setSoTimeout(0);
-        while (!Thread.currentThread().isInterrupted()) {
+        while (!(stopRequested || Thread.currentThread().isInterrupted())) {
           readMessage();
         }
       } else {
         sendMessage("1");
         readMessage();
+        reportLatencies();
       }
     } catch (SocketException ex) {
-      Logging.getLogger().error("A socket error occurred", ex);
+      LOGGER.error("A socket error occurred", ex);
+    } catch (ClientReadMessageException | ClientSendMessageException ex) {
+      // the socket closed by a stop ends the pending receive
+      if (!stopRequested) {
+        throw ex;
+      }
     }
   }
 
@@ -99,9 +136,17 @@ public class UDPClient
 
       byte[] messageBytes = StringUtils.getBytesFromString(message);
       DatagramPacket request = new DatagramPacket(messageBytes, messageBytes.length, address, port);
+      requestStartNanos = System.nanoTime();
       clientSocket.send(request);
+      if (streamFormatOutput != null) {
+        streamFormatOutput.setEndpoints(TransportProtocol.UDP, (InetSocketAddress) clientSocket.getLocalSocketAddress(),
+                                        new InetSocketAddress(address, port));
+        streamFormatOutput.formatDataSent(messageBytes, 0, messageBytes.length);
+      }
 
-      Logging.getLogger().info(String.format("Sending [to: %s] message: %s", address.getHostAddress(), message.replace("\n", "")));
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("Sending [to: {}] message: {}", address.getHostAddress(), message.replace("\n", ""));
+      }
 
     } catch (UnknownHostException ex) {
       throw new ClientSendMessageException("Unknown host", ex);
@@ -119,13 +164,9 @@ public class UDPClient
 
     try {
       clientSocket.receive(response);
+      recordResponseLatency();
 
-      byte[] receivedData = new byte[response.getLength()];
-      for (int i = 0; i < response.getLength(); i++) {
-        receivedData[i] = buffer[i];
-      }
-
-      streamFormatOutput.startReading(new ByteArrayInputStream(receivedData));
+      streamFormatOutput.startReading(buffer, 0, response.getLength());
       readData = streamFormatOutput.getEndOfStreamData();
 
     } catch (IOException ex) {
@@ -161,22 +202,75 @@ public class UDPClient
 
   @Override
   public boolean isStateSuccessful() {
+    if (CaptureReplay.isEnabled(clientParametersUDP)) {
+      return replayReport != null && replayReport.isSuccessful();
+    }
+
     return true;
   }
 
   @Override
-  public ObjectProperty<Boolean> connectedProperty() {
+  public BooleanProperty connectedProperty() {
     return connectedProperty;
   }
 
   @Override
   public boolean stopActiveExecution() {
-    throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    if (captureReplay != null) {
+      return captureReplay.stop();
+    }
+
+    if (rateGenerator != null) {
+      return rateGenerator.stop();
+    }
+
+    stopRequested = true;
+    DatagramSocket socket = clientSocket;
+
+    if (socket != null && !socket.isClosed()) {
+      socket.close();
+      LOGGER.info("UDP connection closed on {}:{}", ip, port);
+      return true;
+    }
+
+    return false;
   }
 
   @Override
   public boolean stopExecutions() {
-    throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    return stopActiveExecution();
+  }
+
+  public UDPRateReport getRateReport() {
+    return rateReport;
+  }
+
+  public ReplayReport getReplayReport() {
+    return replayReport;
+  }
+
+  public RequestLatencies getRequestLatencies() {
+    return requestLatencies;
+  }
+
+  private void recordResponseLatency() {
+    long startNanos = requestStartNanos;
+
+    if (startNanos != 0) {
+      long responseNanos = System.nanoTime() - startNanos;
+
+      // a datagram is received all at once: the first byte comes with the whole response
+      requestLatencies.recordFirstByte(responseNanos);
+      requestLatencies.recordResponse(responseNanos, 0);
+      requestStartNanos = 0;
+    }
+  }
+
+  private void reportLatencies() {
+    if (!requestLatencies.isEmpty()) {
+      LOGGER.info("Request latencies [{}:{}]{}{}", ip, port, System.lineSeparator(), requestLatencies);
+      requestLatencies.exportTo(clientParametersUDP.getLatencyReportFile());
+    }
   }
 
   private void checkClientInitializatedOnRead() {
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.stats.LatencyHistogram;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.capture.CaptureDirection;
+import com.ioleak.jnetcat.formatter.capture.CaptureReader;
+import com.ioleak.jnetcat.formatter.capture.CaptureRecord;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+import com.ioleak.jnetcat.options.startup.ClientParameters;
+
+import org.slf4j.Logger;
+
+public class CaptureReplay {
+
+  private static final Logger LOGGER = Logging.getLogger(CaptureReplay.class);
+
+  public static final int DEFAULT_RESPONSE_TIMEOUT_MS = 5000;
+
+  private static final String THREAD_NAME_PREFIX = "ReplaySession-";
+  private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final TransportProtocol protocol;
+  private final String ip;
+  private final int port;
+  private final int soTimeout;
+  private final String replayFile;
+  private final double speed;
+  private final int sessionsPerConnection;
+  private final CaptureDirection replayDirection;
+
+  private final List<ReplayConnection> openConnections = Collections.synchronizedList(new ArrayList<>());
+  private final List<Thread> sessionThreads = new ArrayList<>();
+
+  private volatile boolean running = false;
+  private volatile long replayStartNanos;
+
+  public CaptureReplay(ClientParameters clientParameters, TransportProtocol protocol) {
+    this.protocol = protocol;
+    this.ip = clientParameters.getIp();
+    this.port = clientParameters.getPort();
+    this.soTimeout = clientParameters.getSoTimeout() > 0 ? clientParameters.getSoTimeout() : DEFAULT_RESPONSE_TIMEOUT_MS;
+    this.replayFile = clientParameters.getReplayFile();
+    this.speed = clientParameters.getReplaySpeed();
+    this.sessionsPerConnection = clientParameters.getReplaySessions();
+    this.replayDirection = clientParameters.getReplayDirection();
+  }
+
+  public static boolean isEnabled(ClientParameters clientParameters) {
+    return !clientParameters.isInteractive() && !StringUtils.isNullOrEmpty(clientParameters.getReplayFile());
+  }
+
+  public ReplayReport run() {
+    ReplayReport report = new ReplayReport(replayFile, speed);
+    CaptureReader captureReader;
+    Map<Integer, ConnectionRecords> connections;
+
+    try {
+      captureReader = CaptureReader.fromPath(Path.of(replayFile));
+      connections = indexConnections(captureReader);
+    } catch (IOException ex) {
+      LOGGER.error("Unable to read the capture {}: {}", replayFile, ex.getMessage());
+      return report;
+    }
+
+    long captureStartNanos = connections.values().stream()
+            .mapToLong(records -> records.firstTimestampNanos)
+            .min()
+            .orElse(0);
+    CountDownLatch startSignal = new CountDownLatch(1);
+
+    LOGGER.info("Replay of {} started on {}:{}: {} connection(s) x {} session(s), speed: {}",
+                replayFile, ip, port, connections.size(), sessionsPerConnection, speed > 0 ? speed + "x" : "max");
+
+    running = true;
+    synchronized (sessionThreads) {
+      for (ConnectionRecords records : connections.values()) {
+        for (int i = 0; i < sessionsPerConnection; i++) {
+          Thread sessionThread = new Thread(() -> runSession(captureReader, records, captureStartNanos, startSignal, report),
+                                            THREAD_NAME_PREFIX + sessionThreads.size());
+          sessionThread.setDaemon(true);
+          sessionThreads.add(sessionThread);
+        }
+      }
+
+      sessionThreads.forEach(Thread::start);
+    }
+
+    report.start(sessionThreads.size());
+    replayStartNanos = System.nanoTime();
+    startSignal.countDown();
+
+    try {
+      for (Thread sessionThread : List.copyOf(sessionThreads)) {
+        sessionThread.join();
+      }
+    } catch (InterruptedException ex) {
+      LOGGER.warn("Replay interrupted");
+      stop();
+      Thread.currentThread().interrupt();
+    } finally {
+      report.end();
+      running = false;
+    }
+
+    LOGGER.info("{}", report);
+    return report;
+  }
+
+  public boolean stop() {
+    boolean stopped = running;
+    running = false;
+
+    synchronized (sessionThreads) {
+      sessionThreads.forEach(Thread::interrupt);
+    }
+
+    List.copyOf(openConnections).forEach(ReplayConnection::close);
+    return stopped;
+  }
+
+  // only the record positions are kept: each session reads its records from the mapped capture during the replay
+  private Map<Integer, ConnectionRecords> indexConnections(CaptureReader captureReader)
+          throws IOException {
+    Map<Integer, ConnectionRecords> connections = new LinkedHashMap<>();
+
+    long position;
+    while ((position = captureReader.nextPosition()) >= 0) {
+      long timestampNanos = captureReader.getTimestampNanos(position);
+      connections.computeIfAbsent(captureReader.getConnectionId(position), connectionId -> new ConnectionRecords(timestampNanos)).add(position);
+    }
+
+    return connections;
+  }
+
+  private void runSession(CaptureReader captureReader, ConnectionRecords records, long captureStartNanos, CountDownLatch startSignal,
+                          ReplayReport report) {
+    ReplayConnection connection = protocol == TransportProtocol.UDP
+                                  ? new UDPReplayConnection(ip, port, soTimeout)
+                                  : new TCPReplayConnection(ip, port, soTimeout);
+    LatencyHistogram timingDeviation = new LatencyHistogram();
+    boolean completed = false;
+
+    try {
+      openConnections.add(connection);
+      startSignal.await();
+
+      // the connection is opened at the time of its first record
+      waitUntil(scheduledNanos(records.firstTimestampNanos, captureStartNanos));
+      connection.open();
+
+      for (int i = 0; i < records.size; i++) {
+        if (!running) {
+          break;
+        }
+
+        CaptureRecord record = captureReader.readRecord(records.positions[i]);
+        if (record.getDirection() == replayDirection) {
+          long scheduledNanos = scheduledNanos(record.getTimestampNanos(), captureStartNanos);
+          waitUntil(scheduledNanos);
+
+          if (speed > 0) {
+            timingDeviation.recordValue(System.nanoTime() - scheduledNanos);
+          }
+
+          connection.send(record.getData());
+          report.messageSent(record.getData().length);
+        } else {
+          checkResponse(connection.receive(record.getData().length), record.getData(), report);
+        }
+      }
+
+      completed = running;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (IOException ex) {
+      if (running) {
+        LOGGER.info("Replay session error on {}:{}: {}", ip, port, ex.getMessage());
+      }
+    } finally {
+      connection.close();
+      openConnections.remove(connection);
+
+      if (completed) {
+        report.sessionCompleted(timingDeviation);
+      } else {
+        report.sessionFailed(timingDeviation);
+      }
+    }
+  }
+
+  private void checkResponse(byte[] response, byte[] expected, ReplayReport report) {
+    if (response == null) {
+      report.responseMissing();
+    } else if (Arrays.equals(response, expected)) {
+      report.responseMatched();
+    } else {
+      report.responseMismatched();
+    }
+  }
+
+  private long scheduledNanos(long timestampNanos, long captureStartNanos) {
+    return speed > 0 ? replayStartNanos + (long) ((timestampNanos - captureStartNanos) / speed) : replayStartNanos;
+  }
+
+  private void waitUntil(long scheduledNanos)
+          throws InterruptedException {
+    long waitNanos;
+
+    while ((waitNanos = scheduledNanos - System.nanoTime()) > SPIN_THRESHOLD_NANOS) {
+      LockSupport.parkNanos(waitNanos - SPIN_THRESHOLD_NANOS);
+
+      if (Thread.interrupted()) {
+        throw new InterruptedException("Replay session stopped");
+      }
+    }
+
+    while (System.nanoTime() < scheduledNanos) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static class ConnectionRecords {
+
+    private final long firstTimestampNanos;
+    private long[] positions = new long[16];
+    private int size = 0;
+
+    private ConnectionRecords(long firstTimestampNanos) {
+      this.firstTimestampNanos = firstTimestampNanos;
+    }
+
+    private void add(long position) {
+      if (size == positions.length) {
+        positions = Arrays.copyOf(positions, size * 2);
+      }
+
+      positions[size++] = position;
+    }
+  }
+}
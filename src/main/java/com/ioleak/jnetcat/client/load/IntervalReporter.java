@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+class IntervalReporter
+        implements Runnable {
+
+  private static final Logger LOGGER = Logging.getLogger(IntervalReporter.class);
+
+  private final String name;
+  private final long intervalNanos;
+  private final LongSupplier bytesCounter;
+  private final List<Double> intervalsGbps = Collections.synchronizedList(new ArrayList<>());
+
+  private volatile boolean running = false;
+  private Thread reporterThread;
+
+  IntervalReporter(String name, long intervalMs, LongSupplier bytesCounter) {
+    this.name = name;
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    this.bytesCounter = bytesCounter;
+  }
+
+  void start() {
+    if (intervalNanos <= 0) {
+      return;
+    }
+
+    running = true;
+    reporterThread = new Thread(this, name);
+    reporterThread.setDaemon(true);
+    reporterThread.start();
+  }
+
+  void stop() {
+    running = false;
+
+    if (reporterThread != null) {
+      reporterThread.interrupt();
+    }
+  }
+
+  List<Double> getIntervalsGbps() {
+    synchronized (intervalsGbps) {
+      return new ArrayList<>(intervalsGbps);
+    }
+  }
+
+  @Override
+  public void run() {
+    long startNanos = System.nanoTime();
+    long previousBytes = bytesCounter.getAsLong();
+    long interval = 1;
+
+    while (running) {
+      long deadline = startNanos + interval * intervalNanos;
+      long waitNanos;
+      while (running && (waitNanos = deadline - System.nanoTime()) > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException ex) {
+          return;
+        }
+      }
+
+      if (!running) {
+        return;
+      }
+
+      long bytes = bytesCounter.getAsLong();
+      double gbps = toGbps(bytes - previousBytes, intervalNanos);
+      intervalsGbps.add(gbps);
+
+      LOGGER.info("[{}-{} s] {} bytes, {} Gbit/s", String.format("%7.2f", (interval - 1) * intervalNanos / 1e9),
+                  String.format("%7.2f", interval * intervalNanos / 1e9), bytes - previousBytes, String.format("%.3f", gbps));
+      previousBytes = bytes;
+      interval++;
+    }
+  }
+
+  static double toGbps(long bytes, long nanos) {
+    return nanos > 0 ? bytes * (double) Byte.SIZE / nanos : 0;
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.ioleak.jnetcat.common.FirstByteInputStream;
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.stats.RequestLatencies;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.exception.StreamFramingException;
+import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.options.startup.ClientParametersTCP;
+
+import org.slf4j.Logger;
+
+public class LoadGenerator {
+
+  private static final Logger LOGGER = Logging.getLogger(LoadGenerator.class);
+
+  private static final String THREAD_NAME_PREFIX = "TCPLoadClient-";
+
+  private final String ip;
+  private final int port;
+  private final int soTimeout;
+  private final int nbClients;
+  private final int nbExecution;
+  private final int sleepBetweenExecMs;
+  private final long expectedIntervalNanos;
+  private final byte[] requestMessage;
+  private final String latencyReportFile;
+  private final StreamFormatOutput streamFormatOutput;
+
+  private final List<Socket> openSockets = Collections.synchronizedList(new ArrayList<>());
+  private final List<Thread> clientThreads = new ArrayList<>();
+
+  private volatile boolean running = false;
+
+  public LoadGenerator(ClientParametersTCP clientParametersTCP, StreamFormatOutput streamFormatOutput) {
+    this.ip = clientParametersTCP.getIp();
+    this.port = clientParametersTCP.getPort();
+    this.soTimeout = clientParametersTCP.getSoTimeout();
+    this.nbClients = Math.max(clientParametersTCP.getNbClientMax(), 1);
+    this.nbExecution = Math.max(clientParametersTCP.getNbExecution(), 1);
+    this.sleepBetweenExecMs = clientParametersTCP.getSleepBetweenExecMs();
+    this.expectedIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(sleepBetweenExecMs, 0));
+    this.latencyReportFile = clientParametersTCP.getLatencyReportFile();
+    this.requestMessage = StringUtils.getBytesFromString(clientParametersTCP.getRequestMessage());
+    this.streamFormatOutput = streamFormatOutput;
+  }
+
+  public LoadReport run() {
+    LoadReport report = new LoadReport();
+    CountDownLatch startSignal = new CountDownLatch(1);
+
+    LOGGER.info("Load test started on {}:{}: {} connection(s), {} request(s) each, {}ms between requests",
+                ip, port, nbClients, nbExecution, sleepBetweenExecMs);
+
+    running = true;
+    synchronized (clientThreads) {
+      for (int i = 0; i < nbClients; i++) {
+        Thread clientThread = new Thread(() -> runClient(startSignal, report), THREAD_NAME_PREFIX + i);
+        clientThread.setDaemon(true);
+        clientThreads.add(clientThread);
+        clientThread.start();
+      }
+    }
+
+    report.start();
+    startSignal.countDown();
+
+    try {
+      for (Thread clientThread : List.copyOf(clientThreads)) {
+        clientThread.join();
+      }
+    } catch (InterruptedException ex) {
+      LOGGER.warn("Load test interrupted");
+      stop();
+      Thread.currentThread().interrupt();
+    } finally {
+      report.end();
+      running = false;
+    }
+
+    LOGGER.info("{}", report);
+    report.getLatencies().exportTo(latencyReportFile);
+    return report;
+  }
+
+  public boolean stop() {
+    boolean stopped = running;
+    running = false;
+
+    synchronized (clientThreads) {
+      clientThreads.forEach(Thread::interrupt);
+    }
+
+    for (Socket socket : List.copyOf(openSockets)) {
+      try {
+        socket.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close load test connection: {}", ex.getMessage());
+      }
+    }
+
+    return stopped;
+  }
+
+  private void runClient(CountDownLatch startSignal, LoadReport report) {
+    StreamFormatOutput formatOutput = streamFormatOutput.newInstance();
+    RequestLatencies latencies = new RequestLatencies();
+
+    try (Socket socket = new Socket()) {
+      openSockets.add(socket);
+      startSignal.await();
+
+      if (!connect(socket, report, latencies)) {
+        return;
+      }
+
+      OutputStream outputStream = socket.getOutputStream();
+      FirstByteInputStream inputStream = new FirstByteInputStream(socket);
+
+      for (int execution = 0; execution < nbExecution && running; execution++) {
+        if (execution > 0 && sleepBetweenExecMs > 0) {
+          Thread.sleep(sleepBetweenExecMs);
+        }
+
+        if (!sendRequest(outputStream, inputStream, formatOutput, report, latencies)) {
+          break;
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (IOException ex) {
+      LOGGER.info("Load test connection error: {}", ex.getMessage());
+    } finally {
+      openSockets.removeIf(socket -> socket.isClosed());
+      report.addLatencies(latencies);
+      formatOutput.close();
+    }
+  }
+
+  private boolean connect(Socket socket, LoadReport report, RequestLatencies latencies) {
+    long start = System.nanoTime();
+
+    try {
+      socket.setSoTimeout(soTimeout);
+      socket.connect(new InetSocketAddress(ip, port), soTimeout);
+      latencies.recordConnect(System.nanoTime() - start);
+      report.connectionOpened();
+      return true;
+    } catch (IOException ex) {
+      if (running) {
+        LOGGER.info("Unable to open a TCP connection on {}:{} [{}]", ip, port, ex.getMessage());
+        report.connectionFailed();
+      }
+      return false;
+    }
+  }
+
+  private boolean sendRequest(OutputStream outputStream, FirstByteInputStream inputStream, StreamFormatOutput formatOutput,
+                              LoadReport report, RequestLatencies latencies) {
+    inputStream.restartTimer();
+    long bytesBefore = inputStream.getBytesRead();
+    long start = System.nanoTime();
+
+    try {
+      outputStream.write(requestMessage);
+      outputStream.flush();
+
+      formatOutput.startReading(inputStream);
+      long end = System.nanoTime();
+
+      // no first byte when the response was already buffered by the previous read
+      long firstByteNanos = inputStream.getFirstByteNanos();
+      if (firstByteNanos >= start) {
+        latencies.recordFirstByte(firstByteNanos - start);
+      }
+      latencies.recordResponse(end - start, expectedIntervalNanos);
+      report.requestCompleted(requestMessage.length, inputStream.getBytesRead() - bytesBefore);
+      return true;
+    } catch (StreamNoDataException | StreamFramingException ex) {
+      LOGGER.info("Invalid response, closing load test connection: {}", ex.getMessage());
+    } catch (IOException ex) {
+      LOGGER.info("Request failed, closing load test connection: {}", ex.getMessage());
+    }
+
+    if (running) {
+      report.requestFailed();
+    }
+    return false;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ioleak.jnetcat.common.stats.RequestLatencies;
+
+public class LoadReport {
+
+  private final LongAdder connections = new LongAdder();
+  private final LongAdder connectErrors = new LongAdder();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder requestErrors = new LongAdder();
+  private final LongAdder bytesSent = new LongAdder();
+  private final LongAdder bytesReceived = new LongAdder();
+
+  private final RequestLatencies latencies = new RequestLatencies();
+
+  private volatile long startNanos;
+  private volatile long endNanos;
+
+  void start() {
+    startNanos = System.nanoTime();
+  }
+
+  void end() {
+    endNanos = System.nanoTime();
+  }
+
+  void connectionOpened() {
+    connections.increment();
+  }
+
+  void connectionFailed() {
+    connectErrors.increment();
+  }
+
+  void requestCompleted(long sent, long received) {
+    requests.increment();
+    bytesSent.add(sent);
+    bytesReceived.add(received);
+  }
+
+  void requestFailed() {
+    requestErrors.increment();
+  }
+
+  void addLatencies(RequestLatencies clientLatencies) {
+    latencies.add(clientLatencies);
+  }
+
+  public long getConnections() {
+    return connections.sum();
+  }
+
+  public long getConnectErrors() {
+    return connectErrors.sum();
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  public long getRequestErrors() {
+    return requestErrors.sum();
+  }
+
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  public long getElapsedNanos() {
+    return (endNanos > 0 ? endNanos : System.nanoTime()) - startNanos;
+  }
+
+  public double getRequestsPerSecond() {
+    long elapsedNanos = getElapsedNanos();
+    return elapsedNanos > 0 ? getRequests() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+  }
+
+  public RequestLatencies getLatencies() {
+    return latencies;
+  }
+
+  public boolean isSuccessful() {
+    return getConnectErrors() == 0 && getRequestErrors() == 0 && getRequests() > 0;
+  }
+
+  @Override
+  public String toString() {
+    double elapsedSeconds = getElapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+
+    return String.format("Load test completed in %.3fs%n"
+                         + "  connections: %d opened, %d failed%n"
+                         + "  requests:    %d completed, %d failed, %.1f req/s%n"
+                         + "  bytes:       %d sent, %d received%n"
+                         + "%s",
+                         elapsedSeconds,
+                         getConnections(), getConnectErrors(),
+                         getRequests(), getRequestErrors(), getRequestsPerSecond(),
+                         getBytesSent(), getBytesReceived(),
+                         latencies);
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ioleak.jnetcat.common.stats.LatencyHistogram;
+
+public class ReplayReport {
+
+  private final String replayFile;
+  private final double speed;
+  private final LongAdder completedSessions = new LongAdder();
+  private final LongAdder failedSessions = new LongAdder();
+  private final LongAdder messagesSent = new LongAdder();
+  private final LongAdder bytesSent = new LongAdder();
+  private final LongAdder responsesMatched = new LongAdder();
+  private final LongAdder responsesMismatched = new LongAdder();
+  private final LongAdder responsesMissing = new LongAdder();
+  private final LatencyHistogram timingDeviation = new LatencyHistogram();
+
+  private volatile int sessions = 0;
+  private volatile long startNanos;
+  private volatile long endNanos;
+
+  ReplayReport(String replayFile, double speed) {
+    this.replayFile = replayFile;
+    this.speed = speed;
+  }
+
+  void start(int sessions) {
+    this.sessions = sessions;
+    startNanos = System.nanoTime();
+  }
+
+  void end() {
+    endNanos = System.nanoTime();
+  }
+
+  void messageSent(int bytes) {
+    messagesSent.increment();
+    bytesSent.add(bytes);
+  }
+
+  void responseMatched() {
+    responsesMatched.increment();
+  }
+
+  void responseMismatched() {
+    responsesMismatched.increment();
+  }
+
+  void responseMissing() {
+    responsesMissing.increment();
+  }
+
+  void sessionCompleted(LatencyHistogram sessionDeviation) {
+    completedSessions.increment();
+    addTimingDeviation(sessionDeviation);
+  }
+
+  void sessionFailed(LatencyHistogram sessionDeviation) {
+    failedSessions.increment();
+    addTimingDeviation(sessionDeviation);
+  }
+
+  public int getSessions() {
+    return sessions;
+  }
+
+  public long getCompletedSessions() {
+    return completedSessions.sum();
+  }
+
+  public long getFailedSessions() {
+    return failedSessions.sum();
+  }
+
+  public long getMessagesSent() {
+    return messagesSent.sum();
+  }
+
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  public long getResponsesMatched() {
+    return responsesMatched.sum();
+  }
+
+  public long getResponsesMismatched() {
+    return responsesMismatched.sum();
+  }
+
+  public long getResponsesMissing() {
+    return responsesMissing.sum();
+  }
+
+  public synchronized LatencyHistogram getTimingDeviation() {
+    LatencyHistogram copy = new LatencyHistogram();
+    copy.add(timingDeviation);
+    return copy;
+  }
+
+  public long getElapsedNanos() {
+    return (endNanos > 0 ? endNanos : System.nanoTime()) - startNanos;
+  }
+
+  public boolean isSuccessful() {
+    return sessions > 0 && getCompletedSessions() == sessions && getResponsesMismatched() == 0 && getResponsesMissing() == 0;
+  }
+
+  private synchronized void addTimingDeviation(LatencyHistogram sessionDeviation) {
+    timingDeviation.add(sessionDeviation);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Replay of %s completed in %.3fs (speed: %s)%n"
+                         + "  sessions:   %d, %d completed, %d error(s)%n"
+                         + "  sent:       %d message(s), %d bytes%n"
+                         + "  responses:  %d matched, %d mismatched, %d missing%n"
+                         + "  deviation:  %s",
+                         replayFile, getElapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1), speed > 0 ? speed + "x" : "max",
+                         sessions, getCompletedSessions(), getFailedSessions(),
+                         getMessagesSent(), getBytesSent(),
+                         getResponsesMatched(), getResponsesMismatched(), getResponsesMissing(),
+                         speed > 0 ? getTimingDeviation() : "-");
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+class TCPReplayConnection
+        extends ReplayConnection {
+
+  private static final Logger LOGGER = Logging.getLogger(TCPReplayConnection.class);
+
+  private final String ip;
+  private final int port;
+  private final int soTimeout;
+  private final Socket socket = new Socket();
+
+  private OutputStream outputStream;
+  private InputStream inputStream;
+  private boolean inputClosed = false;
+
+  TCPReplayConnection(String ip, int port, int soTimeout) {
+    this.ip = ip;
+    this.port = port;
+    this.soTimeout = soTimeout;
+  }
+
+  @Override
+  void open()
+          throws IOException {
+    socket.setSoTimeout(soTimeout);
+    socket.setTcpNoDelay(true);
+    socket.connect(new InetSocketAddress(ip, port), soTimeout);
+
+    outputStream = socket.getOutputStream();
+    inputStream = socket.getInputStream();
+  }
+
+  @Override
+  void send(byte[] data)
+          throws IOException {
+    outputStream.write(data);
+    outputStream.flush();
+  }
+
+  @Override
+  byte[] receive(int expectedLength)
+          throws IOException {
+    if (inputClosed) {
+      return null;
+    }
+
+    // the stream is cut using the recorded lengths: a response is compared with the bytes at the same position
+    byte[] data = new byte[expectedLength];
+    int received = 0;
+
+    try {
+      while (received < expectedLength) {
+        int result = inputStream.read(data, received, expectedLength - received);
+        if (result == -1) {
+          inputClosed = true;
+          break;
+        }
+
+        received += result;
+      }
+    } catch (SocketTimeoutException ex) {
+      LOGGER.debug("Replay response timeout on {}:{} after {} byte(s)", ip, port, received);
+    }
+
+    return received == 0 ? null : Arrays.copyOf(data, received);
+  }
+
+  @Override
+  void close() {
+    try {
+      socket.close();
+    } catch (IOException ex) {
+      LOGGER.info("Unable to close replay connection: {}", ex.getMessage());
+    }
+  }
+}
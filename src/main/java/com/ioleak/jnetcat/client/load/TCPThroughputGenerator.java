@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.options.startup.ClientParametersTCP;
+
+import org.slf4j.Logger;
+
+public class TCPThroughputGenerator {
+
+  private static final Logger LOGGER = Logging.getLogger(TCPThroughputGenerator.class);
+
+  private static final String THREAD_NAME_PREFIX = "TCPThroughputClient-";
+  private static final String REPORTER_THREAD_NAME = "TCPThroughputReporter";
+  private static final int DEFAULT_DRAIN_MS = 5000;
+
+  private final String ip;
+  private final int port;
+  private final int nbStreams;
+  private final long durationNanos;
+  private final long bytesPerStream;
+  private final int drainMs;
+  private final int reportIntervalMs;
+  private final ByteBuffer payload;
+
+  private final LongAdder bytesCounter = new LongAdder();
+  private final List<SocketChannel> openChannels = Collections.synchronizedList(new ArrayList<>());
+  private final List<Thread> streamThreads = new ArrayList<>();
+
+  private volatile boolean running = false;
+
+  public TCPThroughputGenerator(ClientParametersTCP clientParametersTCP) {
+    this.ip = clientParametersTCP.getIp();
+    this.port = clientParametersTCP.getPort();
+    this.nbStreams = Math.max(clientParametersTCP.getThroughputStreams(), 1);
+    this.durationNanos = TimeUnit.MILLISECONDS.toNanos(clientParametersTCP.getDurationMs());
+    this.bytesPerStream = clientParametersTCP.getThroughputBytes() > 0
+                          ? Math.max(clientParametersTCP.getThroughputBytes() / nbStreams, 1)
+                          : Long.MAX_VALUE;
+    this.drainMs = clientParametersTCP.getSoTimeout() > 0 ? clientParametersTCP.getSoTimeout() : DEFAULT_DRAIN_MS;
+    this.reportIntervalMs = clientParametersTCP.getReportIntervalMs();
+
+    // allocated once, every stream writes a view of the same direct memory
+    this.payload = ByteBuffer.allocateDirect(clientParametersTCP.getBufferSize()).asReadOnlyBuffer();
+  }
+
+  public static boolean isEnabled(ClientParametersTCP clientParametersTCP) {
+    return !clientParametersTCP.isInteractive() && clientParametersTCP.getThroughputStreams() > 0;
+  }
+
+  public ThroughputReport run() {
+    ThroughputReport report = new ThroughputReport(nbStreams);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    IntervalReporter intervalReporter = new IntervalReporter(REPORTER_THREAD_NAME, reportIntervalMs, bytesCounter::sum);
+
+    LOGGER.info("TCP throughput test started on {}:{}: {} stream(s), {}", ip, port, nbStreams,
+                bytesPerStream == Long.MAX_VALUE ? String.format("during %dms", TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                                                 : String.format("%d bytes per stream", bytesPerStream));
+
+    running = true;
+    synchronized (streamThreads) {
+      for (int i = 0; i < nbStreams; i++) {
+        Thread streamThread = new Thread(() -> runStream(startSignal, report), THREAD_NAME_PREFIX + i);
+        streamThread.setDaemon(true);
+        streamThreads.add(streamThread);
+        streamThread.start();
+      }
+    }
+
+    report.start();
+    intervalReporter.start();
+    startSignal.countDown();
+
+    try {
+      for (Thread streamThread : List.copyOf(streamThreads)) {
+        streamThread.join();
+      }
+    } catch (InterruptedException ex) {
+      LOGGER.warn("TCP throughput test interrupted");
+      stop();
+      Thread.currentThread().interrupt();
+    } finally {
+      report.end();
+      intervalReporter.stop();
+      report.setIntervalsGbps(intervalReporter.getIntervalsGbps());
+      running = false;
+    }
+
+    LOGGER.info("{}", report);
+    return report;
+  }
+
+  public boolean stop() {
+    boolean stopped = running;
+    running = false;
+
+    synchronized (streamThreads) {
+      streamThreads.forEach(Thread::interrupt);
+    }
+
+    for (SocketChannel channel : List.copyOf(openChannels)) {
+      try {
+        channel.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close throughput test connection: {}", ex.getMessage());
+      }
+    }
+
+    return stopped;
+  }
+
+  private void runStream(CountDownLatch startSignal, ThroughputReport report) {
+    ByteBuffer buffer = payload.duplicate();
+    long sent = 0;
+
+    try (SocketChannel channel = SocketChannel.open()) {
+      openChannels.add(channel);
+      startSignal.await();
+
+      channel.socket().connect(new InetSocketAddress(ip, port), drainMs);
+      long deadline = System.nanoTime() + durationNanos;
+
+      while (running && sent < bytesPerStream && (bytesPerStream != Long.MAX_VALUE || System.nanoTime() < deadline)) {
+        buffer.clear();
+        if (bytesPerStream - sent < buffer.capacity()) {
+          buffer.limit((int) (bytesPerStream - sent));
+        }
+
+        int written = channel.write(buffer);
+        sent += written;
+        bytesCounter.add(written);
+      }
+
+      report.bytesSent(sent);
+
+      // the server closes its side once everything has been read: the bytes are counted as delivered only then
+      channel.shutdownOutput();
+      if (waitForServerClose(channel)) {
+        report.streamCompleted(sent);
+      } else {
+        report.streamFailed();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (IOException ex) {
+      if (running) {
+        LOGGER.info("Throughput test connection error on {}:{} [{}]", ip, port, ex.getMessage());
+        report.streamFailed();
+      }
+    } finally {
+      openChannels.removeIf(channel -> !channel.isOpen());
+    }
+  }
+
+  private boolean waitForServerClose(SocketChannel channel)
+          throws IOException {
+    channel.socket().setSoTimeout(drainMs);
+    InputStream inputStream = channel.socket().getInputStream();
+    byte[] discard = new byte[512];
+
+    try {
+      while (inputStream.read(discard) != -1) {
+        // the sink never answers, data is ignored
+      }
+      return true;
+    } catch (SocketTimeoutException ex) {
+      LOGGER.warn("Server did not close the stream after {}ms", drainMs);
+      return false;
+    }
+  }
+}
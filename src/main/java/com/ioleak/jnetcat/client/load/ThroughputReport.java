@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ThroughputReport {
+
+  private final int streams;
+  private final LongAdder bytesSent = new LongAdder();
+  private final LongAdder bytesDelivered = new LongAdder();
+  private final LongAdder completedStreams = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  private volatile long startNanos;
+  private volatile long endNanos;
+  private volatile List<Double> intervalsGbps = new ArrayList<>();
+
+  ThroughputReport(int streams) {
+    this.streams = streams;
+  }
+
+  void start() {
+    startNanos = System.nanoTime();
+  }
+
+  void end() {
+    endNanos = System.nanoTime();
+  }
+
+  void bytesSent(long bytes) {
+    bytesSent.add(bytes);
+  }
+
+  void streamCompleted(long bytes) {
+    completedStreams.increment();
+    bytesDelivered.add(bytes);
+  }
+
+  void streamFailed() {
+    errors.increment();
+  }
+
+  void setIntervalsGbps(List<Double> intervalsGbps) {
+    this.intervalsGbps = intervalsGbps;
+  }
+
+  public int getStreams() {
+    return streams;
+  }
+
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  public long getBytesDelivered() {
+    return bytesDelivered.sum();
+  }
+
+  public long getCompletedStreams() {
+    return completedStreams.sum();
+  }
+
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  public List<Double> getIntervalsGbps() {
+    return intervalsGbps;
+  }
+
+  public long getElapsedNanos() {
+    return (endNanos > 0 ? endNanos : System.nanoTime()) - startNanos;
+  }
+
+  public double getSentGbps() {
+    return IntervalReporter.toGbps(getBytesSent(), getElapsedNanos());
+  }
+
+  public double getGoodputGbps() {
+    return IntervalReporter.toGbps(getBytesDelivered(), getElapsedNanos());
+  }
+
+  public boolean isSuccessful() {
+    return getErrors() == 0 && getCompletedStreams() == streams;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("TCP throughput test completed in %.3fs%n"
+                         + "  streams:   %d, %d completed, %d error(s)%n"
+                         + "  sent:      %d bytes (%.3f Gbit/s)%n"
+                         + "  goodput:   %d bytes read by the server (%.3f Gbit/s)",
+                         getElapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1),
+                         streams, getCompletedStreams(), getErrors(),
+                         getBytesSent(), getSentGbps(),
+                         getBytesDelivered(), getGoodputGbps());
+  }
+}
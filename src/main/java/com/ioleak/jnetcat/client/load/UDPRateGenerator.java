@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.stats.PacketStreamStats;
+import com.ioleak.jnetcat.options.startup.ClientParametersUDP;
+
+import org.slf4j.Logger;
+
+public class UDPRateGenerator {
+
+  private static final Logger LOGGER = Logging.getLogger(UDPRateGenerator.class);
+
+  public static final int HEADER_SIZE = PacketStreamStats.HEADER_SIZE;
+
+  private static final String RECEIVER_THREAD_NAME = "UDPRateReceiver";
+  private static final String REPORTER_THREAD_NAME = "UDPRateReporter";
+  private static final int END_MARKER_COUNT = 3;
+  private static final int MAX_UDP_PAYLOAD = 65507;
+  private static final int DEFAULT_DRAIN_MS = 1000;
+  private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final String ip;
+  private final int port;
+  private final int payloadSize;
+  private final double nanosPerPacket;
+  private final long durationNanos;
+  private final long drainNanos;
+  private final int reportIntervalMs;
+
+  private volatile boolean running = false;
+  private volatile DatagramChannel channel;
+
+  public UDPRateGenerator(ClientParametersUDP clientParametersUDP) {
+    this.ip = clientParametersUDP.getIp();
+    this.port = clientParametersUDP.getPort();
+    this.payloadSize = Math.min(Math.max(clientParametersUDP.getPayloadSize(), HEADER_SIZE), MAX_UDP_PAYLOAD);
+    this.durationNanos = TimeUnit.MILLISECONDS.toNanos(clientParametersUDP.getDurationMs());
+    this.drainNanos = TimeUnit.MILLISECONDS.toNanos(clientParametersUDP.getSoTimeout() > 0 ? clientParametersUDP.getSoTimeout() : DEFAULT_DRAIN_MS);
+    this.reportIntervalMs = clientParametersUDP.getReportIntervalMs();
+
+    double ratePps = clientParametersUDP.getRatePps() > 0
+                     ? clientParametersUDP.getRatePps()
+                     : clientParametersUDP.getRateMbps() * 1_000_000 / (payloadSize * Byte.SIZE);
+    this.nanosPerPacket = TimeUnit.SECONDS.toNanos(1) / Math.max(ratePps, 1);
+  }
+
+  public static boolean isEnabled(ClientParametersUDP clientParametersUDP) {
+    return !clientParametersUDP.isInteractive() && (clientParametersUDP.getRatePps() > 0 || clientParametersUDP.getRateMbps() > 0);
+  }
+
+  public UDPRateReport run() {
+    UDPRateReport report = new UDPRateReport(payloadSize);
+    IntervalReporter intervalReporter = new IntervalReporter(REPORTER_THREAD_NAME, reportIntervalMs, () -> report.getSent() * payloadSize);
+
+    LOGGER.info("UDP rate test started on {}:{}: {} pps, {} bytes per packet, during {}ms", ip, port,
+                String.format("%.0f", TimeUnit.SECONDS.toNanos(1) / nanosPerPacket), payloadSize,
+                TimeUnit.NANOSECONDS.toMillis(durationNanos));
+
+    try (DatagramChannel datagramChannel = DatagramChannel.open()) {
+      channel = datagramChannel;
+      datagramChannel.connect(new InetSocketAddress(ip, port));
+      running = true;
+
+      Thread receiverThread = new Thread(() -> receive(datagramChannel, report), RECEIVER_THREAD_NAME);
+      receiverThread.setDaemon(true);
+      receiverThread.start();
+
+      intervalReporter.start();
+      send(datagramChannel, report);
+      intervalReporter.stop();
+      sendEndMarkers(datagramChannel);
+      waitForReplies(report);
+
+      running = false;
+      datagramChannel.close();
+      receiverThread.join();
+    } catch (IOException ex) {
+      LOGGER.error("UDP rate test failed on {}:{} [{}]", ip, port, ex.getMessage());
+    } catch (InterruptedException ex) {
+      LOGGER.warn("UDP rate test interrupted");
+      Thread.currentThread().interrupt();
+    } finally {
+      running = false;
+      intervalReporter.stop();
+      report.end();
+    }
+
+    LOGGER.info("{}", report);
+    return report;
+  }
+
+  public boolean stop() {
+    boolean stopped = running;
+    running = false;
+
+    DatagramChannel datagramChannel = channel;
+    if (datagramChannel != null) {
+      try {
+        datagramChannel.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close UDP rate test channel: {}", ex.getMessage());
+      }
+    }
+
+    return stopped;
+  }
+
+  private void send(DatagramChannel datagramChannel, UDPRateReport report) {
+    ByteBuffer packet = ByteBuffer.allocateDirect(payloadSize);
+    long startNanos = System.nanoTime();
+    long sequence = 0;
+
+    report.start(startNanos);
+
+    // every packet has a fixed send time computed from the start: a late packet is sent at once, the rate never drifts
+    while (running && !Thread.currentThread().isInterrupted()) {
+      long scheduledNanos = startNanos + (long) (sequence * nanosPerPacket);
+      if (scheduledNanos - startNanos >= durationNanos) {
+        break;
+      }
+
+      long waitNanos = scheduledNanos - System.nanoTime();
+      if (waitNanos > SPIN_THRESHOLD_NANOS) {
+        LockSupport.parkNanos(waitNanos - SPIN_THRESHOLD_NANOS);
+        continue;
+      }
+
+      while (System.nanoTime() < scheduledNanos) {
+        Thread.onSpinWait();
+      }
+
+      long sendNanos = System.nanoTime();
+      packet.clear();
+      packet.putLong(0, sequence);
+      packet.putLong(Long.BYTES, sendNanos);
+
+      try {
+        datagramChannel.write(packet);
+        report.packetSent(sendNanos - scheduledNanos);
+      } catch (PortUnreachableException ex) {
+        report.sendFailed();
+      } catch (IOException ex) {
+        if (running) {
+          LOGGER.error("Unable to send UDP packet: {}", ex.getMessage());
+        }
+        break;
+      }
+
+      sequence++;
+    }
+  }
+
+  private void receive(DatagramChannel datagramChannel, UDPRateReport report) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_UDP_PAYLOAD);
+
+    while (running) {
+      try {
+        buffer.clear();
+        datagramChannel.read(buffer);
+
+        buffer.flip();
+        PacketStreamStats sinkStats = PacketStreamStats.readReport(buffer);
+
+        if (sinkStats != null) {
+          report.sinkReportReceived(sinkStats);
+        } else if (buffer.remaining() >= HEADER_SIZE) {
+          report.packetReceived(buffer.getLong(0), System.nanoTime() - buffer.getLong(Long.BYTES));
+        }
+      } catch (PortUnreachableException ex) {
+        // nobody listens yet on the other side, the packets are counted as lost
+      } catch (AsynchronousCloseException ex) {
+        break;
+      } catch (IOException ex) {
+        if (running) {
+          LOGGER.error("Unable to receive UDP packet: {}", ex.getMessage());
+        }
+        break;
+      }
+    }
+  }
+
+  private void sendEndMarkers(DatagramChannel datagramChannel) {
+    ByteBuffer marker = ByteBuffer.allocate(HEADER_SIZE);
+
+    // a SINK server answers with its own statistics, the marker is repeated in case it is lost
+    for (int i = 0; i < END_MARKER_COUNT && running; i++) {
+      marker.clear();
+      marker.putLong(0, PacketStreamStats.END_SEQUENCE);
+      marker.putLong(Long.BYTES, System.nanoTime());
+
+      try {
+        datagramChannel.write(marker);
+      } catch (IOException ex) {
+        return;
+      }
+    }
+  }
+
+  private void waitForReplies(UDPRateReport report)
+          throws InterruptedException {
+    long deadline = System.nanoTime() + drainNanos;
+
+    // an empty sink report can be the answer to a repeated end marker: the one with the statistics may follow
+    while (running && report.getReceived() < report.getSent()
+           && (report.getSinkStats() == null || report.getSinkStats().getReceived() == 0) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
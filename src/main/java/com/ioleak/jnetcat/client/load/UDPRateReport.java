@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ioleak.jnetcat.common.stats.LatencyHistogram;
+import com.ioleak.jnetcat.common.stats.PacketStreamStats;
+
+public class UDPRateReport {
+
+  private final int payloadSize;
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong sendErrors = new AtomicLong();
+
+  // only updated by the receiver thread, read once the test is over
+  private final BitSet receivedSequences = new BitSet();
+  private final LatencyHistogram roundTrip = new LatencyHistogram();
+  private volatile long received = 0;
+  private long duplicated = 0;
+  private long reordered = 0;
+  private long highestSequence = -1;
+
+  private volatile long startNanos;
+  private volatile long endNanos;
+  private volatile long maxSendLagNanos = 0;
+  private volatile PacketStreamStats sinkStats;
+
+  UDPRateReport(int payloadSize) {
+    this.payloadSize = payloadSize;
+  }
+
+  void start(long startNanos) {
+    this.startNanos = startNanos;
+  }
+
+  void end() {
+    endNanos = System.nanoTime();
+  }
+
+  void packetSent(long sendLagNanos) {
+    sent.incrementAndGet();
+
+    if (sendLagNanos > maxSendLagNanos) {
+      maxSendLagNanos = sendLagNanos;
+    }
+  }
+
+  void sendFailed() {
+    sendErrors.incrementAndGet();
+  }
+
+  void packetReceived(long sequence, long roundTripNanos) {
+    if (sequence < 0 || sequence > Integer.MAX_VALUE) {
+      return;
+    }
+
+    if (receivedSequences.get((int) sequence)) {
+      duplicated++;
+      return;
+    }
+
+    receivedSequences.set((int) sequence);
+    received++;
+    roundTrip.recordValue(roundTripNanos);
+
+    if (sequence < highestSequence) {
+      reordered++;
+    } else {
+      highestSequence = sequence;
+    }
+  }
+
+  void sinkReportReceived(PacketStreamStats stats) {
+    // the end marker is sent more than once, only one answer has the statistics of the stream (not always the first
+    // one with several receivers on the server socket), the others are empty
+    if (sinkStats == null || stats.getReceived() > sinkStats.getReceived()) {
+      sinkStats = stats;
+    }
+  }
+
+  public long getSent() {
+    return sent.get();
+  }
+
+  public long getSendErrors() {
+    return sendErrors.get();
+  }
+
+  public long getReceived() {
+    return received;
+  }
+
+  public long getLost() {
+    return Math.max(0, getSent() - received);
+  }
+
+  public long getDuplicated() {
+    return duplicated;
+  }
+
+  public long getReordered() {
+    return reordered;
+  }
+
+  public LatencyHistogram getRoundTrip() {
+    return roundTrip;
+  }
+
+  public PacketStreamStats getSinkStats() {
+    return sinkStats;
+  }
+
+  public long getMaxSendLagNanos() {
+    return maxSendLagNanos;
+  }
+
+  public double getPacketsPerSecond() {
+    long elapsedNanos = getElapsedNanos();
+    return elapsedNanos > 0 ? getSent() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+  }
+
+  public double getMegabitsPerSecond() {
+    return getPacketsPerSecond() * payloadSize * Byte.SIZE / 1_000_000;
+  }
+
+  long getElapsedNanos() {
+    return (endNanos > 0 ? endNanos : System.nanoTime()) - startNanos;
+  }
+
+  @Override
+  public String toString() {
+    long nbSent = getSent();
+
+    return String.format("UDP rate test completed in %.3fs%n"
+                         + "  sent:        %d packets of %d bytes (%.0f pps, %.2f Mbit/s), %d send error(s), max lag %.3fms%n"
+                         + "  received:    %d, lost %d (%.3f%%), reordered %d, duplicated %d%n"
+                         + "  round trip:  %s%s",
+                         getElapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1),
+                         nbSent, payloadSize, getPacketsPerSecond(), getMegabitsPerSecond(), getSendErrors(), maxSendLagNanos / 1e6,
+                         received, getLost(), nbSent == 0 ? 0 : getLost() * 100.0 / nbSent, reordered, duplicated,
+                         roundTrip, sinkStats == null ? "" : String.format("%n  sink:        %s", sinkStats));
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+class UDPReplayConnection
+        extends ReplayConnection {
+
+  private static final int MAX_DATAGRAM_SIZE = 65535;
+
+  private final String ip;
+  private final int port;
+  private final int soTimeout;
+  private final byte[] receiveBuffer = new byte[MAX_DATAGRAM_SIZE];
+
+  private DatagramSocket socket;
+
+  UDPReplayConnection(String ip, int port, int soTimeout) {
+    this.ip = ip;
+    this.port = port;
+    this.soTimeout = soTimeout;
+  }
+
+  @Override
+  void open()
+          throws IOException {
+    socket = new DatagramSocket();
+    socket.setSoTimeout(soTimeout);
+    socket.connect(new InetSocketAddress(ip, port));
+  }
+
+  @Override
+  void send(byte[] data)
+          throws IOException {
+    socket.send(new DatagramPacket(data, data.length));
+  }
+
+  @Override
+  byte[] receive(int expectedLength)
+          throws IOException {
+    DatagramPacket response = new DatagramPacket(receiveBuffer, receiveBuffer.length);
+
+    try {
+      socket.receive(response);
+    } catch (SocketTimeoutException ex) {
+      return null;
+    }
+
+    return Arrays.copyOf(receiveBuffer, response.getLength());
+  }
+
+  @Override
+  void close() {
+    if (socket != null) {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+public class ByteArrayBuffer {
+
+  private static final int DEFAULT_CAPACITY = 2048;
+
+  private byte[] data;
+  private int size = 0;
+
+  public ByteArrayBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public ByteArrayBuffer(int initialCapacity) {
+    data = new byte[initialCapacity > 0 ? initialCapacity : DEFAULT_CAPACITY];
+  }
+
+  public void append(byte value) {
+    ensureCapacity(size + 1);
+    data[size++] = value;
+  }
+
+  public void append(byte[] values, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > values.length) {
+      throw new IndexOutOfBoundsException(String.format("Invalid range: offset %d, length %d (array length %d)", offset, length, values.length));
+    }
+
+    ensureCapacity(size + length);
+    System.arraycopy(values, offset, data, size, length);
+    size += length;
+  }
+
+  public void removeFirst(int length) {
+    if (length < 0 || length > size) {
+      throw new IndexOutOfBoundsException(String.format("Unable to remove %d byte(s) (size %d)", length, size));
+    }
+
+    System.arraycopy(data, length, data, 0, size - length);
+    size -= length;
+  }
+
+  public byte get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(String.format("Index %d out of bounds (size %d)", index, size));
+    }
+
+    return data[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public byte[] array() {
+    return data;
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(data, size);
+  }
+
+  public String toString(Charset charset) {
+    return new String(data, 0, size, charset);
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > data.length) {
+      data = Arrays.copyOf(data, Math.max(minCapacity, data.length * 2));
+    }
+  }
+}
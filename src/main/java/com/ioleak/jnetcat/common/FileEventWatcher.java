@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+public class FileEventWatcher
+        implements Runnable {
+
+  public static final long DEFAULT_DEBOUNCE_MS = 200;
+
+  private static final Logger LOGGER = Logging.getLogger(FileEventWatcher.class);
+
+  private final File watchFile;
+  private final Path watchFileName;
+  private final Path watchDirectory;
+  private final Consumer<File> executeOnChange;
+  private final long debounceMs;
+
+  private WatchService watchService;
+  private Thread watchThread;
+
+  public FileEventWatcher(File file, Consumer<File> method) {
+    this(file, method, DEFAULT_DEBOUNCE_MS);
+  }
+
+  public FileEventWatcher(File file, Consumer<File> method, long debounceMs) {
+    this.watchFile = file.getAbsoluteFile();
+    this.watchFileName = watchFile.toPath().getFileName();
+    this.watchDirectory = watchFile.toPath().getParent();
+    this.executeOnChange = method;
+    this.debounceMs = debounceMs;
+  }
+
+  // false when the directory cannot be watched (no native file events): the caller falls back to the polling FileWatcher
+  public boolean start() {
+    try {
+      watchService = watchDirectory.getFileSystem().newWatchService();
+      watchDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                              StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    } catch (IOException | UnsupportedOperationException ex) {
+      LOGGER.warn("Cannot watch directory ({}) for file events: {}", watchDirectory, ex.getMessage());
+      close();
+      return false;
+    }
+
+    LOGGER.info("Watching file ({}) for modification events", watchFile);
+    watchThread = new Thread(this, "FileEventWatcher");
+    watchThread.setDaemon(true);
+    watchThread.start();
+
+    return true;
+  }
+
+  public void close() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close the watch service: {}", ex.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    // same as FileWatcher: the first run executes the method when the file exists
+    if (watchFile.exists()) {
+      executeOnChange.accept(watchFile);
+    }
+
+    try {
+      while (waitForChange()) {
+        waitForQuietPeriod();
+
+        if (watchFile.exists()) {
+          executeOnChange.accept(watchFile);
+        }
+      }
+    } catch (ClosedWatchServiceException ex) {
+      LOGGER.debug("Watch service closed for file: {}", watchFile);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean waitForChange()
+          throws InterruptedException {
+    boolean fileChanged = false;
+
+    while (!fileChanged) {
+      WatchKey key = watchService.take();
+      fileChanged = containsWatchedFile(key);
+
+      if (!key.reset()) {
+        LOGGER.warn("Directory ({}) is no longer accessible, stop watching file: {}", watchDirectory, watchFile);
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // an editor save is often a burst of events (truncate, write, rename): wait until no event is received during debounceMs
+  private void waitForQuietPeriod()
+          throws InterruptedException {
+    WatchKey key;
+
+    while ((key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+      key.pollEvents();
+      key.reset();
+    }
+  }
+
+  private boolean containsWatchedFile(WatchKey key) {
+    boolean watchedFile = false;
+
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW || watchFileName.equals(event.context())) {
+        watchedFile = true;
+      }
+    }
+
+    return watchedFile;
+  }
+}
@@ -32,9 +32,13 @@ import java.util.TimeZone;
 import java.util.TimerTask;
 import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+
 public class FileWatcher
         extends TimerTask {
 
+  private static final Logger LOGGER = Logging.getLogger(FileWatcher.class);
+
   private final File watchFile;
   private final Consumer<File> executeOnChange;
   private long timestampLastModified = -1;
@@ -44,15 +48,15 @@ public class FileWatcher
     this.executeOnChange = method;
 
     if (!watchFile.exists()) {
-      Logging.getLogger().warn(String.format("Cannot watch for file (%s) modification: file doesn't exists", watchFile.getAbsolutePath()));
+      LOGGER.warn("Cannot watch for file ({}) modification: file doesn't exists", watchFile.getAbsolutePath());
     } else {
-      Logging.getLogger().info(String.format("Watching file (%s) for modification (%s)", file.getAbsolutePath(), getLastModifiedTime()));
+      LOGGER.info("Watching file ({}) for modification ({})", file.getAbsolutePath(), getLastModifiedTime());
     }
   }
 
   @Override
   public final void run() {
-    Logging.getLogger().trace(String.format("FileWatcher - File: %s LastModified: %s", watchFile, getLastModifiedTime()));
+    LOGGER.trace("FileWatcher - File: {} LastModified: {}", watchFile, getLastModifiedTime());
 
     if (watchFile.exists()) {
       long timestampCurrent = watchFile.lastModified();
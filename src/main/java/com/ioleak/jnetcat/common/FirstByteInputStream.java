@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+import com.ioleak.jnetcat.common.interfaces.ReadTimeout;
+
+public class FirstByteInputStream
+        extends FilterInputStream
+        implements ReadTimeout {
+
+  private final Socket socket;
+
+  private volatile long firstByteNanos = 0;
+  // only updated by the reading thread
+  private volatile long bytesRead = 0;
+
+  public FirstByteInputStream(Socket socket)
+          throws IOException {
+    super(socket.getInputStream());
+    this.socket = socket;
+  }
+
+  public void restartTimer() {
+    firstByteNanos = 0;
+  }
+
+  public long getFirstByteNanos() {
+    return firstByteNanos;
+  }
+
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  @Override
+  public int read()
+          throws IOException {
+    int result = super.read();
+    if (result != -1) {
+      markFirstByte();
+      bytesRead++;
+    }
+
+    return result;
+  }
+
+  @Override
+  public int read(byte[] data, int offset, int length)
+          throws IOException {
+    int result = super.read(data, offset, length);
+    if (result > 0) {
+      markFirstByte();
+      bytesRead += result;
+    }
+
+    return result;
+  }
+
+  @Override
+  public int getReadTimeout()
+          throws IOException {
+    return socket.getSoTimeout();
+  }
+
+  @Override
+  public void setReadTimeout(int timeoutMs)
+          throws IOException {
+    socket.setSoTimeout(timeoutMs);
+  }
+
+  private void markFirstByte() {
+    if (firstByteNanos == 0) {
+      firstByteNanos = System.nanoTime();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+import com.ioleak.jnetcat.common.utils.JsonUtils;
+
+import org.slf4j.Logger;
+
+public class JsonChangeFilter<T extends BaseObject>
+        implements Consumer<File> {
+
+  private static final Logger LOGGER = Logging.getLogger(JsonChangeFilter.class);
+
+  private final Class<T> clazz;
+  private final Consumer<File> executeOnChange;
+
+  private String lastJson = null;
+
+  public JsonChangeFilter(Class<T> clazz, Consumer<File> method) {
+    this.clazz = clazz;
+    this.executeOnChange = method;
+  }
+
+  // the method is executed only when the parsed object differs: a touch or a reformat is ignored
+  @Override
+  public synchronized void accept(File jsonFile) {
+    T object = JsonUtils.jsonToObject(JsonUtils.loadJsonFileToString(jsonFile), clazz);
+
+    if (object == null) {
+      LOGGER.warn("File ({}) ignored, the content is not valid", jsonFile.getAbsolutePath());
+      return;
+    }
+
+    String json = object.toJson();
+    if (json.equals(lastJson)) {
+      LOGGER.info("File ({}) modified without any parameter change", jsonFile.getAbsolutePath());
+      return;
+    }
+
+    lastJson = json;
+    executeOnChange.accept(jsonFile);
+  }
+}
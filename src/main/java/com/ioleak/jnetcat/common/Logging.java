@@ -30,15 +30,22 @@ import org.slf4j.LoggerFactory;
 
 public class Logging {
 
-  public static Logger getLogger() {
-    String className = Logging.class.getClass().getName();
+  private static final StackWalker CALLER_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
 
-    StackTraceElement[] trace = new Exception().getStackTrace();
-    if (trace != null && trace.length > 1) {
-      className = trace[1].getClassName();
+  // one logger per class, resolved once: getLogger() is called on every log line of the hot paths
+  private static final ClassValue<Logger> LOGGERS = new ClassValue<>() {
+    @Override
+    protected Logger computeValue(Class<?> type) {
+      return LoggerFactory.getLogger(type);
     }
+  };
+
+  public static Logger getLogger() {
+    return LOGGERS.get(CALLER_WALKER.getCallerClass());
+  }
 
-    return LoggerFactory.getLogger(className);
+  public static Logger getLogger(Class<?> type) {
+    return LOGGERS.get(type);
   }
 
   public static String getStringStackTrace() {
@@ -25,69 +25,205 @@
  */
 package com.ioleak.jnetcat.common;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import com.ioleak.jnetcat.common.utils.StringUtils;
 
+import org.slf4j.Logger;
+
 public class ProcessExecutor {
 
+  private static final Logger LOGGER = Logging.getLogger(ProcessExecutor.class);
+
+  public static final long DEFAULT_TIMEOUT_MS = 10000;
+  public static final int DEFAULT_MAX_OUTPUT_SIZE = 65536;
+
+  private static final long DRAIN_TIMEOUT_MS = 1000;
+  private static final int DRAIN_BUFFER_SIZE = 4096;
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, String.format("ProcessExecutor-%d", THREAD_COUNTER.incrementAndGet()));
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public enum StreamType {
+    STDOUT,
+    STDERR
+  }
+
+  private final long timeoutMs;
+  private final int maxOutputSize;
+
+  public ProcessExecutor() {
+    this(DEFAULT_TIMEOUT_MS, DEFAULT_MAX_OUTPUT_SIZE);
+  }
+
+  // maxOutputSize: characters kept (and streamed) for each stream, the rest is read and discarded
+  public ProcessExecutor(long timeoutMs, int maxOutputSize) {
+    this.timeoutMs = timeoutMs;
+    this.maxOutputSize = maxOutputSize;
+  }
+
   public ProcessResult execute(String command) {
+    return execute(command, null);
+  }
+
+  public CompletableFuture<ProcessResult> executeAsync(String command, BiConsumer<StreamType, String> outputListener) {
+    return CompletableFuture.supplyAsync(() -> execute(command, outputListener), EXECUTOR);
+  }
+
+  // outputListener receives each line as it arrives (from the stdout and stderr threads), a line not ended yet is
+  // given in parts: what was received when the process stops writing, or each full read buffer
+  public ProcessResult execute(String command, BiConsumer<StreamType, String> outputListener) {
     List<String> commands = StringUtils.splitStringSpaceExceptIfQuote(command);
     ProcessResult processResult = new ProcessResult();
+    Process proc = null;
 
     try {
-      Logging.getLogger().info(String.format("Executing command: %s", String.join(" ", commands)));
+      LOGGER.info("Executing command: {}", String.join(" ", commands));
       ProcessBuilder build = new ProcessBuilder(commands);
-      Process proc = build.start();
+      proc = build.start();
+      proc.getOutputStream().close();
 
-      BufferedReader stdInput = new BufferedReader(new InputStreamReader(proc.getInputStream()));
-      BufferedReader stdError = new BufferedReader(new InputStreamReader(proc.getErrorStream()));
+      // both streams are drained at the same time: a process filling its stderr pipe can't block on it
+      InputStream stdInput = proc.getInputStream();
+      InputStream stdError = proc.getErrorStream();
+      Future<?> stdOutDrain = EXECUTOR.submit(() -> drain(stdInput, StreamType.STDOUT, processResult, outputListener));
+      Future<?> stdErrDrain = EXECUTOR.submit(() -> drain(stdError, StreamType.STDERR, processResult, outputListener));
 
-      String outputLine = null;
-      while ((outputLine = stdInput.readLine()) != null) {
-        processResult.appendStdIn(String.format("%s%s", outputLine.trim(), System.lineSeparator()));
+      if (proc.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+        processResult.setExitValue(proc.exitValue());
+        LOGGER.info("Command executed result: {}", proc.exitValue());
+      } else {
+        processResult.setTimedOut(true);
+        destroyProcessTree(proc);
+        LOGGER.warn("Command killed after {} ms: {}", timeoutMs, command);
       }
 
-      while ((outputLine = stdError.readLine()) != null) {
-        processResult.appendStdErr(String.format("%s%s", outputLine.trim(), System.lineSeparator()));
-      }
-
-      processResult.setExitValue(proc.waitFor());
-      Logging.getLogger().info(String.format("Command executed result: %d", proc.exitValue()));
-      
+      waitDrain(stdOutDrain);
+      waitDrain(stdErrDrain);
     } catch (IOException ex) {
-      Logging.getLogger().error("Unable to executable command", ex);
+      LOGGER.error("Unable to executable command", ex);
     } catch (InterruptedException ex) {
-      Logging.getLogger().error("Process was interrupted", ex);
+      LOGGER.error("Process was interrupted", ex);
+      if (proc != null) {
+        destroyProcessTree(proc);
+      }
+
+      Thread.currentThread().interrupt();
     }
 
     return processResult;
   }
 
+  private void drain(InputStream inputStream, StreamType streamType, ProcessResult processResult,
+                     BiConsumer<StreamType, String> outputListener) {
+    // a line is never held whole in memory: only the read buffer, the output is bounded by maxOutputSize
+    char[] buffer = new char[DRAIN_BUFFER_SIZE];
+    int pending = 0;
+    int read;
+
+    try (Reader reader = new InputStreamReader(inputStream)) {
+      while ((read = reader.read(buffer, pending, buffer.length - pending)) != -1) {
+        int end = pending + read;
+        int start = 0;
+
+        for (int i = pending; i < end; i++) {
+          if (buffer[i] == '\n') {
+            output(streamType, buffer, start, i + 1 - start, processResult, outputListener);
+            start = i + 1;
+          }
+        }
+
+        if (start < end && (end == buffer.length || !reader.ready())) {
+          output(streamType, buffer, start, end - start, processResult, outputListener);
+          start = end;
+        }
+
+        pending = end - start;
+        System.arraycopy(buffer, start, buffer, 0, pending);
+      }
+    } catch (IOException ex) {
+      LOGGER.info("Unable to read {}: {}", streamType, ex.getMessage());
+    }
+  }
+
+  private void output(StreamType streamType, char[] data, int offset, int length, ProcessResult processResult,
+                      BiConsumer<StreamType, String> outputListener) {
+    int kept = processResult.append(streamType, data, offset, length, maxOutputSize);
+
+    if (kept > 0 && outputListener != null) {
+      outputListener.accept(streamType, new String(data, offset, kept));
+    }
+  }
+
+  private static void waitDrain(Future<?> drain)
+          throws InterruptedException {
+    try {
+      drain.get(DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException ex) {
+      LOGGER.error("Unable to read the command output", ex.getCause());
+    } catch (TimeoutException ex) {
+      // the pipe is still opened by a process that was not killed
+      drain.cancel(true);
+    }
+  }
+
+  private static void destroyProcessTree(Process proc) {
+    // the descendants are listed before killing their parent, they would be detached after
+    List<ProcessHandle> descendants = proc.descendants().collect(Collectors.toList());
+
+    proc.destroyForcibly();
+    descendants.forEach(ProcessHandle::destroyForcibly);
+  }
+
   public class ProcessResult {
 
     private final StringBuilder stdErr = new StringBuilder();
     private final StringBuilder stdIn = new StringBuilder();
 
-    private int exitValue = -1;
+    private volatile int exitValue = -1;
+    private volatile boolean timedOut = false;
+    private volatile boolean truncated = false;
 
     public void appendStdErr(String data) {
-      stdErr.append(data);
+      synchronized (stdErr) {
+        stdErr.append(data);
+      }
     }
 
     public String getStdErr() {
-      return stdErr.toString();
+      synchronized (stdErr) {
+        return stdErr.toString();
+      }
     }
 
     public void appendStdIn(String data) {
-      stdIn.append(data);
+      synchronized (stdIn) {
+        stdIn.append(data);
+      }
     }
 
     public String getStdIn() {
-      return stdIn.toString();
+      synchronized (stdIn) {
+        return stdIn.toString();
+      }
     }
 
     public void setExitValue(int exitValue) {
@@ -98,10 +234,48 @@ public class ProcessExecutor {
       return exitValue;
     }
 
+    public void setTimedOut(boolean timedOut) {
+      this.timedOut = timedOut;
+    }
+
+    public boolean isTimedOut() {
+      return timedOut;
+    }
+
+    public boolean isTruncated() {
+      return truncated;
+    }
+
+    // returns the number of characters kept: none once the limit is reached
+    private int append(StreamType streamType, char[] data, int offset, int length, int maxSize) {
+      StringBuilder output = streamType == StreamType.STDOUT ? stdIn : stdErr;
+
+      synchronized (output) {
+        int kept = Math.min(length, Math.max(0, maxSize - output.length()));
+        output.append(data, offset, kept);
+
+        if (kept < length) {
+          truncated = true;
+        }
+
+        return kept;
+      }
+    }
+
     @Override
     public String toString() {
-      return String.format("Return: %d\nstdIn: %s\nstdErr: %s",
-                           getExitValue(), getStdIn(), getStdErr());
+      String result = String.format("Return: %d\nstdIn: %s\nstdErr: %s",
+                                    getExitValue(), getStdIn(), getStdErr());
+
+      if (timedOut) {
+        result += "\n(killed: timeout)";
+      }
+
+      if (truncated) {
+        result += "\n(output truncated)";
+      }
+
+      return result;
     }
   }
 }
@@ -27,6 +27,7 @@ package com.ioleak.jnetcat.common.interfaces;
 
 import com.ioleak.jnetcat.common.properties.Observable;
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.options.JNetcatParameters;
 
 public interface ProcessAction {
 
@@ -41,4 +42,9 @@ public interface ProcessAction {
   public void setKeyListener(Observable keyListener);
 
   public void setFormatOutput(StreamFormatOutput streamFormatOutput);
+
+  // applies the parameters to the next sessions without closing the current ones, false when a restart is required
+  public default boolean reconfigure(JNetcatParameters params, StreamFormatOutput streamFormatOutput) {
+    return false;
+  }
 }
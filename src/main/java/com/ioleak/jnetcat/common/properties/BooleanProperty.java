@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.properties;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class BooleanProperty
+        extends PrimitiveProperty {
+
+  public final static String PROPERTYNAME = "boolean";
+
+  private final AtomicBoolean value;
+
+  public BooleanProperty() {
+    this(false);
+  }
+
+  public BooleanProperty(boolean value) {
+    super(PROPERTYNAME);
+    this.value = new AtomicBoolean(value);
+  }
+
+  public boolean get() {
+    return value.get();
+  }
+
+  // an event is fired only when the value changes, the plain read avoids the atomic write when it does not
+  public void set(boolean value) {
+    if (this.value.get() != value && this.value.getAndSet(value) != value && hasListeners()) {
+      fireChange(!value, value);
+    }
+  }
+
+  @Override
+  protected Object getValueObject() {
+    return value.get();
+  }
+
+  @Override
+  protected boolean isNotified(Object oldValue, Object newValue) {
+    return !oldValue.equals(newValue);
+  }
+}
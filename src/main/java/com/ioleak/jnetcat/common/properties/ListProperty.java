@@ -25,9 +25,7 @@
  */
 package com.ioleak.jnetcat.common.properties;
 
-import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -39,7 +37,7 @@ public class ListProperty<T>
 
   public final static String PROPERTYNAME = "list";
 
-  private final PropertyChangeSupport listenerManager = new PropertyChangeSupport(this);
+  private final PropertyListeners listeners = new PropertyListeners();
   private final List<T> observedList;
 
   public ListProperty() {
@@ -82,21 +80,17 @@ public class ListProperty<T>
 
   @Override
   public boolean add(T object) {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, null, object);
-
     boolean added = observedList.add(object);
-    listenerManager.firePropertyChange(event);
+    listeners.firePropertyChange(this, PROPERTYNAME, null, object);
 
     return added;
   }
 
   @Override
   public boolean remove(Object object) {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, object, null);
-
     boolean removed = observedList.remove(object);
     if (removed) {
-      listenerManager.firePropertyChange(event);
+      listeners.firePropertyChange(this, PROPERTYNAME, object, null);
     }
 
     return removed;
@@ -109,31 +103,25 @@ public class ListProperty<T>
 
   @Override
   public boolean addAll(Collection<? extends T> collection) {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, collection, observedList);
-
     boolean modified = observedList.addAll(collection);
-    listenerManager.firePropertyChange(event);
+    listeners.firePropertyChange(this, PROPERTYNAME, collection, observedList);
 
     return modified;
   }
 
   @Override
   public boolean addAll(int pos, Collection<? extends T> collection) {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, collection, observedList);
-
     boolean modified = observedList.addAll(pos, collection);
-    listenerManager.firePropertyChange(event);
+    listeners.firePropertyChange(this, PROPERTYNAME, collection, observedList);
 
     return modified;
   }
 
   @Override
   public boolean removeAll(Collection<?> collection) {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, collection, observedList);
-
     boolean removed = observedList.removeAll(collection);
     if (removed) {
-      listenerManager.firePropertyChange(event);
+      listeners.firePropertyChange(this, PROPERTYNAME, collection, observedList);
     }
 
     return removed;
@@ -146,13 +134,11 @@ public class ListProperty<T>
 
   @Override
   public void clear() {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, observedList, null);
-
     if (!observedList.isEmpty()) {
       observedList.clear();
 
       if (observedList.isEmpty()) {
-        listenerManager.firePropertyChange(event);
+        listeners.firePropertyChange(this, PROPERTYNAME, observedList, null);
       }
     }
   }
@@ -169,10 +155,8 @@ public class ListProperty<T>
     if ((observedList.get(pos) == null && object != null)
         || !(observedList.get(pos) != null && observedList.get(pos).equals(object))) {
 
-      PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, observedList.get(pos), object);
-
       objectSet = observedList.set(pos, object);
-      listenerManager.firePropertyChange(event);
+      listeners.firePropertyChange(this, PROPERTYNAME, objectSet, object);
     }
 
     return objectSet;
@@ -180,16 +164,14 @@ public class ListProperty<T>
 
   @Override
   public void add(int pos, T object) {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, observedList, object);
     observedList.add(pos, object);
-    listenerManager.firePropertyChange(event);
+    listeners.firePropertyChange(this, PROPERTYNAME, observedList, object);
   }
 
   @Override
   public T remove(int pos) {
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, observedList, observedList.get(pos));
     T objectRemoved = observedList.remove(pos);
-    listenerManager.firePropertyChange(event);
+    listeners.firePropertyChange(this, PROPERTYNAME, observedList, objectRemoved);
 
     return objectRemoved;
   }
@@ -221,11 +203,11 @@ public class ListProperty<T>
 
   @Override
   public void addListener(PropertyChangeListener listener) {
-    listenerManager.addPropertyChangeListener(listener);
+    listeners.add(listener);
   }
 
   @Override
   public void removeListener(PropertyChangeListener listener) {
-    listenerManager.removePropertyChangeListener(listener);
+    listeners.remove(listener);
   }
 }
@@ -25,18 +25,16 @@
  */
 package com.ioleak.jnetcat.common.properties;
 
-import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 
 public class ObjectProperty<T>
         implements Observable {
 
   public final static String PROPERTYNAME = "object";
 
-  private final PropertyChangeSupport listenerManager = new PropertyChangeSupport(this);
-  private T object;
-  private boolean verifyEquals = false;
+  private final PropertyListeners listeners = new PropertyListeners();
+  private volatile T object;
+  private volatile boolean verifyEquals = false;
   
   public ObjectProperty() {
     this(null);
@@ -52,12 +50,12 @@ public class ObjectProperty<T>
   
   @Override
   public void addListener(PropertyChangeListener listener) {
-    listenerManager.addPropertyChangeListener(listener);
+    listeners.add(listener);
   }
 
   @Override
   public void removeListener(PropertyChangeListener listener) {
-    listenerManager.removePropertyChangeListener(listener);
+    listeners.remove(listener);
   }
 
   public T get() {
@@ -65,14 +63,9 @@ public class ObjectProperty<T>
   }
 
   public void set(T object) {
-    if (!verifyEquals) {
-      if (this.object == object) {
-        this.object = null;
-      }
-    }
-      
-    PropertyChangeEvent event = new PropertyChangeEvent(this, PROPERTYNAME, this.object, object);
+    // without verifyEquals, setting the same instance is notified as a change from null
+    T oldValue = (!verifyEquals && this.object == object) ? null : this.object;
     this.object = object;
-    listenerManager.firePropertyChange(event);
+    listeners.firePropertyChange(this, PROPERTYNAME, oldValue, object);
   }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.properties;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public abstract class PrimitiveProperty
+        implements Observable {
+
+  private static final Object NO_PENDING_CHANGE = new Object();
+
+  private static final ScheduledExecutorService NOTIFIER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "PropertyNotifier");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final PropertyListeners listeners = new PropertyListeners();
+  private final String propertyName;
+
+  // old value of the first change that is not notified yet (coalescing only)
+  private final AtomicReference<Object> pendingOldValue = new AtomicReference<>(NO_PENDING_CHANGE);
+  private volatile long coalescingIntervalMs = 0;
+
+  protected PrimitiveProperty(String propertyName) {
+    this.propertyName = propertyName;
+  }
+
+  // 0: one event per change [default], otherwise one event per interval with the first old value and the last value
+  public void setCoalescingIntervalMs(long coalescingIntervalMs) {
+    this.coalescingIntervalMs = coalescingIntervalMs;
+  }
+
+  @Override
+  public void addListener(PropertyChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(PropertyChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  protected final boolean hasListeners() {
+    return !listeners.isEmpty();
+  }
+
+  protected abstract Object getValueObject();
+
+  protected boolean isNotified(Object oldValue, Object newValue) {
+    return true;
+  }
+
+  protected final void fireChange(Object oldValue, Object newValue) {
+    long intervalMs = coalescingIntervalMs;
+
+    if (intervalMs <= 0) {
+      listeners.fire(new PropertyChangeEvent(this, propertyName, oldValue, newValue));
+    } else if (pendingOldValue.compareAndSet(NO_PENDING_CHANGE, oldValue)) {
+      NOTIFIER.schedule(this::flushChanges, intervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public void flushChanges() {
+    Object oldValue = pendingOldValue.getAndSet(NO_PENDING_CHANGE);
+
+    if (oldValue != NO_PENDING_CHANGE) {
+      Object newValue = getValueObject();
+      if (isNotified(oldValue, newValue)) {
+        listeners.fire(new PropertyChangeEvent(this, propertyName, oldValue, newValue));
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.properties;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+
+// copy-on-write listener array: firing reads a volatile array without lock nor copy, the event
+// is only allocated when a listener is registered
+public class PropertyListeners {
+
+  private static final PropertyChangeListener[] NO_LISTENERS = new PropertyChangeListener[0];
+
+  private volatile PropertyChangeListener[] listeners = NO_LISTENERS;
+
+  public synchronized void add(PropertyChangeListener listener) {
+    if (listener != null) {
+      PropertyChangeListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+      newListeners[listeners.length] = listener;
+      listeners = newListeners;
+    }
+  }
+
+  public synchronized void remove(PropertyChangeListener listener) {
+    PropertyChangeListener[] currentListeners = listeners;
+
+    for (int i = 0; i < currentListeners.length; i++) {
+      if (currentListeners[i].equals(listener)) {
+        PropertyChangeListener[] newListeners = new PropertyChangeListener[currentListeners.length - 1];
+        System.arraycopy(currentListeners, 0, newListeners, 0, i);
+        System.arraycopy(currentListeners, i + 1, newListeners, i, currentListeners.length - i - 1);
+        listeners = newListeners.length == 0 ? NO_LISTENERS : newListeners;
+        return;
+      }
+    }
+  }
+
+  public boolean isEmpty() {
+    return listeners.length == 0;
+  }
+
+  // same rule as PropertyChangeSupport: no event when both values are equal and not null
+  public void firePropertyChange(Object source, String propertyName, Object oldValue, Object newValue) {
+    PropertyChangeListener[] currentListeners = listeners;
+
+    if (currentListeners.length > 0 && (oldValue == null || newValue == null || !oldValue.equals(newValue))) {
+      fire(currentListeners, new PropertyChangeEvent(source, propertyName, oldValue, newValue));
+    }
+  }
+
+  public void fire(PropertyChangeEvent event) {
+    fire(listeners, event);
+  }
+
+  private static void fire(PropertyChangeListener[] currentListeners, PropertyChangeEvent event) {
+    for (PropertyChangeListener listener : currentListeners) {
+      listener.propertyChange(event);
+    }
+  }
+}
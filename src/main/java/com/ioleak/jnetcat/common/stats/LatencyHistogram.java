@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.stats;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogram {
+
+  public static final long DEFAULT_HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+  // 128 sub-buckets per power of two: every recorded value is kept with an error below 1%
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final long SUB_BUCKET_MASK = (SUB_BUCKET_COUNT << 1) - 1;
+
+  private static final double[] SUMMARY_PERCENTILES = {50, 90, 99, 99.9};
+  private static final String[] SUMMARY_LABELS = {"p50", "p90", "p99", "p99.9"};
+  private static final double NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final long highestTrackableValue;
+  private final long[] counts;
+
+  private long totalCount = 0;
+  private long totalValue = 0;
+  private long minValue = Long.MAX_VALUE;
+  private long maxValue = 0;
+
+  public LatencyHistogram() {
+    this(DEFAULT_HIGHEST_TRACKABLE_NANOS);
+  }
+
+  public LatencyHistogram(long highestTrackableValue) {
+    this.highestTrackableValue = Math.max(highestTrackableValue, SUB_BUCKET_MASK);
+    this.counts = new long[getIndex(this.highestTrackableValue) + 1];
+  }
+
+  public void recordValue(long value) {
+    recordValue(value, 1);
+  }
+
+  public void recordValueWithExpectedInterval(long value, long expectedInterval) {
+    recordValue(value);
+
+    // coordinated omission: a stalled response also delayed the requests that should have been sent meanwhile
+    if (expectedInterval > 0) {
+      for (long missedValue = value - expectedInterval; missedValue >= expectedInterval; missedValue -= expectedInterval) {
+        recordValue(missedValue);
+      }
+    }
+  }
+
+  public void add(LatencyHistogram other) {
+    for (int index = 0; index < other.counts.length; index++) {
+      if (other.counts[index] > 0) {
+        recordCount(Math.min(index, counts.length - 1), other.counts[index]);
+      }
+    }
+
+    totalValue += other.totalValue;
+    if (other.totalCount > 0) {
+      minValue = Math.min(minValue, other.minValue);
+      maxValue = Math.max(maxValue, other.maxValue);
+    }
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    totalCount = 0;
+    totalValue = 0;
+    minValue = Long.MAX_VALUE;
+    maxValue = 0;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public long getMinValue() {
+    return totalCount == 0 ? 0 : minValue;
+  }
+
+  public long getMaxValue() {
+    return maxValue;
+  }
+
+  public double getMean() {
+    return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+  }
+
+  public long getValueAtPercentile(double percentile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+
+    long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+    long cumulativeCount = 0;
+
+    for (int index = 0; index < counts.length; index++) {
+      cumulativeCount += counts[index];
+
+      if (cumulativeCount >= countAtPercentile) {
+        return getReportedValue(index);
+      }
+    }
+
+    return maxValue;
+  }
+
+  public String toPercentileDistribution(double valueUnitDivisor) {
+    StringBuilder distribution = new StringBuilder(String.format("%12s %14s %10s%n", "Value", "Percentile", "TotalCount"));
+    long cumulativeCount = 0;
+
+    for (int index = 0; index < counts.length; index++) {
+      if (counts[index] > 0) {
+        cumulativeCount += counts[index];
+        distribution.append(String.format("%12.3f %14.12f %10d%n",
+                                          getReportedValue(index) / valueUnitDivisor,
+                                          (double) cumulativeCount / totalCount, cumulativeCount));
+      }
+    }
+
+    distribution.append(String.format("#[Mean = %.3f, Max = %.3f, Total count = %d]%n",
+                                      getMean() / valueUnitDivisor, maxValue / valueUnitDivisor, totalCount));
+    return distribution.toString();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder summary = new StringBuilder(String.format("count %d, min %.3fms", totalCount, getMinValue() / NANOS_PER_MS));
+
+    for (int i = 0; i < SUMMARY_PERCENTILES.length; i++) {
+      summary.append(String.format(", %s %.3fms", SUMMARY_LABELS[i], getValueAtPercentile(SUMMARY_PERCENTILES[i]) / NANOS_PER_MS));
+    }
+
+    return summary.append(String.format(", max %.3fms", maxValue / NANOS_PER_MS)).toString();
+  }
+
+  private void recordValue(long value, long count) {
+    long boundedValue = Math.max(value, 0);
+
+    recordCount(getIndex(Math.min(boundedValue, highestTrackableValue)), count);
+    totalValue += boundedValue * count;
+    minValue = Math.min(minValue, boundedValue);
+    maxValue = Math.max(maxValue, boundedValue);
+  }
+
+  private void recordCount(int index, long count) {
+    counts[index] += count;
+    totalCount += count;
+  }
+
+  // the last bucket also holds the values above highestTrackableValue
+  private long getReportedValue(int index) {
+    return index == counts.length - 1 ? maxValue : Math.min(getHighestEquivalentValue(index), maxValue);
+  }
+
+  // values below 256 are exact, then each power of two is split in 128 linear sub-buckets
+  private static int getIndex(long value) {
+    int bucket = 63 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - SUB_BUCKET_BITS;
+    return (bucket << SUB_BUCKET_BITS) + (int) (value >>> bucket);
+  }
+
+  private static long getHighestEquivalentValue(int index) {
+    int bucket = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+    long subBucket = index - ((long) bucket << SUB_BUCKET_BITS);
+
+    return (subBucket << bucket) + (1L << bucket) - 1;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.stats;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+public class PacketStreamStats {
+
+  public static final int HEADER_SIZE = 2 * Long.BYTES;
+  public static final long END_SEQUENCE = -1;
+  public static final long REPORT_SEQUENCE = -2;
+  public static final int REPORT_SIZE = 6 * Long.BYTES;
+
+  private long received = 0;
+  private long outOfOrder = 0;
+  private long bytes = 0;
+  private long highestSequence = -1;
+  private long lastTransitNanos = 0;
+  private double jitterNanos = 0;
+
+  public PacketStreamStats() {
+  }
+
+  private PacketStreamStats(long received, long lost, long outOfOrder, long jitterNanos, long bytes) {
+    this.received = received;
+    this.highestSequence = received + lost - 1;
+    this.outOfOrder = outOfOrder;
+    this.jitterNanos = jitterNanos;
+    this.bytes = bytes;
+  }
+
+  public void packetReceived(long sequence, long sendNanos, long receiveNanos, int length) {
+    // both clocks have their own origin, only the variation of the transit time matters (RFC 3550)
+    long transitNanos = receiveNanos - sendNanos;
+    if (received > 0) {
+      jitterNanos += (Math.abs(transitNanos - lastTransitNanos) - jitterNanos) / 16;
+    }
+    lastTransitNanos = transitNanos;
+
+    received++;
+    bytes += length;
+
+    if (sequence < highestSequence) {
+      outOfOrder++;
+    } else {
+      highestSequence = sequence;
+    }
+  }
+
+  public void reset() {
+    received = 0;
+    outOfOrder = 0;
+    bytes = 0;
+    highestSequence = -1;
+    lastTransitNanos = 0;
+    jitterNanos = 0;
+  }
+
+  public long getReceived() {
+    return received;
+  }
+
+  public long getLost() {
+    return Math.max(0, highestSequence + 1 - received);
+  }
+
+  public long getOutOfOrder() {
+    return outOfOrder;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+
+  public long getJitterNanos() {
+    return (long) jitterNanos;
+  }
+
+  public void writeReport(ByteBuffer buffer) {
+    buffer.putLong(REPORT_SEQUENCE);
+    buffer.putLong(received);
+    buffer.putLong(getLost());
+    buffer.putLong(outOfOrder);
+    buffer.putLong(getJitterNanos());
+    buffer.putLong(bytes);
+  }
+
+  public static PacketStreamStats readReport(ByteBuffer buffer) {
+    if (buffer.remaining() < REPORT_SIZE || buffer.getLong(buffer.position()) != REPORT_SEQUENCE) {
+      return null;
+    }
+
+    buffer.getLong();
+    return new PacketStreamStats(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+  }
+
+  @Override
+  public String toString() {
+    long expected = received + getLost();
+
+    return String.format("received %d (%d bytes), lost %d (%.3f%%), out of order %d, jitter %.3fms",
+                         received, bytes, getLost(), expected == 0 ? 0 : getLost() * 100.0 / expected, outOfOrder,
+                         jitterNanos / TimeUnit.MILLISECONDS.toNanos(1));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.stats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+
+import org.slf4j.Logger;
+
+public class RequestLatencies {
+
+  private static final Logger LOGGER = Logging.getLogger(RequestLatencies.class);
+
+  private static final double NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final LatencyHistogram connect = new LatencyHistogram();
+  private final LatencyHistogram firstByte = new LatencyHistogram();
+  private final LatencyHistogram response = new LatencyHistogram();
+
+  public synchronized void recordConnect(long nanos) {
+    connect.recordValue(nanos);
+  }
+
+  public synchronized void recordFirstByte(long nanos) {
+    firstByte.recordValue(nanos);
+  }
+
+  public synchronized void recordResponse(long nanos, long expectedIntervalNanos) {
+    response.recordValueWithExpectedInterval(nanos, expectedIntervalNanos);
+  }
+
+  public synchronized void add(RequestLatencies other) {
+    synchronized (other) {
+      connect.add(other.connect);
+      firstByte.add(other.firstByte);
+      response.add(other.response);
+    }
+  }
+
+  public synchronized LatencyHistogram getConnect() {
+    return connect;
+  }
+
+  public synchronized LatencyHistogram getFirstByte() {
+    return firstByte;
+  }
+
+  public synchronized LatencyHistogram getResponse() {
+    return response;
+  }
+
+  public synchronized boolean isEmpty() {
+    return connect.getTotalCount() == 0 && response.getTotalCount() == 0;
+  }
+
+  public synchronized void exportTo(String fileName) {
+    if (StringUtils.isNullOrEmpty(fileName)) {
+      return;
+    }
+
+    String distribution = String.format("# connect (ms)%n%s%n# first byte (ms)%n%s%n# response (ms)%n%s",
+                                        connect.toPercentileDistribution(NANOS_PER_MS),
+                                        firstByte.toPercentileDistribution(NANOS_PER_MS),
+                                        response.toPercentileDistribution(NANOS_PER_MS));
+
+    try {
+      Files.write(Path.of(fileName), StringUtils.getBytesFromString(distribution));
+      LOGGER.info("Latency distribution exported to {}", fileName);
+    } catch (IOException ex) {
+      LOGGER.error("Unable to export latency distribution to {}: {}", fileName, ex.getMessage());
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("  connect:     %s%n"
+                         + "  first byte:  %s%n"
+                         + "  response:    %s",
+                         connect, firstByte, response);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.utils;
+
+public class HexDump {
+
+  public static final int OFFSET_WIDTH = 8;
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+  private static final char[] HIGH_NIBBLE = new char[256];
+  private static final char[] LOW_NIBBLE = new char[256];
+  private static final char[] PRINTABLE = new char[256];
+  private static final char NOT_PRINTABLE = '.';
+  private static final char ESCAPED = 0;
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      HIGH_NIBBLE[i] = HEX_DIGITS[i >>> 4];
+      LOW_NIBBLE[i] = HEX_DIGITS[i & 0x0F];
+      PRINTABLE[i] = (i >= 0x20 && i < 0x7F) || i >= 0xA0 ? (char) i : NOT_PRINTABLE;
+    }
+
+    PRINTABLE['\r'] = ESCAPED;
+    PRINTABLE['\n'] = ESCAPED;
+  }
+
+  private final int lineWidth;
+  private final int asciiColumn;
+  private final char[] line;
+
+  public HexDump(int lineWidth) {
+    this.lineWidth = Math.max(lineWidth, 1);
+
+    // offset, 2 spaces, groups of 2 bytes followed by a space, a tab, then the characters (\r and \n use 2 chars)
+    this.asciiColumn = OFFSET_WIDTH + 2 + this.lineWidth * 2 + (this.lineWidth + 1) / 2 + 1;
+    this.line = new char[asciiColumn + this.lineWidth * 2];
+  }
+
+  public int getLineWidth() {
+    return lineWidth;
+  }
+
+  public char[] getLine() {
+    return line;
+  }
+
+  public int renderLine(long offset, byte[] data, int start, int length) {
+    length = Math.min(length, lineWidth);
+    int position = 0;
+
+    for (int shift = (OFFSET_WIDTH - 1) * 4; shift >= 0; shift -= 4) {
+      line[position++] = HEX_DIGITS[(int) (offset >>> shift) & 0x0F];
+    }
+    line[position++] = ' ';
+    line[position++] = ' ';
+
+    for (int i = 0; i < length; i++) {
+      int value = data[start + i] & 0xFF;
+      line[position++] = HIGH_NIBBLE[value];
+      line[position++] = LOW_NIBBLE[value];
+
+      if ((i & 1) == 1) {
+        line[position++] = ' ';
+      }
+    }
+
+    while (position < asciiColumn - 1) {
+      line[position++] = ' ';
+    }
+    line[position++] = '\t';
+
+    for (int i = 0; i < length; i++) {
+      int value = data[start + i] & 0xFF;
+      char printable = PRINTABLE[value];
+
+      if (printable == ESCAPED) {
+        line[position++] = '\\';
+        line[position++] = value == '\r' ? 'r' : 'n';
+      } else {
+        line[position++] = printable;
+      }
+    }
+
+    return position;
+  }
+
+  public String renderLineToString(long offset, byte[] data, int start, int length) {
+    return new String(line, 0, renderLine(offset, data, start, length));
+  }
+
+  public static void appendHex(StringBuilder builder, int value) {
+    int bits = Integer.SIZE - Integer.numberOfLeadingZeros(value);
+    int digits = Math.max(4, (bits + 3) / 4);
+
+    for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+      builder.append(HEX_DIGITS[(value >>> shift) & 0x0F]);
+    }
+  }
+
+  public static String toHexGroups(byte[] data, char separator) {
+    if (data.length == 0) {
+      return "";
+    }
+
+    int nbGroups = (data.length + 1) / 2;
+    char[] hex = new char[nbGroups * 4 + (separator == 0 ? 0 : nbGroups - 1)];
+    int position = 0;
+
+    for (int i = 0; i < data.length; i += 2) {
+      if (i > 0 && separator != 0) {
+        hex[position++] = separator;
+      }
+
+      int high = data[i] & 0xFF;
+      int low = i + 1 < data.length ? data[i + 1] & 0xFF : 0;
+      hex[position++] = HIGH_NIBBLE[high];
+      hex[position++] = LOW_NIBBLE[high];
+      hex[position++] = HIGH_NIBBLE[low];
+      hex[position++] = LOW_NIBBLE[low];
+    }
+
+    return new String(hex);
+  }
+}
@@ -45,8 +45,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.ioleak.jnetcat.common.Logging;
 
+import org.slf4j.Logger;
+
 public class JsonUtils {
 
+  private static final Logger LOGGER = Logging.getLogger(JsonUtils.class);
+
   public static final String JSON_EMPTY = "{ }";
 
   private static final ObjectMapper objectMapper = new ObjectMapper()
@@ -64,7 +68,7 @@ public class JsonUtils {
         json = objectMapper.writeValueAsString(object);
       }
     } catch (JsonProcessingException ex) {
-      Logging.getLogger().error("Cannot convert object to JSON string", ex);
+      LOGGER.error("Cannot convert object to JSON string", ex);
     }
 
     return json;
@@ -78,13 +82,13 @@ public class JsonUtils {
         object = clazz.getDeclaredConstructor().newInstance();
       } catch (NoSuchMethodException | SecurityException | InstantiationException
               | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-        Logging.getLogger().error("Unable to start a new instance, invalid JSON?", ex);
+        LOGGER.error("Unable to start a new instance, invalid JSON?", ex);
       }
     } else {
       try {
         object = (T) objectMapper.readValue(jsonData, clazz);
       } catch (JsonProcessingException ex) {
-        Logging.getLogger().error(String.format("Unable to parse JSON data (msg: %s)", ex.getMessage()));
+        LOGGER.error("Unable to parse JSON data (msg: {})", ex.getMessage());
       }
     }
 
@@ -99,7 +103,7 @@ public class JsonUtils {
     try {
       jsonContent = loadJsonFileToString(new File(pathToFile.toURI()));
     } catch (URISyntaxException ex) {
-      Logging.getLogger().error("Cannot read file", ex);
+      LOGGER.error("Cannot read file", ex);
     }
 
     return jsonContent;
@@ -118,9 +122,9 @@ public class JsonUtils {
 
       jsonContent = result.toString("UTF-8");
     } catch (FileNotFoundException ex) {
-      Logging.getLogger().error(String.format("File (%s) cannot be found", jsonFile.getAbsolutePath()));
+      LOGGER.error("File ({}) cannot be found", jsonFile.getAbsolutePath());
     } catch (IOException ex) {
-      Logging.getLogger().error(String.format("An error occured while trying to open/read file: %s", jsonFile.getAbsolutePath()), ex);
+      LOGGER.error("An error occured while trying to open/read file: {}", jsonFile.getAbsolutePath(), ex);
     }
 
     return jsonContent;
@@ -135,9 +139,9 @@ public class JsonUtils {
 
       fileSavedPath = Paths.get(pathToFile.toURI());
       Files.writeString(fileSavedPath, jsonData, StandardOpenOption.CREATE);
-      Logging.getLogger().debug(String.format("JSON succesfully saved to file: %s", fileSavedPath));
+      LOGGER.debug("JSON succesfully saved to file: {}", fileSavedPath);
     } catch (URISyntaxException | IOException ex) {
-      Logging.getLogger().error(String.format("Unable to save JSON into file %s", relativePathToFile), ex);
+      LOGGER.error("Unable to save JSON into file {}", relativePathToFile, ex);
     }
 
     return fileSavedPath;
@@ -155,7 +159,7 @@ public class JsonUtils {
       try {
         url = configFile.toUri().toURL();
       } catch (MalformedURLException ex) {
-        Logging.getLogger().error(String.format("Unable to get a valid path to the file %s", relativeFilePath));
+        LOGGER.error("Unable to get a valid path to the file {}", relativeFilePath);
       }
     }
 
@@ -167,7 +171,7 @@ public class JsonUtils {
       File file = new File(url.toURI());
       file.getParentFile().mkdirs();
     } catch (URISyntaxException ex) {
-      Logging.getLogger().error(String.format("Unable to create subdirectories for %s", url), ex);
+      LOGGER.error("Unable to create subdirectories for {}", url, ex);
     }
   }
 }
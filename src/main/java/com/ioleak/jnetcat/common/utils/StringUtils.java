@@ -29,6 +29,7 @@ import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.regex.Matcher;
@@ -36,11 +37,14 @@ import java.util.regex.Pattern;
 
 import com.ioleak.jnetcat.common.Logging;
 
+import org.slf4j.Logger;
+
 public class StringUtils {
 
+  private static final Logger LOGGER = Logging.getLogger(StringUtils.class);
+
   public static final Charset DEFAULT_ENCODING_NETWORK = StandardCharsets.ISO_8859_1; // 8 bits
 
-  private static final int DEFAULT_STRINGBUILDER_CAPACITY = 250;
   private static final int NB_CHAR_BETWEEN_LINES = 50;
 
   private static final String IPv4_REGEX_VALIDATION = "^(([0-9]|[1-9][0-9]|1[0-9][0-9]|2[0-4][0-9]|25[0-5])(\\.(?!$)|$)){4}$";
@@ -50,42 +54,13 @@ public class StringUtils {
   }
 
   public static String toHex(int value) {
-    return String.format("%04X", value);
+    StringBuilder hex = new StringBuilder(8);
+    HexDump.appendHex(hex, value);
+    return hex.toString();
   }
 
   public static String toHex(String stringToHex) {
-    if (stringToHex == null || stringToHex.isEmpty()) {
-      return "";
-    }
-
-    StringBuilder buf = new StringBuilder(DEFAULT_STRINGBUILDER_CAPACITY);
-    byte[] stringBytes = getBytesFromString(stringToHex);
-    int data = 0;
-    int shift = 1;
-
-    for (byte ch : stringBytes) {
-      ch = (byte) (ch & 0xFF);
-
-      if (shift == 1) {
-        data += ch << 8 & 0xFFFF;
-      } else {
-        data += ch & 0x00FF;
-      }
-
-      shift--;
-      if (shift < 0) {
-        buf.append(toHex(data));
-
-        shift = 1;
-        data = 0;
-      }
-    }
-
-    if (data != 0) {
-      buf.append(toHex(data));
-    }
-
-    return buf.toString();
+    return toHex(stringToHex, (char) 0);
   }
 
   public static String getStringFromBytes(List<Byte> data) {
@@ -107,7 +82,7 @@ public class StringUtils {
     try {
       utf8 = new String(iso8859.getBytes("ISO-8859-1"), StandardCharsets.UTF_8);
     } catch (UnsupportedEncodingException ex) {
-      Logging.getLogger().error("Unable to decode ISO-8859-1 string", ex);
+      LOGGER.error("Unable to decode ISO-8859-1 string", ex);
     }
     
     return utf8;
@@ -137,8 +112,22 @@ public class StringUtils {
   }
 
   public static String toHexWithSpaceSeparator(String stringToHex) {
-    stringToHex = toHex(stringToHex);
-    return String.join(" ", stringToHex.split("(?<=\\G.{4})"));
+    return toHex(stringToHex, ' ');
+  }
+
+  private static String toHex(String stringToHex, char separator) {
+    if (stringToHex == null || stringToHex.isEmpty()) {
+      return "";
+    }
+
+    byte[] stringBytes = getBytesFromString(stringToHex);
+
+    // a last single 0 byte is not displayed, any other one is padded with 00
+    if (stringBytes.length % 2 == 1 && stringBytes[stringBytes.length - 1] == 0) {
+      stringBytes = Arrays.copyOf(stringBytes, stringBytes.length - 1);
+    }
+
+    return HexDump.toHexGroups(stringBytes, separator);
   }
 
   public static String toStringWithLineSeparator(String stringToLineSeparator) {
@@ -29,8 +29,12 @@ import java.util.function.BooleanSupplier;
 
 import com.ioleak.jnetcat.common.Logging;
 
+import org.slf4j.Logger;
+
 public class ThreadUtils {
 
+  private static final Logger LOGGER = Logging.getLogger(ThreadUtils.class);
+
   public static final int THREAD_MIN_WAIT_MS = 50;
   public static final int MAX_NB_LOOP = 10;
 
@@ -44,7 +48,7 @@ public class ThreadUtils {
       try {
         Thread.sleep(THREAD_MIN_WAIT_MS);
       } catch (InterruptedException ex) {
-        Logging.getLogger().error("Interrupted exception", ex);
+        LOGGER.error("Interrupted exception", ex);
       }
 
       i++;
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ioleak.jnetcat.formatter.capture.CaptureDirection;
+import com.ioleak.jnetcat.formatter.capture.CaptureWriter;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.StreamRawReaderNoOutput;
+
+public class CaptureFormatOutput
+        extends StreamRawReaderNoOutput {
+
+  private final CaptureWriter captureWriter;
+  private final int connectionId;
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  public CaptureFormatOutput(CaptureWriter captureWriter) {
+    this.captureWriter = captureWriter;
+    captureWriter.retain();
+    this.connectionId = captureWriter.newConnectionId();
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      captureWriter.release();
+    }
+  }
+
+  @Override
+  public StreamFormatOutput newInstance() {
+    return copyConfigTo(new CaptureFormatOutput(captureWriter));
+  }
+
+  @Override
+  public void formatDataOutput(byte[] data, int offset, int length) {
+    captureWriter.write(connectionId, CaptureDirection.RECEIVED, data, offset, length);
+  }
+
+  @Override
+  public void formatDataOutput(ByteBuffer data) {
+    captureWriter.write(connectionId, CaptureDirection.RECEIVED, data);
+    data.position(data.limit());
+  }
+
+  @Override
+  public void formatDataSent(byte[] data, int offset, int length) {
+    captureWriter.write(connectionId, CaptureDirection.SENT, data, offset, length);
+  }
+
+  @Override
+  public void formatDataSent(ByteBuffer data) {
+    captureWriter.write(connectionId, CaptureDirection.SENT, data);
+    data.position(data.limit());
+  }
+
+  public int getConnectionId() {
+    return connectionId;
+  }
+
+  public CaptureWriter getCaptureWriter() {
+    return captureWriter;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ioleak.jnetcat.formatter.capture.CaptureDirection;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.StreamRawReaderNoOutput;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+import com.ioleak.jnetcat.formatter.pcapng.PcapngFlow;
+import com.ioleak.jnetcat.formatter.pcapng.PcapngWriter;
+
+public class PcapngFormatOutput
+        extends StreamRawReaderNoOutput {
+
+  private final PcapngWriter pcapngWriter;
+  private final int connectionId;
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private volatile PcapngFlow flow;
+
+  public PcapngFormatOutput(PcapngWriter pcapngWriter) {
+    this.pcapngWriter = pcapngWriter;
+    pcapngWriter.retain();
+    this.connectionId = pcapngWriter.newConnectionId();
+    this.flow = new PcapngFlow(TransportProtocol.TCP, null, null, connectionId);
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      pcapngWriter.release();
+    }
+  }
+
+  @Override
+  public StreamFormatOutput newInstance() {
+    return copyConfigTo(new PcapngFormatOutput(pcapngWriter));
+  }
+
+  @Override
+  public void setEndpoints(TransportProtocol protocol, InetSocketAddress localAddress, InetSocketAddress remoteAddress) {
+    if (!flow.matches(protocol, localAddress, remoteAddress)) {
+      flow = new PcapngFlow(protocol, localAddress, remoteAddress, connectionId);
+    }
+  }
+
+  @Override
+  public void formatDataOutput(byte[] data, int offset, int length) {
+    pcapngWriter.write(flow, CaptureDirection.RECEIVED, data, offset, length);
+  }
+
+  @Override
+  public void formatDataOutput(ByteBuffer data) {
+    pcapngWriter.write(flow, CaptureDirection.RECEIVED, data);
+    data.position(data.limit());
+  }
+
+  @Override
+  public void formatDataSent(byte[] data, int offset, int length) {
+    pcapngWriter.write(flow, CaptureDirection.SENT, data, offset, length);
+  }
+
+  @Override
+  public void formatDataSent(ByteBuffer data) {
+    pcapngWriter.write(flow, CaptureDirection.SENT, data);
+    data.position(data.limit());
+  }
+
+  public PcapngWriter getPcapngWriter() {
+    return pcapngWriter;
+  }
+}
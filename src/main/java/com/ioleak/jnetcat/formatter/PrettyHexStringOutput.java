@@ -25,22 +25,18 @@
  */
 package com.ioleak.jnetcat.formatter;
 
-import java.beans.PropertyChangeEvent;
-import java.util.ArrayList;
-import java.util.List;
-
-import com.ioleak.jnetcat.common.Logging;
-import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.common.ByteArrayBuffer;
+import com.ioleak.jnetcat.common.utils.HexDump;
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
 import com.ioleak.jnetcat.formatter.helpers.StreamRawReaderNoOutput;
 
 public class PrettyHexStringOutput
         extends StreamRawReaderNoOutput {
   
-  private final List<Byte> bufferData = new ArrayList<>();
+  private final ByteArrayBuffer bufferData = new ByteArrayBuffer();
+  private final HexDump hexDump;
 
-  private int data = 0;
-  private int shift = 1;
+  private long offset = 0;
 
   public PrettyHexStringOutput(int lineWidth) {
     this(null, lineWidth);
@@ -48,71 +44,59 @@ public class PrettyHexStringOutput
   
   public PrettyHexStringOutput(StreamFormatOutput prettyFormatOutput, int lineWidth) {
     super(prettyFormatOutput, lineWidth);
+    this.hexDump = new HexDump(lineWidth);
+  }
+
+  @Override
+  public StreamFormatOutput newInstance() {
+    return copyConfigTo(new PrettyHexStringOutput(newPrettyFormatOutputInstance(), getLineWidth()));
   }
   
   @Override
-  public void formatDataOutput(PropertyChangeEvent evt) {
-    super.formatDataOutput(evt);
-    
-    if (evt.getNewValue() != null) {
-      byte value = (byte)evt.getNewValue();
-      bufferData.add(value);
-      
-      if (shift == 1) {
-        data += value << 8 & 0xFFFF;
-      } else {
-        data += value & 0x00FF;
-      }
-      
-      shift--;
-      if (shift < 0) {
-        reset2BytesData();
-      }
-      
-      if (bufferData.size() >= getLineWidth()) {
+  public void formatDataOutput(byte[] chunk, int offset, int length) {
+    super.formatDataOutput(chunk, offset, length);
+
+    int lineWidth = hexDump.getLineWidth();
+    int position = offset;
+    int end = offset + length;
+
+    // a line started by a previous chunk is completed first, then full lines are rendered from the chunk itself
+    if (!bufferData.isEmpty()) {
+      int missing = Math.min(lineWidth - bufferData.size(), length);
+      bufferData.append(chunk, position, missing);
+      position += missing;
+
+      if (bufferData.size() == lineWidth) {
         flushBufferToOutput();
       }
     }
+
+    for (; end - position >= lineWidth; position += lineWidth) {
+      writeLine(chunk, position, lineWidth);
+    }
+
+    if (position < end) {
+      bufferData.append(chunk, position, end - position);
+    }
   }
   
   @Override
   public String getEndOfStreamData() {
     flushBufferToOutput();
-    
-    if (bufferData.size() > 0) {
-      Logging.getLogger().warn("Pending data are not displayed (buffer not empty)");
-    }
+    offset = 0;
 
     return super.getEndOfStreamData();
   }
   
-  private String flushBufferToOutput() {
-    String line = "";
-    
-    if (data != 0) {
-      reset2BytesData();
-    }
-    
-    if (bufferData.size() > 0) {
-      line = StringUtils.getStringFromBytes(bufferData);
-      System.out.println("\t" + replaceReturnEndOfLine(line));
-
+  private void flushBufferToOutput() {
+    if (!bufferData.isEmpty()) {
+      writeLine(bufferData.array(), 0, bufferData.size());
       bufferData.clear();
     }
-    
-    return line;
-  }
-  
-  private void reset2BytesData() {
-    System.out.print(StringUtils.toHex(data) + " ");
-    System.out.flush();
-    
-    shift = 1;
-    data = 0;
   }
 
-  private String replaceReturnEndOfLine(String data) {
-    return data.replace("\r", "\\r")
-            .replace("\n", "\\n");
+  private void writeLine(byte[] data, int start, int length) {
+    getConsoleOutput().writeLine(hexDump.getLine(), 0, hexDump.renderLine(offset, data, start, length));
+    offset += length;
   }
 }
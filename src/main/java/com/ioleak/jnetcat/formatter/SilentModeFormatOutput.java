@@ -26,10 +26,15 @@
 
 package com.ioleak.jnetcat.formatter;
 
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
 import com.ioleak.jnetcat.formatter.helpers.StreamRawReaderNoOutput;
 
 
 public class SilentModeFormatOutput
         extends StreamRawReaderNoOutput {
 
+  @Override
+  public StreamFormatOutput newInstance() {
+    return copyConfigTo(new SilentModeFormatOutput());
+  }
 }
@@ -25,16 +25,18 @@
  */
 package com.ioleak.jnetcat.formatter;
 
-import java.beans.PropertyChangeEvent;
-
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
 import com.ioleak.jnetcat.formatter.helpers.StreamRawReaderNoOutput;
 
+import org.slf4j.Logger;
+
 public class SimpleLoggerStringOutput
         extends StreamRawReaderNoOutput {
 
+  private static final Logger LOGGER = Logging.getLogger(SimpleLoggerStringOutput.class);
+
   private final StringBuilder currentData = new StringBuilder();
   
   public SimpleLoggerStringOutput(int lineWidth) {
@@ -44,22 +46,28 @@ public class SimpleLoggerStringOutput
   public SimpleLoggerStringOutput(StreamFormatOutput prettyFormatOutput, int lineWidth) {
     super(prettyFormatOutput, lineWidth);
   }
+
+  @Override
+  public StreamFormatOutput newInstance() {
+    return copyConfigTo(new SimpleLoggerStringOutput(newPrettyFormatOutputInstance(), getLineWidth()));
+  }
   
   @Override
-  public void formatDataOutput(PropertyChangeEvent evt) {
-    super.formatDataOutput(evt);
+  public void formatDataOutput(byte[] data, int offset, int length) {
+    super.formatDataOutput(data, offset, length);
 
-    if (evt.getNewValue() != null) {
-      currentData.append(new String(new byte[] {(byte) evt.getNewValue()}, StringUtils.DEFAULT_ENCODING_NETWORK));
+    if (LOGGER.isInfoEnabled()) {
+      // ISO-8859-1: one char per byte, decoded without an intermediate String
+      for (int i = offset; i < offset + length; i++) {
+        currentData.append((char) (data[i] & 0xFF));
+      }
     }
   }
 
   @Override
   public String getEndOfStreamData() {
-    String allReadData = currentData.toString();
-    if (allReadData.length() > 0) {
-      String removeLastCRLF = StringUtils.removeLastCharIfCRLF(allReadData);
-      Logging.getLogger().info(String.format("Received data:\n%s", removeLastCRLF));
+    if (currentData.length() > 0 && LOGGER.isInfoEnabled()) {
+      LOGGER.info("Received data:\n{}", StringUtils.removeLastCharIfCRLF(currentData.toString()));
     }
 
     currentData.setLength(0);
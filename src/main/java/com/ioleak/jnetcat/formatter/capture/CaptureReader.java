@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CaptureReader {
+
+  private static final int TIMESTAMP_OFFSET = Integer.BYTES;
+  private static final int CONNECTION_ID_OFFSET = TIMESTAMP_OFFSET + Long.BYTES;
+  private static final int DIRECTION_OFFSET = CONNECTION_ID_OFFSET + Integer.BYTES;
+
+  private final List<Path> segmentFiles;
+  // the segments already read stay mapped: a record is read again from its position without a copy of the capture in memory
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+  private MappedByteBuffer segment;
+
+  public CaptureReader(List<Path> segmentFiles) {
+    this.segmentFiles = new ArrayList<>(segmentFiles);
+  }
+
+  public static CaptureReader fromPath(Path path)
+          throws IOException {
+    if (!Files.isDirectory(path)) {
+      return new CaptureReader(List.of(path));
+    }
+
+    // the segment names start with the capture date and end with their index: the name order is the capture order
+    try (Stream<Path> files = Files.list(path)) {
+      return new CaptureReader(files.filter(file -> file.getFileName().toString().endsWith(CaptureWriter.SEGMENT_EXTENSION))
+              .sorted()
+              .collect(Collectors.toList()));
+    }
+  }
+
+  public CaptureRecord next()
+          throws IOException {
+    long position = nextPosition();
+    return position < 0 ? null : readRecord(position);
+  }
+
+  // the position of the next record (segment index in the high bits, offset in the segment), -1 at the end of the capture
+  public long nextPosition()
+          throws IOException {
+    while (segment == null || segment.remaining() < CaptureWriter.RECORD_HEADER_SIZE || segment.getInt(segment.position()) == 0) {
+      if (segments.size() >= segmentFiles.size()) {
+        return -1;
+      }
+
+      openSegment(segmentFiles.get(segments.size()));
+    }
+
+    int offset = segment.position();
+    int recordLength = segment.getInt(offset);
+    if (recordLength < CaptureWriter.RECORD_HEADER_SIZE || recordLength > segment.remaining()) {
+      throw new IOException(String.format("Corrupted capture record in %s", segmentFiles.get(segments.size() - 1)));
+    }
+
+    segment.position(offset + recordLength);
+    return ((long) (segments.size() - 1) << 32) | offset;
+  }
+
+  // the positions are the ones returned by nextPosition(): the records can be read by several threads
+  public CaptureRecord readRecord(long position) {
+    ByteBuffer record = getSegment(position).duplicate();
+    int offset = (int) position;
+    byte[] data = new byte[record.getInt(offset) - CaptureWriter.RECORD_HEADER_SIZE];
+
+    record.position(offset + CaptureWriter.RECORD_HEADER_SIZE);
+    record.get(data);
+
+    return new CaptureRecord(getTimestampNanos(position), getConnectionId(position),
+                             CaptureDirection.fromCode(record.get(offset + DIRECTION_OFFSET)), data);
+  }
+
+  public long getTimestampNanos(long position) {
+    return getSegment(position).getLong((int) position + TIMESTAMP_OFFSET);
+  }
+
+  public int getConnectionId(long position) {
+    return getSegment(position).getInt((int) position + CONNECTION_ID_OFFSET);
+  }
+
+  public List<CaptureRecord> readAll()
+          throws IOException {
+    List<CaptureRecord> records = new ArrayList<>();
+
+    CaptureRecord record;
+    while ((record = next()) != null) {
+      records.add(record);
+    }
+
+    return records;
+  }
+
+  private MappedByteBuffer getSegment(long position) {
+    return segments.get((int) (position >>> 32));
+  }
+
+  private void openSegment(Path segmentFile)
+          throws IOException {
+    try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+      segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    segments.add(segment);
+
+    byte[] magic = new byte[CaptureWriter.MAGIC.length];
+    if (segment.remaining() < magic.length) {
+      throw new IOException(String.format("Not a capture file: %s", segmentFile));
+    }
+
+    segment.get(magic);
+    if (!Arrays.equals(magic, CaptureWriter.MAGIC)) {
+      throw new IOException(String.format("Not a capture file: %s", segmentFile));
+    }
+  }
+}
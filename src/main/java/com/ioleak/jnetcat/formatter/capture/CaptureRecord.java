@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.capture;
+
+public class CaptureRecord {
+
+  private final long timestampNanos;
+  private final int connectionId;
+  private final CaptureDirection direction;
+  private final byte[] data;
+
+  public CaptureRecord(long timestampNanos, int connectionId, CaptureDirection direction, byte[] data) {
+    this.timestampNanos = timestampNanos;
+    this.connectionId = connectionId;
+    this.direction = direction;
+    this.data = data;
+  }
+
+  public long getTimestampNanos() {
+    return timestampNanos;
+  }
+
+  public int getConnectionId() {
+    return connectionId;
+  }
+
+  public CaptureDirection getDirection() {
+    return direction;
+  }
+
+  public byte[] getData() {
+    return data;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d #%d %s %d bytes", timestampNanos, connectionId, direction.name(), data.length);
+  }
+}
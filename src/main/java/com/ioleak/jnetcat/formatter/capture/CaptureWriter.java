@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+public class CaptureWriter {
+
+  private static final Logger LOGGER = Logging.getLogger(CaptureWriter.class);
+
+  public static final byte[] MAGIC = "JNCCAP01".getBytes(StandardCharsets.US_ASCII);
+  public static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES + 1;
+  public static final String SEGMENT_EXTENSION = ".jnccap";
+  public static final long MIN_SEGMENT_SIZE = 4096;
+
+  private static final DateTimeFormatter SEGMENT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private final Path directory;
+  private final long segmentSize;
+  private final String segmentPrefix;
+  private final long epochOffsetNanos;
+  private final AtomicInteger connectionIds = new AtomicInteger();
+  private final List<Path> segmentFiles = new ArrayList<>();
+  private final AtomicInteger references = new AtomicInteger();
+  private final Thread shutdownHook = new Thread(this::close, "CaptureWriterShutdown");
+
+  private MappedByteBuffer segment;
+  private boolean disabled = false;
+  private boolean closed = false;
+
+  public CaptureWriter(Path directory, long segmentSize) {
+    this.directory = directory;
+    this.segmentSize = Math.max(segmentSize, MIN_SEGMENT_SIZE);
+    this.segmentPrefix = String.format("capture-%s", LocalDateTime.now().format(SEGMENT_DATE_FORMAT));
+
+    Instant now = Instant.now();
+    this.epochOffsetNanos = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano() - System.nanoTime();
+
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+  }
+
+  // one reference per output using the writer, the writer is closed when the last one is released
+  public void retain() {
+    references.incrementAndGet();
+  }
+
+  public void release() {
+    if (references.decrementAndGet() == 0) {
+      close();
+    }
+  }
+
+  public int newConnectionId() {
+    return connectionIds.incrementAndGet();
+  }
+
+  public void write(int connectionId, CaptureDirection direction, byte[] data, int offset, int length) {
+    write(connectionId, direction, ByteBuffer.wrap(data, offset, length));
+  }
+
+  public synchronized void write(int connectionId, CaptureDirection direction, ByteBuffer data) {
+    long timestampNanos = epochOffsetNanos + System.nanoTime();
+    ByteBuffer source = data.duplicate();
+
+    // a record never spans two segments: data bigger than the space left is split in several records
+    while (!disabled && source.hasRemaining()) {
+      if (!ensureSpace()) {
+        return;
+      }
+
+      int chunkLength = Math.min(source.remaining(), segment.remaining() - RECORD_HEADER_SIZE);
+      int limit = source.limit();
+      source.limit(source.position() + chunkLength);
+
+      segment.putInt(RECORD_HEADER_SIZE + chunkLength);
+      segment.putLong(timestampNanos);
+      segment.putInt(connectionId);
+      segment.put((byte) direction.getCode());
+      segment.put(source);
+
+      source.limit(limit);
+    }
+  }
+
+  public synchronized List<Path> getSegmentFiles() {
+    return new ArrayList<>(segmentFiles);
+  }
+
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    disabled = true;
+
+    if (segment != null) {
+      segment.force();
+      trimSegment(segmentFiles.get(segmentFiles.size() - 1), segment.position());
+      segment = null;
+    }
+
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException ex) {
+      // called by the shutdown hook
+    }
+  }
+
+  // the preallocated end of the last segment is removed, the end marker (record of length 0) is kept
+  private void trimSegment(Path segmentFile, long dataSize) {
+    try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE)) {
+      channel.truncate(Math.min(dataSize + Integer.BYTES, segmentSize));
+    } catch (IOException ex) {
+      LOGGER.info("Unable to trim capture segment {}: {}", segmentFile, ex.getMessage());
+    }
+  }
+
+  private boolean ensureSpace() {
+    if (segment != null && segment.remaining() > RECORD_HEADER_SIZE) {
+      return true;
+    }
+
+    try {
+      openSegment();
+      return true;
+    } catch (IOException ex) {
+      LOGGER.error("Unable to create capture segment, capture disabled: {}", ex.getMessage());
+      disabled = true;
+      return false;
+    }
+  }
+
+  private void openSegment()
+          throws IOException {
+    if (segment != null) {
+      segment.force();
+    }
+
+    Files.createDirectories(directory);
+    Path segmentFile = directory.resolve(String.format("%s-%05d%s", segmentPrefix, segmentFiles.size(), SEGMENT_EXTENSION));
+
+    // the file is preallocated: the records are only memory copies, the end of the data is the first record of length 0
+    try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    segment.put(MAGIC);
+    segmentFiles.add(segmentFile);
+    LOGGER.info("Capture segment created: {}", segmentFile);
+  }
+}
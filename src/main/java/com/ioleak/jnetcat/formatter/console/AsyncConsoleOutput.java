@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.console;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+public class AsyncConsoleOutput
+        implements ConsoleOutput {
+
+  private static final Logger LOGGER = Logging.getLogger(AsyncConsoleOutput.class);
+
+  private static final String WRITER_THREAD_NAME = "ConsoleOutputWriter";
+  private static final int MAX_KEPT_BATCH_SIZE = 1024 * 1024;
+  private static final int MIN_LINE_SIZE = 128;
+  private static final int MAX_KEPT_LINE_SIZE = 8 * 1024;
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+
+  private final PrintStream out;
+  private final OverflowPolicy overflowPolicy;
+  private final int sampleRate;
+  private final int sampleThreshold;
+  private final Thread writerThread;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  // guarded by lock: each slot keeps its chars from one line to the next
+  private final char[][] ring;
+  private final int[] lineLengths;
+  private int head = 0;
+  private int count = 0;
+  private long overflowCount = 0;
+  private long droppedLines = 0;
+  private boolean closed = false;
+
+  public AsyncConsoleOutput(PrintStream out, int bufferSize, OverflowPolicy overflowPolicy, int sampleRate) {
+    this.out = out;
+    this.ring = new char[Math.max(bufferSize, 1)][];
+    this.lineLengths = new int[ring.length];
+    this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+    this.sampleRate = Math.max(sampleRate, 1);
+    this.sampleThreshold = Math.max(ring.length * 3 / 4, 1);
+
+    writerThread = new Thread(this::writeBatches, WRITER_THREAD_NAME);
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  @Override
+  public void writeLine(String line) {
+    String text = String.valueOf(line);
+
+    lock.lock();
+    try {
+      char[] slot = reserveSlot(text.length());
+
+      if (slot != null) {
+        text.getChars(0, text.length(), slot, 0);
+        commitSlot();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void writeLine(char[] line, int offset, int length) {
+    lock.lock();
+    try {
+      char[] slot = reserveSlot(length);
+
+      if (slot != null) {
+        System.arraycopy(line, offset, slot, 0, length);
+        commitSlot();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      writerThread.join(CLOSE_TIMEOUT_MS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public long getDroppedLines() {
+    lock.lock();
+    try {
+      return droppedLines;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // lock held; null when the line is dropped
+  private char[] reserveSlot(int length) {
+    if (closed || !waitForSpace()) {
+      droppedLines++;
+      return null;
+    }
+
+    int tail = (head + count) % ring.length;
+    if (ring[tail] == null || ring[tail].length < length) {
+      ring[tail] = new char[Math.max(length, MIN_LINE_SIZE)];
+    }
+    lineLengths[tail] = length;
+
+    return ring[tail];
+  }
+
+  private void commitSlot() {
+    count++;
+    notEmpty.signal();
+  }
+
+  private boolean waitForSpace() {
+    switch (overflowPolicy) {
+      case BLOCK:
+        while (count == ring.length && !closed) {
+          try {
+            notFull.await();
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+        }
+        return !closed;
+      case SAMPLE:
+        if (count >= sampleThreshold) {
+          return count < ring.length && overflowCount++ % sampleRate == 0;
+        }
+        return true;
+      default:
+        return count < ring.length;
+    }
+  }
+
+  private void writeBatches() {
+    StringBuilder batch = new StringBuilder();
+    String lineSeparator = System.lineSeparator();
+    long reportedDroppedLines = 0;
+
+    while (true) {
+      lock.lock();
+      try {
+        while (count == 0 && !closed) {
+          notEmpty.awaitUninterruptibly();
+        }
+
+        if (count == 0 && closed) {
+          break;
+        }
+
+        // everything queued is taken at once: the lock is held only for the copy, never during the write
+        for (; count > 0; count--) {
+          batch.append(ring[head], 0, lineLengths[head]).append(lineSeparator);
+          if (ring[head].length > MAX_KEPT_LINE_SIZE) {
+            ring[head] = null;
+          }
+          head = (head + 1) % ring.length;
+        }
+
+        if (droppedLines > reportedDroppedLines) {
+          batch.append(String.format("[%d line(s) dropped]", droppedLines - reportedDroppedLines)).append(lineSeparator);
+          reportedDroppedLines = droppedLines;
+        }
+
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+
+      out.print(batch);
+      out.flush();
+
+      if (batch.capacity() > MAX_KEPT_BATCH_SIZE) {
+        batch = new StringBuilder();
+      } else {
+        batch.setLength(0);
+      }
+    }
+
+    LOGGER.debug("Console output closed, {} line(s) dropped", droppedLines);
+  }
+}
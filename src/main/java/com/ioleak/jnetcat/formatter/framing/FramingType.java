@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.framing;
+
+import com.ioleak.jnetcat.common.BaseEnum;
+import com.ioleak.jnetcat.options.FramingConfig;
+
+public enum FramingType
+        implements BaseEnum {
+
+  RAW(0, "Each read is a message (all the data available without waiting)"),
+  NEWLINE(1, "Messages end with a newline (\\n)"),
+  LENGTH_PREFIXED(2, "Messages start with their length (4 bytes, big-endian)"),
+  FIXED_SIZE(3, "Messages have a fixed size (messageSize)"),
+  IDLE_TIMEOUT(4, "A message ends when no data is received during idleTimeoutMs");
+
+  private int code;
+  private String msg;
+
+  private FramingType(int code, String msg) {
+    this.code = code;
+    this.msg = msg;
+  }
+
+  @Override
+  public int getCode() {
+    return code;
+  }
+
+  @Override
+  public String getDetails(Object... args) {
+    return msg;
+  }
+
+  public MessageFraming getMessageFraming(FramingConfig framingConfig) {
+    return MessageFramingFactory.createMessageFraming(this, framingConfig);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d [%s]", getCode(), getDetails());
+  }
+}
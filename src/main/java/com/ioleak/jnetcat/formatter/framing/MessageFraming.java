@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.framing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import com.ioleak.jnetcat.common.ByteArrayBuffer;
+import com.ioleak.jnetcat.common.interfaces.ReadTimeout;
+import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
+
+public abstract class MessageFraming {
+
+  private static final int READ_BUFFER_SIZE = 8192;
+  private static final int IDLE_POLL_MS = 1;
+
+  private final ByteArrayBuffer pendingData = new ByteArrayBuffer(READ_BUFFER_SIZE);
+  private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+  private final int maxMessageSize;
+
+  protected MessageFraming(int maxMessageSize) {
+    this.maxMessageSize = maxMessageSize;
+  }
+
+  protected abstract int findMessageEnd(byte[] data, int length);
+
+  // the pending data is a message once no data is received during this time, 0 when the messages do not end on idle
+  public long getIdleTimeoutMs() {
+    return 0;
+  }
+
+  public final void readMessage(InputStream inputStream, ByteArrayBuffer message)
+          throws IOException {
+    message.clear();
+
+    try {
+      while (!extractMessage(message)) {
+        boolean idleWait = !pendingData.isEmpty() && getIdleTimeoutMs() > 0;
+        if (idleWait && !(inputStream instanceof ReadTimeout) && !waitForData(inputStream)) {
+          takePendingData(message, pendingData.size());
+          return;
+        }
+
+        int result = idleWait && inputStream instanceof ReadTimeout ? readBeforeIdleTimeout(inputStream)
+                                                                     : inputStream.read(readBuffer, 0, readBuffer.length);
+        if (result == -1) {
+          if (pendingData.isEmpty()) {
+            throw new StreamNoDataException("Unable to read more data");
+          }
+
+          takePendingData(message, pendingData.size());
+          return;
+        }
+
+        pendingData.append(readBuffer, 0, result);
+        readAvailableData(inputStream);
+      }
+    } catch (SocketTimeoutException ex) {
+      if (!pendingData.isEmpty()) {
+        takePendingData(message, pendingData.size());
+      }
+    }
+  }
+
+  public void appendData(byte[] data, int offset, int length) {
+    pendingData.append(data, offset, length);
+  }
+
+  public boolean nextMessage(ByteArrayBuffer message) {
+    message.clear();
+    return extractMessage(message);
+  }
+
+  public boolean hasPendingData() {
+    return !pendingData.isEmpty();
+  }
+
+  // called when no data was appended during getIdleTimeoutMs(): the pending data is the message
+  public boolean idleMessage(ByteArrayBuffer message) {
+    message.clear();
+    return getIdleTimeoutMs() > 0 && takeAllPendingData(message);
+  }
+
+  public int getMaxMessageSize() {
+    return maxMessageSize;
+  }
+
+  protected final boolean takeAllPendingData(ByteArrayBuffer message) {
+    boolean hasData = !pendingData.isEmpty();
+
+    if (hasData) {
+      takePendingData(message, Math.min(pendingData.size(), maxMessageSize));
+    }
+
+    return hasData;
+  }
+
+  private boolean extractMessage(ByteArrayBuffer message) {
+    int messageEnd = findMessageEnd(pendingData.array(), pendingData.size());
+
+    if (messageEnd <= 0 && pendingData.size() >= maxMessageSize) {
+      messageEnd = maxMessageSize;
+    }
+
+    if (messageEnd > 0) {
+      takePendingData(message, Math.min(messageEnd, maxMessageSize));
+    }
+
+    return messageEnd > 0;
+  }
+
+  private void takePendingData(ByteArrayBuffer message, int length) {
+    message.append(pendingData.array(), 0, length);
+    pendingData.removeFirst(length);
+  }
+
+  private void readAvailableData(InputStream inputStream)
+          throws IOException {
+    int available;
+
+    while (pendingData.size() < maxMessageSize && (available = inputStream.available()) > 0) {
+      int result = inputStream.read(readBuffer, 0, Math.min(available, readBuffer.length));
+      if (result <= 0) {
+        break;
+      }
+
+      pendingData.append(readBuffer, 0, result);
+    }
+  }
+
+  // the read ends with a SocketTimeoutException when the stream stays idle
+  private int readBeforeIdleTimeout(InputStream inputStream)
+          throws IOException {
+    ReadTimeout readTimeout = (ReadTimeout) inputStream;
+    int timeoutMs = readTimeout.getReadTimeout();
+    int idleTimeoutMs = (int) Math.min(getIdleTimeoutMs(), Integer.MAX_VALUE);
+
+    readTimeout.setReadTimeout(timeoutMs > 0 ? Math.min(timeoutMs, idleTimeoutMs) : idleTimeoutMs);
+    try {
+      return inputStream.read(readBuffer, 0, readBuffer.length);
+    } finally {
+      readTimeout.setReadTimeout(timeoutMs);
+    }
+  }
+
+  // a stream without read timeout is polled
+  private boolean waitForData(InputStream inputStream)
+          throws IOException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getIdleTimeoutMs());
+
+    while (inputStream.available() <= 0) {
+      if (System.nanoTime() >= deadline) {
+        return false;
+      }
+
+      try {
+        Thread.sleep(IDLE_POLL_MS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.framing;
+
+import com.ioleak.jnetcat.formatter.framing.implement.FixedSizeFraming;
+import com.ioleak.jnetcat.formatter.framing.implement.IdleTimeoutFraming;
+import com.ioleak.jnetcat.formatter.framing.implement.LengthPrefixedFraming;
+import com.ioleak.jnetcat.formatter.framing.implement.NewlineFraming;
+import com.ioleak.jnetcat.formatter.framing.implement.RawFraming;
+import com.ioleak.jnetcat.options.FramingConfig;
+
+public class MessageFramingFactory {
+
+  public static MessageFraming createMessageFraming(FramingType framingType, FramingConfig framingConfig) {
+    MessageFraming messageFraming = null;
+    int maxMessageSize = framingConfig.getMaxMessageSize();
+
+    switch (FramingType.valueOf(framingType.name())) {
+      case RAW:
+        messageFraming = new RawFraming(maxMessageSize);
+        break;
+      case NEWLINE:
+        messageFraming = new NewlineFraming(maxMessageSize);
+        break;
+      case LENGTH_PREFIXED:
+        messageFraming = new LengthPrefixedFraming(maxMessageSize);
+        break;
+      case FIXED_SIZE:
+        messageFraming = new FixedSizeFraming(framingConfig.getMessageSize(), maxMessageSize);
+        break;
+      case IDLE_TIMEOUT:
+        messageFraming = new IdleTimeoutFraming(framingConfig.getIdleTimeoutMs(), maxMessageSize);
+        break;
+    }
+
+    return messageFraming;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.framing.implement;
+
+import com.ioleak.jnetcat.formatter.exception.StreamFramingException;
+import com.ioleak.jnetcat.formatter.framing.MessageFraming;
+
+public class LengthPrefixedFraming
+        extends MessageFraming {
+
+  public static final int LENGTH_FIELD_SIZE = 4;
+
+  public LengthPrefixedFraming(int maxMessageSize) {
+    super(maxMessageSize);
+  }
+
+  @Override
+  protected int findMessageEnd(byte[] data, int length) {
+    if (length < LENGTH_FIELD_SIZE) {
+      return -1;
+    }
+
+    int payloadLength = ((data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+    if (payloadLength < 0 || payloadLength > getMaxMessageSize() - LENGTH_FIELD_SIZE) {
+      throw new StreamFramingException(String.format("Invalid message length received: %d (max: %d)",
+                                                     payloadLength, getMaxMessageSize() - LENGTH_FIELD_SIZE));
+    }
+
+    int messageLength = LENGTH_FIELD_SIZE + payloadLength;
+    return length >= messageLength ? messageLength : -1;
+  }
+}
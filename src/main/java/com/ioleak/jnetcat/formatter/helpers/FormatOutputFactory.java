@@ -25,12 +25,32 @@
  */
 package com.ioleak.jnetcat.formatter.helpers;
 
+import java.nio.file.Path;
+
+import com.ioleak.jnetcat.formatter.CaptureFormatOutput;
+import com.ioleak.jnetcat.formatter.PcapngFormatOutput;
 import com.ioleak.jnetcat.formatter.PrettyHexStringOutput;
 import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
 import com.ioleak.jnetcat.formatter.SimpleLoggerStringOutput;
+import com.ioleak.jnetcat.formatter.capture.CaptureWriter;
+import com.ioleak.jnetcat.formatter.pcapng.PcapngWriter;
+import com.ioleak.jnetcat.options.OutputFormatConfig;
 
 public class FormatOutputFactory {
 
+  public static StreamFormatOutput createFormatOutput(FormatOutputType formatOutputType, OutputFormatConfig outputFormatConfig) {
+    if (formatOutputType == FormatOutputType.CAPTURE) {
+      return new CaptureFormatOutput(new CaptureWriter(Path.of(outputFormatConfig.getCaptureDirectory()),
+                                                       outputFormatConfig.getCaptureSegmentSizeMb() * 1024L * 1024L));
+    }
+
+    if (formatOutputType == FormatOutputType.PCAPNG) {
+      return new PcapngFormatOutput(new PcapngWriter(Path.of(outputFormatConfig.getPcapngFile()), outputFormatConfig.getPcapngQueueSize()));
+    }
+
+    return createFormatOutput(formatOutputType, outputFormatConfig.getLineWidth());
+  }
+
   public static StreamFormatOutput createFormatOutput(FormatOutputType formatOutputType, int lineWidth) {
     StreamFormatOutput streamFormatOutput = null;
 
@@ -44,6 +64,14 @@ public class FormatOutputFactory {
       case PRETTY_HEX:
         streamFormatOutput = new PrettyHexStringOutput(null, lineWidth);
         break;
+      case CAPTURE:
+        streamFormatOutput = new CaptureFormatOutput(new CaptureWriter(Path.of(OutputFormatConfig.DEFAULT_CAPTURE_DIRECTORY),
+                                                                       OutputFormatConfig.DEFAULT_CAPTURE_SEGMENT_SIZE_MB * 1024L * 1024L));
+        break;
+      case PCAPNG:
+        streamFormatOutput = new PcapngFormatOutput(new PcapngWriter(Path.of(OutputFormatConfig.DEFAULT_PCAPNG_FILE),
+                                                                     OutputFormatConfig.DEFAULT_PCAPNG_QUEUE_SIZE));
+        break;
     }
 
     return streamFormatOutput;
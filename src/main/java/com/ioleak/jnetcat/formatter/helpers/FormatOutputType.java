@@ -27,6 +27,7 @@
 package com.ioleak.jnetcat.formatter.helpers;
 
 import com.ioleak.jnetcat.common.BaseEnum;
+import com.ioleak.jnetcat.options.OutputFormatConfig;
 
 
 public enum FormatOutputType
@@ -34,7 +35,9 @@ public enum FormatOutputType
 
   NO_OUTPUT(0, "Communications are in silent mode"),
   SIMPLE(1, "Standard input/output details"),
-  PRETTY_HEX(2, "Display all data using hexadecimal values");
+  PRETTY_HEX(2, "Display all data using hexadecimal values"),
+  CAPTURE(3, "Record all the data sent and received in capture files"),
+  PCAPNG(4, "Record all the data sent and received in a pcapng file");
 
   private int code;
   private String msg;
@@ -58,6 +61,10 @@ public enum FormatOutputType
     return FormatOutputFactory.createFormatOutput(this, lineWidth);
   }
 
+  public StreamFormatOutput getFormatOutput(OutputFormatConfig outputFormatConfig) {
+    return FormatOutputFactory.createFormatOutput(this, outputFormatConfig);
+  }
+
   @Override
   public String toString() {
     return String.format("%d [%s]", getCode(), getDetails());
@@ -25,14 +25,69 @@
  */
 package com.ioleak.jnetcat.formatter.helpers;
 
-import java.beans.PropertyChangeEvent;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import com.ioleak.jnetcat.formatter.console.ConsoleOutput;
+import com.ioleak.jnetcat.options.FramingConfig;
 
 public interface StreamFormatOutput {
 
   public void startReading(InputStream inputStream) throws IOException;
-  public void formatDataOutput(PropertyChangeEvent evt);
+  public void startReading(byte[] data, int offset, int length) throws IOException;
+  public void appendData(byte[] data, int offset, int length);
+  public boolean nextMessage();
+  public long getIdleTimeoutMs();
+  public boolean hasPendingData();
+  public boolean idleMessage();
+  public void formatDataOutput(byte[] data, int offset, int length);
   public String getEndOfStreamData();
   public int getLineWidth();
+  public StreamFormatOutput newInstance();
+  public void setFramingConfig(FramingConfig framingConfig);
+  public void setConsoleOutput(ConsoleOutput consoleOutput);
+
+  public default void startReading(ByteBuffer data) throws IOException {
+    byte[] chunk = toArrayChunk(data);
+    startReading(chunk, data.hasArray() ? data.arrayOffset() + data.position() : 0, data.remaining());
+    data.position(data.limit());
+  }
+
+  public default void appendData(ByteBuffer data) {
+    byte[] chunk = toArrayChunk(data);
+    appendData(chunk, data.hasArray() ? data.arrayOffset() + data.position() : 0, data.remaining());
+    data.position(data.limit());
+  }
+
+  public default void formatDataOutput(ByteBuffer data) {
+    byte[] chunk = toArrayChunk(data);
+    formatDataOutput(chunk, data.hasArray() ? data.arrayOffset() + data.position() : 0, data.remaining());
+    data.position(data.limit());
+  }
+
+  public default void formatDataSent(byte[] data, int offset, int length) {
+  }
+
+  public default void formatDataSent(ByteBuffer data) {
+    data.position(data.limit());
+  }
+
+  public default void setEndpoints(TransportProtocol protocol, InetSocketAddress localAddress, InetSocketAddress remoteAddress) {
+  }
+
+  // the instance is not used anymore: by the session that got it from newInstance(), or by the process that created it
+  public default void close() {
+  }
+
+  private static byte[] toArrayChunk(ByteBuffer data) {
+    if (data.hasArray()) {
+      return data.array();
+    }
+
+    byte[] chunk = new byte[data.remaining()];
+    data.duplicate().get(chunk);
+    return chunk;
+  }
 }
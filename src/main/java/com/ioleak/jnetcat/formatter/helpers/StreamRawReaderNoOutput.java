@@ -25,29 +25,27 @@
  */
 package com.ioleak.jnetcat.formatter.helpers;
 
-import java.beans.PropertyChangeEvent;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.SocketTimeoutException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.IntStream;
 
-import com.ioleak.jnetcat.common.Logging;
-import com.ioleak.jnetcat.common.properties.ObjectProperty;
+import com.ioleak.jnetcat.common.ByteArrayBuffer;
 import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.console.ConsoleOutput;
+import com.ioleak.jnetcat.formatter.console.DirectConsoleOutput;
 import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
+import com.ioleak.jnetcat.formatter.framing.MessageFraming;
+import com.ioleak.jnetcat.options.FramingConfig;
 
 public abstract class StreamRawReaderNoOutput
         implements StreamFormatOutput {
 
-  private static final int MAX_BUFFER_SIZE = 2048;
-  
-  private final ObjectProperty<Byte> dataReceived = new ObjectProperty<>();
-  private final List<Byte> bufferDataReceived = new ArrayList<>();
+  private final ByteArrayBuffer bufferDataReceived = new ByteArrayBuffer();
   private final int lineWidth;
   
   private StreamFormatOutput prettyFormatOutput = null;
+  private FramingConfig framingConfig;
+  private MessageFraming messageFraming;
+  private ConsoleOutput consoleOutput = new DirectConsoleOutput();
 
   public StreamRawReaderNoOutput() {
     this(-1);
@@ -60,73 +58,116 @@ public abstract class StreamRawReaderNoOutput
   public StreamRawReaderNoOutput(StreamFormatOutput prettyFormatOutput, int lineWidth) {
     this.prettyFormatOutput = prettyFormatOutput;
     this.lineWidth = lineWidth;
-    dataReceived.addListener(this::formatDataOutput);
+    setFramingConfig(new FramingConfig());
   }
 
   @Override
-  public void formatDataOutput(PropertyChangeEvent evt) {
+  public void formatDataOutput(byte[] data, int offset, int length) {
     if (prettyFormatOutput != null) {
-      prettyFormatOutput.formatDataOutput(evt);
+      prettyFormatOutput.formatDataOutput(data, offset, length);
     }
   }
 
   @Override
   public String getEndOfStreamData() {
-    return StringUtils.getStringFromBytes(bufferDataReceived);
+    return bufferDataReceived.toString(StringUtils.DEFAULT_ENCODING_NETWORK);
   }
 
   @Override
   public final void startReading(InputStream inputStream) throws IOException {
-    int result = 0;
-    boolean endOfStream = false;
+    messageFraming.readMessage(inputStream, bufferDataReceived);
+    formatReceivedData();
+  }
+
+  @Override
+  public final void startReading(byte[] data, int offset, int length) throws IOException {
+    if (length <= 0) {
+      throw new StreamNoDataException("Unable to read more data");
+    }
 
     bufferDataReceived.clear();
+    bufferDataReceived.append(data, offset, length);
+    formatReceivedData();
+  }
+
+  @Override
+  public final void appendData(byte[] data, int offset, int length) {
+    messageFraming.appendData(data, offset, length);
+  }
+
+  @Override
+  public final boolean nextMessage() {
+    boolean messageFound = messageFraming.nextMessage(bufferDataReceived);
+
+    if (messageFound) {
+      formatReceivedData();
+    }
+
+    return messageFound;
+  }
+
+  @Override
+  public final long getIdleTimeoutMs() {
+    return messageFraming.getIdleTimeoutMs();
+  }
+
+  @Override
+  public final boolean hasPendingData() {
+    return messageFraming.hasPendingData();
+  }
 
-    do {
-      try {
-        byte[] inputData = new byte[MAX_BUFFER_SIZE];
-        readByte(blockOnReadDetectConnectionLost(inputStream));
-        
-        result = inputStream.read(inputData, 0, inputStream.available() > MAX_BUFFER_SIZE ? MAX_BUFFER_SIZE : inputStream.available());
-        int[] readBytes = IntStream.range(0, result).map(i -> inputData[i]).toArray();
-
-        for (int aByte : readBytes) {
-          readByte((byte) aByte);
-        }
-        
-        endOfStream = (result == -1) || (inputStream.available() <= 0);
-
-      } catch (SocketTimeoutException ex) {
-        endOfStream = true;
-      }
-    } while (!endOfStream);
-
-    getEndOfStreamData();
-
-    try {
-      Thread.sleep(100);
-    } catch (InterruptedException ex) {
-      Logging.getLogger().warn("Thread interrupted!", ex);
+  @Override
+  public final boolean idleMessage() {
+    boolean messageFound = messageFraming.idleMessage(bufferDataReceived);
+
+    if (messageFound) {
+      formatReceivedData();
+    }
+
+    return messageFound;
+  }
+
+  @Override
+  public final void setFramingConfig(FramingConfig framingConfig) {
+    this.framingConfig = framingConfig == null ? new FramingConfig() : framingConfig;
+    this.messageFraming = this.framingConfig.getFramingType().getMessageFraming(this.framingConfig);
+  }
+
+  public FramingConfig getFramingConfig() {
+    return framingConfig;
+  }
+
+  @Override
+  public final void setConsoleOutput(ConsoleOutput consoleOutput) {
+    this.consoleOutput = consoleOutput == null ? new DirectConsoleOutput() : consoleOutput;
+
+    if (prettyFormatOutput != null) {
+      prettyFormatOutput.setConsoleOutput(consoleOutput);
     }
   }
 
+  public ConsoleOutput getConsoleOutput() {
+    return consoleOutput;
+  }
+
   @Override
   public int getLineWidth() {
     return lineWidth;
   }
-  
-  private byte blockOnReadDetectConnectionLost(InputStream inputStream)
-          throws IOException {
-    int oneByte = inputStream.read();
-    if (oneByte == -1) {
-      throw new StreamNoDataException("Unable to read more data");
-    }
 
-    return (byte) oneByte;
+  protected StreamFormatOutput newPrettyFormatOutputInstance() {
+    return prettyFormatOutput == null ? null : prettyFormatOutput.newInstance();
   }
 
-  private void readByte(byte oneByte) {
-    bufferDataReceived.add(oneByte);
-    dataReceived.set(oneByte);
+  protected StreamFormatOutput copyConfigTo(StreamFormatOutput streamFormatOutput) {
+    streamFormatOutput.setFramingConfig(framingConfig);
+    streamFormatOutput.setConsoleOutput(consoleOutput);
+    return streamFormatOutput;
+  }
+
+  private void formatReceivedData() {
+    if (!bufferDataReceived.isEmpty()) {
+      formatDataOutput(bufferDataReceived.array(), 0, bufferDataReceived.size());
+    }
   }
 }
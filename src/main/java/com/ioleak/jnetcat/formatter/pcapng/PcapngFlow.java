@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.pcapng;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+
+public class PcapngFlow {
+
+  private static final byte[] DEFAULT_LOCAL_ADDRESS = {127, 0, 0, 1};
+  private static final byte[] DEFAULT_REMOTE_ADDRESS = {127, 0, 0, 2};
+  private static final int DEFAULT_REMOTE_PORT = 49152;
+  private static final int IPV4_ADDRESS_SIZE = 4;
+  private static final int IPV6_ADDRESS_SIZE = 16;
+
+  private final TransportProtocol protocol;
+  private final InetSocketAddress localSocketAddress;
+  private final InetSocketAddress remoteSocketAddress;
+  private final byte[] localAddress;
+  private final byte[] remoteAddress;
+  private final int localPort;
+  private final int remotePort;
+
+  // only updated by the writer thread
+  private int localSequence = 1;
+  private int remoteSequence = 1;
+
+  public PcapngFlow(TransportProtocol protocol, InetSocketAddress localSocketAddress, InetSocketAddress remoteSocketAddress, int connectionId) {
+    this.protocol = protocol == null ? TransportProtocol.TCP : protocol;
+    this.localSocketAddress = localSocketAddress;
+    this.remoteSocketAddress = remoteSocketAddress;
+
+    byte[] local = toAddressBytes(localSocketAddress, DEFAULT_LOCAL_ADDRESS);
+    byte[] remote = toAddressBytes(remoteSocketAddress, DEFAULT_REMOTE_ADDRESS);
+    if (local.length != remote.length) {
+      local = toIpv6Address(local);
+      remote = toIpv6Address(remote);
+    }
+
+    this.localAddress = local;
+    this.remoteAddress = remote;
+    this.localPort = localSocketAddress == null ? 0 : localSocketAddress.getPort();
+    this.remotePort = remoteSocketAddress == null ? DEFAULT_REMOTE_PORT + connectionId % 16384 : remoteSocketAddress.getPort();
+  }
+
+  public boolean matches(TransportProtocol protocol, InetSocketAddress localSocketAddress, InetSocketAddress remoteSocketAddress) {
+    return this.protocol == protocol
+           && Objects.equals(this.localSocketAddress, localSocketAddress)
+           && Objects.equals(this.remoteSocketAddress, remoteSocketAddress);
+  }
+
+  public TransportProtocol getProtocol() {
+    return protocol;
+  }
+
+  public boolean isIpv6() {
+    return localAddress.length == IPV6_ADDRESS_SIZE;
+  }
+
+  byte[] getLocalAddress() {
+    return localAddress;
+  }
+
+  byte[] getRemoteAddress() {
+    return remoteAddress;
+  }
+
+  int getLocalPort() {
+    return localPort;
+  }
+
+  int getRemotePort() {
+    return remotePort;
+  }
+
+  int getLocalSequence() {
+    return localSequence;
+  }
+
+  int getRemoteSequence() {
+    return remoteSequence;
+  }
+
+  void localDataSent(int length) {
+    localSequence += length;
+  }
+
+  void remoteDataSent(int length) {
+    remoteSequence += length;
+  }
+
+  private static byte[] toAddressBytes(InetSocketAddress socketAddress, byte[] defaultAddress) {
+    InetAddress address = socketAddress == null ? null : socketAddress.getAddress();
+    return address == null ? defaultAddress : address.getAddress();
+  }
+
+  private static byte[] toIpv6Address(byte[] address) {
+    if (address.length == IPV6_ADDRESS_SIZE) {
+      return address;
+    }
+
+    // IPv4-mapped IPv6 address (::ffff:a.b.c.d)
+    byte[] mappedAddress = new byte[IPV6_ADDRESS_SIZE];
+    mappedAddress[10] = (byte) 0xff;
+    mappedAddress[11] = (byte) 0xff;
+    System.arraycopy(address, 0, mappedAddress, IPV6_ADDRESS_SIZE - IPV4_ADDRESS_SIZE, IPV4_ADDRESS_SIZE);
+    return mappedAddress;
+  }
+}
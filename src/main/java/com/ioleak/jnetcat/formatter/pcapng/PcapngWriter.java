@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.pcapng;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.formatter.capture.CaptureDirection;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+
+import org.slf4j.Logger;
+
+public class PcapngWriter {
+
+  private static final Logger LOGGER = Logging.getLogger(PcapngWriter.class);
+
+  public static final int LINKTYPE_RAW = 101;
+  public static final int SECTION_HEADER_BLOCK = 0x0A0D0D0A;
+  public static final int INTERFACE_DESCRIPTION_BLOCK = 1;
+  public static final int ENHANCED_PACKET_BLOCK = 6;
+  public static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+  public static final int MAX_PAYLOAD_SIZE = 65000;
+
+  private static final String WRITER_THREAD_NAME = "PcapngWriter";
+  private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+  private static final int MAX_BATCH_SIZE = 1024;
+  private static final long POLL_TIMEOUT_MS = 100;
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+
+  private static final short OPTION_END = 0;
+  private static final short OPTION_TIMESTAMP_RESOLUTION = 9;
+  private static final byte NANOSECOND_RESOLUTION = 9;
+  private static final int SECTION_HEADER_SIZE = 28;
+  private static final int INTERFACE_DESCRIPTION_SIZE = 32;
+  private static final int ENHANCED_PACKET_HEADER_SIZE = 28;
+  private static final int IPV4_HEADER_SIZE = 20;
+  private static final int IPV6_HEADER_SIZE = 40;
+  private static final int TCP_HEADER_SIZE = 20;
+  private static final int UDP_HEADER_SIZE = 8;
+  private static final byte TCP_FLAGS_PSH_ACK = 0x18;
+  private static final int TTL = 64;
+
+  private final Path file;
+  private final BlockingQueue<PcapngPacket> packets;
+  private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private final AtomicInteger connectionIds = new AtomicInteger();
+  private final AtomicLong droppedPackets = new AtomicLong();
+  private final long epochOffsetNanos;
+  private final Thread writerThread;
+  private final AtomicInteger references = new AtomicInteger();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final Thread shutdownHook = new Thread(this::close, "PcapngWriterShutdown");
+
+  private volatile boolean running = true;
+  private volatile boolean disabled = false;
+  private int ipv4Identification = 0;
+
+  public PcapngWriter(Path file, int queueSize) {
+    this.file = file;
+    this.packets = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+
+    Instant now = Instant.now();
+    this.epochOffsetNanos = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano() - System.nanoTime();
+
+    writerThread = new Thread(this::writePackets, WRITER_THREAD_NAME);
+    writerThread.setDaemon(true);
+    writerThread.start();
+
+    // the writer thread is a daemon: the packets still queued are written before the exit
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+  }
+
+  // one reference per output using the writer, the writer is closed when the last one is released
+  public void retain() {
+    references.incrementAndGet();
+  }
+
+  public void release() {
+    if (references.decrementAndGet() == 0) {
+      close();
+    }
+  }
+
+  public int newConnectionId() {
+    return connectionIds.incrementAndGet();
+  }
+
+  public void write(PcapngFlow flow, CaptureDirection direction, byte[] data, int offset, int length) {
+    write(flow, direction, ByteBuffer.wrap(data, offset, length));
+  }
+
+  public void write(PcapngFlow flow, CaptureDirection direction, ByteBuffer data) {
+    if (disabled || !data.hasRemaining()) {
+      return;
+    }
+
+    byte[] packetData = new byte[data.remaining()];
+    data.duplicate().get(packetData);
+
+    // the socket threads never wait for the file: the packet is dropped when the writer is late
+    if (!packets.offer(new PcapngPacket(epochOffsetNanos + System.nanoTime(), flow, direction, packetData))) {
+      droppedPackets.incrementAndGet();
+    }
+  }
+
+  public long getDroppedPackets() {
+    return droppedPackets.get();
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException ex) {
+      // called by the shutdown hook
+    }
+
+    running = false;
+
+    try {
+      writerThread.join(CLOSE_TIMEOUT_MS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    disabled = true;
+
+    if (droppedPackets.get() > 0) {
+      LOGGER.warn("{} packet(s) dropped from {}, the file was written too slowly", droppedPackets.get(), file);
+    }
+  }
+
+  private void writePackets() {
+    List<PcapngPacket> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      writeSectionHeader();
+      flush(channel);
+
+      while (running || !packets.isEmpty()) {
+        PcapngPacket packet = packets.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (packet == null) {
+          continue;
+        }
+
+        batch.add(packet);
+        packets.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+        for (PcapngPacket batchPacket : batch) {
+          writePacket(channel, batchPacket);
+        }
+
+        flush(channel);
+        batch.clear();
+      }
+    } catch (IOException ex) {
+      LOGGER.error("Unable to write pcapng file {}, capture disabled: {}", file, ex.getMessage());
+      disabled = true;
+      packets.clear();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeSectionHeader() {
+    writeBuffer.putInt(SECTION_HEADER_BLOCK)
+            .putInt(SECTION_HEADER_SIZE)
+            .putInt(BYTE_ORDER_MAGIC)
+            .putShort((short) 1)
+            .putShort((short) 0)
+            .putLong(-1)
+            .putInt(SECTION_HEADER_SIZE);
+
+    writeBuffer.putInt(INTERFACE_DESCRIPTION_BLOCK)
+            .putInt(INTERFACE_DESCRIPTION_SIZE)
+            .putShort((short) LINKTYPE_RAW)
+            .putShort((short) 0)
+            .putInt(0)
+            .putShort(OPTION_TIMESTAMP_RESOLUTION)
+            .putShort((short) 1)
+            .put(NANOSECOND_RESOLUTION)
+            .put(new byte[3])
+            .putShort(OPTION_END)
+            .putShort((short) 0)
+            .putInt(INTERFACE_DESCRIPTION_SIZE);
+  }
+
+  private void writePacket(FileChannel channel, PcapngPacket packet)
+          throws IOException {
+    byte[] data = packet.getData();
+
+    for (int offset = 0; offset < data.length; offset += MAX_PAYLOAD_SIZE) {
+      writeSegment(channel, packet, offset, Math.min(data.length - offset, MAX_PAYLOAD_SIZE));
+    }
+  }
+
+  private void writeSegment(FileChannel channel, PcapngPacket packet, int offset, int length)
+          throws IOException {
+    PcapngFlow flow = packet.getFlow();
+    boolean tcp = flow.getProtocol() == TransportProtocol.TCP;
+    boolean received = packet.getDirection() == CaptureDirection.RECEIVED;
+
+    int transportLength = (tcp ? TCP_HEADER_SIZE : UDP_HEADER_SIZE) + length;
+    int packetLength = (flow.isIpv6() ? IPV6_HEADER_SIZE : IPV4_HEADER_SIZE) + transportLength;
+    int paddedLength = (packetLength + 3) & ~3;
+    int blockLength = ENHANCED_PACKET_HEADER_SIZE + paddedLength + Integer.BYTES;
+
+    if (writeBuffer.remaining() < blockLength) {
+      flush(channel);
+    }
+
+    long timestampNanos = packet.getTimestampNanos();
+    writeBuffer.putInt(ENHANCED_PACKET_BLOCK)
+            .putInt(blockLength)
+            .putInt(0)
+            .putInt((int) (timestampNanos >>> 32))
+            .putInt((int) timestampNanos)
+            .putInt(packetLength)
+            .putInt(packetLength);
+
+    byte[] sourceAddress = received ? flow.getRemoteAddress() : flow.getLocalAddress();
+    byte[] destinationAddress = received ? flow.getLocalAddress() : flow.getRemoteAddress();
+    int sourcePort = received ? flow.getRemotePort() : flow.getLocalPort();
+    int destinationPort = received ? flow.getLocalPort() : flow.getRemotePort();
+
+    // network headers are big-endian, the pcapng blocks use the byte order of the section header
+    writeBuffer.order(ByteOrder.BIG_ENDIAN);
+    if (flow.isIpv6()) {
+      writeIpv6Header(flow.getProtocol(), sourceAddress, destinationAddress, transportLength);
+    } else {
+      writeIpv4Header(flow.getProtocol(), sourceAddress, destinationAddress, transportLength);
+    }
+
+    int transportStart = writeBuffer.position();
+    writeBuffer.putShort((short) sourcePort).putShort((short) destinationPort);
+
+    if (tcp) {
+      writeBuffer.putInt(received ? flow.getRemoteSequence() : flow.getLocalSequence())
+              .putInt(received ? flow.getLocalSequence() : flow.getRemoteSequence())
+              .put((byte) ((TCP_HEADER_SIZE / 4) << 4))
+              .put(TCP_FLAGS_PSH_ACK)
+              .putShort((short) 0xffff)
+              .putShort((short) 0)
+              .putShort((short) 0);
+
+      if (received) {
+        flow.remoteDataSent(length);
+      } else {
+        flow.localDataSent(length);
+      }
+    } else {
+      writeBuffer.putShort((short) transportLength).putShort((short) 0);
+    }
+
+    writeBuffer.put(packet.getData(), offset, length);
+
+    long sum = sum(sourceAddress) + sum(destinationAddress) + flow.getProtocol().getCode() + transportLength
+               + sum(writeBuffer, transportStart, writeBuffer.position());
+    int checksum = toChecksum(sum);
+    writeBuffer.putShort(transportStart + (tcp ? 16 : 6), (short) (!tcp && checksum == 0 ? 0xffff : checksum));
+
+    for (int i = packetLength; i < paddedLength; i++) {
+      writeBuffer.put((byte) 0);
+    }
+
+    writeBuffer.order(ByteOrder.LITTLE_ENDIAN);
+    writeBuffer.putInt(blockLength);
+  }
+
+  private void writeIpv4Header(TransportProtocol protocol, byte[] sourceAddress, byte[] destinationAddress, int transportLength) {
+    int headerStart = writeBuffer.position();
+
+    writeBuffer.put((byte) 0x45)
+            .put((byte) 0)
+            .putShort((short) (IPV4_HEADER_SIZE + transportLength))
+            .putShort((short) ipv4Identification++)
+            .putShort((short) 0x4000)
+            .put((byte) TTL)
+            .put((byte) protocol.getCode())
+            .putShort((short) 0)
+            .put(sourceAddress)
+            .put(destinationAddress);
+
+    writeBuffer.putShort(headerStart + 10, (short) toChecksum(sum(writeBuffer, headerStart, writeBuffer.position())));
+  }
+
+  private void writeIpv6Header(TransportProtocol protocol, byte[] sourceAddress, byte[] destinationAddress, int transportLength) {
+    writeBuffer.putInt(0x60000000)
+            .putShort((short) transportLength)
+            .put((byte) protocol.getCode())
+            .put((byte) TTL)
+            .put(sourceAddress)
+            .put(destinationAddress);
+  }
+
+  private void flush(FileChannel channel)
+          throws IOException {
+    writeBuffer.flip();
+    while (writeBuffer.hasRemaining()) {
+      channel.write(writeBuffer);
+    }
+    writeBuffer.clear();
+  }
+
+  private static long sum(byte[] data) {
+    long sum = 0;
+    for (int i = 0; i < data.length; i += 2) {
+      sum += ((data[i] & 0xff) << 8) | (data[i + 1] & 0xff);
+    }
+    return sum;
+  }
+
+  private static long sum(ByteBuffer buffer, int start, int end) {
+    long sum = 0;
+    int i = start;
+
+    for (; i + 1 < end; i += 2) {
+      sum += ((buffer.get(i) & 0xff) << 8) | (buffer.get(i + 1) & 0xff);
+    }
+
+    if (i < end) {
+      sum += (buffer.get(i) & 0xff) << 8;
+    }
+
+    return sum;
+  }
+
+  private static int toChecksum(long sum) {
+    while ((sum >>> 16) != 0) {
+      sum = (sum & 0xffff) + (sum >>> 16);
+    }
+
+    return (int) (~sum & 0xffff);
+  }
+}
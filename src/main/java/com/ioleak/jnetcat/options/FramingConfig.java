@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ioleak.jnetcat.options;
+
+import com.ioleak.jnetcat.formatter.framing.FramingType;
+
+
+public class FramingConfig {
+
+  public static final int DEFAULT_MAX_MESSAGE_SIZE = 65536;
+  public static final int DEFAULT_IDLE_TIMEOUT_MS = 50;
+
+  private FramingType framingType = FramingType.RAW;
+  private int messageSize = 0;
+  private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+  private int idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+
+  public FramingConfig() {
+  }
+
+  public FramingConfig(FramingType framingType, int messageSize, int maxMessageSize, int idleTimeoutMs) {
+    this.framingType = framingType;
+    this.messageSize = messageSize;
+    this.maxMessageSize = maxMessageSize;
+    this.idleTimeoutMs = idleTimeoutMs;
+  }
+
+  public FramingType getFramingType() {
+    return framingType == null ? FramingType.RAW : framingType;
+  }
+
+  public int getMessageSize() {
+    return messageSize;
+  }
+
+  public int getMaxMessageSize() {
+    return maxMessageSize > 0 ? maxMessageSize : DEFAULT_MAX_MESSAGE_SIZE;
+  }
+
+  public int getIdleTimeoutMs() {
+    return idleTimeoutMs > 0 ? idleTimeoutMs : DEFAULT_IDLE_TIMEOUT_MS;
+  }
+}
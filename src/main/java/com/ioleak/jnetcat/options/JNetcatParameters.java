@@ -25,9 +25,14 @@
  */
 package com.ioleak.jnetcat.options;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.ioleak.jnetcat.common.BaseObject;
+import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.parsers.ArgumentsParser;
 import com.ioleak.jnetcat.options.exception.ClientIncompatibleArgumentException;
 import com.ioleak.jnetcat.options.exception.ServerIncompatibleArgumentException;
@@ -36,14 +41,19 @@ import com.ioleak.jnetcat.options.startup.ClientParametersUDP;
 import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
 import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
 
+import org.slf4j.Logger;
+
 @JsonDeserialize(builder = JNetcatParameters.ParametersBuilder.class)
 public class JNetcatParameters
         extends BaseObject {
 
+  private static final Logger LOGGER = Logging.getLogger(JNetcatParameters.class);
+
   private final boolean startAsServer;
   private final boolean useProtocolTCP;
 
   private final OutputFormatConfig outputFormatConfig;
+  private final FramingConfig framingConfig;
   
   private final ClientParametersTCP clientParametersTCP;
   private final ClientParametersUDP clientParametersUDP;
@@ -51,11 +61,14 @@ public class JNetcatParameters
   private final ServerParametersTCP serverParametersTCP;
   private final ServerParametersUDP serverParametersUDP;
 
+  private final List<JNetcatParameters> processes;
+
   public static class ParametersBuilder {
 
     private boolean startAsServer = false;
     private boolean useProtocolTCP = false;
     private OutputFormatConfig outputFormatConfig = new OutputFormatConfig();
+    private FramingConfig framingConfig = new FramingConfig();
     
     private ClientParametersTCP clientParametersTCP;
     private ClientParametersUDP clientParametersUDP;
@@ -63,6 +76,8 @@ public class JNetcatParameters
     private ServerParametersTCP serverParametersTCP;
     private ServerParametersUDP serverParametersUDP;
 
+    private List<JNetcatParameters> processes = new ArrayList<>();
+
     public ParametersBuilder(@JsonProperty("startAsServer") boolean startAsServer,
                              @JsonProperty("useProtocolTCP") boolean useProtocolTCP,
                              @JsonProperty("outputFormatConfig") OutputFormatConfig outputFormatConfig) {
@@ -75,11 +90,13 @@ public class JNetcatParameters
       this.startAsServer = params.startAsServer;
       this.useProtocolTCP = params.useProtocolTCP;
       this.outputFormatConfig = params.outputFormatConfig;
+      this.framingConfig = params.framingConfig;
       
       withClientParametersTCP(params.getClientParametersTCP());
       withClientParametersUDP(params.getClientParametersUDP());
       withServerParametersTCP(params.getServerParametersTCP());
       withServerParametersUDP(params.getServerParametersUDP());
+      withProcesses(params.getProcesses());
     }
 
     public final ParametersBuilder withStartAsServer(boolean startAsServer) {
@@ -92,6 +109,16 @@ public class JNetcatParameters
       return this;
     }
 
+    public final ParametersBuilder withOutputFormatConfig(OutputFormatConfig outputFormatConfig) {
+      this.outputFormatConfig = outputFormatConfig;
+      return this;
+    }
+
+    public final ParametersBuilder withFramingConfig(FramingConfig framingConfig) {
+      this.framingConfig = framingConfig;
+      return this;
+    }
+
     public final ParametersBuilder withClientParametersTCP(ClientParametersTCP clientParametersTCP) {
       this.clientParametersTCP = clientParametersTCP;
       return this;
@@ -112,6 +139,11 @@ public class JNetcatParameters
       return this;
     }
 
+    public final ParametersBuilder withProcesses(List<JNetcatParameters> processes) {
+      this.processes = processes == null ? new ArrayList<>() : processes;
+      return this;
+    }
+
     public final JNetcatParameters build() {
       return new JNetcatParameters(this);
     }
@@ -120,12 +152,14 @@ public class JNetcatParameters
   public JNetcatParameters(ParametersBuilder builder) {
     this.startAsServer = builder.startAsServer;
     this.useProtocolTCP = builder.useProtocolTCP;
-    this.outputFormatConfig = builder.outputFormatConfig;
+    this.outputFormatConfig = builder.outputFormatConfig == null ? new OutputFormatConfig() : builder.outputFormatConfig;
+    this.framingConfig = builder.framingConfig == null ? new FramingConfig() : builder.framingConfig;
     
     this.clientParametersTCP = builder.clientParametersTCP;
     this.serverParametersTCP = builder.serverParametersTCP;
     this.clientParametersUDP = builder.clientParametersUDP;
     this.serverParametersUDP = builder.serverParametersUDP;
+    this.processes = List.copyOf(builder.processes);
 
     validateParameters();
   }
@@ -142,6 +176,10 @@ public class JNetcatParameters
     return outputFormatConfig;
   }
   
+  public FramingConfig getFramingConfig() {
+    return framingConfig;
+  }
+
   public ClientParametersTCP getClientParametersTCP() {
     return clientParametersTCP;
   }
@@ -158,7 +196,27 @@ public class JNetcatParameters
     return serverParametersUDP;
   }
 
+  public List<JNetcatParameters> getProcesses() {
+    return processes;
+  }
+
+  @JsonIgnore
+  public boolean isProcessGroup() {
+    return !processes.isEmpty();
+  }
+
   private void validateParameters() {
+    // the listeners and clients of the list are validated when they are built, the other parameters are not used
+    if (isProcessGroup()) {
+      for (JNetcatParameters process : processes) {
+        if (process.isProcessGroup()) {
+          throw new ServerIncompatibleArgumentException("A process of the list cannot define its own list of processes");
+        }
+      }
+
+      return;
+    }
+
     if (startAsServer && useProtocolTCP && serverParametersTCP == null) {
       throw new ServerIncompatibleArgumentException("Missing server TCP parameters");
     }
@@ -181,6 +239,11 @@ public class JNetcatParameters
       return this;
     }
 
+    if (isProcessGroup()) {
+      LOGGER.warn("Command line parameters are ignored when a list of processes is defined");
+      return this;
+    }
+
     JNetcatParameters.ParametersBuilder jNetcatParametersBuilder = new JNetcatParameters.ParametersBuilder(this);
     ClientParametersTCP.ParametersBuilder clientParametersTCPBuilder = new ClientParametersTCP.ParametersBuilder(getClientParametersTCP());
     ClientParametersUDP.ParametersBuilder clientParametersUDPBuilder = new ClientParametersUDP.ParametersBuilder(getClientParametersUDP());
@@ -26,12 +26,30 @@
 
 package com.ioleak.jnetcat.options;
 
+import java.util.Objects;
+
+import com.ioleak.jnetcat.formatter.console.OverflowPolicy;
 import com.ioleak.jnetcat.formatter.helpers.FormatOutputType;
 
 
 public class OutputFormatConfig {
+    public static final int DEFAULT_OUTPUT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+    public static final String DEFAULT_CAPTURE_DIRECTORY = "capture";
+    public static final int DEFAULT_CAPTURE_SEGMENT_SIZE_MB = 64;
+    public static final String DEFAULT_PCAPNG_FILE = "capture.pcapng";
+    public static final int DEFAULT_PCAPNG_QUEUE_SIZE = 16384;
+
     private FormatOutputType formatOutputType = FormatOutputType.NO_OUTPUT;
     private int lineWidth = 35;
+    private boolean asyncOutput = true;
+    private int outputBufferSize = DEFAULT_OUTPUT_BUFFER_SIZE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private int sampleRate = DEFAULT_SAMPLE_RATE;
+    private String captureDirectory = DEFAULT_CAPTURE_DIRECTORY;
+    private int captureSegmentSizeMb = DEFAULT_CAPTURE_SEGMENT_SIZE_MB;
+    private String pcapngFile = DEFAULT_PCAPNG_FILE;
+    private int pcapngQueueSize = DEFAULT_PCAPNG_QUEUE_SIZE;
     
     public FormatOutputType getFormatOutputType() {
       return formatOutputType;
@@ -40,4 +58,91 @@ public class OutputFormatConfig {
     public int getLineWidth() {
       return lineWidth;
     }
+
+    public boolean isAsyncOutput() {
+      return asyncOutput;
+    }
+
+    public int getOutputBufferSize() {
+      return outputBufferSize > 0 ? outputBufferSize : DEFAULT_OUTPUT_BUFFER_SIZE;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+      return overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+    }
+
+    public int getSampleRate() {
+      return sampleRate > 0 ? sampleRate : DEFAULT_SAMPLE_RATE;
+    }
+
+    public String getCaptureDirectory() {
+      return captureDirectory == null || captureDirectory.isBlank() ? DEFAULT_CAPTURE_DIRECTORY : captureDirectory;
+    }
+
+    public int getCaptureSegmentSizeMb() {
+      return captureSegmentSizeMb > 0 ? captureSegmentSizeMb : DEFAULT_CAPTURE_SEGMENT_SIZE_MB;
+    }
+
+    public String getPcapngFile() {
+      return pcapngFile == null || pcapngFile.isBlank() ? DEFAULT_PCAPNG_FILE : pcapngFile;
+    }
+
+    public int getPcapngQueueSize() {
+      return pcapngQueueSize > 0 ? pcapngQueueSize : DEFAULT_PCAPNG_QUEUE_SIZE;
+    }
+
+    // the file (PCAPNG) or the directory (CAPTURE) written by the output, null for the console outputs
+    public String getOutputPath() {
+      switch (getFormatOutputType()) {
+        case CAPTURE:
+          return getCaptureDirectory();
+        case PCAPNG:
+          return getPcapngFile();
+        default:
+          return null;
+      }
+    }
+
+    // a copy writing to another directory (CAPTURE) or file (PCAPNG): the suffix is added before the file extension
+    public OutputFormatConfig withOutputPathSuffix(String suffix) {
+      OutputFormatConfig outputFormatConfig = new OutputFormatConfig();
+      outputFormatConfig.formatOutputType = formatOutputType;
+      outputFormatConfig.lineWidth = lineWidth;
+      outputFormatConfig.asyncOutput = asyncOutput;
+      outputFormatConfig.outputBufferSize = outputBufferSize;
+      outputFormatConfig.overflowPolicy = overflowPolicy;
+      outputFormatConfig.sampleRate = sampleRate;
+      outputFormatConfig.captureDirectory = getCaptureDirectory() + suffix;
+      outputFormatConfig.captureSegmentSizeMb = captureSegmentSizeMb;
+      outputFormatConfig.pcapngQueueSize = pcapngQueueSize;
+
+      String file = getPcapngFile();
+      int extensionIndex = file.lastIndexOf('.');
+      outputFormatConfig.pcapngFile = extensionIndex > Math.max(file.lastIndexOf('/'), file.lastIndexOf('\\'))
+                                      ? file.substring(0, extensionIndex) + suffix + file.substring(extensionIndex)
+                                      : file + suffix;
+
+      return outputFormatConfig;
+    }
+
+    public boolean hasSameConsoleOutput(OutputFormatConfig other) {
+      return other != null && asyncOutput == other.isAsyncOutput() && getOutputBufferSize() == other.getOutputBufferSize()
+             && getOverflowPolicy() == other.getOverflowPolicy() && getSampleRate() == other.getSampleRate();
+    }
+
+    // the CAPTURE and PCAPNG writers are kept while their file is the same, their size options only apply to a new file
+    public boolean hasSameFormatOutput(OutputFormatConfig other) {
+      if (other == null || getFormatOutputType() != other.getFormatOutputType()) {
+        return false;
+      }
+
+      switch (getFormatOutputType()) {
+        case CAPTURE:
+          return Objects.equals(getCaptureDirectory(), other.getCaptureDirectory());
+        case PCAPNG:
+          return Objects.equals(getPcapngFile(), other.getPcapngFile());
+        default:
+          return getLineWidth() == other.getLineWidth();
+      }
+    }
 }
@@ -27,18 +27,32 @@ package com.ioleak.jnetcat.options.startup;
 
 import com.ioleak.jnetcat.common.BaseObject;
 import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.capture.CaptureDirection;
 import com.ioleak.jnetcat.options.exception.IPv4InvalidArgumentException;
 import com.ioleak.jnetcat.options.exception.PortInvalidArgumentException;
 
 public abstract class ClientParameters
         extends BaseObject {
 
+  public static final String DEFAULT_REQUEST_MESSAGE = "PING\n";
+  public static final int DEFAULT_DURATION_MS = 10000;
+  public static final int DEFAULT_REPORT_INTERVAL_MS = 1000;
+  public static final double DEFAULT_REPLAY_SPEED = 1.0;
+
   private final String ip;
   private final Integer port;
   
   private final int nbClientMax;
   private final int nbExecution;
   private final int sleepBetweenExecMs;
+  private final String requestMessage;
+  private final String latencyReportFile;
+  private final int durationMs;
+  private final int reportIntervalMs;
+  private final String replayFile;
+  private final double replaySpeed;
+  private final int replaySessions;
+  private final CaptureDirection replayDirection;
 
   private final int soTimeout;
   private final boolean interactive;
@@ -52,6 +66,14 @@ public abstract class ClientParameters
     private int nbClientMax = 1;
     private int nbExecution = 1;
     private int sleepBetweenExecMs = 1000;
+    private String requestMessage = DEFAULT_REQUEST_MESSAGE;
+    private String latencyReportFile;
+    private int durationMs = DEFAULT_DURATION_MS;
+    private int reportIntervalMs = DEFAULT_REPORT_INTERVAL_MS;
+    private String replayFile;
+    private double replaySpeed = DEFAULT_REPLAY_SPEED;
+    private int replaySessions = 1;
+    private CaptureDirection replayDirection = CaptureDirection.SENT;
 
     private boolean interactive = false;
 
@@ -84,8 +106,8 @@ public abstract class ClientParameters
       return self();
     }
 
-    public T withNbExecution(int nbClientMax) {
-      this.nbClientMax = nbClientMax;
+    public T withNbExecution(int nbExecution) {
+      this.nbExecution = nbExecution;
       return self();
     }
 
@@ -94,6 +116,46 @@ public abstract class ClientParameters
       return self();
     }
 
+    public T withRequestMessage(String requestMessage) {
+      this.requestMessage = requestMessage;
+      return self();
+    }
+
+    public T withLatencyReportFile(String latencyReportFile) {
+      this.latencyReportFile = latencyReportFile;
+      return self();
+    }
+
+    public T withDurationMs(int durationMs) {
+      this.durationMs = durationMs;
+      return self();
+    }
+
+    public T withReportIntervalMs(int reportIntervalMs) {
+      this.reportIntervalMs = reportIntervalMs;
+      return self();
+    }
+
+    public T withReplayFile(String replayFile) {
+      this.replayFile = replayFile;
+      return self();
+    }
+
+    public T withReplaySpeed(double replaySpeed) {
+      this.replaySpeed = replaySpeed;
+      return self();
+    }
+
+    public T withReplaySessions(int replaySessions) {
+      this.replaySessions = replaySessions;
+      return self();
+    }
+
+    public T withReplayDirection(CaptureDirection replayDirection) {
+      this.replayDirection = replayDirection;
+      return self();
+    }
+
     public T withInteractive(boolean interactive) {
       this.interactive = interactive;
       return self();
@@ -115,6 +177,14 @@ public abstract class ClientParameters
     this.nbClientMax = builder.nbClientMax;
     this.nbExecution = builder.nbExecution;
     this.sleepBetweenExecMs = builder.sleepBetweenExecMs;
+    this.requestMessage = StringUtils.isNullOrEmpty(builder.requestMessage) ? DEFAULT_REQUEST_MESSAGE : builder.requestMessage;
+    this.latencyReportFile = builder.latencyReportFile;
+    this.durationMs = builder.durationMs > 0 ? builder.durationMs : DEFAULT_DURATION_MS;
+    this.reportIntervalMs = builder.reportIntervalMs;
+    this.replayFile = builder.replayFile;
+    this.replaySpeed = Math.max(builder.replaySpeed, 0);
+    this.replaySessions = Math.max(builder.replaySessions, 1);
+    this.replayDirection = builder.replayDirection == null ? CaptureDirection.SENT : builder.replayDirection;
     this.interactive = builder.interactive;
   }
 
@@ -142,6 +212,38 @@ public abstract class ClientParameters
     return sleepBetweenExecMs;
   }
 
+  public String getRequestMessage() {
+    return requestMessage;
+  }
+
+  public String getLatencyReportFile() {
+    return latencyReportFile;
+  }
+
+  public int getDurationMs() {
+    return durationMs;
+  }
+
+  public int getReportIntervalMs() {
+    return reportIntervalMs;
+  }
+
+  public String getReplayFile() {
+    return replayFile;
+  }
+
+  public double getReplaySpeed() {
+    return replaySpeed;
+  }
+
+  public int getReplaySessions() {
+    return replaySessions;
+  }
+
+  public CaptureDirection getReplayDirection() {
+    return replayDirection;
+  }
+
   public boolean isInteractive() {
     return interactive;
   }
@@ -32,9 +32,19 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 public class ClientParametersTCP
         extends ClientParameters {
 
+  public static final int DEFAULT_BUFFER_SIZE = 131072;
+
+  private final int throughputStreams;
+  private final long throughputBytes;
+  private final int bufferSize;
+
   public static class ParametersBuilder
           extends ClientParameters.ParametersBuilder<ParametersBuilder> {
 
+    private int throughputStreams = 0;
+    private long throughputBytes = 0;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
     public ParametersBuilder(@JsonProperty("ip") String ip,
                              @JsonProperty("port") int port) {
       super(ip, port);
@@ -46,8 +56,34 @@ public class ClientParametersTCP
       withNbClientMax(clientParametersTCP.getNbClientMax());
       withNbExecution(clientParametersTCP.getNbExecution());
       withSleepBetweenExecMs(clientParametersTCP.getSleepBetweenExecMs());
+      withRequestMessage(clientParametersTCP.getRequestMessage());
+      withLatencyReportFile(clientParametersTCP.getLatencyReportFile());
+      withDurationMs(clientParametersTCP.getDurationMs());
+      withReportIntervalMs(clientParametersTCP.getReportIntervalMs());
+      withReplayFile(clientParametersTCP.getReplayFile());
+      withReplaySpeed(clientParametersTCP.getReplaySpeed());
+      withReplaySessions(clientParametersTCP.getReplaySessions());
+      withReplayDirection(clientParametersTCP.getReplayDirection());
       withSoTimeout(clientParametersTCP.getSoTimeout());
       withInteractive(clientParametersTCP.isInteractive());
+      withThroughputStreams(clientParametersTCP.getThroughputStreams());
+      withThroughputBytes(clientParametersTCP.getThroughputBytes());
+      withBufferSize(clientParametersTCP.getBufferSize());
+    }
+
+    public final ParametersBuilder withThroughputStreams(int throughputStreams) {
+      this.throughputStreams = throughputStreams;
+      return this;
+    }
+
+    public final ParametersBuilder withThroughputBytes(long throughputBytes) {
+      this.throughputBytes = throughputBytes;
+      return this;
+    }
+
+    public final ParametersBuilder withBufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+      return this;
     }
 
     @Override
@@ -63,5 +99,21 @@ public class ClientParametersTCP
 
   private ClientParametersTCP(ParametersBuilder builder) {
     super(builder);
+
+    this.throughputStreams = builder.throughputStreams;
+    this.throughputBytes = builder.throughputBytes;
+    this.bufferSize = builder.bufferSize > 0 ? builder.bufferSize : DEFAULT_BUFFER_SIZE;
+  }
+
+  public int getThroughputStreams() {
+    return throughputStreams;
+  }
+
+  public long getThroughputBytes() {
+    return throughputBytes;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
   }
 }
@@ -32,9 +32,19 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 public class ClientParametersUDP
         extends ClientParameters {
 
+  public static final int DEFAULT_PAYLOAD_SIZE = 64;
+
+  private final int ratePps;
+  private final double rateMbps;
+  private final int payloadSize;
+
   public static class ParametersBuilder
           extends ClientParameters.ParametersBuilder<ParametersBuilder> {
 
+    private int ratePps = 0;
+    private double rateMbps = 0;
+    private int payloadSize = DEFAULT_PAYLOAD_SIZE;
+
     public ParametersBuilder(@JsonProperty("ip") String ip, @JsonProperty("port") int port) {
       super(ip, port);
     }
@@ -45,8 +55,34 @@ public class ClientParametersUDP
       withNbClientMax(clientParametersUDP.getNbClientMax());
       withNbExecution(clientParametersUDP.getNbExecution());
       withSleepBetweenExecMs(clientParametersUDP.getSleepBetweenExecMs());
+      withRequestMessage(clientParametersUDP.getRequestMessage());
+      withLatencyReportFile(clientParametersUDP.getLatencyReportFile());
+      withDurationMs(clientParametersUDP.getDurationMs());
+      withReportIntervalMs(clientParametersUDP.getReportIntervalMs());
+      withReplayFile(clientParametersUDP.getReplayFile());
+      withReplaySpeed(clientParametersUDP.getReplaySpeed());
+      withReplaySessions(clientParametersUDP.getReplaySessions());
+      withReplayDirection(clientParametersUDP.getReplayDirection());
       withSoTimeout(clientParametersUDP.getSoTimeout());
       withInteractive(clientParametersUDP.isInteractive());
+      withRatePps(clientParametersUDP.getRatePps());
+      withRateMbps(clientParametersUDP.getRateMbps());
+      withPayloadSize(clientParametersUDP.getPayloadSize());
+    }
+
+    public final ParametersBuilder withRatePps(int ratePps) {
+      this.ratePps = ratePps;
+      return this;
+    }
+
+    public final ParametersBuilder withRateMbps(double rateMbps) {
+      this.rateMbps = rateMbps;
+      return this;
+    }
+
+    public final ParametersBuilder withPayloadSize(int payloadSize) {
+      this.payloadSize = payloadSize;
+      return this;
     }
 
     @Override
@@ -62,5 +98,22 @@ public class ClientParametersUDP
 
   private ClientParametersUDP(ParametersBuilder builder) {
     super(builder);
+
+    this.ratePps = builder.ratePps;
+    this.rateMbps = builder.rateMbps;
+    this.payloadSize = builder.payloadSize > 0 ? builder.payloadSize : DEFAULT_PAYLOAD_SIZE;
+  }
+
+  public int getRatePps() {
+    return ratePps;
   }
+
+  public double getRateMbps() {
+    return rateMbps;
+  }
+
+  public int getPayloadSize() {
+    return payloadSize;
+  }
+
 }
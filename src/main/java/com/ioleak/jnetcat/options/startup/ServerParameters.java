@@ -25,15 +25,24 @@
  */
 package com.ioleak.jnetcat.options.startup;
 
+import java.util.Objects;
+
 import com.ioleak.jnetcat.common.BaseObject;
 import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.options.exception.IPv4InvalidArgumentException;
 import com.ioleak.jnetcat.options.exception.PortInvalidArgumentException;
+import com.ioleak.jnetcat.server.generic.ExecutionMode;
+import com.ioleak.jnetcat.server.generic.WorkerPool;
+import com.ioleak.jnetcat.server.generic.WorkerRejectionPolicy;
 
 public abstract class ServerParameters
         extends BaseObject {
 
   private final boolean multiThread;
+  private final int maxThreads;
+  private final int maxQueueSize;
+  private final WorkerRejectionPolicy rejectionPolicy;
+  private final ExecutionMode executionMode;
   private boolean interactive;
 
   private final String ip;
@@ -44,6 +53,10 @@ public abstract class ServerParameters
   abstract static class ParametersBuilder<T extends ParametersBuilder> {
 
     private boolean multiThread = false;
+    private int maxThreads = WorkerPool.DEFAULT_MAX_THREADS;
+    private int maxQueueSize = WorkerPool.DEFAULT_MAX_QUEUE_SIZE;
+    private WorkerRejectionPolicy rejectionPolicy = WorkerRejectionPolicy.CLOSE;
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
     private boolean interactive = false;
     private boolean daemon = false;
 
@@ -58,6 +71,10 @@ public abstract class ServerParameters
       withPort(serverParameters.getPort());
       withIp(serverParameters.getIp());
       withMultiThread(serverParameters.isMultiThread());
+      withMaxThreads(serverParameters.getMaxThreads());
+      withMaxQueueSize(serverParameters.getMaxQueueSize());
+      withRejectionPolicy(serverParameters.getRejectionPolicy());
+      withExecutionMode(serverParameters.getExecutionMode());
       withInteractive(serverParameters.isInteractive());
       withDaemon(serverParameters.isDaemon());
     }
@@ -81,6 +98,26 @@ public abstract class ServerParameters
       return self();
     }
 
+    public final T withMaxThreads(int maxThreads) {
+      this.maxThreads = maxThreads;
+      return self();
+    }
+
+    public final T withMaxQueueSize(int maxQueueSize) {
+      this.maxQueueSize = maxQueueSize;
+      return self();
+    }
+
+    public final T withRejectionPolicy(WorkerRejectionPolicy rejectionPolicy) {
+      this.rejectionPolicy = rejectionPolicy;
+      return self();
+    }
+
+    public final T withExecutionMode(ExecutionMode executionMode) {
+      this.executionMode = executionMode;
+      return self();
+    }
+
     public final T withInteractive(boolean interactive) {
       this.interactive = interactive;
       return self();
@@ -104,6 +141,10 @@ public abstract class ServerParameters
     this.ip = builder.ip;
     this.port = builder.port;
     this.multiThread = builder.multiThread;
+    this.maxThreads = builder.maxThreads;
+    this.maxQueueSize = builder.maxQueueSize;
+    this.rejectionPolicy = builder.rejectionPolicy == null ? WorkerRejectionPolicy.CLOSE : builder.rejectionPolicy;
+    this.executionMode = builder.executionMode == null ? ExecutionMode.PLATFORM : builder.executionMode;
     this.interactive = builder.interactive;
     this.daemon = builder.daemon;
   }
@@ -120,6 +161,22 @@ public abstract class ServerParameters
     return multiThread;
   }
 
+  public int getMaxThreads() {
+    return maxThreads;
+  }
+
+  public int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  public WorkerRejectionPolicy getRejectionPolicy() {
+    return rejectionPolicy;
+  }
+
+  public ExecutionMode getExecutionMode() {
+    return executionMode;
+  }
+
   public boolean isInteractive() {
     return interactive;
   }
@@ -127,4 +184,13 @@ public abstract class ServerParameters
   public boolean isDaemon() {
     return daemon;
   }
+
+  // settings of the bound socket and of the accept loop, the other ones can be applied to the new sessions
+  public boolean hasSameListener(ServerParameters other) {
+    return other != null
+           && Objects.equals(ip, other.ip) && Objects.equals(port, other.port)
+           && multiThread == other.multiThread && maxThreads == other.maxThreads
+           && maxQueueSize == other.maxQueueSize && rejectionPolicy == other.rejectionPolicy
+           && executionMode == other.executionMode && interactive == other.interactive && daemon == other.daemon;
+  }
 }
@@ -25,20 +25,49 @@
  */
 package com.ioleak.jnetcat.options.startup;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.ioleak.jnetcat.common.utils.JsonUtils;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.options.UpstreamConfig;
+import com.ioleak.jnetcat.options.exception.ServerIncompatibleArgumentException;
+import com.ioleak.jnetcat.server.tcp.TCPServerEngine;
 import com.ioleak.jnetcat.server.tcp.TCPServerType;
+import com.ioleak.jnetcat.server.tcp.upstream.LoadBalancing;
+import com.ioleak.jnetcat.server.tcp.upstream.UpstreamPool;
 
 @JsonDeserialize(builder = ServerParametersTCP.ParametersBuilder.class)
 public class ServerParametersTCP
         extends ServerParameters {
 
   private final TCPServerType tcpServerType;
+  private final TCPServerEngine serverEngine;
+  private final int ioThreads;
+  private final String upstreamHost;
+  private final int upstreamPort;
+  private final boolean capture;
+  private final List<UpstreamConfig> upstreams;
+  private final LoadBalancing loadBalancing;
+  private final int warmConnections;
+  private final int healthCheckIntervalMs;
 
   public static class ParametersBuilder
           extends ServerParameters.ParametersBuilder<ParametersBuilder> {
 
     private TCPServerType tcpServerType;
+    private TCPServerEngine serverEngine = TCPServerEngine.BLOCKING;
+    private int ioThreads = 0;
+    private String upstreamHost;
+    private int upstreamPort = -1;
+    private boolean capture = false;
+    private List<UpstreamConfig> upstreams = new ArrayList<>();
+    private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+    private int warmConnections = 0;
+    private int healthCheckIntervalMs = UpstreamPool.DEFAULT_HEALTH_CHECK_INTERVAL_MS;
 
     public ParametersBuilder(@JsonProperty("port") int port) {
       super(port);
@@ -47,6 +76,15 @@ public class ServerParametersTCP
     public ParametersBuilder(ServerParametersTCP serverParametersTCP) {
       super(serverParametersTCP);
       withServerType(serverParametersTCP.getServerType());
+      withServerEngine(serverParametersTCP.getServerEngine());
+      withIoThreads(serverParametersTCP.getIoThreads());
+      withUpstreamHost(serverParametersTCP.getUpstreamHost());
+      withUpstreamPort(serverParametersTCP.getUpstreamPort());
+      withCapture(serverParametersTCP.isCapture());
+      withUpstreams(serverParametersTCP.getUpstreams());
+      withLoadBalancing(serverParametersTCP.getLoadBalancing());
+      withWarmConnections(serverParametersTCP.getWarmConnections());
+      withHealthCheckIntervalMs(serverParametersTCP.getHealthCheckIntervalMs());
     }
 
     public final ParametersBuilder withServerType(TCPServerType tcpServerType) {
@@ -54,6 +92,51 @@ public class ServerParametersTCP
       return this;
     }
 
+    public final ParametersBuilder withServerEngine(TCPServerEngine serverEngine) {
+      this.serverEngine = serverEngine;
+      return this;
+    }
+
+    public final ParametersBuilder withIoThreads(int ioThreads) {
+      this.ioThreads = ioThreads;
+      return this;
+    }
+
+    public final ParametersBuilder withUpstreamHost(String upstreamHost) {
+      this.upstreamHost = upstreamHost;
+      return this;
+    }
+
+    public final ParametersBuilder withUpstreamPort(int upstreamPort) {
+      this.upstreamPort = upstreamPort;
+      return this;
+    }
+
+    public final ParametersBuilder withCapture(boolean capture) {
+      this.capture = capture;
+      return this;
+    }
+
+    public final ParametersBuilder withUpstreams(List<UpstreamConfig> upstreams) {
+      this.upstreams = upstreams == null ? new ArrayList<>() : new ArrayList<>(upstreams);
+      return this;
+    }
+
+    public final ParametersBuilder withLoadBalancing(LoadBalancing loadBalancing) {
+      this.loadBalancing = loadBalancing;
+      return this;
+    }
+
+    public final ParametersBuilder withWarmConnections(int warmConnections) {
+      this.warmConnections = warmConnections;
+      return this;
+    }
+
+    public final ParametersBuilder withHealthCheckIntervalMs(int healthCheckIntervalMs) {
+      this.healthCheckIntervalMs = healthCheckIntervalMs;
+      return this;
+    }
+
     @Override
     public ServerParametersTCP build() {
       return new ServerParametersTCP(this);
@@ -69,9 +152,91 @@ public class ServerParametersTCP
     super(builder);
 
     this.tcpServerType = builder.tcpServerType;
+    this.serverEngine = builder.serverEngine == null ? TCPServerEngine.BLOCKING : builder.serverEngine;
+    this.ioThreads = builder.ioThreads;
+    this.upstreamHost = builder.upstreamHost;
+    this.upstreamPort = builder.upstreamPort;
+    this.capture = builder.capture;
+    this.upstreams = List.copyOf(builder.upstreams);
+    this.loadBalancing = builder.loadBalancing == null ? LoadBalancing.ROUND_ROBIN : builder.loadBalancing;
+    this.warmConnections = builder.warmConnections;
+    this.healthCheckIntervalMs = builder.healthCheckIntervalMs;
+
+    if (tcpServerType != null && tcpServerType.isUpstreamRequired()) {
+      validateUpstreams();
+    }
+  }
+
+  public static boolean isValidUpstream(String host, int port) {
+    return !StringUtils.isNullOrEmpty(host) && port > 0 && port <= 65535;
+  }
+
+  private void validateUpstreams() {
+    for (UpstreamConfig upstream : upstreams) {
+      if (!isValidUpstream(upstream.getHost(), upstream.getPort())) {
+        throw new ServerIncompatibleArgumentException(String.format("Invalid upstream for PROXY server: %s", upstream));
+      }
+    }
+
+    if (upstreams.isEmpty() && !isValidUpstream(upstreamHost, upstreamPort)) {
+      throw new ServerIncompatibleArgumentException("PROXY server requires a valid upstreamHost and upstreamPort (or a list of upstreams)");
+    }
   }
 
   public TCPServerType getServerType() {
     return tcpServerType;
   }
+
+  public TCPServerEngine getServerEngine() {
+    return serverEngine;
+  }
+
+  public int getIoThreads() {
+    return ioThreads;
+  }
+
+  public String getUpstreamHost() {
+    return upstreamHost;
+  }
+
+  public int getUpstreamPort() {
+    return upstreamPort;
+  }
+
+  public boolean isCapture() {
+    return capture;
+  }
+
+  public List<UpstreamConfig> getUpstreams() {
+    return upstreams;
+  }
+
+  public LoadBalancing getLoadBalancing() {
+    return loadBalancing;
+  }
+
+  public int getWarmConnections() {
+    return warmConnections;
+  }
+
+  public int getHealthCheckIntervalMs() {
+    return healthCheckIntervalMs;
+  }
+
+  @Override
+  public boolean hasSameListener(ServerParameters other) {
+    if (!(other instanceof ServerParametersTCP) || !super.hasSameListener(other)) {
+      return false;
+    }
+
+    ServerParametersTCP otherTCP = (ServerParametersTCP) other;
+    return serverEngine == otherTCP.serverEngine && ioThreads == otherTCP.ioThreads;
+  }
+
+  public boolean hasSameUpstreams(ServerParametersTCP other) {
+    return Objects.equals(upstreamHost, other.upstreamHost) && upstreamPort == other.upstreamPort
+           && JsonUtils.objectToJson(upstreams).equals(JsonUtils.objectToJson(other.upstreams))
+           && loadBalancing == other.loadBalancing && warmConnections == other.warmConnections
+           && healthCheckIntervalMs == other.healthCheckIntervalMs;
+  }
 }
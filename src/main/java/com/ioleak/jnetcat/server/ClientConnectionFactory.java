@@ -25,10 +25,12 @@
  */
 package com.ioleak.jnetcat.server;
 
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
 import com.ioleak.jnetcat.server.tcp.TCPClientConnection;
 import com.ioleak.jnetcat.server.tcp.TCPServerType;
 import com.ioleak.jnetcat.server.tcp.implement.Echo;
 import com.ioleak.jnetcat.server.tcp.implement.Proxy;
+import com.ioleak.jnetcat.server.tcp.upstream.UpstreamPool;
 import com.ioleak.jnetcat.server.udp.UDPClientConnection;
 import com.ioleak.jnetcat.server.udp.UDPServerType;
 import com.ioleak.jnetcat.server.udp.implement.Quote;
@@ -36,7 +38,7 @@ import com.ioleak.jnetcat.server.udp.implement.Shell;
 
 public class ClientConnectionFactory {
 
-  public static TCPClientConnection createClientConnectionTCP(TCPServerType tcpServerType) {
+  public static TCPClientConnection createClientConnectionTCP(TCPServerType tcpServerType, ServerParametersTCP serverParametersTCP, UpstreamPool upstreamPool) {
     TCPClientConnection server = null;
 
     switch (TCPServerType.valueOf(tcpServerType.name())) {
@@ -47,7 +49,19 @@ public class ClientConnectionFactory {
         server = new Echo();
         break;
       case PROXY:
-        server = new Proxy();
+        server = new Proxy(upstreamPool, serverParametersTCP.isCapture());
+        break;
+      case SINK:
+        server = new com.ioleak.jnetcat.server.tcp.implement.Sink();
+        break;
+      case DISCARD:
+        server = new com.ioleak.jnetcat.server.tcp.implement.Discard();
+        break;
+      case CHARGEN:
+        server = new com.ioleak.jnetcat.server.tcp.implement.Chargen();
+        break;
+      case DAYTIME:
+        server = new com.ioleak.jnetcat.server.tcp.implement.Daytime();
         break;
     }
 
@@ -67,6 +81,21 @@ public class ClientConnectionFactory {
       case SHELL:
         server = new Shell();
         break;
+      case ECHO:
+        server = new com.ioleak.jnetcat.server.udp.implement.Echo();
+        break;
+      case SINK:
+        server = new com.ioleak.jnetcat.server.udp.implement.Sink();
+        break;
+      case DISCARD:
+        server = new com.ioleak.jnetcat.server.udp.implement.Discard();
+        break;
+      case CHARGEN:
+        server = new com.ioleak.jnetcat.server.udp.implement.Chargen();
+        break;
+      case DAYTIME:
+        server = new com.ioleak.jnetcat.server.udp.implement.Daytime();
+        break;
     }
 
     return server;
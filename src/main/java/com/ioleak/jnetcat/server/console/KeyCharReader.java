@@ -26,7 +26,6 @@
 package com.ioleak.jnetcat.server.console;
 
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
@@ -34,11 +33,16 @@ import java.util.function.Supplier;
 
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.properties.Observable;
+import com.ioleak.jnetcat.common.properties.PropertyListeners;
+
+import org.slf4j.Logger;
 
 public class KeyCharReader
         implements Observable {
 
-  private final PropertyChangeSupport listenerManager = new PropertyChangeSupport(this);
+  private static final Logger LOGGER = Logging.getLogger(KeyCharReader.class);
+
+  private final PropertyListeners listeners = new PropertyListeners();
 
   private static final List<String> supportedCommands = Arrays.asList("k", "q", "s");
   private static final String COMMAND_STARTS_WITH_FIRST = ":";
@@ -73,25 +77,25 @@ public class KeyCharReader
         readChar();
         Thread.sleep(WAIT_DELAY_NEXT_CHAR_MS);
       } catch (InterruptedException ex) {
-        Logging.getLogger().error("KeyCharReader interrupted", ex);
+        LOGGER.error("KeyCharReader interrupted", ex);
       } catch (HitKeyCloseCharReaderException ex) {
         exceptionThrown = true;
-        Logging.getLogger().warn(String.format("Kill command received: %s", ex.getMessage()));
+        LOGGER.warn("Kill command received: {}", ex.getMessage());
       }
     }
 
-    Logging.getLogger().warn("Keyboard thread is closed: console won't responds to command anymore");
+    LOGGER.warn("Keyboard thread is closed: console won't responds to command anymore");
   }
 
   public void showInfo() {
-    Logging.getLogger().info(String.format("Hit key '%sk' to kill this key listener", COMMAND_STARTS_WITH_FULL));
+    LOGGER.info("Hit key '{}k' to kill this key listener", COMMAND_STARTS_WITH_FULL);
 
     if (this.actionOnKeyS != null) {
-      Logging.getLogger().info(String.format("Hit key '%ss' to stop an established connection", COMMAND_STARTS_WITH_FULL));
+      LOGGER.info("Hit key '{}s' to stop an established connection", COMMAND_STARTS_WITH_FULL);
     }
 
     if (this.actionOnKeyQ != null) {
-      Logging.getLogger().info(String.format("Hit key '%sq' to close this server", COMMAND_STARTS_WITH_FULL));
+      LOGGER.info("Hit key '{}q' to close this server", COMMAND_STARTS_WITH_FULL);
     }
   }
 
@@ -111,12 +115,12 @@ public class KeyCharReader
         }
 
         if (charValid) {
-          listenerManager.firePropertyChange("keyreader", null, key);
+          listeners.firePropertyChange(this, "keyreader", null, key);
         }
       }
 
     } catch (IOException ex) {
-      Logging.getLogger().error(String.format("Unable to read char from keyboard: %s", ex.getMessage()));
+      LOGGER.error("Unable to read char from keyboard: {}", ex.getMessage());
     }
 
     return charValid;
@@ -152,14 +156,14 @@ public class KeyCharReader
         if (actionOnKeyQ != null) {
           keyboardHitQuit = actionOnKeyQ.get();
         } else {
-          Logging.getLogger().warn("No action is defined as a quit (q) action. No action is taken");
+          LOGGER.warn("No action is defined as a quit (q) action. No action is taken");
         }
         break;
       case ":!s":
         if (actionOnKeyS != null) {
           keyboardHitStop = actionOnKeyS.get();
         } else {
-          Logging.getLogger().warn("No action is defined as a stop (s) action. No action is taken");
+          LOGGER.warn("No action is defined as a stop (s) action. No action is taken");
         }
         break;
       default:
@@ -183,11 +187,11 @@ public class KeyCharReader
 
   @Override
   public void addListener(PropertyChangeListener listener) {
-    listenerManager.addPropertyChangeListener(listener);
+    listeners.add(listener);
   }
 
   @Override
   public void removeListener(PropertyChangeListener listener) {
-    listenerManager.removePropertyChangeListener(listener);
+    listeners.remove(listener);
   }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.generic;
+
+import java.nio.ByteBuffer;
+
+public final class ChargenPattern {
+
+  public static final int MAX_WRITE_SIZE = 65536;
+
+  private static final int FIRST_CHAR = ' ';
+  private static final int NB_CHARS = '~' - ' ' + 1;
+  private static final int LINE_LENGTH = 72;
+  private static final int LINE_SIZE = LINE_LENGTH + 2;
+  private static final int PERIOD = NB_CHARS * LINE_SIZE;
+
+  // the pattern repeats every 95 lines: it is copied enough times so that any write starting in the first period is contiguous
+  private static final byte[] RING = createRing((MAX_WRITE_SIZE + PERIOD - 1) / PERIOD + 1);
+  private static final ByteBuffer DIRECT_RING = ByteBuffer.allocateDirect(RING.length).put(RING).flip();
+
+  private ChargenPattern() {
+  }
+
+  public static ByteBuffer newRingView() {
+    return DIRECT_RING.asReadOnlyBuffer();
+  }
+
+  public static byte[] getRing() {
+    return RING;
+  }
+
+  public static int getPeriod() {
+    return PERIOD;
+  }
+
+  public static int nextOffset(int offset, int written) {
+    return (offset + written) % PERIOD;
+  }
+
+  private static byte[] createRing(int nbPeriods) {
+    byte[] ring = new byte[nbPeriods * PERIOD];
+
+    for (int period = 0; period < nbPeriods; period++) {
+      for (int line = 0; line < NB_CHARS; line++) {
+        int lineStart = period * PERIOD + line * LINE_SIZE;
+
+        for (int i = 0; i < LINE_LENGTH; i++) {
+          ring[lineStart + i] = (byte) (FIRST_CHAR + (line + i) % NB_CHARS);
+        }
+        ring[lineStart + LINE_LENGTH] = '\r';
+        ring[lineStart + LINE_LENGTH + 1] = '\n';
+      }
+    }
+
+    return ring;
+  }
+}
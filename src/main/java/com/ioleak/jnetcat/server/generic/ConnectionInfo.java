@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.generic;
+
+import java.net.SocketAddress;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionInfo<S> {
+
+  private final long id;
+  private final S connection;
+  private final SocketAddress remoteAddress;
+  private final Instant startTime;
+
+  // updated by the I/O thread of the connection, read by the others
+  private final LongAdder bytesReceived = new LongAdder();
+  private final LongAdder bytesSent = new LongAdder();
+
+  ConnectionInfo(long id, S connection, SocketAddress remoteAddress) {
+    this.id = id;
+    this.connection = connection;
+    this.remoteAddress = remoteAddress;
+    this.startTime = Instant.now();
+  }
+
+  public void addBytesReceived(long length) {
+    bytesReceived.add(length);
+  }
+
+  public void addBytesSent(long length) {
+    bytesSent.add(length);
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public S getConnection() {
+    return connection;
+  }
+
+  public SocketAddress getRemoteAddress() {
+    return remoteAddress;
+  }
+
+  public Instant getStartTime() {
+    return startTime;
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("#%d %s (in: %d bytes, out: %d bytes, since %s)", id, remoteAddress, getBytesReceived(), getBytesSent(), startTime);
+  }
+}
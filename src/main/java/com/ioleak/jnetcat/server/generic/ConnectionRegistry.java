@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.generic;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ioleak.jnetcat.common.properties.Observable;
+import com.ioleak.jnetcat.common.properties.PropertyListeners;
+
+public class ConnectionRegistry<S>
+        implements Observable {
+
+  public final static String PROPERTYNAME = "connections";
+  public static final long DEFAULT_NOTIFICATION_INTERVAL_MS = 100;
+
+  private static final ScheduledExecutorService NOTIFIER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "ConnectionNotifier");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final ConcurrentHashMap<S, ConnectionInfo<S>> connections = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong();
+
+  private final PropertyListeners listeners = new PropertyListeners();
+  private final Queue<ConnectionInfo<S>> pendingOpened = new ConcurrentLinkedQueue<>();
+  private final Queue<ConnectionInfo<S>> pendingClosed = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean notificationScheduled = new AtomicBoolean();
+  private final long notificationIntervalMs;
+
+  public ConnectionRegistry() {
+    this(DEFAULT_NOTIFICATION_INTERVAL_MS);
+  }
+
+  public ConnectionRegistry(long notificationIntervalMs) {
+    this.notificationIntervalMs = notificationIntervalMs;
+  }
+
+  public ConnectionInfo<S> register(S connection, SocketAddress remoteAddress) {
+    ConnectionInfo<S> connectionInfo = new ConnectionInfo<>(nextId.incrementAndGet(), connection, remoteAddress);
+    ConnectionInfo<S> existingInfo = connections.putIfAbsent(connection, connectionInfo);
+
+    if (existingInfo != null) {
+      return existingInfo;
+    }
+
+    if (!listeners.isEmpty()) {
+      pendingOpened.add(connectionInfo);
+      scheduleNotification();
+    }
+
+    return connectionInfo;
+  }
+
+  public ConnectionInfo<S> unregister(S connection) {
+    ConnectionInfo<S> connectionInfo = connections.remove(connection);
+
+    if (connectionInfo != null && !listeners.isEmpty()) {
+      pendingClosed.add(connectionInfo);
+      scheduleNotification();
+    }
+
+    return connectionInfo;
+  }
+
+  public ConnectionInfo<S> get(S connection) {
+    return connections.get(connection);
+  }
+
+  public boolean contains(S connection) {
+    return connections.containsKey(connection);
+  }
+
+  public int size() {
+    return connections.size();
+  }
+
+  public boolean isEmpty() {
+    return connections.isEmpty();
+  }
+
+  // weakly consistent: the connections opened or closed during the iteration may be missed, no exception is thrown
+  public Collection<ConnectionInfo<S>> getConnections() {
+    return Collections.unmodifiableCollection(connections.values());
+  }
+
+  @Override
+  public void addListener(PropertyChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(PropertyChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  // one event for all the changes since the last one: old value = closed connections, new value = opened connections
+  // (a short connection can be in both lists)
+  public void flushNotifications() {
+    notificationScheduled.set(false);
+
+    List<ConnectionInfo<S>> opened = drain(pendingOpened);
+    List<ConnectionInfo<S>> closed = drain(pendingClosed);
+
+    if (!opened.isEmpty() || !closed.isEmpty()) {
+      // firePropertyChange would drop the event when both lists are equal
+      listeners.fire(new PropertyChangeEvent(this, PROPERTYNAME, closed, opened));
+    }
+  }
+
+  private void scheduleNotification() {
+    if (notificationScheduled.compareAndSet(false, true)) {
+      NOTIFIER.schedule(this::flushNotifications, notificationIntervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static <S> List<ConnectionInfo<S>> drain(Queue<ConnectionInfo<S>> queue) {
+    List<ConnectionInfo<S>> connectionInfos = new ArrayList<>();
+    ConnectionInfo<S> connectionInfo;
+
+    while ((connectionInfo = queue.poll()) != null) {
+      connectionInfos.add(connectionInfo);
+    }
+
+    return connectionInfos;
+  }
+}
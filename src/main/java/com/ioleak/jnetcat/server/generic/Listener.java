@@ -26,15 +26,14 @@
 package com.ioleak.jnetcat.server.generic;
 
 import com.ioleak.jnetcat.common.interfaces.ProcessAction;
-import com.ioleak.jnetcat.common.properties.ListProperty;
 
 public abstract class Listener<T, S>
         implements ProcessAction {
 
-  private T serverType;
+  private volatile T serverType;
   private int port;
 
-  private final ListProperty<S> connectionClients = new ListProperty<>();
+  private final ConnectionRegistry<S> connectionClients = new ConnectionRegistry<>();
 
   public Listener(T serverType, int port) {
     setServerType(serverType);
@@ -57,7 +56,7 @@ public abstract class Listener<T, S>
     return port;
   }
 
-  protected final ListProperty<S> getConnectionClients() {
+  public final ConnectionRegistry<S> getConnectionClients() {
     return connectionClients;
   }
 }
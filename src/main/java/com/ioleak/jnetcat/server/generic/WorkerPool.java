@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.generic;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+public class WorkerPool {
+
+  private static final Logger LOGGER = Logging.getLogger(WorkerPool.class);
+
+  public static final int DEFAULT_MAX_THREADS = 16;
+  public static final int DEFAULT_MAX_QUEUE_SIZE = 64;
+
+  private static final long KEEP_ALIVE_SECONDS = 30;
+  private static final long TERMINATION_WAIT_MS = 1000;
+
+  private WorkerPool() {
+  }
+
+  public static ExecutorService newSessionExecutor(ExecutionMode executionMode, String threadNamePrefix, int maxThreads,
+                                                   int maxQueueSize, WorkerRejectionPolicy rejectionPolicy) {
+    if (executionMode == ExecutionMode.VIRTUAL) {
+      ExecutorService executor = newVirtualThreadPerTaskExecutor(threadNamePrefix);
+
+      if (executor != null) {
+        LOGGER.info("Worker pool created: one virtual thread per session");
+        return executor;
+      }
+
+      LOGGER.warn("Virtual threads are not available on Java {}, using platform threads", System.getProperty("java.version"));
+    }
+
+    return newBoundedPool(threadNamePrefix, maxThreads, maxQueueSize, rejectionPolicy);
+  }
+
+  public static ExecutorService newBoundedPool(String threadNamePrefix, int maxThreads, int maxQueueSize,
+                                               WorkerRejectionPolicy rejectionPolicy) {
+    int nbThreads = maxThreads > 0 ? maxThreads : DEFAULT_MAX_THREADS;
+    int queueSize = maxQueueSize > 0 ? maxQueueSize : DEFAULT_MAX_QUEUE_SIZE;
+    WorkerRejectionPolicy policy = rejectionPolicy == null ? WorkerRejectionPolicy.CLOSE : rejectionPolicy;
+
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(nbThreads, nbThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                                         new ArrayBlockingQueue<>(queueSize),
+                                                         newThreadFactory(threadNamePrefix),
+                                                         policy.getRejectedExecutionHandler());
+    executor.allowCoreThreadTimeOut(true);
+
+    LOGGER.info("Worker pool created: {} thread(s), queue of {}, policy {}", nbThreads, queueSize, policy);
+    return executor;
+  }
+
+  public static void shutdown(ExecutorService executor) {
+    executor.shutdownNow();
+
+    try {
+      if (!executor.awaitTermination(TERMINATION_WAIT_MS, TimeUnit.MILLISECONDS)) {
+        LOGGER.warn("Some workers are still running after shutdown");
+      }
+    } catch (InterruptedException ex) {
+      LOGGER.warn("Interrupted while waiting for the workers to stop");
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class)
+              .invoke(builder, threadNamePrefix, 0L);
+      ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+      Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+    } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+      return null;
+    }
+  }
+
+  private static ThreadFactory newThreadFactory(String threadNamePrefix) {
+    AtomicInteger threadNumber = new AtomicInteger();
+
+    return (Runnable runnable) -> {
+      Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
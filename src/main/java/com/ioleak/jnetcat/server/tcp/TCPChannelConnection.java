@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+
+public abstract class TCPChannelConnection
+        extends TCPClientConnection {
+
+  private static final long SELECT_TIMEOUT_MS = 250;
+
+  private volatile boolean closed = false;
+  private Runnable closeListener;
+
+  // connectionInfo: the bytes read from and written to the client channel are added to it
+  public abstract void openChannel(SocketChannel clientChannel, Selector selector, StreamFormatOutput streamFormatOutput,
+                                   ConnectionInfo<?> connectionInfo) throws IOException;
+  public abstract void handleKey(SelectionKey key) throws IOException;
+  protected abstract void closeChannels();
+
+  @Override
+  public void startClient(Socket clientSocket, StreamFormatOutput streamFormatOutput)
+          throws IOException, SocketException {
+    SocketChannel clientChannel = clientSocket.getChannel();
+    if (clientChannel == null) {
+      throw new SocketException("This server type requires a socket opened from a channel");
+    }
+
+    // not registered anymore: the connection was closed by the server before being handled
+    ConnectionInfo<?> connectionInfo = getConnectionInfo();
+    if (connectionInfo == null) {
+      throw new SocketException("Connection already closed");
+    }
+
+    try (Selector selector = Selector.open()) {
+      openChannel(clientChannel, selector, streamFormatOutput, connectionInfo);
+
+      while (!closed && clientChannel.isOpen() && !Thread.currentThread().isInterrupted()) {
+        selector.select(SELECT_TIMEOUT_MS);
+
+        Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+        while (selectedKeys.hasNext()) {
+          SelectionKey key = selectedKeys.next();
+          selectedKeys.remove();
+
+          if (key.isValid()) {
+            handleKey(key);
+          }
+        }
+      }
+    } finally {
+      close();
+    }
+  }
+
+  @Override
+  public final void initClient(OutputStream out) {
+  }
+
+  @Override
+  public final void dataRead(String readData) {
+  }
+
+  @Override
+  public final void dataSend(OutputStream out) {
+  }
+
+  public final void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    closeChannels();
+
+    if (closeListener != null) {
+      closeListener.run();
+    }
+  }
+
+  public final boolean isClosed() {
+    return closed;
+  }
+
+  void setCloseListener(Runnable closeListener) {
+    this.closeListener = closeListener;
+  }
+}
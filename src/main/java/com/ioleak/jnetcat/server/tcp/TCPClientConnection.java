@@ -26,34 +26,51 @@
 package com.ioleak.jnetcat.server.tcp;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
 
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
 
 public abstract class TCPClientConnection {
 
   private StreamFormatOutput streamFormatOutput;
-  
+  private ConnectionInfo<?> connectionInfo;
+
   public abstract void initClient(OutputStream out) throws IOException;
   public abstract void dataRead(String readData);
   public abstract void dataSend(OutputStream out) throws IOException;
 
-  public final void startClient(Socket clientSocket, StreamFormatOutput streamFormatOutput)
+  public void startClient(Socket clientSocket, StreamFormatOutput streamFormatOutput)
           throws IOException, SocketException {
 
     this.streamFormatOutput = streamFormatOutput;
-    initClient(clientSocket.getOutputStream());
+    streamFormatOutput.setEndpoints(TransportProtocol.TCP, (InetSocketAddress) clientSocket.getLocalSocketAddress(),
+                                    (InetSocketAddress) clientSocket.getRemoteSocketAddress());
+    OutputStream outputStream = new TCPSentDataOutputStream(clientSocket.getOutputStream(), streamFormatOutput, connectionInfo);
+    InputStream inputStream = new TCPReceivedDataInputStream(clientSocket, connectionInfo);
+    initClient(outputStream);
 
     while (!Thread.currentThread().isInterrupted()) {
-      streamFormatOutput.startReading(clientSocket.getInputStream());
+      streamFormatOutput.startReading(inputStream);
       String readData = streamFormatOutput.getEndOfStreamData();
 
       if (!readData.isBlank()) {
         dataRead(readData);
-        dataSend(clientSocket.getOutputStream());
+        dataSend(outputStream);
       }
     }
   }
+
+  void setConnectionInfo(ConnectionInfo<?> connectionInfo) {
+    this.connectionInfo = connectionInfo;
+  }
+
+  ConnectionInfo<?> getConnectionInfo() {
+    return connectionInfo;
+  }
 }
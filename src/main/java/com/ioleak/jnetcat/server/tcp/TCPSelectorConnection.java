@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+
+import org.slf4j.Logger;
+
+class TCPSelectorConnection {
+
+  private static final Logger LOGGER = Logging.getLogger(TCPSelectorConnection.class);
+
+  static final int READ_BUFFER_SIZE = 8192;
+  // a client that does not read its replies stops being read above the high mark, until the pending replies go below the low mark
+  static final int WRITE_HIGH_WATER_MARK = 256 * 1024;
+  static final int WRITE_LOW_WATER_MARK = 64 * 1024;
+
+  private final TCPServer server;
+  private final SocketChannel channel;
+  private final Socket socket;
+  private final TCPClientConnection client;
+  private final StreamFormatOutput streamFormatOutput;
+  private final TCPChannelOutputStream outputStream = new TCPChannelOutputStream(this);
+
+  private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+  private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+
+  private SelectionKey selectionKey;
+  private ConnectionInfo<Socket> connectionInfo;
+  private long pendingBytes = 0;
+  private long idleDeadlineNanos = 0;
+  private boolean readSuspended = false;
+  private boolean closeRequested = false;
+  private boolean closed = false;
+
+  TCPSelectorConnection(TCPServer server, SocketChannel channel, TCPClientConnection client, StreamFormatOutput streamFormatOutput) {
+    this.server = server;
+    this.channel = channel;
+    this.socket = channel.socket();
+    this.client = client;
+    this.streamFormatOutput = streamFormatOutput;
+  }
+
+  void open(Selector selector)
+          throws IOException {
+    channel.configureBlocking(false);
+    selectionKey = channel.register(selector, SelectionKey.OP_READ, this);
+    connectionInfo = server.connectionOpened(socket);
+
+    client.initClient(outputStream);
+    flush();
+  }
+
+  void read()
+          throws IOException {
+    int result = channel.read(readBuffer);
+
+    if (result == -1) {
+      close();
+    } else if (result > 0) {
+      connectionInfo.addBytesReceived(result);
+      readBuffer.flip();
+      streamFormatOutput.appendData(readBuffer);
+      readBuffer.clear();
+
+      while (streamFormatOutput.nextMessage()) {
+        messageRead();
+      }
+
+      armIdleDeadline();
+      flush();
+    }
+  }
+
+  // IDLE_TIMEOUT framing: the data received since the last message is a message when nothing is read before the deadline
+  void idleTimeout()
+          throws IOException {
+    idleDeadlineNanos = 0;
+    if (closed) {
+      return;
+    }
+
+    if (streamFormatOutput.idleMessage()) {
+      messageRead();
+    }
+
+    armIdleDeadline();
+    flush();
+  }
+
+  long getIdleDeadlineNanos() {
+    return idleDeadlineNanos;
+  }
+
+  private void messageRead()
+          throws IOException {
+    String readData = streamFormatOutput.getEndOfStreamData();
+    if (!readData.isBlank()) {
+      client.dataRead(readData);
+      client.dataSend(outputStream);
+    }
+  }
+
+  private void armIdleDeadline() {
+    long idleTimeoutMs = streamFormatOutput.getIdleTimeoutMs();
+    idleDeadlineNanos = idleTimeoutMs > 0 && streamFormatOutput.hasPendingData()
+                        ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs)
+                        : 0;
+  }
+
+  void queueWrite(ByteBuffer data) {
+    if (!closed) {
+      streamFormatOutput.formatDataSent(data.duplicate());
+      pendingWrites.add(data);
+      pendingBytes += data.remaining();
+    }
+  }
+
+  void flush()
+          throws IOException {
+    if (closed) {
+      return;
+    }
+
+    ByteBuffer data;
+    while ((data = pendingWrites.peek()) != null) {
+      int written = channel.write(data);
+      connectionInfo.addBytesSent(written);
+      pendingBytes -= written;
+      if (data.hasRemaining()) {
+        break;
+      }
+
+      pendingWrites.poll();
+    }
+
+    if (pendingBytes > WRITE_HIGH_WATER_MARK) {
+      readSuspended = true;
+    } else if (pendingBytes <= WRITE_LOW_WATER_MARK) {
+      readSuspended = false;
+    }
+
+    if (pendingWrites.isEmpty()) {
+      if (closeRequested) {
+        close();
+      } else {
+        selectionKey.interestOps(SelectionKey.OP_READ);
+      }
+    } else {
+      selectionKey.interestOps(readSuspended ? SelectionKey.OP_WRITE : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+  }
+
+  void closeAfterFlush()
+          throws IOException {
+    closeRequested = true;
+    flush();
+  }
+
+  void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    pendingWrites.clear();
+    pendingBytes = 0;
+    idleDeadlineNanos = 0;
+
+    if (selectionKey != null) {
+      selectionKey.cancel();
+    }
+
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      LOGGER.info("Unable to close client channel: {}", ex.getMessage());
+    }
+
+    server.connectionClosed(socket);
+    streamFormatOutput.close();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+class TCPSelectorEngine {
+
+  private static final Logger LOGGER = Logging.getLogger(TCPSelectorEngine.class);
+
+  private final TCPServer server;
+  private final ServerSocketChannel serverChannel;
+  private final TCPSelectorGroup selectorGroup;
+  private final boolean sharedGroup;
+
+  TCPSelectorEngine(TCPServer server, ServerSocketChannel serverChannel, int ioThreads)
+          throws IOException {
+    this(server, serverChannel, new TCPSelectorGroup(ioThreads), false);
+  }
+
+  // a shared group is started and stopped by its owner, it is not stopped with this listener
+  TCPSelectorEngine(TCPServer server, ServerSocketChannel serverChannel, TCPSelectorGroup selectorGroup, boolean sharedGroup) {
+    this.server = server;
+    this.serverChannel = serverChannel;
+    this.selectorGroup = selectorGroup;
+    this.sharedGroup = sharedGroup;
+  }
+
+  void run() {
+    selectorGroup.start();
+
+    try {
+      while (serverChannel.isOpen() && !Thread.currentThread().isInterrupted()) {
+        try {
+          SocketChannel channel = serverChannel.accept();
+          LOGGER.info("Connection received from {}", channel.getRemoteAddress());
+
+          selectorGroup.register(server, channel);
+        } catch (ClosedChannelException ex) {
+          // the listener was closed by stopExecutions
+        } catch (IOException ex) {
+          if (serverChannel.isOpen()) {
+            LOGGER.info("Client connection error", ex);
+          }
+        }
+      }
+    } finally {
+      if (!sharedGroup) {
+        selectorGroup.shutdown();
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+public class TCPSelectorGroup {
+
+  private static final Logger LOGGER = Logging.getLogger(TCPSelectorGroup.class);
+
+  private static final String THREAD_FORMAT_NAME = "TCPSelector-%d";
+
+  private final TCPSelectorWorker[] workers;
+  private final Thread[] workerThreads;
+  private final AtomicInteger nextWorker = new AtomicInteger();
+
+  private boolean started = false;
+
+  public TCPSelectorGroup(int ioThreads)
+          throws IOException {
+    int nbWorkers = ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors();
+    workers = new TCPSelectorWorker[nbWorkers];
+    workerThreads = new Thread[nbWorkers];
+
+    for (int i = 0; i < nbWorkers; i++) {
+      workers[i] = new TCPSelectorWorker();
+      workerThreads[i] = new Thread(workers[i], String.format(THREAD_FORMAT_NAME, i));
+      workerThreads[i].setDaemon(true);
+    }
+  }
+
+  public synchronized void start() {
+    if (!started) {
+      started = true;
+
+      for (Thread workerThread : workerThreads) {
+        workerThread.start();
+      }
+
+      LOGGER.info("Selector engine started with {} I/O thread(s)", workers.length);
+    }
+  }
+
+  // the channels of all the servers sharing the group are spread on the same selector threads
+  void register(TCPServer server, SocketChannel channel) {
+    int worker = Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+    workers[worker].register(server, channel);
+  }
+
+  public void shutdown() {
+    for (TCPSelectorWorker worker : workers) {
+      worker.shutdown();
+    }
+
+    for (Thread workerThread : workerThreads) {
+      try {
+        if (workerThread.isAlive()) {
+          workerThread.join();
+        }
+      } catch (InterruptedException ex) {
+        LOGGER.warn("Interrupted while waiting for the selector threads to stop");
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  public int getIoThreads() {
+    return workers.length;
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.formatter.exception.StreamFramingException;
+import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+
+import org.slf4j.Logger;
+
+class TCPSelectorWorker
+        implements Runnable {
+
+  private static final Logger LOGGER = Logging.getLogger(TCPSelectorWorker.class);
+
+  private final Selector selector;
+  private final Queue<PendingChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+  private final Set<TCPSelectorConnection> idleConnections = new HashSet<>();
+
+  private volatile boolean running = true;
+
+  TCPSelectorWorker()
+          throws IOException {
+    this.selector = Selector.open();
+  }
+
+  void register(TCPServer server, SocketChannel channel) {
+    pendingChannels.add(new PendingChannel(server, channel));
+    selector.wakeup();
+  }
+
+  void shutdown() {
+    running = false;
+    selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        selector.select(nextIdleTimeoutMs());
+        registerPendingChannels();
+
+        Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+        while (selectedKeys.hasNext()) {
+          SelectionKey key = selectedKeys.next();
+          selectedKeys.remove();
+
+          handleKey(key);
+        }
+
+        expireIdleConnections();
+      }
+    } catch (IOException ex) {
+      LOGGER.error("Selector failure, closing all the connections of this worker", ex);
+    } finally {
+      closeAll();
+    }
+  }
+
+  private void registerPendingChannels() {
+    PendingChannel pendingChannel;
+
+    while ((pendingChannel = pendingChannels.poll()) != null) {
+      // a failure of one client connection never stops the worker: only this channel is closed
+      try {
+        registerPendingChannel(pendingChannel.server, pendingChannel.channel);
+      } catch (RuntimeException ex) {
+        LOGGER.error("Unable to register client connection, closing it", ex);
+        closePendingChannel(pendingChannel);
+      }
+    }
+  }
+
+  private void registerPendingChannel(TCPServer server, SocketChannel channel) {
+    StreamFormatOutput streamFormatOutput = server.newFormatOutputInstance();
+
+    try {
+      TCPClientConnection client = server.newClientConnection();
+      streamFormatOutput.setEndpoints(TransportProtocol.TCP, (InetSocketAddress) channel.socket().getLocalSocketAddress(),
+                                      (InetSocketAddress) channel.socket().getRemoteSocketAddress());
+
+      if (client instanceof TCPChannelConnection) {
+        registerChannelConnection(server, channel, (TCPChannelConnection) client, streamFormatOutput);
+        return;
+      }
+
+      TCPSelectorConnection connection = new TCPSelectorConnection(server, channel, client, streamFormatOutput);
+      try {
+        connection.open(selector);
+      } catch (IOException ex) {
+        LOGGER.info("Unable to initialize client connection: {}", ex.getMessage());
+        connection.close();
+      }
+    } catch (RuntimeException ex) {
+      streamFormatOutput.close();
+      throw ex;
+    }
+  }
+
+  private void closePendingChannel(PendingChannel pendingChannel) {
+    SelectionKey key = pendingChannel.channel.keyFor(selector);
+    if (key != null && key.attachment() != null) {
+      closeConnection(key.attachment());
+      return;
+    }
+
+    if (key != null) {
+      key.cancel();
+    }
+
+    try {
+      pendingChannel.channel.close();
+    } catch (IOException ex) {
+      LOGGER.info("Unable to close pending channel: {}", ex.getMessage());
+    }
+
+    pendingChannel.server.connectionClosed(pendingChannel.channel.socket());
+  }
+
+  private void registerChannelConnection(TCPServer server, SocketChannel channel, TCPChannelConnection connection,
+                                         StreamFormatOutput streamFormatOutput) {
+    Socket socket = channel.socket();
+    connection.setCloseListener(() -> {
+      server.connectionClosed(socket);
+      streamFormatOutput.close();
+    });
+    ConnectionInfo<Socket> connectionInfo = server.connectionOpened(socket);
+
+    try {
+      connection.openChannel(channel, selector, streamFormatOutput, connectionInfo);
+    } catch (IOException ex) {
+      LOGGER.info("Unable to initialize client connection: {}", ex.getMessage());
+      connection.close();
+    }
+  }
+
+  private void handleKey(SelectionKey key) {
+    if (key.attachment() instanceof TCPChannelConnection) {
+      handleChannelKey(key, (TCPChannelConnection) key.attachment());
+      return;
+    }
+
+    TCPSelectorConnection connection = (TCPSelectorConnection) key.attachment();
+
+    try {
+      if (key.isValid() && key.isReadable()) {
+        connection.read();
+        trackIdleDeadline(connection);
+      }
+
+      if (key.isValid() && key.isWritable()) {
+        connection.flush();
+      }
+    } catch (StreamNoDataException ex) {
+      LOGGER.info("Connection lost to client: {}", ex.getMessage());
+      connection.close();
+    } catch (StreamFramingException ex) {
+      LOGGER.warn("Invalid data received, closing connection: {}", ex.getMessage());
+      connection.close();
+    } catch (IOException ex) {
+      LOGGER.info("Socket failure: {}", ex.getMessage());
+      connection.close();
+    }
+  }
+
+  private void expireIdleConnections() {
+    long now = System.nanoTime();
+
+    for (TCPSelectorConnection connection : List.copyOf(idleConnections)) {
+      if (connection.getIdleDeadlineNanos() - now > 0) {
+        continue;
+      }
+
+      try {
+        connection.idleTimeout();
+      } catch (StreamFramingException ex) {
+        LOGGER.warn("Invalid data received, closing connection: {}", ex.getMessage());
+        connection.close();
+      } catch (IOException ex) {
+        LOGGER.info("Socket failure: {}", ex.getMessage());
+        connection.close();
+      }
+
+      trackIdleDeadline(connection);
+    }
+  }
+
+  private void trackIdleDeadline(TCPSelectorConnection connection) {
+    if (connection.getIdleDeadlineNanos() == 0) {
+      idleConnections.remove(connection);
+    } else {
+      idleConnections.add(connection);
+    }
+  }
+
+  // the selector wakes up for the nearest idle deadline, 0 (no timeout) when no connection waits for one
+  private long nextIdleTimeoutMs() {
+    if (idleConnections.isEmpty()) {
+      return 0;
+    }
+
+    long now = System.nanoTime();
+    long timeoutNanos = Long.MAX_VALUE;
+    for (TCPSelectorConnection connection : idleConnections) {
+      timeoutNanos = Math.min(timeoutNanos, connection.getIdleDeadlineNanos() - now);
+    }
+
+    return Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + 1);
+  }
+
+  private void handleChannelKey(SelectionKey key, TCPChannelConnection connection) {
+    try {
+      if (key.isValid()) {
+        connection.handleKey(key);
+      }
+    } catch (IOException ex) {
+      LOGGER.info("Socket failure: {}", ex.getMessage());
+      connection.close();
+    }
+  }
+
+  private void closeAll() {
+    for (SelectionKey key : selector.keys()) {
+      closeConnection(key.attachment());
+    }
+
+    PendingChannel pendingChannel;
+    while ((pendingChannel = pendingChannels.poll()) != null) {
+      closePendingChannel(pendingChannel);
+    }
+
+    try {
+      selector.close();
+    } catch (IOException ex) {
+      LOGGER.error("Unable to close selector", ex);
+    }
+  }
+
+  private void closeConnection(Object connection) {
+    if (connection instanceof TCPChannelConnection) {
+      ((TCPChannelConnection) connection).close();
+    } else if (connection instanceof TCPSelectorConnection) {
+      ((TCPSelectorConnection) connection).close();
+    }
+  }
+
+  private static class PendingChannel {
+
+    private final TCPServer server;
+    private final SocketChannel channel;
+
+    private PendingChannel(TCPServer server, SocketChannel channel) {
+      this.server = server;
+      this.channel = channel;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+
+class TCPSentDataOutputStream
+        extends FilterOutputStream {
+
+  private final StreamFormatOutput streamFormatOutput;
+  private final ConnectionInfo<?> connectionInfo;
+
+  TCPSentDataOutputStream(OutputStream out, StreamFormatOutput streamFormatOutput) {
+    this(out, streamFormatOutput, null);
+  }
+
+  TCPSentDataOutputStream(OutputStream out, StreamFormatOutput streamFormatOutput, ConnectionInfo<?> connectionInfo) {
+    super(out);
+    this.streamFormatOutput = streamFormatOutput;
+    this.connectionInfo = connectionInfo;
+  }
+
+  @Override
+  public void write(int oneByte)
+          throws IOException {
+    write(new byte[] {(byte) oneByte}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] data, int offset, int length)
+          throws IOException {
+    out.write(data, offset, length);
+    if (connectionInfo != null) {
+      connectionInfo.addBytesSent(length);
+    }
+
+    streamFormatOutput.formatDataSent(data, offset, length);
+  }
+}
@@ -26,35 +26,58 @@
 package com.ioleak.jnetcat.server.tcp;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.List;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.properties.Observable;
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.exception.StreamFramingException;
 import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
+import com.ioleak.jnetcat.options.JNetcatParameters;
 import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
 import com.ioleak.jnetcat.server.generic.Listener;
+import com.ioleak.jnetcat.server.generic.ExecutionMode;
 import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.generic.WorkerPool;
 import com.ioleak.jnetcat.server.tcp.exception.TCPServerUnitializatedStartException;
+import com.ioleak.jnetcat.server.tcp.upstream.UpstreamPool;
+
+import org.slf4j.Logger;
 
 public class TCPServer
         extends Listener<TCPServerType, Socket> {
 
-  private ServerSocket serverSocket;
-  private ServerState serverState = ServerState.NOT_STARTED;
+  private static final Logger LOGGER = Logging.getLogger(TCPServer.class);
+
+  private static final String WORKER_THREAD_NAME_PREFIX = "TCPWorker-";
+
+  private final TCPServerEngine serverEngine;
+  private final int ioThreads;
+  private final boolean multiThread;
+
+  private volatile ServerSocket serverSocket;
+  private volatile ServerState serverState = ServerState.NOT_STARTED;
+  private volatile UpstreamPool upstreamPool;
+  private volatile ServerParametersTCP serverParametersTCP;
+  private volatile StreamFormatOutput streamFormatOutput;
 
   private Observable keyListener;
-  private StreamFormatOutput streamFormatOutput;
-  
+  private TCPSelectorGroup sharedSelectorGroup;
+
   public TCPServer(ServerParametersTCP serverParametersTCP) {
-    this(serverParametersTCP.getServerType(), serverParametersTCP.getPort());
-  }
+    super(serverParametersTCP.getServerType(), serverParametersTCP.getPort());
 
-  private TCPServer(TCPServerType serverType, int port) {
-    super(serverType, port);
+    this.serverParametersTCP = serverParametersTCP;
+    this.serverEngine = serverParametersTCP.getServerEngine();
+    this.ioThreads = serverParametersTCP.getIoThreads();
+    this.multiThread = serverParametersTCP.isMultiThread() || serverParametersTCP.getExecutionMode() == ExecutionMode.VIRTUAL;
   }
 
   @Override
@@ -74,47 +97,219 @@ public class TCPServer
     this.streamFormatOutput = streamFormatOutput;
   }
 
+  // SELECTOR engine: the connections are handled by the I/O threads of the group instead of ioThreads dedicated threads
+  public void setSharedSelectorGroup(TCPSelectorGroup sharedSelectorGroup) {
+    this.sharedSelectorGroup = sharedSelectorGroup;
+  }
+
+  @Override
+  public synchronized boolean reconfigure(JNetcatParameters params, StreamFormatOutput streamFormatOutput) {
+    ServerParametersTCP newParameters = params.getServerParametersTCP();
+
+    if (!params.isStartAsServer() || !params.isUseProtocolTCP() || !serverParametersTCP.hasSameListener(newParameters)) {
+      return false;
+    }
+
+    // a blocking listener opened without channel cannot accept the clients of a channel server type
+    boolean channelOpened = serverSocket != null && serverSocket.getChannel() != null;
+    if (serverEngine == TCPServerEngine.BLOCKING && newParameters.getServerType().isChannelRequired() && !channelOpened) {
+      return false;
+    }
+
+    UpstreamPool previousPool = upstreamPool;
+    UpstreamPool newPool = null;
+    if (newParameters.getServerType().isUpstreamRequired()) {
+      if (previousPool != null && serverParametersTCP.hasSameUpstreams(newParameters)) {
+        newPool = previousPool;
+      } else {
+        newPool = UpstreamPool.fromParameters(newParameters);
+        newPool.start();
+      }
+    }
+
+    upstreamPool = newPool;
+    this.serverParametersTCP = newParameters;
+    this.streamFormatOutput = streamFormatOutput;
+    setServerType(newParameters.getServerType());
+
+    // the sessions in progress keep their upstream connection, only the health checks and warm connections are stopped
+    if (previousPool != null && previousPool != newPool) {
+      previousPool.close();
+    }
+
+    LOGGER.info("Server reconfigured (TCP): {}, {} connection(s) kept on port {}", getServerType(), getConnectedClientsNumber(), getPort());
+    return true;
+  }
+
   @Override
   public void start() {
     serverState = ServerState.STARTING;
-    Logging.getLogger().info(String.format("Server act as a server (TCP): %s", getServerType().toString()));
+    LOGGER.info("Server act as a server (TCP): {}", getServerType().toString());
+
+    synchronized (this) {
+      if (getServerType().isUpstreamRequired()) {
+        upstreamPool = UpstreamPool.fromParameters(serverParametersTCP);
+        upstreamPool.start();
+      }
+    }
+
+    if (serverEngine == TCPServerEngine.SELECTOR) {
+      startSelectorEngine();
+    } else {
+      startBlockingEngine();
+    }
+
+    synchronized (this) {
+      if (upstreamPool != null) {
+        upstreamPool.close();
+      }
+    }
+
+    serverState = ServerState.CLOSED;
+    LOGGER.warn("Server closed on defined port {}", getPort());
+  }
+
+  private void startSelectorEngine() {
+    try {
+      ServerSocketChannel serverChannel = openServerChannel();
+      TCPSelectorEngine selectorEngine = sharedSelectorGroup == null
+                                         ? new TCPSelectorEngine(this, serverChannel, ioThreads)
+                                         : new TCPSelectorEngine(this, serverChannel, sharedSelectorGroup, true);
+      serverState = ServerState.WAITING_FOR_CONNECTION;
+      selectorEngine.run();
+    } catch (IOException ex) {
+      if (serverSocket == null || !serverSocket.isClosed()) {
+        LOGGER.info("Unable to start TCP listener: {}", ex.getMessage());
+      }
+    }
+  }
+
+  private void startBlockingEngine() {
+    ExecutorService workers = null;
 
     try {
-      serverSocket = new ServerSocket(getPort());
-      Logging.getLogger().info(String.format("Listening on port %d", getLocalPort()));
+      if (getServerType().isChannelRequired()) {
+        openServerChannel();
+      } else {
+        serverSocket = new ServerSocket(getPort());
+        LOGGER.info("Listening on port {}", getLocalPort());
+      }
+
+      if (multiThread) {
+        workers = WorkerPool.newSessionExecutor(serverParametersTCP.getExecutionMode(), WORKER_THREAD_NAME_PREFIX,
+                                                serverParametersTCP.getMaxThreads(), serverParametersTCP.getMaxQueueSize(),
+                                                serverParametersTCP.getRejectionPolicy());
+        serverState = ServerState.WAITING_FOR_CONNECTION;
+      }
 
       while (!(serverSocket.isClosed() || Thread.currentThread().isInterrupted())) {
+        if (workers == null) {
+          serverState = ServerState.WAITING_FOR_CONNECTION;
+        }
 
-        serverState = ServerState.WAITING_FOR_CONNECTION;
-        try (Socket socket = serverSocket.accept()) {
-          serverState = ServerState.CLIENT_CONNECTED;
-          getConnectionClients().add(socket);
-          Logging.getLogger().info(String.format("Connection received from %s", socket.getRemoteSocketAddress()));
-
-          try {
-            getServerType().getClient().startClient(socket, streamFormatOutput);
-          } catch (SocketException ex) {
-            Logging.getLogger().info(String.format("Socket failure: %s", ex.getMessage()));
-          } catch (StreamNoDataException ex) {
-            Logging.getLogger().info(String.format("Connection lost to client: %s", ex.getMessage()));
+        try {
+          Socket socket = serverSocket.accept();
+          LOGGER.info("Connection received from {}", socket.getRemoteSocketAddress());
+
+          if (workers == null) {
+            serverState = ServerState.CLIENT_CONNECTED;
+            getConnectionClients().register(socket, socket.getRemoteSocketAddress());
+            handleClient(socket, streamFormatOutput);
+          } else {
+            connectionOpened(socket);
+            dispatchClient(workers, socket);
           }
-          
-          getConnectionClients().remove(socket);
-          Logging.getLogger().info(String.format("Connection closed on client %s", socket.getRemoteSocketAddress()));
         } catch (IOException ex) {
           if (!serverSocket.isClosed()) {
-            Logging.getLogger().info("Client connection error", ex);
+            LOGGER.info("Client connection error", ex);
           }
         }
       }
     } catch (IOException ex) {
       if (serverSocket == null || !serverSocket.isClosed()) {
-        Logging.getLogger().info(String.format("Unable to start TCP listener: %s", ex.getMessage()));
+        LOGGER.info("Unable to start TCP listener: {}", ex.getMessage());
+      }
+    } finally {
+      if (workers != null) {
+        WorkerPool.shutdown(workers);
       }
     }
+  }
 
-    serverState = ServerState.CLOSED;
-    Logging.getLogger().warn(String.format("Server closed on defined port %d", getPort()));
+  private ServerSocketChannel openServerChannel()
+          throws IOException {
+    ServerSocketChannel serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(getPort()));
+    serverSocket = serverChannel.socket();
+    LOGGER.info("Listening on port {}", getLocalPort());
+
+    return serverChannel;
+  }
+
+  private void dispatchClient(ExecutorService workers, Socket socket)
+          throws IOException {
+    try {
+      workers.execute(() -> {
+        StreamFormatOutput formatOutput = newFormatOutputInstance();
+        try {
+          handleClient(socket, formatOutput);
+        } finally {
+          formatOutput.close();
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      LOGGER.warn("All workers are busy, connection refused for {}", socket.getRemoteSocketAddress());
+      connectionClosed(socket);
+      socket.close();
+    }
+  }
+
+  private void handleClient(Socket socket, StreamFormatOutput formatOutput) {
+    try (socket) {
+      TCPClientConnection client = newClientConnection();
+      client.setConnectionInfo(getConnectionClients().get(socket));
+      client.startClient(socket, formatOutput);
+    } catch (SocketException ex) {
+      LOGGER.info("Socket failure: {}", ex.getMessage());
+    } catch (StreamNoDataException ex) {
+      LOGGER.info("Connection lost to client: {}", ex.getMessage());
+    } catch (StreamFramingException ex) {
+      LOGGER.warn("Invalid data received, closing connection: {}", ex.getMessage());
+    } catch (IOException ex) {
+      LOGGER.info("Client connection error", ex);
+    } finally {
+      connectionClosed(socket);
+    }
+  }
+
+  ConnectionInfo<Socket> connectionOpened(Socket socket) {
+    ConnectionInfo<Socket> connectionInfo = getConnectionClients().register(socket, socket.getRemoteSocketAddress());
+    refreshServerState();
+
+    return connectionInfo;
+  }
+
+  void connectionClosed(Socket socket) {
+    ConnectionInfo<Socket> connectionInfo = getConnectionClients().unregister(socket);
+    if (connectionInfo != null) {
+      LOGGER.info("Connection closed on client {}", connectionInfo);
+    }
+
+    refreshServerState();
+  }
+
+  synchronized TCPClientConnection newClientConnection() {
+    return getServerType().getClient(serverParametersTCP, upstreamPool);
+  }
+
+  StreamFormatOutput newFormatOutputInstance() {
+    return streamFormatOutput.newInstance();
+  }
+
+  private synchronized void refreshServerState() {
+    if ((serverEngine == TCPServerEngine.SELECTOR || multiThread) && serverState != ServerState.CLOSED && serverState != ServerState.STARTING) {
+      serverState = getConnectionClients().isEmpty() ? ServerState.WAITING_FOR_CONNECTION : ServerState.CLIENT_CONNECTED;
+    }
   }
 
   @Override
@@ -126,27 +321,29 @@ public class TCPServer
   public boolean stopActiveExecution() {
     boolean clentClosed = false;
 
-    List<Socket> copyClients = List.copyOf(getConnectionClients());
-    for (Socket socket : copyClients) {
+    for (ConnectionInfo<Socket> connectionInfo : getConnectionClients().getConnections()) {
+      Socket socket = connectionInfo.getConnection();
       if (socket.isConnected() && !socket.isClosed()) {
-        Logging.getLogger().warn(String.format("Received a key to stop client connection (%s)", socket.getRemoteSocketAddress()));
+        LOGGER.warn("Received a key to stop client connection ({})", socket.getRemoteSocketAddress());
 
         try {
           socket.close();
-          getConnectionClients().remove(socket);
+          getConnectionClients().unregister(socket);
           clentClosed = true;
 
-          Logging.getLogger().error("Client connection closed successfully");
+          LOGGER.error("Client connection closed successfully");
         } catch (IOException ex) {
-          Logging.getLogger().error("Unable to stop client connection");
+          LOGGER.error("Unable to stop client connection");
         }
       }
     }
 
     if (!clentClosed) {
-      Logging.getLogger().warn("No client is currently connected. Please wait for a connection to be established");
+      LOGGER.warn("No client is currently connected. Please wait for a connection to be established");
     }
 
+    refreshServerState();
+
     return clentClosed;
   }
 
@@ -155,15 +352,15 @@ public class TCPServer
     boolean closed = false;
 
     try {
-      Logging.getLogger().info("Close server request received...");
+      LOGGER.info("Close server request received...");
 
-      List<Socket> copyClients = List.copyOf(getConnectionClients());
-      for (Socket client : copyClients) {
+      for (ConnectionInfo<Socket> connectionInfo : getConnectionClients().getConnections()) {
+        Socket client = connectionInfo.getConnection();
         if (client.isConnected() && !client.isClosed()) {
           client.close();
         }
 
-        getConnectionClients().remove(client);
+        getConnectionClients().unregister(client);
       }
 
       if (serverSocket != null && !serverSocket.isClosed()) {
@@ -171,7 +368,7 @@ public class TCPServer
         closed = true;
       }
     } catch (IOException ex) {
-      Logging.getLogger().error("Unable to close", ex);
+      LOGGER.error("Unable to close", ex);
     }
 
     return closed;
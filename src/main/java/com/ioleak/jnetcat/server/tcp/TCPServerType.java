@@ -26,7 +26,9 @@
 package com.ioleak.jnetcat.server.tcp;
 
 import com.ioleak.jnetcat.common.BaseEnum;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
 import com.ioleak.jnetcat.server.ClientConnectionFactory;
+import com.ioleak.jnetcat.server.tcp.upstream.UpstreamPool;
 
 public enum TCPServerType
         implements BaseEnum {
@@ -34,7 +36,11 @@ public enum TCPServerType
   UNKNOWN(0, "Unknown server type defined"),
   BASIC(1, "(TCP) Listen only server"),
   ECHO(2, "(TCP) Echo requests on the server"),
-  PROXY(3, "(TCP) Forward requests to another server");
+  PROXY(3, "(TCP) Forward requests to another server"),
+  SINK(4, "(TCP) Discard all the data received (throughput tests)"),
+  DISCARD(5, "(TCP) Discard server (RFC 863)"),
+  CHARGEN(6, "(TCP) Character generator server (RFC 864)"),
+  DAYTIME(7, "(TCP) Daytime server (RFC 867)");
 
   private int code;
   private String msg;
@@ -54,8 +60,16 @@ public enum TCPServerType
     return msg;
   }
 
-  public TCPClientConnection getClient() {
-    return ClientConnectionFactory.createClientConnectionTCP(this);
+  public TCPClientConnection getClient(ServerParametersTCP serverParametersTCP, UpstreamPool upstreamPool) {
+    return ClientConnectionFactory.createClientConnectionTCP(this, serverParametersTCP, upstreamPool);
+  }
+
+  public boolean isChannelRequired() {
+    return this == PROXY || this == SINK || this == DISCARD || this == CHARGEN || this == DAYTIME;
+  }
+
+  public boolean isUpstreamRequired() {
+    return this == PROXY;
   }
 
   @Override
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.implement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+import com.ioleak.jnetcat.server.generic.ChargenPattern;
+import com.ioleak.jnetcat.server.tcp.TCPChannelConnection;
+
+import org.slf4j.Logger;
+
+public class Chargen
+        extends TCPChannelConnection {
+
+  private static final Logger LOGGER = Logging.getLogger(Chargen.class);
+
+  private SocketChannel clientChannel;
+  private ConnectionInfo<?> connectionInfo;
+  private ByteBuffer ring;
+  private int offset = 0;
+
+  @Override
+  public void openChannel(SocketChannel clientChannel, Selector selector, StreamFormatOutput streamFormatOutput,
+                          ConnectionInfo<?> connectionInfo)
+          throws IOException {
+    this.clientChannel = clientChannel;
+    this.connectionInfo = connectionInfo;
+    this.ring = ChargenPattern.newRingView();
+
+    clientChannel.configureBlocking(false);
+    clientChannel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, this);
+  }
+
+  @Override
+  public void handleKey(SelectionKey key)
+          throws IOException {
+    if (key.isReadable()) {
+      long result = Discard.discardAvailableData(clientChannel);
+
+      if (result == -1) {
+        close();
+        return;
+      }
+      connectionInfo.addBytesReceived(result);
+    }
+
+    if (key.isWritable()) {
+      ring.limit(offset + ChargenPattern.MAX_WRITE_SIZE).position(offset);
+      int written = clientChannel.write(ring);
+      connectionInfo.addBytesSent(written);
+      offset = ChargenPattern.nextOffset(offset, written);
+    }
+  }
+
+  @Override
+  protected void closeChannels() {
+    if (clientChannel != null) {
+      try {
+        clientChannel.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close client channel: {}", ex.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.implement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+import com.ioleak.jnetcat.server.tcp.TCPChannelConnection;
+
+import org.slf4j.Logger;
+
+public class Daytime
+        extends TCPChannelConnection {
+
+  private static final Logger LOGGER = Logging.getLogger(Daytime.class);
+
+  private SocketChannel clientChannel;
+  private ConnectionInfo<?> connectionInfo;
+  private ByteBuffer response;
+
+  @Override
+  public void openChannel(SocketChannel clientChannel, Selector selector, StreamFormatOutput streamFormatOutput,
+                          ConnectionInfo<?> connectionInfo)
+          throws IOException {
+    this.clientChannel = clientChannel;
+    this.connectionInfo = connectionInfo;
+    this.response = ByteBuffer.wrap(StringUtils.getBytesFromString(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now()) + "\r\n"));
+
+    clientChannel.configureBlocking(false);
+    clientChannel.register(selector, SelectionKey.OP_WRITE, this);
+  }
+
+  @Override
+  public void handleKey(SelectionKey key)
+          throws IOException {
+    if (key.isWritable()) {
+      connectionInfo.addBytesSent(clientChannel.write(response));
+
+      // the connection is closed once the date is sent, whatever the client sent
+      if (!response.hasRemaining()) {
+        close();
+      }
+    }
+  }
+
+  @Override
+  protected void closeChannels() {
+    if (clientChannel != null) {
+      try {
+        clientChannel.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close client channel: {}", ex.getMessage());
+      }
+    }
+  }
+}
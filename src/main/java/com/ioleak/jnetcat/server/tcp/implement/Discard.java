@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.implement;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+import com.ioleak.jnetcat.server.tcp.TCPChannelConnection;
+
+import org.slf4j.Logger;
+
+public class Discard
+        extends TCPChannelConnection {
+
+  private static final Logger LOGGER = Logging.getLogger(Discard.class);
+
+  private static final int BUFFER_SIZE = 262144;
+
+  // one buffer for all the connections and threads: the data is never looked at, concurrent reads may overwrite
+  // each other. A buffer per thread would be allocated for each session with virtual threads
+  private static final ByteBuffer DISCARD_BUFFER = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+  private SocketChannel clientChannel;
+  private ConnectionInfo<?> connectionInfo;
+  private SocketAddress clientAddress;
+  private long bytesReceived = 0;
+  private long startNanos;
+
+  @Override
+  public void openChannel(SocketChannel clientChannel, Selector selector, StreamFormatOutput streamFormatOutput,
+                          ConnectionInfo<?> connectionInfo)
+          throws IOException {
+    this.clientChannel = clientChannel;
+    this.connectionInfo = connectionInfo;
+    this.clientAddress = clientChannel.getRemoteAddress();
+    this.startNanos = System.nanoTime();
+
+    clientChannel.configureBlocking(false);
+    clientChannel.register(selector, SelectionKey.OP_READ, this);
+  }
+
+  @Override
+  public void handleKey(SelectionKey key)
+          throws IOException {
+    if (!key.isReadable()) {
+      return;
+    }
+
+    long result = discardAvailableData(clientChannel);
+
+    if (result == -1) {
+      streamEnded(bytesReceived, System.nanoTime() - startNanos);
+      close();
+    } else {
+      bytesReceived += result;
+      connectionInfo.addBytesReceived(result);
+    }
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  public SocketAddress getClientAddress() {
+    return clientAddress;
+  }
+
+  protected void streamEnded(long bytesReceived, long elapsedNanos) {
+  }
+
+  @Override
+  protected void closeChannels() {
+    if (clientChannel != null) {
+      try {
+        clientChannel.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close client channel: {}", ex.getMessage());
+      }
+    }
+  }
+
+  static long discardAvailableData(SocketChannel channel)
+          throws IOException {
+    // own position and limit, same memory
+    ByteBuffer buffer = DISCARD_BUFFER.duplicate();
+    long total = 0;
+    int result;
+
+    do {
+      buffer.clear();
+      result = channel.read(buffer);
+
+      if (result == -1) {
+        return -1;
+      }
+      total += result;
+    } while (result == buffer.capacity());
+
+    return total;
+  }
+}
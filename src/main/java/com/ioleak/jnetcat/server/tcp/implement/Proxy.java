@@ -26,27 +26,205 @@
 package com.ioleak.jnetcat.server.tcp.implement;
 
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
 
-import com.ioleak.jnetcat.server.tcp.TCPClientConnection;
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+import com.ioleak.jnetcat.server.tcp.TCPChannelConnection;
+import com.ioleak.jnetcat.server.tcp.upstream.Upstream;
+import com.ioleak.jnetcat.server.tcp.upstream.UpstreamPool;
+
+import org.slf4j.Logger;
 
 public class Proxy
-        extends TCPClientConnection {
+        extends TCPChannelConnection {
+
+  private static final Logger LOGGER = Logging.getLogger(Proxy.class);
+
+  private static final int BUFFER_SIZE = 16384;
+
+  private final UpstreamPool upstreamPool;
+  private final boolean capture;
+
+  private StreamFormatOutput streamFormatOutput;
+  private ConnectionInfo<?> connectionInfo;
+  private SocketChannel clientChannel;
+  private SocketChannel upstreamChannel;
+  private ProxyDirection clientToUpstream;
+  private ProxyDirection upstreamToClient;
+  private SelectionKey clientKey;
+  private SelectionKey upstreamKey;
+  private Upstream upstream;
+
+  public Proxy(UpstreamPool upstreamPool, boolean capture) {
+    this.upstreamPool = upstreamPool;
+    this.capture = capture;
+  }
 
   @Override
-  public void initClient(OutputStream out) throws IOException {
-    throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+  public void openChannel(SocketChannel clientChannel, Selector selector, StreamFormatOutput streamFormatOutput,
+                          ConnectionInfo<?> connectionInfo)
+          throws IOException {
+    this.streamFormatOutput = streamFormatOutput;
+    this.connectionInfo = connectionInfo;
+    this.clientChannel = clientChannel;
+
+    upstream = upstreamPool.select(clientChannel.getRemoteAddress());
+    if (upstream == null) {
+      throw new IOException("No healthy upstream available");
+    }
+    upstream.connectionOpened();
+
+    SocketChannel warmChannel = upstream.takeWarmChannel();
+    boolean warm = warmChannel != null;
+    upstreamChannel = warm ? warmChannel : SocketChannel.open();
+
+    clientToUpstream = new ProxyDirection(clientChannel, upstreamChannel, false);
+    upstreamToClient = new ProxyDirection(upstreamChannel, clientChannel, true);
+
+    clientChannel.configureBlocking(false);
+    upstreamChannel.configureBlocking(false);
+
+    clientKey = clientChannel.register(selector, 0, this);
+    upstreamKey = upstreamChannel.register(selector, warm ? 0 : SelectionKey.OP_CONNECT, this);
+
+    LOGGER.info("Proxying {} to {}{}", clientChannel.getRemoteAddress(), upstream, warm ? " (warm connection)" : "");
+    if (warm || connectUpstream(() -> upstreamChannel.connect(upstream.getAddress()))) {
+      forward();
+    }
   }
 
   @Override
-  public void dataRead(String readData) {
-    throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+  public void handleKey(SelectionKey key)
+          throws IOException {
+    if (key.isConnectable()) {
+      connectUpstream(upstreamChannel::finishConnect);
+    }
+
+    forward();
   }
 
   @Override
-  public void dataSend(OutputStream out) throws IOException {
-    throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+  protected void closeChannels() {
+    closeQuietly(clientChannel);
+    closeQuietly(upstreamChannel);
+
+    if (upstream != null) {
+      upstream.connectionClosed();
+    }
+  }
+
+  private boolean connectUpstream(ConnectAction connectAction)
+          throws IOException {
+    try {
+      return connectAction.connect();
+    } catch (IOException ex) {
+      upstream.connectionFailed(ex);
+      throw ex;
+    }
+  }
+
+  private void forward()
+          throws IOException {
+    if (!upstreamChannel.isConnected()) {
+      return;
+    }
+
+    clientToUpstream.transfer();
+    upstreamToClient.transfer();
+
+    if ((clientToUpstream.isDone() && upstreamToClient.isDone()) || !clientKey.isValid() || !upstreamKey.isValid()) {
+      close();
+    } else {
+      clientKey.interestOps(clientToUpstream.getSourceInterest() | upstreamToClient.getDestinationInterest());
+      upstreamKey.interestOps(upstreamToClient.getSourceInterest() | clientToUpstream.getDestinationInterest());
+    }
+  }
+
+  private void closeQuietly(SocketChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException ex) {
+        LOGGER.info("Unable to close proxied channel: {}", ex.getMessage());
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ConnectAction {
+
+    boolean connect() throws IOException;
   }
 
+  private class ProxyDirection {
+
+    private final SocketChannel source;
+    private final SocketChannel destination;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final boolean sentToClient;
+
+    private boolean sourceClosed = false;
+    private boolean destinationShutdown = false;
+
+    ProxyDirection(SocketChannel source, SocketChannel destination, boolean sentToClient) {
+      this.source = source;
+      this.destination = destination;
+      this.sentToClient = sentToClient;
+    }
 
+    void transfer()
+            throws IOException {
+      if (!sourceClosed && buffer.hasRemaining()) {
+        int start = buffer.position();
+        int result = source.read(buffer);
+
+        if (result == -1) {
+          sourceClosed = true;
+        } else if (result > 0 && !sentToClient) {
+          connectionInfo.addBytesReceived(result);
+        }
+
+        if (result > 0 && capture && streamFormatOutput != null) {
+          ByteBuffer data = buffer.duplicate().flip().position(start);
+          if (sentToClient) {
+            streamFormatOutput.formatDataSent(data);
+          } else {
+            streamFormatOutput.formatDataOutput(data);
+          }
+        }
+      }
+
+      if (buffer.position() > 0) {
+        buffer.flip();
+        int written = destination.write(buffer);
+        buffer.compact();
+
+        if (sentToClient) {
+          connectionInfo.addBytesSent(written);
+        }
+      }
+
+      if (sourceClosed && buffer.position() == 0 && !destinationShutdown) {
+        destination.shutdownOutput();
+        destinationShutdown = true;
+      }
+    }
+
+    boolean isDone() {
+      return destinationShutdown;
+    }
+
+    int getSourceInterest() {
+      return !sourceClosed && buffer.hasRemaining() ? SelectionKey.OP_READ : 0;
+    }
+
+    int getDestinationInterest() {
+      return buffer.position() > 0 ? SelectionKey.OP_WRITE : 0;
+    }
+  }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.upstream;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ioleak.jnetcat.common.Logging;
+
+import org.slf4j.Logger;
+
+public class Upstream {
+
+  private static final Logger LOGGER = Logging.getLogger(Upstream.class);
+
+  private final String host;
+  private final int port;
+  private final AtomicInteger activeConnections = new AtomicInteger();
+  private final Queue<SocketChannel> warmChannels = new ConcurrentLinkedQueue<>();
+
+  private volatile boolean healthy = true;
+
+  Upstream(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  public InetSocketAddress getAddress() {
+    return new InetSocketAddress(host, port);
+  }
+
+  public SocketChannel takeWarmChannel() {
+    SocketChannel channel;
+
+    while ((channel = warmChannels.poll()) != null) {
+      if (isReusable(channel)) {
+        return channel;
+      }
+
+      closeQuietly(channel);
+    }
+
+    return null;
+  }
+
+  public void connectionOpened() {
+    activeConnections.incrementAndGet();
+  }
+
+  public void connectionClosed() {
+    activeConnections.decrementAndGet();
+  }
+
+  public void connectionFailed(IOException ex) {
+    if (healthy) {
+      LOGGER.warn("Upstream {} removed from rotation: {}", this, ex.getMessage());
+    }
+
+    markDown();
+  }
+
+  public int getActiveConnections() {
+    return activeConnections.get();
+  }
+
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  void markUp() {
+    if (!healthy) {
+      LOGGER.info("Upstream {} is back in rotation", this);
+    }
+
+    healthy = true;
+  }
+
+  void markDown() {
+    healthy = false;
+    closeWarmChannels();
+  }
+
+  void addWarmChannel(SocketChannel channel) {
+    warmChannels.add(channel);
+  }
+
+  int getWarmChannelsCount() {
+    warmChannels.removeIf(channel -> {
+      if (isReusable(channel)) {
+        return false;
+      }
+
+      closeQuietly(channel);
+      return true;
+    });
+
+    return warmChannels.size();
+  }
+
+  void closeWarmChannels() {
+    SocketChannel channel;
+
+    while ((channel = warmChannels.poll()) != null) {
+      closeQuietly(channel);
+    }
+  }
+
+  private boolean isReusable(SocketChannel channel) {
+    if (!channel.isOpen() || !channel.isConnected()) {
+      return false;
+    }
+
+    // an idle upstream socket must not have anything to read: EOF means it was closed on the other side
+    try {
+      channel.configureBlocking(false);
+      return channel.read(ByteBuffer.allocate(1)) == 0;
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+
+  private void closeQuietly(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      LOGGER.info("Unable to close warm upstream channel: {}", ex.getMessage());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s:%d", host, port);
+  }
+}
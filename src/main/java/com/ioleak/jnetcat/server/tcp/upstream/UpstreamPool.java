@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.upstream;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.options.UpstreamConfig;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+
+import org.slf4j.Logger;
+
+public class UpstreamPool {
+
+  private static final Logger LOGGER = Logging.getLogger(UpstreamPool.class);
+
+  public static final int DEFAULT_HEALTH_CHECK_INTERVAL_MS = 5000;
+
+  private static final int CONNECT_TIMEOUT_MS = 1000;
+  private static final int VIRTUAL_NODES = 128;
+  private static final String HEALTH_CHECK_THREAD_NAME = "TCPUpstreamHealthCheck";
+
+  private final List<Upstream> upstreams = new ArrayList<>();
+  private final TreeMap<Integer, Upstream> hashRing = new TreeMap<>();
+  private final AtomicInteger nextUpstream = new AtomicInteger();
+  private final LoadBalancing loadBalancing;
+  private final int warmConnections;
+  private final int healthCheckIntervalMs;
+
+  private volatile ScheduledExecutorService healthChecker;
+
+  public UpstreamPool(List<UpstreamConfig> upstreamConfigs, LoadBalancing loadBalancing, int warmConnections, int healthCheckIntervalMs) {
+    this.loadBalancing = loadBalancing == null ? LoadBalancing.ROUND_ROBIN : loadBalancing;
+    this.warmConnections = Math.max(warmConnections, 0);
+    this.healthCheckIntervalMs = healthCheckIntervalMs;
+
+    for (UpstreamConfig upstreamConfig : upstreamConfigs) {
+      Upstream upstream = new Upstream(upstreamConfig.getHost(), upstreamConfig.getPort());
+      upstreams.add(upstream);
+
+      for (int i = 0; i < VIRTUAL_NODES; i++) {
+        hashRing.put(hash(String.format("%s#%d", upstream, i).hashCode()), upstream);
+      }
+    }
+  }
+
+  public static UpstreamPool fromParameters(ServerParametersTCP serverParametersTCP) {
+    List<UpstreamConfig> upstreamConfigs = new ArrayList<>();
+
+    if (ServerParametersTCP.isValidUpstream(serverParametersTCP.getUpstreamHost(), serverParametersTCP.getUpstreamPort())) {
+      upstreamConfigs.add(new UpstreamConfig(serverParametersTCP.getUpstreamHost(), serverParametersTCP.getUpstreamPort()));
+    }
+    upstreamConfigs.addAll(serverParametersTCP.getUpstreams());
+
+    return new UpstreamPool(upstreamConfigs, serverParametersTCP.getLoadBalancing(),
+                            serverParametersTCP.getWarmConnections(), serverParametersTCP.getHealthCheckIntervalMs());
+  }
+
+  public synchronized void start() {
+    if (healthChecker != null || (healthCheckIntervalMs <= 0 && warmConnections == 0)) {
+      return;
+    }
+
+    int interval = healthCheckIntervalMs > 0 ? healthCheckIntervalMs : DEFAULT_HEALTH_CHECK_INTERVAL_MS;
+    healthChecker = Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> {
+      Thread thread = new Thread(runnable, HEALTH_CHECK_THREAD_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+    healthChecker.scheduleWithFixedDelay(this::checkUpstreams, 0, interval, TimeUnit.MILLISECONDS);
+
+    LOGGER.info("Upstream pool started: {} upstream(s), {}, {} warm connection(s) each", upstreams.size(), loadBalancing, warmConnections);
+  }
+
+  public synchronized void close() {
+    if (healthChecker != null) {
+      healthChecker.shutdownNow();
+      healthChecker = null;
+    }
+
+    for (Upstream upstream : upstreams) {
+      upstream.closeWarmChannels();
+    }
+  }
+
+  public Upstream select(SocketAddress clientAddress) {
+    if (loadBalancing == LoadBalancing.CONSISTENT_HASH) {
+      return selectByHash(clientAddress);
+    }
+
+    int start = Math.floorMod(nextUpstream.getAndIncrement(), upstreams.size());
+    Upstream selected = null;
+
+    for (int i = 0; i < upstreams.size(); i++) {
+      Upstream upstream = upstreams.get((start + i) % upstreams.size());
+
+      if (isAvailable(upstream)) {
+        if (loadBalancing == LoadBalancing.ROUND_ROBIN) {
+          return upstream;
+        }
+
+        if (selected == null || upstream.getActiveConnections() < selected.getActiveConnections()) {
+          selected = upstream;
+        }
+      }
+    }
+
+    return selected;
+  }
+
+  public List<Upstream> getUpstreams() {
+    return List.copyOf(upstreams);
+  }
+
+  void checkUpstreams() {
+    for (Upstream upstream : upstreams) {
+      try {
+        SocketChannel channel = connect(upstream);
+        upstream.markUp();
+
+        if (upstream.getWarmChannelsCount() < warmConnections) {
+          upstream.addWarmChannel(channel);
+        } else {
+          channel.close();
+        }
+
+        while (upstream.getWarmChannelsCount() < warmConnections) {
+          upstream.addWarmChannel(connect(upstream));
+        }
+      } catch (IOException ex) {
+        upstream.connectionFailed(ex);
+      }
+    }
+  }
+
+  private Upstream selectByHash(SocketAddress clientAddress) {
+    int clientHash = 0;
+    if (clientAddress instanceof InetSocketAddress && ((InetSocketAddress) clientAddress).getAddress() != null) {
+      clientHash = Arrays.hashCode(((InetSocketAddress) clientAddress).getAddress().getAddress());
+    }
+
+    for (Map.Entry<Integer, Upstream> entry : hashRing.tailMap(hash(clientHash)).entrySet()) {
+      if (isAvailable(entry.getValue())) {
+        return entry.getValue();
+      }
+    }
+
+    for (Upstream upstream : hashRing.values()) {
+      if (isAvailable(upstream)) {
+        return upstream;
+      }
+    }
+
+    return null;
+  }
+
+  // without health checks, an upstream marked down would never come back
+  private boolean isAvailable(Upstream upstream) {
+    return upstream.isHealthy() || healthChecker == null;
+  }
+
+  private SocketChannel connect(Upstream upstream)
+          throws IOException {
+    SocketChannel channel = SocketChannel.open();
+
+    try {
+      channel.socket().connect(upstream.getAddress(), CONNECT_TIMEOUT_MS);
+      return channel;
+    } catch (IOException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  // spreads the bits of weak hash codes (String, byte[]) over the whole ring
+  private static int hash(int value) {
+    int hash = value * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -25,36 +25,56 @@
  */
 package com.ioleak.jnetcat.server.udp;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
 
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
 
 public abstract class UDPClientConnection {
 
+  private InetSocketAddress localAddress;
+
   public abstract void dataRead(String readData);
 
   public abstract void dataSend(DatagramSocket socket, DatagramPacket request) throws IOException;
 
   public abstract int getMaxPacketLength();
 
-  public final void startClient(DatagramSocket clientSocket, StreamFormatOutput streamFormatOutput)
+  // connection of one of the receivers on the same socket (multiThread): by default, nothing is shared
+  public UDPClientConnection newReceiverConnection(UDPServerType serverType) {
+    return serverType.getClient();
+  }
+
+  public void startClient(DatagramSocket clientSocket, StreamFormatOutput streamFormatOutput)
           throws IOException {
 
     byte[] buffer = new byte[getMaxPacketLength()];
     DatagramPacket receivedPacket = new DatagramPacket(buffer, buffer.length);
 
     while (!Thread.currentThread().isInterrupted()) {
+      receivedPacket.setLength(buffer.length);
       clientSocket.receive(receivedPacket);
-      streamFormatOutput.startReading(new ByteArrayInputStream(buffer, 0, receivedPacket.getLength()));
-      String readData = streamFormatOutput.getEndOfStreamData();
+      datagramReceived(clientSocket, receivedPacket, streamFormatOutput);
+    }
+  }
+
+  // handles one datagram: the server receives the next one with the server type configured at that time
+  public void datagramReceived(DatagramSocket clientSocket, DatagramPacket receivedPacket, StreamFormatOutput streamFormatOutput)
+          throws IOException {
+    if (localAddress == null) {
+      localAddress = (InetSocketAddress) clientSocket.getLocalSocketAddress();
+    }
+
+    streamFormatOutput.setEndpoints(TransportProtocol.UDP, localAddress, (InetSocketAddress) receivedPacket.getSocketAddress());
+    streamFormatOutput.startReading(receivedPacket.getData(), receivedPacket.getOffset(), receivedPacket.getLength());
+    String readData = streamFormatOutput.getEndOfStreamData();
 
-      if (!readData.isBlank()) {
-        dataRead(readData);
-        dataSend(clientSocket, receivedPacket);
-      }
+    if (!readData.isBlank()) {
+      dataRead(readData);
+      dataSend(clientSocket, receivedPacket);
     }
   }
 }
@@ -26,60 +26,154 @@
 package com.ioleak.jnetcat.server.udp;
 
 import java.io.IOException;
+import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.SocketException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.properties.Observable;
+import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
 import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.options.JNetcatParameters;
 import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
 import com.ioleak.jnetcat.server.generic.Listener;
+import com.ioleak.jnetcat.server.generic.ExecutionMode;
 import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.generic.WorkerPool;
 import com.ioleak.jnetcat.server.udp.exception.UDPServerUnitializatedStartException;
 
+import org.slf4j.Logger;
+
 public class UDPServer
         extends Listener<UDPServerType, DatagramSocket> {
 
+  private static final Logger LOGGER = Logging.getLogger(UDPServer.class);
+
+  private static final String WORKER_THREAD_NAME_PREFIX = "UDPWorker-";
+  private static final int MAX_DATAGRAM_SIZE = 65507;
+
+  private final boolean multiThread;
+  // one per server type: the receivers on the same socket create their connections from it
+  private final Map<UDPServerType, UDPClientConnection> sharedConnections = new ConcurrentHashMap<>();
+
   private Observable keyListener;
-  private StreamFormatOutput streamFormatOutput;
-  
-  private DatagramSocket serverSocket;
-  private ServerState serverState = ServerState.NOT_STARTED;
+  private volatile ServerParametersUDP serverParametersUDP;
+  private volatile StreamFormatOutput streamFormatOutput;
+
+  private volatile DatagramSocket serverSocket;
+  private volatile ServerState serverState = ServerState.NOT_STARTED;
 
   public UDPServer(ServerParametersUDP serverParametersUDP) {
-    this(serverParametersUDP.getServerType(), serverParametersUDP.getPort());
-  }
+    super(serverParametersUDP.getServerType(), serverParametersUDP.getPort());
 
-  private UDPServer(UDPServerType serverType, int port) {
-    super(serverType, port);
+    this.serverParametersUDP = serverParametersUDP;
+    this.multiThread = serverParametersUDP.isMultiThread() || serverParametersUDP.getExecutionMode() == ExecutionMode.VIRTUAL;
   }
 
   @Override
   public void start() {
     serverState = ServerState.STARTING;
-    Logging.getLogger().info(String.format("Server act as a server (UDP): %s", getServerType().toString()));
+    LOGGER.info("Server act as a server (UDP): {}", getServerType().toString());
 
     try {
       serverSocket = new DatagramSocket(getPort());
-      Logging.getLogger().info(String.format("Listening on port %d", getLocalPort()));
+      LOGGER.info("Listening on port {}", getLocalPort());
 
-      while (!(serverSocket.isClosed() || Thread.currentThread().isInterrupted())) {
+      if (multiThread) {
+        startReceivers();
+      } else {
         serverState = ServerState.WAITING_FOR_CONNECTION;
-        try {
-          getServerType().getClient().startClient(serverSocket, streamFormatOutput);
-          serverState = ServerState.CLIENT_CONNECTED;
-        } catch (IOException ex) {
-          Logging.getLogger().error(String.format("Unable to start a new UDP client (port: %d)", getLocalPort()), ex);
-        }
-
+        receive(false);
       }
     } catch (SocketException ex) {
-      Logging.getLogger().error(String.format("Unable to start socket on port %d", getLocalPort()), ex);
+      LOGGER.error("Unable to start socket on port {}", getLocalPort(), ex);
     }
 
     serverState = ServerState.CLOSED;
-    Logging.getLogger().warn(String.format("Server closed on defined port %d", getLocalPort()));
+    LOGGER.warn("Server closed on defined port {}", getLocalPort());
+  }
+
+  // a fixed set of receivers, even in VIRTUAL mode: UDP has no session to run on its own virtual thread
+  private void startReceivers() {
+    int nbReceivers = serverParametersUDP.getMaxThreads() > 0 ? serverParametersUDP.getMaxThreads() : WorkerPool.DEFAULT_MAX_THREADS;
+    ExecutorService workers = WorkerPool.newSessionExecutor(serverParametersUDP.getExecutionMode(), WORKER_THREAD_NAME_PREFIX,
+                                                            nbReceivers, serverParametersUDP.getMaxQueueSize(),
+                                                            serverParametersUDP.getRejectionPolicy());
+    List<Future<?>> receivers = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < nbReceivers; i++) {
+        receivers.add(workers.submit(() -> receive(true)));
+      }
+
+      LOGGER.info("{} UDP receiver(s) started (port: {})", nbReceivers, getLocalPort());
+      serverState = ServerState.WAITING_FOR_CONNECTION;
+      for (Future<?> receiver : receivers) {
+        receiver.get();
+      }
+    } catch (ExecutionException ex) {
+      LOGGER.error("UDP receiver stopped unexpectedly (port: {})", getLocalPort(), ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      WorkerPool.shutdown(workers);
+    }
+  }
+
+  // newInstance: each receiver has its own output instance (multiThread), otherwise the configured one is used
+  private void receive(boolean newInstance) {
+    byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+    DatagramPacket receivedPacket = new DatagramPacket(buffer, buffer.length);
+
+    UDPServerType serverType = null;
+    UDPClientConnection client = null;
+    StreamFormatOutput sourceFormatOutput = null;
+    StreamFormatOutput formatOutput = null;
+
+    while (!(serverSocket.isClosed() || Thread.currentThread().isInterrupted())) {
+      try {
+        receivedPacket.setLength(buffer.length);
+        serverSocket.receive(receivedPacket);
+
+        // read for each datagram: a reconfiguration applies from the next datagram
+        if (serverType != getServerType()) {
+          serverType = getServerType();
+          client = newInstance ? sharedConnections.computeIfAbsent(serverType, UDPServerType::getClient).newReceiverConnection(serverType)
+                               : serverType.getClient();
+        }
+
+        if (sourceFormatOutput != streamFormatOutput) {
+          if (newInstance && formatOutput != null) {
+            formatOutput.close();
+          }
+
+          sourceFormatOutput = streamFormatOutput;
+          formatOutput = (sourceFormatOutput == null || !newInstance) ? sourceFormatOutput : sourceFormatOutput.newInstance();
+        }
+
+        // same data as a receive in a buffer of the server type size
+        receivedPacket.setLength(Math.min(receivedPacket.getLength(), client.getMaxPacketLength()));
+        client.datagramReceived(serverSocket, receivedPacket, formatOutput);
+      } catch (StreamNoDataException ex) {
+        LOGGER.debug("Empty datagram ignored (port: {})", getLocalPort());
+      } catch (IOException ex) {
+        if (!serverSocket.isClosed()) {
+          LOGGER.error("Unable to handle a UDP datagram (port: {})", getLocalPort(), ex);
+        }
+      }
+    }
+
+    if (newInstance && formatOutput != null) {
+      formatOutput.close();
+    }
   }
 
   @Override
@@ -91,20 +185,20 @@ public class UDPServer
   public boolean stopActiveExecution() {
     boolean serverClosed = false;
 
-    List<DatagramSocket> serverSockets = getConnectionClients();
-    for (DatagramSocket serverSocket : serverSockets) {
+    for (ConnectionInfo<DatagramSocket> connectionInfo : getConnectionClients().getConnections()) {
+      DatagramSocket serverSocket = connectionInfo.getConnection();
       if (serverSocket.isConnected() && !serverSocket.isClosed()) {
-        Logging.getLogger().warn(String.format("Received a key to stop client connection (%s)", serverSocket.getRemoteSocketAddress()));
+        LOGGER.warn("Received a key to stop client connection ({})", serverSocket.getRemoteSocketAddress());
 
         serverSocket.close();
         serverClosed = true;
 
-        Logging.getLogger().error("Client connection closed successfully");
+        LOGGER.error("Client connection closed successfully");
       }
     }
 
     if (!serverClosed) {
-      Logging.getLogger().warn("No client is currently connected. Please wait for a connection to be established");
+      LOGGER.warn("No client is currently connected. Please wait for a connection to be established");
     }
 
     return serverClosed;
@@ -125,6 +219,22 @@ public class UDPServer
     this.streamFormatOutput = streamFormatOutput;
   }
 
+  @Override
+  public synchronized boolean reconfigure(JNetcatParameters params, StreamFormatOutput streamFormatOutput) {
+    ServerParametersUDP newParameters = params.getServerParametersUDP();
+
+    if (!params.isStartAsServer() || params.isUseProtocolTCP() || !serverParametersUDP.hasSameListener(newParameters)) {
+      return false;
+    }
+
+    this.serverParametersUDP = newParameters;
+    this.streamFormatOutput = streamFormatOutput;
+    setServerType(newParameters.getServerType());
+
+    LOGGER.info("Server reconfigured (UDP): {} on port {}", getServerType(), getPort());
+    return true;
+  }
+
   @Override
   public boolean stopExecutions() {
     boolean closed = false;
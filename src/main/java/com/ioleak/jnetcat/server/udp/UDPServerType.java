@@ -34,7 +34,12 @@ public enum UDPServerType
   UNKNOWN(0, "Unknown server type defined"),
   BASIC(1, "Listen only server"),
   QUOTE(2, "QUOTE server"),
-  SHELL(3, "SHELL server");
+  SHELL(3, "SHELL server"),
+  ECHO(4, "Echo each datagram to its sender"),
+  SINK(5, "Discard the datagrams, report loss and jitter to the sender"),
+  DISCARD(6, "Discard server (RFC 863)"),
+  CHARGEN(7, "Character generator server (RFC 864)"),
+  DAYTIME(8, "Daytime server (RFC 867)");
 
   private int code;
   private String msg;
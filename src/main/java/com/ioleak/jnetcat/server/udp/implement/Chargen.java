@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.udp.implement;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+
+import com.ioleak.jnetcat.server.generic.ChargenPattern;
+import com.ioleak.jnetcat.server.udp.UDPRawConnection;
+
+public class Chargen
+        extends UDPRawConnection {
+
+  private static final int MAX_UDP_PAYLOAD = 65507;
+  private static final int RESPONSE_SIZE = 512;
+
+  private final DatagramPacket response = new DatagramPacket(ChargenPattern.getRing(), RESPONSE_SIZE);
+  private int offset = 0;
+
+  @Override
+  public void dataSend(DatagramSocket socket, DatagramPacket request)
+          throws IOException {
+    // the packet always points into the shared pattern, only its offset moves
+    response.setData(ChargenPattern.getRing(), offset, RESPONSE_SIZE);
+    response.setSocketAddress(request.getSocketAddress());
+    socket.send(response);
+
+    offset = ChargenPattern.nextOffset(offset, RESPONSE_SIZE);
+  }
+
+  @Override
+  public int getMaxPacketLength() {
+    return MAX_UDP_PAYLOAD;
+  }
+}
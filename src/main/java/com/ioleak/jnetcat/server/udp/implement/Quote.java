@@ -46,9 +46,13 @@ import com.ioleak.jnetcat.common.utils.JsonUtils;
 import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.server.udp.UDPClientConnection;
 
+import org.slf4j.Logger;
+
 public class Quote
         extends UDPClientConnection {
 
+  private static final Logger LOGGER = Logging.getLogger(Quote.class);
+
   public static final String DEFAULT_QUOTES_TXT = "conf/quotes.txt";
   private static final int MAX_PACKET_LENGTH = 1;
   
@@ -72,9 +76,9 @@ public class Quote
       quotes.addAll(Arrays.asList(rawQuotes.split("\n")));
 
     } catch (URISyntaxException ex) {
-      Logging.getLogger().error("Unable to load QUOTE file: syntax error", ex);
+      LOGGER.error("Unable to load QUOTE file: syntax error", ex);
     } catch (IOException ex) {
-      Logging.getLogger().error("Unable to load QUOTE file: exception on read", ex);
+      LOGGER.error("Unable to load QUOTE file: exception on read", ex);
     }
   }
 
@@ -97,7 +101,7 @@ public class Quote
     int clientPort = request.getPort();
     byte[] data = StringUtils.getBytesFromString(response);
 
-    // Logging.getLogger().info(String.format("Response sent to %s:%d", clientAddress.getHostAddress(), clientPort));
+    // LOGGER.info("Response sent to {}:{}", clientAddress.getHostAddress(), clientPort);
     datagramSocket.send(new DatagramPacket(data, data.length, clientAddress, clientPort));
   }
 
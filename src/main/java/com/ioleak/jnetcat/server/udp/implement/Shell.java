@@ -31,16 +31,44 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.concurrent.Semaphore;
 
+import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.ProcessExecutor;
 import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.server.udp.UDPClientConnection;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
+
+import org.slf4j.Logger;
 
 public class Shell
         extends UDPClientConnection {
 
+  private static final Logger LOGGER = Logging.getLogger(Shell.class);
+
   private static final int MAX_PACKET_LENGTH = 1024;
+  // stdout and stderr must fit in one datagram
+  private static final int MAX_OUTPUT_SIZE = 16384;
+  private static final int MAX_RUNNING_COMMANDS = 8;
+  private static final String COMMAND_REJECTED = "Too many commands running, command rejected\n";
+
   private final Queue<String> commands = new LinkedList<>();
+  private final ProcessExecutor processExecutor = new ProcessExecutor(ProcessExecutor.DEFAULT_TIMEOUT_MS, MAX_OUTPUT_SIZE);
+  private final Semaphore runningCommands;
+
+  public Shell() {
+    this(new Semaphore(MAX_RUNNING_COMMANDS));
+  }
+
+  private Shell(Semaphore runningCommands) {
+    this.runningCommands = runningCommands;
+  }
+
+  @Override
+  public UDPClientConnection newReceiverConnection(UDPServerType serverType) {
+    // the limit of running commands applies to the server, not to each receiver
+    return new Shell(runningCommands);
+  }
 
   @Override
   public void dataRead(String readData) {
@@ -53,14 +81,33 @@ public class Shell
 
     InetAddress clientAddress = request.getAddress();
     int clientPort = request.getPort();
-    byte[] data = StringUtils.getBytesFromString(new ProcessExecutor().execute(lastCommand).toString());
 
-    // Logging.getLogger().info(String.format("Response sent to %s:%d", clientAddress.getHostAddress(), clientPort));
-    datagramSocket.send(new DatagramPacket(data, data.length, clientAddress, clientPort));
+    // each command is a process and its threads: over the limit, the command is not started
+    if (!runningCommands.tryAcquire()) {
+      LOGGER.warn("Command rejected, {} commands already running [from: {}:{}]", MAX_RUNNING_COMMANDS,
+                  clientAddress.getHostAddress(), clientPort);
+      send(datagramSocket, COMMAND_REJECTED, clientAddress, clientPort);
+      return;
+    }
+
+    // the receiver is not blocked by a slow command, the response is sent when the command ends (or is killed)
+    processExecutor.executeAsync(lastCommand, null)
+            .whenComplete((processResult, ex) -> runningCommands.release())
+            .thenAccept(processResult -> send(datagramSocket, processResult.toString(), clientAddress, clientPort));
   }
 
   @Override
   public int getMaxPacketLength() {
     return MAX_PACKET_LENGTH;
   }
+
+  private void send(DatagramSocket datagramSocket, String response, InetAddress clientAddress, int clientPort) {
+    byte[] data = StringUtils.getBytesFromString(response);
+
+    try {
+      datagramSocket.send(new DatagramPacket(data, data.length, clientAddress, clientPort));
+    } catch (IOException ex) {
+      LOGGER.info("Unable to send the command result to {}:{}: {}", clientAddress.getHostAddress(), clientPort, ex.getMessage());
+    }
+  }
 }
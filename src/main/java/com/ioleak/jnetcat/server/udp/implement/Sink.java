@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.udp.implement;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.stats.PacketStreamStats;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.udp.UDPClientConnection;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
+
+import org.slf4j.Logger;
+
+public class Sink
+        extends UDPClientConnection {
+
+  private static final Logger LOGGER = Logging.getLogger(Sink.class);
+
+  private static final int MAX_UDP_PAYLOAD = 65507;
+
+  private final Map<SocketAddress, PacketStreamStats> streams;
+  private ByteBuffer header;
+
+  public Sink() {
+    this(new ConcurrentHashMap<>());
+  }
+
+  private Sink(Map<SocketAddress, PacketStreamStats> streams) {
+    this.streams = streams;
+  }
+
+  @Override
+  public UDPClientConnection newReceiverConnection(UDPServerType serverType) {
+    // the datagrams of one sender are spread over all the receivers: they update the same stream
+    return new Sink(streams);
+  }
+
+  @Override
+  public void datagramReceived(DatagramSocket clientSocket, DatagramPacket receivedPacket, StreamFormatOutput streamFormatOutput)
+          throws IOException {
+    long receiveNanos = System.nanoTime();
+
+    // the datagrams are never decoded nor sent to the output formatter, only their header is read
+    if (receivedPacket.getLength() < PacketStreamStats.HEADER_SIZE) {
+      return;
+    }
+
+    if (header == null || header.array() != receivedPacket.getData()) {
+      header = ByteBuffer.wrap(receivedPacket.getData());
+    }
+
+    SocketAddress sender = receivedPacket.getSocketAddress();
+    int offset = receivedPacket.getOffset();
+    long sequence = header.getLong(offset);
+
+    if (sequence == PacketStreamStats.END_SEQUENCE) {
+      sendReport(clientSocket, sender);
+    } else if (sequence >= 0) {
+      PacketStreamStats stats = streams.computeIfAbsent(sender, address -> new PacketStreamStats());
+      synchronized (stats) {
+        stats.packetReceived(sequence, header.getLong(offset + Long.BYTES), receiveNanos, receivedPacket.getLength());
+      }
+    }
+  }
+
+  @Override
+  public void dataRead(String readData) {
+    // data is discarded
+  }
+
+  @Override
+  public void dataSend(DatagramSocket socket, DatagramPacket request) {
+    // nothing is sent back, except the report at the end of a stream
+  }
+
+  @Override
+  public int getMaxPacketLength() {
+    return MAX_UDP_PAYLOAD;
+  }
+
+  private void sendReport(DatagramSocket socket, SocketAddress sender)
+          throws IOException {
+    // the end marker is sent more than once, the next ones get the report of the stream already closed
+    PacketStreamStats stats = streams.remove(sender);
+    ByteBuffer report = ByteBuffer.allocate(PacketStreamStats.REPORT_SIZE);
+
+    if (stats == null) {
+      new PacketStreamStats().writeReport(report);
+    } else {
+      synchronized (stats) {
+        LOGGER.info("UDP stream ended [from: {}]: {}", sender, stats);
+        stats.writeReport(report);
+      }
+    }
+    socket.send(new DatagramPacket(report.array(), report.position(), sender));
+  }
+}
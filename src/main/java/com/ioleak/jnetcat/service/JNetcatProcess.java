@@ -26,21 +26,29 @@
 package com.ioleak.jnetcat.service;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.interfaces.ProcessAction;
 import com.ioleak.jnetcat.common.parsers.ArgumentsParser;
 import com.ioleak.jnetcat.common.properties.Observable;
 import com.ioleak.jnetcat.common.utils.JsonUtils;
+import com.ioleak.jnetcat.formatter.console.ConsoleOutput;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
 import com.ioleak.jnetcat.options.JNetcatParameters;
 import com.ioleak.jnetcat.service.exception.JNetcatProcessFileNotSetException;
 import com.ioleak.jnetcat.service.exception.JNetcatProcessRunningException;
 
+import org.slf4j.Logger;
+
 public enum JNetcatProcess
         implements Runnable {
 
   JNETCATPROCESS;
 
+  private static final Logger LOGGER = Logging.getLogger(JNetcatProcess.class);
+
   private File jsonParamsFile;
   private ArgumentsParser argumentsParser;
 
@@ -50,15 +58,23 @@ public enum JNetcatProcess
   private ProcessAction processAction;
   private ExitConsumer<JNetcatProcessResult, JNetcatParameters> exitMethod;
 
+  private JNetcatParameters activeParams;
+  private ConsoleOutput activeConsoleOutput;
+  private StreamFormatOutput activeFormatOutput;
+  private final List<ConsoleOutput> consoleOutputs = new ArrayList<>();
+  private final List<StreamFormatOutput> formatOutputs = new ArrayList<>();
+
   private JNetcatProcess() {
     Runtime.getRuntime().addShutdownHook(new Thread() {
       @Override
       public void run() {
-        Logging.getLogger().warn("Shutdown process requested...");
+        LOGGER.warn("Shutdown process requested...");
         
         if (processAction != null) {
           processAction.stopExecutions();
         }
+
+        closeActiveOutputs();
       }
     });
   }
@@ -89,14 +105,34 @@ public enum JNetcatProcess
       throw new JNetcatProcessRunningException("An execution is already in progress");
     }
 
-    Logging.getLogger().info("Starting background process...");
+    LOGGER.info("Starting background process...");
     resultExecution = JNetcatProcessResult.IN_PROGRESS;
 
     if (params != null) {
       params = params.getOverridenParameters(argumentsParser);
 
-      processAction = JNetcatProcessFactory.createProcess(params, keyListener);
+      ConsoleOutput consoleOutput = JNetcatProcessFactory.createConsoleOutput(params.getOutputFormatConfig());
+      StreamFormatOutput streamFormatOutput = null;
+
+      synchronized (this) {
+        if (params.isProcessGroup()) {
+          processAction = JNetcatProcessFactory.createProcessGroup(params, keyListener, consoleOutput);
+        } else {
+          streamFormatOutput = JNetcatProcessFactory.createFormatOutput(params, consoleOutput);
+          processAction = JNetcatProcessFactory.createProcess(params, keyListener, streamFormatOutput);
+        }
+
+        activeParams = params;
+        activeConsoleOutput = consoleOutput;
+        activeFormatOutput = streamFormatOutput;
+        consoleOutputs.add(consoleOutput);
+        if (streamFormatOutput != null) {
+          formatOutputs.add(streamFormatOutput);
+        }
+      }
+
       processAction.start();
+      closeActiveOutputs();
 
       resultExecution = processAction.isStateSuccessful() ? JNetcatProcessResult.SUCCESS : JNetcatProcessResult.FAILED;
     } else {
@@ -109,6 +145,91 @@ public enum JNetcatProcess
     }
   }
 
+  // keeps the listener and the connected clients: only the next sessions use the new parameters
+  public synchronized boolean reconfigure() {
+    if (activeParams == null || jsonParamsFile == null || getResultExecution() != JNetcatProcessResult.IN_PROGRESS) {
+      return false;
+    }
+
+    JNetcatParameters params = getParametersFromFile();
+    if (params == null) {
+      return false;
+    }
+
+    // a list of processes is restarted: the processes of the list are not matched between the two files
+    params = params.getOverridenParameters(argumentsParser);
+    if (params.isProcessGroup() || activeParams.isProcessGroup()
+        || !params.isStartAsServer() || params.isStartAsServer() != activeParams.isStartAsServer()
+        || params.isUseProtocolTCP() != activeParams.isUseProtocolTCP()) {
+      return false;
+    }
+
+    ConsoleOutput consoleOutput = activeConsoleOutput;
+    boolean consoleOutputChanged = !params.getOutputFormatConfig().hasSameConsoleOutput(activeParams.getOutputFormatConfig());
+    if (consoleOutputChanged) {
+      consoleOutput = JNetcatProcessFactory.createConsoleOutput(params.getOutputFormatConfig());
+    }
+
+    // a new CAPTURE or PCAPNG output would replace the files being written: a new instance of the active output shares its writer
+    StreamFormatOutput streamFormatOutput = activeFormatOutput;
+    if (!params.getOutputFormatConfig().hasSameFormatOutput(activeParams.getOutputFormatConfig())) {
+      streamFormatOutput = JNetcatProcessFactory.createFormatOutput(params, consoleOutput);
+    } else if (consoleOutputChanged || isFramingChanged(activeParams, params)) {
+      streamFormatOutput = JNetcatProcessFactory.configureFormatOutput(activeFormatOutput.newInstance(), params, consoleOutput);
+    }
+
+    if (!processAction.reconfigure(params, streamFormatOutput)) {
+      if (streamFormatOutput != activeFormatOutput) {
+        streamFormatOutput.close();
+      }
+
+      if (consoleOutputChanged) {
+        consoleOutput.close();
+      }
+
+      return false;
+    }
+
+    // the previous console output is still used by the connected clients, it is closed at the end of the execution
+    if (consoleOutputChanged) {
+      consoleOutputs.add(consoleOutput);
+    }
+
+    // the connected clients have their own instance of the replaced output, its writer is closed when they end
+    if (streamFormatOutput != activeFormatOutput) {
+      formatOutputs.remove(activeFormatOutput);
+      activeFormatOutput.close();
+      formatOutputs.add(streamFormatOutput);
+    }
+
+    activeParams = params;
+    activeConsoleOutput = consoleOutput;
+    activeFormatOutput = streamFormatOutput;
+
+    return true;
+  }
+
+  private static boolean isFramingChanged(JNetcatParameters previousParams, JNetcatParameters params) {
+    return !JsonUtils.objectToJson(previousParams.getFramingConfig()).equals(JsonUtils.objectToJson(params.getFramingConfig()));
+  }
+
+  private synchronized void closeActiveOutputs() {
+    for (ConsoleOutput consoleOutput : consoleOutputs) {
+      consoleOutput.close();
+    }
+
+    // closing the process outputs lets the writers close once the last session output is closed
+    for (StreamFormatOutput streamFormatOutput : formatOutputs) {
+      streamFormatOutput.close();
+    }
+
+    consoleOutputs.clear();
+    formatOutputs.clear();
+    activeParams = null;
+    activeConsoleOutput = null;
+    activeFormatOutput = null;
+  }
+
   private JNetcatParameters getParametersFromFile() {
     if (jsonParamsFile == null) {
       throw new JNetcatProcessFileNotSetException("File parameters is not set on the object");
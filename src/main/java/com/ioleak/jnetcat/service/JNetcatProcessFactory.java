@@ -25,17 +25,36 @@
  */
 package com.ioleak.jnetcat.service;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import com.ioleak.jnetcat.client.TCPClient;
 import com.ioleak.jnetcat.client.UDPClient;
+import com.ioleak.jnetcat.common.Logging;
 import com.ioleak.jnetcat.common.interfaces.ProcessAction;
 import com.ioleak.jnetcat.common.properties.Observable;
+import com.ioleak.jnetcat.formatter.console.AsyncConsoleOutput;
+import com.ioleak.jnetcat.formatter.console.ConsoleOutput;
+import com.ioleak.jnetcat.formatter.console.DirectConsoleOutput;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
 import com.ioleak.jnetcat.options.JNetcatParameters;
+import com.ioleak.jnetcat.options.OutputFormatConfig;
+import com.ioleak.jnetcat.server.tcp.TCPSelectorGroup;
 import com.ioleak.jnetcat.server.tcp.TCPServer;
+import com.ioleak.jnetcat.server.tcp.TCPServerEngine;
 import com.ioleak.jnetcat.server.udp.UDPServer;
 
+import org.slf4j.Logger;
+
 public class JNetcatProcessFactory {
 
-  public static ProcessAction createProcess(JNetcatParameters params, Observable keyListener) {
+  private static final Logger LOGGER = Logging.getLogger(JNetcatProcessFactory.class);
+
+  public static ProcessAction createProcess(JNetcatParameters params, Observable keyListener, StreamFormatOutput streamFormatOutput) {
     ProcessAction processAction;
 
     if (params.isStartAsServer()) {
@@ -52,11 +71,94 @@ public class JNetcatProcessFactory {
       }
     }
 
-    // TODO Use params to change the output format
-    //  = new PrettyHexStringOutput(null, 20);  // new SimpleLoggerStringOutput(); // // new PrettyHexStringOutput(20);
-    processAction.setFormatOutput(params.getOutputFormatConfig().getFormatOutputType().getFormatOutput(params.getOutputFormatConfig().getLineWidth()));
+    processAction.setFormatOutput(streamFormatOutput);
     processAction.setKeyListener(keyListener);
 
     return processAction;
   }
+
+  public static ProcessAction createProcessGroup(JNetcatParameters params, Observable keyListener, ConsoleOutput consoleOutput) {
+    TCPSelectorGroup selectorGroup = createSharedSelectorGroup(params.getProcesses());
+    List<ProcessAction> processActions = new ArrayList<>();
+    List<StreamFormatOutput> formatOutputs = new ArrayList<>();
+    Set<Path> outputPaths = new HashSet<>();
+
+    for (int i = 0; i < params.getProcesses().size(); i++) {
+      JNetcatParameters processParams = withUniqueOutputPath(params.getProcesses().get(i), i, outputPaths);
+      StreamFormatOutput streamFormatOutput = createFormatOutput(processParams, consoleOutput);
+      ProcessAction processAction = createProcess(processParams, keyListener, streamFormatOutput);
+
+      if (selectorGroup != null && processAction instanceof TCPServer) {
+        ((TCPServer) processAction).setSharedSelectorGroup(selectorGroup);
+      }
+
+      processActions.add(processAction);
+      formatOutputs.add(streamFormatOutput);
+    }
+
+    return new JNetcatProcessGroup(processActions, formatOutputs, selectorGroup);
+  }
+
+  // two processes never write the same capture: the path already used by a previous process is suffixed with the process index
+  private static JNetcatParameters withUniqueOutputPath(JNetcatParameters processParams, int processIndex, Set<Path> outputPaths) {
+    OutputFormatConfig outputFormatConfig = processParams.getOutputFormatConfig();
+    if (outputFormatConfig.getOutputPath() == null) {
+      return processParams;
+    }
+
+    if (!outputPaths.add(Path.of(outputFormatConfig.getOutputPath()).toAbsolutePath().normalize())) {
+      outputFormatConfig = outputFormatConfig.withOutputPathSuffix(String.format("-%d", processIndex));
+      processParams = new JNetcatParameters.ParametersBuilder(processParams).withOutputFormatConfig(outputFormatConfig).build();
+      outputPaths.add(Path.of(outputFormatConfig.getOutputPath()).toAbsolutePath().normalize());
+
+      LOGGER.warn("Output path already used by another process, process {} writes to {}",
+                  processIndex, outputFormatConfig.getOutputPath());
+    }
+
+    return processParams;
+  }
+
+  // one pool of selector threads for all the TCP servers using the SELECTOR engine, sized for the largest ioThreads
+  private static TCPSelectorGroup createSharedSelectorGroup(List<JNetcatParameters> processes) {
+    int ioThreads = -1;
+
+    for (JNetcatParameters processParams : processes) {
+      if (processParams.isStartAsServer() && processParams.isUseProtocolTCP()
+          && processParams.getServerParametersTCP().getServerEngine() == TCPServerEngine.SELECTOR) {
+        ioThreads = Math.max(ioThreads, processParams.getServerParametersTCP().getIoThreads());
+      }
+    }
+
+    if (ioThreads < 0) {
+      return null;
+    }
+
+    try {
+      return new TCPSelectorGroup(ioThreads);
+    } catch (IOException ex) {
+      LOGGER.warn("Unable to open the shared selector threads, each server uses its own: {}", ex.getMessage());
+      return null;
+    }
+  }
+
+  public static StreamFormatOutput createFormatOutput(JNetcatParameters params, ConsoleOutput consoleOutput) {
+    return configureFormatOutput(params.getOutputFormatConfig().getFormatOutputType().getFormatOutput(params.getOutputFormatConfig()),
+                                 params, consoleOutput);
+  }
+
+  public static StreamFormatOutput configureFormatOutput(StreamFormatOutput streamFormatOutput, JNetcatParameters params, ConsoleOutput consoleOutput) {
+    streamFormatOutput.setFramingConfig(params.getFramingConfig());
+    streamFormatOutput.setConsoleOutput(consoleOutput);
+
+    return streamFormatOutput;
+  }
+
+  public static ConsoleOutput createConsoleOutput(OutputFormatConfig outputFormatConfig) {
+    if (!outputFormatConfig.isAsyncOutput()) {
+      return new DirectConsoleOutput();
+    }
+
+    return new AsyncConsoleOutput(System.out, outputFormatConfig.getOutputBufferSize(),
+                                  outputFormatConfig.getOverflowPolicy(), outputFormatConfig.getSampleRate());
+  }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.interfaces.ProcessAction;
+import com.ioleak.jnetcat.common.properties.Observable;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.server.tcp.TCPSelectorGroup;
+
+import org.slf4j.Logger;
+
+public class JNetcatProcessGroup
+        implements ProcessAction {
+
+  private static final Logger LOGGER = Logging.getLogger(JNetcatProcessGroup.class);
+
+  private static final String THREAD_FORMAT_NAME = "JNetcatProcess-%d";
+
+  private final List<ProcessAction> processActions;
+  private final List<StreamFormatOutput> formatOutputs;
+  private final TCPSelectorGroup sharedSelectorGroup;
+
+  public JNetcatProcessGroup(List<ProcessAction> processActions, List<StreamFormatOutput> formatOutputs, TCPSelectorGroup sharedSelectorGroup) {
+    this.processActions = List.copyOf(processActions);
+    this.formatOutputs = List.copyOf(formatOutputs);
+    this.sharedSelectorGroup = sharedSelectorGroup;
+  }
+
+  @Override
+  public void start() {
+    List<Thread> threads = new ArrayList<>();
+
+    for (int i = 0; i < processActions.size(); i++) {
+      Thread thread = new Thread(processActions.get(i)::start, String.format(THREAD_FORMAT_NAME, i));
+      threads.add(thread);
+      thread.start();
+    }
+
+    LOGGER.info("{} processes started", processActions.size());
+
+    try {
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } catch (InterruptedException ex) {
+      LOGGER.warn("Process group interrupted, stopping all the processes");
+      stopExecutions();
+      Thread.currentThread().interrupt();
+    } finally {
+      if (sharedSelectorGroup != null) {
+        sharedSelectorGroup.shutdown();
+      }
+
+      // the outputs of the sessions still open keep their capture files open until they end
+      for (StreamFormatOutput streamFormatOutput : formatOutputs) {
+        streamFormatOutput.close();
+      }
+    }
+  }
+
+  @Override
+  public boolean isStateSuccessful() {
+    boolean successful = true;
+
+    for (ProcessAction processAction : processActions) {
+      successful &= processAction.isStateSuccessful();
+    }
+
+    return successful;
+  }
+
+  @Override
+  public boolean stopActiveExecution() {
+    boolean stopped = false;
+
+    for (ProcessAction processAction : processActions) {
+      stopped |= stop(processAction, ProcessAction::stopActiveExecution);
+    }
+
+    return stopped;
+  }
+
+  @Override
+  public boolean stopExecutions() {
+    boolean stopped = false;
+
+    for (ProcessAction processAction : processActions) {
+      stopped |= stop(processAction, ProcessAction::stopExecutions);
+    }
+
+    return stopped;
+  }
+
+  public boolean stopExecution(int index) {
+    return stop(processActions.get(index), ProcessAction::stopExecutions);
+  }
+
+  public List<ProcessAction> getProcessActions() {
+    return processActions;
+  }
+
+  @Override
+  public void setKeyListener(Observable keyListener) {
+    for (ProcessAction processAction : processActions) {
+      processAction.setKeyListener(keyListener);
+    }
+  }
+
+  @Override
+  public void setFormatOutput(StreamFormatOutput streamFormatOutput) {
+    // each process has its own output, created from its parameters
+  }
+
+  // a process that fails to stop must not prevent the next ones from being stopped
+  private boolean stop(ProcessAction processAction, Predicate<ProcessAction> stopAction) {
+    try {
+      return stopAction.test(processAction);
+    } catch (RuntimeException ex) {
+      LOGGER.error("Unable to stop the process {}", processAction.getClass().getSimpleName(), ex);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.client.UDPClient;
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.formatter.capture.CaptureDirection;
+import com.ioleak.jnetcat.formatter.capture.CaptureWriter;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+import com.ioleak.jnetcat.options.startup.ClientParametersTCP;
+import com.ioleak.jnetcat.options.startup.ClientParametersUDP;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.tcp.TCPServer;
+import com.ioleak.jnetcat.server.tcp.TCPServerEngine;
+import com.ioleak.jnetcat.server.tcp.TCPServerType;
+import com.ioleak.jnetcat.server.udp.UDPServer;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaptureReplayTest {
+
+  private static final int WAIT_TIMEOUT_MS = 5000;
+  private static final long RECORD_INTERVAL_MS = 200;
+  private static final String ECHO_WELCOME = "Welcome on super echo server v0.0.0-alpha0\n"
+                                             + "This server accept only one connection at a time\n"
+                                             + "You can type anything you want. Type 'exit' to quit\n\n";
+
+  @TempDir
+  Path captureDirectory;
+
+  private TCPServer tcpServer;
+  private UDPServer udpServer;
+  private Thread serverThread;
+
+  @AfterEach
+  public void tearDown() {
+    if (tcpServer != null) {
+      tcpServer.stopExecutions();
+    }
+    if (udpServer != null) {
+      udpServer.stopExecutions();
+    }
+    serverThread.interrupt();
+
+    try {
+      serverThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void run_ParallelSessionsAsFastAsPossible_AllResponsesMatched() throws InterruptedException {
+    startTCPEchoServer();
+
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    for (int connectionId = 1; connectionId <= 2; connectionId++) {
+      write(captureWriter, connectionId, CaptureDirection.RECEIVED, ECHO_WELCOME);
+      write(captureWriter, connectionId, CaptureDirection.SENT, "PING\n");
+      write(captureWriter, connectionId, CaptureDirection.RECEIVED, "PING");
+      write(captureWriter, connectionId, CaptureDirection.SENT, "HELLO\n");
+      write(captureWriter, connectionId, CaptureDirection.RECEIVED, "HELLO");
+    }
+    captureWriter.close();
+
+    ReplayReport report = new CaptureReplay(getTCPParametersBuilder().withReplaySpeed(0).withReplaySessions(3).build(), TransportProtocol.TCP).run();
+
+    assertTrue(report.isSuccessful());
+    assertEquals(6, report.getSessions());
+    assertEquals(12, report.getMessagesSent());
+    assertEquals(18, report.getResponsesMatched());
+  }
+
+  @Test
+  public void run_DifferentResponse_MismatchReported() throws InterruptedException {
+    startTCPEchoServer();
+
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    write(captureWriter, 1, CaptureDirection.RECEIVED, ECHO_WELCOME);
+    write(captureWriter, 1, CaptureDirection.SENT, "PING\n");
+    write(captureWriter, 1, CaptureDirection.RECEIVED, "PONG");
+    captureWriter.close();
+
+    ReplayReport report = new CaptureReplay(getTCPParametersBuilder().withReplaySpeed(0).build(), TransportProtocol.TCP).run();
+
+    assertFalse(report.isSuccessful());
+    assertEquals(1, report.getCompletedSessions());
+    assertEquals(1, report.getResponsesMatched());
+    assertEquals(1, report.getResponsesMismatched());
+  }
+
+  @Test
+  public void run_DoubleSpeed_OriginalTimingHalved() throws InterruptedException {
+    startTCPEchoServer();
+
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    write(captureWriter, 1, CaptureDirection.SENT, "FIRST\n");
+    Thread.sleep(RECORD_INTERVAL_MS);
+    write(captureWriter, 1, CaptureDirection.SENT, "SECOND\n");
+    captureWriter.close();
+
+    ReplayReport report = new CaptureReplay(getTCPParametersBuilder().withReplaySpeed(2).build(), TransportProtocol.TCP).run();
+
+    assertTrue(report.isSuccessful());
+    assertTrue(report.getElapsedNanos() >= RECORD_INTERVAL_MS / 2 * 1_000_000L);
+    assertEquals(2, report.getTimingDeviation().getTotalCount());
+  }
+
+  @Test
+  public void start_UDPClientReplayFile_DatagramsReplayed() throws InterruptedException {
+    udpServer = new UDPServer(new ServerParametersUDP.ParametersBuilder(0).withServerType(UDPServerType.ECHO).build());
+    udpServer.setFormatOutput(new SilentModeFormatOutput());
+    serverThread = new Thread(udpServer::start);
+    serverThread.start();
+    waitFor(() -> udpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    write(captureWriter, 1, CaptureDirection.RECEIVED, "DATAGRAM");
+    write(captureWriter, 1, CaptureDirection.SENT, "DATAGRAM");
+    captureWriter.close();
+
+    UDPClient udpClient = new UDPClient(new ClientParametersUDP.ParametersBuilder("127.0.0.1", udpServer.getLocalPort())
+            .withSoTimeout(WAIT_TIMEOUT_MS)
+            .withReplayFile(captureDirectory.toString())
+            .withReplayDirection(CaptureDirection.RECEIVED)
+            .withReplaySpeed(0)
+            .build());
+    udpClient.start();
+
+    assertTrue(udpClient.isStateSuccessful());
+    assertEquals(1, udpClient.getReplayReport().getResponsesMatched());
+  }
+
+  private void startTCPEchoServer() throws InterruptedException {
+    tcpServer = new TCPServer(new ServerParametersTCP.ParametersBuilder(0)
+            .withServerType(TCPServerType.ECHO)
+            .withServerEngine(TCPServerEngine.SELECTOR)
+            .build());
+    tcpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    serverThread = new Thread(tcpServer::start);
+    serverThread.start();
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+  }
+
+  private ClientParametersTCP.ParametersBuilder getTCPParametersBuilder() {
+    return new ClientParametersTCP.ParametersBuilder("127.0.0.1", tcpServer.getLocalPort())
+            .withSoTimeout(WAIT_TIMEOUT_MS)
+            .withReplayFile(captureDirectory.toString());
+  }
+
+  private void write(CaptureWriter captureWriter, int connectionId, CaptureDirection direction, String data) {
+    byte[] bytes = StringUtils.getBytesFromString(data);
+    captureWriter.write(connectionId, direction, bytes, 0, bytes.length);
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.ioleak.jnetcat.client.TCPClient;
+import com.ioleak.jnetcat.client.mock.TCPEchoServerMock;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.formatter.framing.FramingType;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.options.FramingConfig;
+import com.ioleak.jnetcat.options.startup.ClientParametersTCP;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadGeneratorTest {
+
+  private static final int NB_CLIENTS = 4;
+  private static final int NB_EXECUTION = 5;
+  private static final int SO_TIMEOUT_MS = 5000;
+
+  private TCPEchoServerMock echoServer;
+  private Thread echoServerThread;
+
+  @BeforeEach
+  public void setUp() {
+    echoServer = new TCPEchoServerMock();
+    echoServerThread = new Thread(echoServer);
+    echoServerThread.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    echoServer.close();
+    echoServerThread.join();
+  }
+
+  @Test
+  public void run_EchoServer_AllRequestsCompleted() {
+    LoadGenerator loadGenerator = new LoadGenerator(getParameters(echoServer.getPort()), getFormatOutput());
+    LoadReport report = loadGenerator.run();
+
+    assertEquals(NB_CLIENTS, echoServer.getAcceptedConnections());
+    assertEquals(NB_CLIENTS, report.getConnections());
+    assertEquals(NB_CLIENTS * NB_EXECUTION, report.getRequests());
+    assertEquals(0, report.getConnectErrors());
+    assertEquals(0, report.getRequestErrors());
+    assertEquals(report.getBytesSent(), report.getBytesReceived());
+    assertEquals(NB_CLIENTS, report.getLatencies().getConnect().getTotalCount());
+    assertEquals(NB_CLIENTS * NB_EXECUTION, report.getLatencies().getFirstByte().getTotalCount());
+    assertTrue(report.getLatencies().getResponse().getTotalCount() >= NB_CLIENTS * NB_EXECUTION);
+    assertTrue(report.getLatencies().getFirstByte().getMinValue() <= report.getLatencies().getResponse().getMaxValue());
+    assertTrue(report.getRequestsPerSecond() > 0);
+    assertTrue(report.isSuccessful());
+  }
+
+  @Test
+  public void run_LatencyReportFile_DistributionExported(@TempDir Path tempDir) throws IOException {
+    Path reportFile = tempDir.resolve("latency.hgrm");
+    ClientParametersTCP params = new ClientParametersTCP.ParametersBuilder(getParameters(echoServer.getPort()))
+            .withLatencyReportFile(reportFile.toString())
+            .build();
+
+    new LoadGenerator(params, getFormatOutput()).run();
+
+    String distribution = Files.readString(reportFile);
+    assertTrue(distribution.contains("# response (ms)"));
+    assertTrue(distribution.contains(String.format("Total count = %d", NB_CLIENTS)));
+  }
+
+  @Test
+  public void run_NoServer_ConnectErrorsReported() {
+    int port = echoServer.getPort();
+    echoServer.close();
+
+    LoadReport report = new LoadGenerator(getParameters(port), getFormatOutput()).run();
+
+    assertEquals(NB_CLIENTS, report.getConnectErrors());
+    assertEquals(0, report.getRequests());
+    assertFalse(report.isSuccessful());
+  }
+
+  @Test
+  public void start_NonInteractiveTCPClient_LoadReportAvailable() {
+    TCPClient tcpClient = new TCPClient(getParameters(echoServer.getPort()));
+    tcpClient.setFormatOutput(getFormatOutput());
+    tcpClient.start();
+
+    assertEquals(NB_CLIENTS * NB_EXECUTION, tcpClient.getLoadReport().getRequests());
+    assertTrue(tcpClient.isStateSuccessful());
+  }
+
+  private ClientParametersTCP getParameters(int port) {
+    return new ClientParametersTCP.ParametersBuilder("127.0.0.1", port)
+            .withNbClientMax(NB_CLIENTS)
+            .withNbExecution(NB_EXECUTION)
+            .withSleepBetweenExecMs(1)
+            .withSoTimeout(SO_TIMEOUT_MS)
+            .withRequestMessage("PING\n")
+            .build();
+  }
+
+  private StreamFormatOutput getFormatOutput() {
+    StreamFormatOutput streamFormatOutput = new SilentModeFormatOutput();
+    streamFormatOutput.setFramingConfig(new FramingConfig(FramingType.NEWLINE, 0, FramingConfig.DEFAULT_MAX_MESSAGE_SIZE, FramingConfig.DEFAULT_IDLE_TIMEOUT_MS));
+    return streamFormatOutput;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.client.TCPClient;
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.startup.ClientParametersTCP;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.tcp.TCPServer;
+import com.ioleak.jnetcat.server.tcp.TCPServerEngine;
+import com.ioleak.jnetcat.server.tcp.TCPServerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TCPThroughputGeneratorTest {
+
+  private static final int NB_STREAMS = 4;
+  private static final long TOTAL_BYTES = 64L * 1024 * 1024;
+  private static final int DURATION_MS = 500;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private TCPServer tcpServer;
+  private Thread tcpServerThread;
+
+  @AfterEach
+  public void tearDown() {
+    tcpServerThread.interrupt();
+    tcpServer.stopExecutions();
+
+    try {
+      tcpServerThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void run_ByteCountParallelStreams_AllBytesDelivered() throws InterruptedException {
+    startSink(new ServerParametersTCP.ParametersBuilder(0).withServerEngine(TCPServerEngine.SELECTOR).withIoThreads(2));
+
+    ThroughputReport report = new TCPThroughputGenerator(getParametersBuilder()
+            .withThroughputStreams(NB_STREAMS)
+            .withThroughputBytes(TOTAL_BYTES)
+            .build()).run();
+
+    assertTrue(report.isSuccessful());
+    assertEquals(NB_STREAMS, report.getCompletedStreams());
+    assertEquals(TOTAL_BYTES, report.getBytesSent());
+    assertEquals(TOTAL_BYTES, report.getBytesDelivered());
+    assertTrue(report.getGoodputGbps() > 0);
+  }
+
+  @Test
+  public void run_FixedDuration_IntervalsReported() throws InterruptedException {
+    startSink(new ServerParametersTCP.ParametersBuilder(0).withMultiThread(true));
+
+    ThroughputReport report = new TCPThroughputGenerator(getParametersBuilder()
+            .withThroughputStreams(2)
+            .withDurationMs(DURATION_MS)
+            .withReportIntervalMs(100)
+            .build()).run();
+
+    assertTrue(report.isSuccessful());
+    assertTrue(report.getElapsedNanos() >= DURATION_MS * 1_000_000L);
+    assertTrue(report.getBytesDelivered() > 0);
+    assertTrue(report.getIntervalsGbps().size() >= 3, String.format("Intervals: %s", report.getIntervalsGbps()));
+  }
+
+  @Test
+  public void start_NonInteractiveTCPClient_ThroughputReportAvailable() throws InterruptedException {
+    startSink(new ServerParametersTCP.ParametersBuilder(0).withServerEngine(TCPServerEngine.SELECTOR));
+
+    TCPClient tcpClient = new TCPClient(getParametersBuilder().withThroughputStreams(1).withThroughputBytes(1024 * 1024).build());
+    tcpClient.setFormatOutput(new SilentModeFormatOutput());
+    tcpClient.start();
+
+    assertTrue(tcpClient.isStateSuccessful());
+    assertEquals(1024 * 1024, tcpClient.getThroughputReport().getBytesDelivered());
+  }
+
+  private void startSink(ServerParametersTCP.ParametersBuilder builder) throws InterruptedException {
+    tcpServer = new TCPServer(builder.withServerType(TCPServerType.SINK).build());
+    tcpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    tcpServerThread = new Thread(tcpServer::start);
+    tcpServerThread.start();
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+  }
+
+  private ClientParametersTCP.ParametersBuilder getParametersBuilder() {
+    return new ClientParametersTCP.ParametersBuilder("127.0.0.1", tcpServer.getLocalPort())
+            .withInteractive(false)
+            .withSoTimeout(WAIT_TIMEOUT_MS);
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
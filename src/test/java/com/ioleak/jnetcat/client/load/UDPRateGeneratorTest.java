@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.load;
+
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.client.UDPClient;
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.stats.PacketStreamStats;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.startup.ClientParametersUDP;
+import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.udp.UDPServer;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UDPRateGeneratorTest {
+
+  private static final int RATE_PPS = 2000;
+  private static final int DURATION_MS = 500;
+  private static final int EXPECTED_PACKETS = RATE_PPS * DURATION_MS / 1000;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private UDPServer udpServer;
+  private Thread udpServerThread;
+
+  @BeforeEach
+  public void setUp() throws InterruptedException {
+    udpServer = new UDPServer(new ServerParametersUDP.ParametersBuilder(0).withServerType(UDPServerType.ECHO).build());
+    udpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    udpServerThread = new Thread(udpServer::start);
+    udpServerThread.start();
+    waitFor(() -> udpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    udpServer.stopExecutions();
+    udpServerThread.interrupt();
+
+    try {
+      udpServerThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void run_FixedPacketRate_AllPacketsEchoed() {
+    UDPRateReport report = new UDPRateGenerator(getParametersBuilder().withRatePps(RATE_PPS).build()).run();
+
+    assertEquals(EXPECTED_PACKETS, report.getSent());
+    assertEquals(report.getSent(), report.getReceived());
+    assertEquals(0, report.getLost());
+    assertEquals(0, report.getDuplicated());
+    assertEquals(report.getReceived(), report.getRoundTrip().getTotalCount());
+    assertTrue(Math.abs(report.getPacketsPerSecond() - RATE_PPS) < RATE_PPS * 0.1,
+               String.format("Rate was %.0f pps", report.getPacketsPerSecond()));
+  }
+
+  @Test
+  public void run_BandwidthRate_ConvertedToPacketRate() {
+    // 2000 packets/s of 125 bytes = 2 Mbit/s
+    UDPRateReport report = new UDPRateGenerator(getParametersBuilder().withRateMbps(2).withPayloadSize(125).build()).run();
+
+    assertEquals(EXPECTED_PACKETS, report.getSent());
+    assertTrue(Math.abs(report.getMegabitsPerSecond() - 2) < 0.2, String.format("Rate was %.2f Mbit/s", report.getMegabitsPerSecond()));
+  }
+
+  @Test
+  public void start_NonInteractiveUDPClient_RateReportAvailable() {
+    UDPClient udpClient = new UDPClient(getParametersBuilder().withRatePps(RATE_PPS).build());
+    udpClient.setFormatOutput(new SilentModeFormatOutput());
+    udpClient.start();
+
+    assertEquals(EXPECTED_PACKETS, udpClient.getRateReport().getSent());
+  }
+
+  @Test
+  public void run_SinkServer_StatisticsReported() throws InterruptedException {
+    runSinkServer(new ServerParametersUDP.ParametersBuilder(0).withServerType(UDPServerType.SINK).build());
+  }
+
+  @Test
+  public void run_MultiThreadSinkServer_StatisticsOfAllReceivers() throws InterruptedException {
+    runSinkServer(new ServerParametersUDP.ParametersBuilder(0).withServerType(UDPServerType.SINK)
+            .withMultiThread(true)
+            .withMaxThreads(4)
+            .build());
+  }
+
+  private void runSinkServer(ServerParametersUDP serverParametersUDP) throws InterruptedException {
+    UDPServer sinkServer = new UDPServer(serverParametersUDP);
+    sinkServer.setFormatOutput(new SilentModeFormatOutput());
+    Thread sinkServerThread = new Thread(sinkServer::start);
+    sinkServerThread.start();
+
+    try {
+      waitFor(() -> sinkServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+      UDPRateReport report = new UDPRateGenerator(getParametersBuilder(sinkServer.getLocalPort()).withRatePps(RATE_PPS).build()).run();
+
+      PacketStreamStats sinkStats = report.getSinkStats();
+      assertNotNull(sinkStats);
+      assertEquals(report.getSent(), sinkStats.getReceived());
+      assertEquals(0, sinkStats.getLost());
+      assertEquals(report.getSent() * ClientParametersUDP.DEFAULT_PAYLOAD_SIZE, sinkStats.getBytes());
+      assertTrue(sinkStats.getJitterNanos() >= 0);
+    } finally {
+      sinkServer.stopExecutions();
+      sinkServerThread.interrupt();
+      sinkServerThread.join();
+    }
+  }
+
+  private ClientParametersUDP.ParametersBuilder getParametersBuilder() {
+    return getParametersBuilder(udpServer.getLocalPort());
+  }
+
+  private ClientParametersUDP.ParametersBuilder getParametersBuilder(int port) {
+    return new ClientParametersUDP.ParametersBuilder("127.0.0.1", port)
+            .withDurationMs(DURATION_MS)
+            .withSoTimeout(1000);
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.client.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ioleak.jnetcat.common.Logging;
+
+public class TCPEchoServerMock
+        implements Runnable {
+
+  private final AtomicInteger acceptedConnections = new AtomicInteger();
+  private ServerSocket server;
+
+  public TCPEchoServerMock() {
+    try {
+      server = new ServerSocket(0);
+    } catch (IOException ex) {
+      Logging.getLogger().error("Unable to start TCP server", ex);
+    }
+  }
+
+  public void run() {
+    while (!server.isClosed()) {
+      try {
+        Socket clientSocket = server.accept();
+        acceptedConnections.incrementAndGet();
+
+        Thread echoThread = new Thread(() -> echo(clientSocket));
+        echoThread.setDaemon(true);
+        echoThread.start();
+      } catch (IOException ex) {
+        Logging.getLogger().warn(String.format("Exception occured in run(): %s", ex.getMessage()));
+      }
+    }
+  }
+
+  public int getPort() {
+    return server.getLocalPort();
+  }
+
+  public int getAcceptedConnections() {
+    return acceptedConnections.get();
+  }
+
+  public void close() {
+    try {
+      server.close();
+    } catch (IOException ex) {
+      Logging.getLogger().error("Unable to close TCP server", ex);
+    }
+  }
+
+  private void echo(Socket clientSocket) {
+    try (clientSocket) {
+      InputStream inputStream = clientSocket.getInputStream();
+      OutputStream outputStream = clientSocket.getOutputStream();
+      byte[] buffer = new byte[8192];
+      int length;
+
+      while ((length = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, length);
+        outputStream.flush();
+      }
+    } catch (IOException ex) {
+      Logging.getLogger().info(String.format("Echo connection closed: %s", ex.getMessage()));
+    }
+  }
+}
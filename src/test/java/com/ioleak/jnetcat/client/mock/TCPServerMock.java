@@ -37,8 +37,10 @@ import com.ioleak.jnetcat.common.Logging;
 public class TCPServerMock
         implements Runnable {
 
+  private static final long CLIENT_WAIT_MS = 2000;
+
   private ServerSocket server;
-  private Socket clientSocket;
+  private volatile Socket clientSocket;
 
   public TCPServerMock() {
     try {
@@ -60,7 +62,7 @@ public class TCPServerMock
 
   public String read() {
     try {
-      BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+      BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(waitForClient().getInputStream()));
       return bufferedReader.readLine();
     } catch (IOException ex) {
       Logging.getLogger().error(String.format("Unable to read from client: %s", ex.getMessage()));
@@ -71,7 +73,7 @@ public class TCPServerMock
 
   public void write(String stringToWrite) {
     try {
-      PrintWriter printWriter = new PrintWriter(clientSocket.getOutputStream());
+      PrintWriter printWriter = new PrintWriter(waitForClient().getOutputStream());
       printWriter.write(stringToWrite);
       printWriter.flush();
     } catch (IOException ex) {
@@ -85,8 +87,9 @@ public class TCPServerMock
 
   public void closeClient() {
     try {
-      if (clientSocket != null && !clientSocket.isClosed()) {
-        clientSocket.close();
+      Socket client = waitForClient();
+      if (client != null && !client.isClosed()) {
+        client.close();
       }
     } catch (IOException ex) {
       Logging.getLogger().error(String.format("Unable to close client", ex.getMessage()));
@@ -95,10 +98,28 @@ public class TCPServerMock
 
   public void closeServer() {
     try {
-      closeClient();
+      if (clientSocket != null && !clientSocket.isClosed()) {
+        clientSocket.close();
+      }
       server.close();
     } catch (IOException ex) {
       Logging.getLogger().error(String.format("Unable to close server", ex.getMessage()));
     }
   }
+
+  // the client connection is established before the accept() of the run() thread returns
+  private Socket waitForClient() {
+    long deadline = System.currentTimeMillis() + CLIENT_WAIT_MS;
+
+    while (clientSocket == null && System.currentTimeMillis() < deadline) {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    return clientSocket;
+  }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class ByteArrayBufferTest {
+
+  @Test
+  public void append_MoreThanCapacity_BufferGrows() {
+    ByteArrayBuffer buffer = new ByteArrayBuffer(2);
+    byte[] data = "abcdefgh".getBytes(StandardCharsets.ISO_8859_1);
+
+    buffer.append(data, 0, 3);
+    buffer.append(data, 3, 5);
+    buffer.append((byte) 'Z');
+
+    assertEquals(9, buffer.size());
+    assertEquals("abcdefghZ", buffer.toString(StandardCharsets.ISO_8859_1));
+    assertArrayEquals("abcdefghZ".getBytes(StandardCharsets.ISO_8859_1), buffer.toByteArray());
+  }
+
+  @Test
+  public void clear_FilledBuffer_EmptyAndReusable() {
+    ByteArrayBuffer buffer = new ByteArrayBuffer();
+    buffer.append(new byte[] {1, 2, 3}, 0, 3);
+    buffer.clear();
+
+    assertTrue(buffer.isEmpty());
+
+    buffer.append((byte) 4);
+    assertEquals(4, buffer.get(0));
+  }
+
+  @Test
+  public void append_InvalidRange_ExceptionThrown() {
+    ByteArrayBuffer buffer = new ByteArrayBuffer();
+
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.append(new byte[] {1, 2}, 1, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(0));
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileEventWatcherTest {
+
+  private static final long DEBOUNCE_MS = 100;
+  private static final long WAIT_EVENT_MS = 5000;
+
+  @TempDir
+  Path tempDirectory;
+
+  private File watchFile;
+  private Semaphore executions;
+  private FileEventWatcher fileEventWatcher;
+
+  @BeforeEach
+  public void setUp()
+          throws IOException {
+    watchFile = tempDirectory.resolve("options.json").toFile();
+    Files.write(watchFile.toPath(), "{ }".getBytes(StandardCharsets.UTF_8));
+
+    executions = new Semaphore(0);
+    fileEventWatcher = new FileEventWatcher(watchFile, (file) -> executions.release(), DEBOUNCE_MS);
+    assertTrue(fileEventWatcher.start());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    fileEventWatcher.close();
+  }
+
+  @Test
+  public void start_FileExists_MethodExecuted()
+          throws InterruptedException {
+    assertTrue(executions.tryAcquire(WAIT_EVENT_MS, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void fileModified_BurstOfWrites_MethodExecutedOnce()
+          throws InterruptedException, IOException {
+    assertTrue(executions.tryAcquire(WAIT_EVENT_MS, TimeUnit.MILLISECONDS));
+
+    for (int i = 0; i < 5; i++) {
+      Files.write(watchFile.toPath(), "one line to modify".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+      Thread.sleep(DEBOUNCE_MS / 5);
+    }
+
+    assertTrue(executions.tryAcquire(WAIT_EVENT_MS, TimeUnit.MILLISECONDS));
+    assertFalse(executions.tryAcquire(DEBOUNCE_MS * 5, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void otherFileModified_SameDirectory_MethodNotExecuted()
+          throws InterruptedException, IOException {
+    assertTrue(executions.tryAcquire(WAIT_EVENT_MS, TimeUnit.MILLISECONDS));
+
+    Files.write(tempDirectory.resolve("other.json"), "{ }".getBytes(StandardCharsets.UTF_8));
+
+    assertFalse(executions.tryAcquire(DEBOUNCE_MS * 5, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void fileDeletedThenCreated_MethodExecuted()
+          throws InterruptedException, IOException {
+    assertTrue(executions.tryAcquire(WAIT_EVENT_MS, TimeUnit.MILLISECONDS));
+
+    Files.delete(watchFile.toPath());
+    Files.write(watchFile.toPath(), "{ }".getBytes(StandardCharsets.UTF_8));
+
+    assertTrue(executions.tryAcquire(WAIT_EVENT_MS, TimeUnit.MILLISECONDS));
+  }
+}
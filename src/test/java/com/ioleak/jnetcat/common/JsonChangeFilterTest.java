@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ioleak.jnetcat.options.JNetcatParameters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsonChangeFilterTest {
+
+  private static final String PARAMS = "{ \"startAsServer\": true, \"useProtocolTCP\": true, \"serverParametersTCP\": { \"port\": 8080 } }";
+  private static final String PARAMS_REFORMATTED = "{\n  \"useProtocolTCP\": true,\n  \"startAsServer\": true,\n  \"serverParametersTCP\": {\n    \"port\": 8080\n  }\n}";
+  private static final String PARAMS_MODIFIED = "{ \"startAsServer\": true, \"useProtocolTCP\": true, \"serverParametersTCP\": { \"port\": 8081 } }";
+
+  @TempDir
+  Path tempDirectory;
+
+  private File jsonFile;
+  private AtomicInteger reloadCount;
+  private JsonChangeFilter<JNetcatParameters> changeFilter;
+
+  @BeforeEach
+  public void setUp() {
+    jsonFile = tempDirectory.resolve("options.json").toFile();
+    reloadCount = new AtomicInteger();
+    changeFilter = new JsonChangeFilter<>(JNetcatParameters.class, (file) -> reloadCount.incrementAndGet());
+  }
+
+  @Test
+  public void accept_FirstFile_MethodExecuted()
+          throws IOException {
+    writeFile(PARAMS);
+    changeFilter.accept(jsonFile);
+
+    assertEquals(1, reloadCount.get());
+  }
+
+  @Test
+  public void accept_SameParametersReformatted_MethodNotExecuted()
+          throws IOException {
+    writeFile(PARAMS);
+    changeFilter.accept(jsonFile);
+    changeFilter.accept(jsonFile);
+
+    writeFile(PARAMS_REFORMATTED);
+    changeFilter.accept(jsonFile);
+
+    assertEquals(1, reloadCount.get());
+  }
+
+  @Test
+  public void accept_ParameterModified_MethodExecuted()
+          throws IOException {
+    writeFile(PARAMS);
+    changeFilter.accept(jsonFile);
+
+    writeFile(PARAMS_MODIFIED);
+    changeFilter.accept(jsonFile);
+
+    assertEquals(2, reloadCount.get());
+  }
+
+  @Test
+  public void accept_InvalidJson_MethodNotExecuted()
+          throws IOException {
+    writeFile(PARAMS);
+    changeFilter.accept(jsonFile);
+
+    writeFile("{ \"startAsServer\": tr");
+    changeFilter.accept(jsonFile);
+    assertEquals(1, reloadCount.get());
+
+    writeFile(PARAMS);
+    changeFilter.accept(jsonFile);
+    assertEquals(1, reloadCount.get());
+  }
+
+  private void writeFile(String content)
+          throws IOException {
+    Files.write(jsonFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LoggingBenchmark {
+
+  private static final int CALLS = 2_000_000;
+  private static final int ITERATIONS = 5;
+
+  private static long blackhole = 0;
+
+  public static void main(String[] args) {
+    // the first runs only warm up the JIT
+    for (int i = 0; i < 2; i++) {
+      callLegacy(CALLS / 10);
+      callCached(CALLS);
+    }
+
+    double legacyNanos = measure("new Exception().getStackTrace()", CALLS / 10, LoggingBenchmark::callLegacy);
+    double cachedNanos = measure("StackWalker + ClassValue cache ", CALLS, LoggingBenchmark::callCached);
+    double staticNanos = measure("Logging.getLogger(Class)       ", CALLS, LoggingBenchmark::callStatic);
+
+    System.out.println(String.format("Speedup: %.1fx, %.1fx with the class (checksum %d)",
+                                     legacyNanos / cachedNanos, legacyNanos / staticNanos, blackhole));
+  }
+
+  private static double measure(String name, int calls, CallLoop callLoop) {
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      callLoop.run(calls);
+    }
+    long elapsedNanos = System.nanoTime() - start;
+
+    double nanosPerCall = elapsedNanos / (double) calls / ITERATIONS;
+    System.out.println(String.format("%s: %10.1f ns/call (%d calls/s)", name, nanosPerCall,
+                                     (long) (TimeUnit.SECONDS.toNanos(1) / nanosPerCall)));
+    return nanosPerCall;
+  }
+
+  private static void callLegacy(int calls) {
+    for (int i = 0; i < calls; i++) {
+      blackhole += legacyGetLogger().getName().length();
+    }
+  }
+
+  private static void callCached(int calls) {
+    for (int i = 0; i < calls; i++) {
+      blackhole += Logging.getLogger().getName().length();
+    }
+  }
+
+  private static void callStatic(int calls) {
+    for (int i = 0; i < calls; i++) {
+      blackhole += Logging.getLogger(LoggingBenchmark.class).getName().length();
+    }
+  }
+
+  // Logging.getLogger() before the cache: the whole stack is captured on every call
+  private static Logger legacyGetLogger() {
+    String className = Logging.class.getName();
+
+    StackTraceElement[] trace = new Exception().getStackTrace();
+    if (trace != null && trace.length > 1) {
+      className = trace[1].getClassName();
+    }
+
+    return LoggerFactory.getLogger(className);
+  }
+
+  private interface CallLoop {
+
+    void run(int calls);
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.slf4j.Logger;
+
+public class LoggingLoadBenchmark {
+
+  private static final int DISABLED_CALLS = 5_000_000;
+  private static final int THREADS = 4;
+  // a burst of the 4 threads fits in the async queue (8192 events), as the log lines of a few busy connections
+  private static final int BURST_CALLS_PER_THREAD = 1_500;
+  private static final int BURSTS = 100;
+  private static final long PAUSE_BETWEEN_BURSTS_MS = 50;
+
+  private static final String SYNC_CONFIG
+                              = "<Configuration status=\"WARN\"><Appenders>"
+                                + "<File name=\"FileOutput\" fileName=\"%s\">"
+                                + "<PatternLayout pattern=\"%%d [%%t] %%-5level %%logger{36} - %%msg%%n\"/></File>"
+                                + "</Appenders><Loggers><Root level=\"info\"><AppenderRef ref=\"FileOutput\"/></Root></Loggers></Configuration>";
+  private static final String ASYNC_CONFIG
+                              = "<Configuration status=\"WARN\"><Appenders>"
+                                + "<RandomAccessFile name=\"FileOutput\" fileName=\"%s\" immediateFlush=\"false\">"
+                                + "<PatternLayout pattern=\"%%d{yyyy-MM-dd HH:mm:ss.SSS} [%%t] %%-5level %%logger{36} - %%msg%%n\"/></RandomAccessFile>"
+                                + "<Async name=\"AsyncOutput\" bufferSize=\"8192\" includeLocation=\"false\"><AppenderRef ref=\"FileOutput\"/></Async>"
+                                + "</Appenders><Loggers><Root level=\"info\"><AppenderRef ref=\"AsyncOutput\"/></Root></Loggers></Configuration>";
+
+  private static long blackhole = 0;
+
+  // one configuration per JVM: "sync" (previous File appender) or "async" (log4j2.xml)
+  public static void main(String[] args)
+          throws IOException, InterruptedException {
+    boolean async = args.length == 0 || !"sync".equals(args[0]);
+
+    Path directory = Files.createTempDirectory("jnc-logging");
+    Path configFile = directory.resolve("log4j2-benchmark.xml");
+    Path logFile = directory.resolve("benchmark.log");
+    Files.writeString(configFile, String.format(async ? ASYNC_CONFIG : SYNC_CONFIG, logFile.toString().replace('\\', '/')));
+    System.setProperty("log4j.configurationFile", configFile.toUri().toString());
+
+    Logger logger = Logging.getLogger(LoggingLoadBenchmark.class);
+
+    for (int i = 0; i < 2; i++) {
+      callDisabledFormat(logger, DISABLED_CALLS / 10);
+      callDisabledParameterized(logger, DISABLED_CALLS / 10);
+    }
+    double formatNanos = measure("debug disabled, String.format  ", DISABLED_CALLS, () -> callDisabledFormat(logger, DISABLED_CALLS));
+    double parameterizedNanos = measure("debug disabled, {} placeholders", DISABLED_CALLS, () -> callDisabledParameterized(logger, DISABLED_CALLS));
+    System.out.println(String.format("Disabled level speedup: %.1fx (checksum %d)", formatNanos / parameterizedNanos, blackhole));
+
+    measureEnabled(logger, "warm up                       ", BURSTS / 5);
+    measureEnabled(logger, async ? "info, Async + RandomAccessFile" : "info, synchronous File       ", BURSTS);
+
+    // the async dispatcher thread is not a daemon: the application leaves with System.exit, here it is stopped
+    LogManager.shutdown();
+    System.out.println(String.format("Log file: %s (%d bytes)", logFile, Files.size(logFile)));
+  }
+
+  private static double measure(String name, int calls, Runnable callLoop) {
+    long start = System.nanoTime();
+    callLoop.run();
+    long elapsedNanos = System.nanoTime() - start;
+
+    double nanosPerCall = elapsedNanos / (double) calls;
+    System.out.println(String.format("%s: %10.1f ns/call", name, nanosPerCall));
+    return nanosPerCall;
+  }
+
+  // the time seen by the network threads: the caller returns once the event is queued (async) or written (sync)
+  private static void measureEnabled(Logger logger, String name, int bursts)
+          throws InterruptedException {
+    long totalNanos = 0;
+    long maxBurstNanos = 0;
+
+    for (int i = 0; i < bursts; i++) {
+      long burstNanos = runBurst(logger);
+      totalNanos += burstNanos;
+      maxBurstNanos = Math.max(maxBurstNanos, burstNanos);
+
+      Thread.sleep(PAUSE_BETWEEN_BURSTS_MS);
+    }
+
+    long calls = (long) bursts * BURST_CALLS_PER_THREAD;
+    System.out.println(String.format("%s: %10.1f ns/call per thread, %d threads, slowest burst %.1f ms", name,
+                                     totalNanos / (double) THREADS / calls, THREADS,
+                                     maxBurstNanos / (double) THREADS / TimeUnit.MILLISECONDS.toNanos(1)));
+  }
+
+  private static long runBurst(Logger logger)
+          throws InterruptedException {
+    CountDownLatch startLatch = new CountDownLatch(1);
+    CountDownLatch endLatch = new CountDownLatch(THREADS);
+    AtomicLong totalNanos = new AtomicLong();
+
+    for (int i = 0; i < THREADS; i++) {
+      Thread thread = new Thread(() -> {
+        try {
+          startLatch.await();
+          long start = System.nanoTime();
+          callEnabled(logger, BURST_CALLS_PER_THREAD);
+          totalNanos.addAndGet(System.nanoTime() - start);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        } finally {
+          endLatch.countDown();
+        }
+      }, "Client-" + i);
+      thread.start();
+    }
+
+    startLatch.countDown();
+    endLatch.await();
+
+    return totalNanos.get();
+  }
+
+  private static void callDisabledFormat(Logger logger, int calls) {
+    for (int i = 0; i < calls; i++) {
+      String message = String.format("Sent %d bytes to %s:%d", i, "127.0.0.1", 8080);
+      logger.debug(message);
+      blackhole += message.length();
+    }
+  }
+
+  private static void callDisabledParameterized(Logger logger, int calls) {
+    for (int i = 0; i < calls; i++) {
+      logger.debug("Sent {} bytes to {}:{}", i, "127.0.0.1", 8080);
+      blackhole++;
+    }
+  }
+
+  private static void callEnabled(Logger logger, int calls) {
+    for (int i = 0; i < calls; i++) {
+      logger.info("Sent {} bytes to {}:{}", i, "127.0.0.1", 8080);
+    }
+  }
+}
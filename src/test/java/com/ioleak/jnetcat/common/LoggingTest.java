@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class LoggingTest {
+
+  @Test
+  public void getLogger_CalledFromTest_LoggerNamedAfterCaller() {
+    assertEquals(LoggingTest.class.getName(), Logging.getLogger().getName());
+  }
+
+  @Test
+  public void getLogger_CalledTwice_SameCachedLogger() {
+    assertSame(Logging.getLogger(), Logging.getLogger());
+    assertSame(Logging.getLogger(), Logging.getLogger(LoggingTest.class));
+  }
+
+  @Test
+  public void getLogger_CalledFromNestedClass_LoggerNamedAfterNestedClass() {
+    assertEquals(NestedCaller.class.getName(), new NestedCaller().getLogger().getName());
+  }
+
+  @Test
+  public void getLogger_CalledFromLambda_LoggerNamedAfterEnclosingClass() {
+    Supplier<Logger> loggerSupplier = () -> Logging.getLogger();
+
+    assertEquals(LoggingTest.class.getName(), loggerSupplier.get().getName());
+  }
+
+  private static class NestedCaller {
+
+    Logger getLogger() {
+      return Logging.getLogger();
+    }
+  }
+}
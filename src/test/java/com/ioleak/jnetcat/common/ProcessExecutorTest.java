@@ -25,11 +25,23 @@
  */
 package com.ioleak.jnetcat.common;
 
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.ioleak.jnetcat.common.ProcessExecutor.ProcessResult;
+import com.ioleak.jnetcat.common.ProcessExecutor.StreamType;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ProcessExecutorTest {
 
@@ -40,4 +52,130 @@ public class ProcessExecutorTest {
     
     assertEquals("'bleh'" + System.lineSeparator(), processResult.getStdIn());
   }
+
+  @Test
+  public void execute_StdErrFilled_NoDeadlock() {
+    ProcessExecutor processExecutor = new ProcessExecutor(30000, 1024);
+    ProcessResult processResult = processExecutor.execute(testCommand("stderr 1048576"));
+
+    assertEquals(0, processResult.getExitValue());
+    assertEquals("done" + System.lineSeparator(), processResult.getStdIn());
+    assertEquals(1024, processResult.getStdErr().length());
+    assertTrue(processResult.isTruncated());
+    assertFalse(processResult.isTimedOut());
+  }
+
+  @Test
+  public void execute_CommandTooLong_ProcessKilled() {
+    ProcessExecutor processExecutor = new ProcessExecutor(1000, ProcessExecutor.DEFAULT_MAX_OUTPUT_SIZE);
+
+    long start = System.nanoTime();
+    ProcessResult processResult = processExecutor.execute(testCommand("sleep 60000"));
+    long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertTrue(processResult.isTimedOut());
+    assertEquals(-1, processResult.getExitValue());
+    assertTrue(durationMs < 10000, "Process should be killed after the timeout: " + durationMs);
+  }
+
+  @Test
+  public void executeAsync_OutputLines_StreamedToListener()
+          throws Exception {
+    List<String> lines = new CopyOnWriteArrayList<>();
+    ProcessExecutor processExecutor = new ProcessExecutor();
+
+    ProcessResult processResult = processExecutor.executeAsync(testCommand("lines 3"), (streamType, line) -> {
+      if (streamType == StreamType.STDOUT) {
+        lines.add(line.trim());
+      }
+    }).get(30, TimeUnit.SECONDS);
+
+    assertEquals(List.of("line 0", "line 1", "line 2"), lines);
+    assertEquals(0, processResult.getExitValue());
+  }
+
+  @Test
+  public void executeAsync_OutputWithoutNewLine_KeptUpToTheLimit()
+          throws Exception {
+    AtomicInteger streamed = new AtomicInteger();
+    ProcessExecutor processExecutor = new ProcessExecutor(30000, 1024);
+
+    ProcessResult processResult = processExecutor.executeAsync(testCommand("nonewline 8388608"), (streamType, data) -> {
+      streamed.addAndGet(data.length());
+    }).get(60, TimeUnit.SECONDS);
+
+    assertEquals(0, processResult.getExitValue());
+    assertEquals(1024, processResult.getStdIn().length());
+    assertEquals(1024, streamed.get());
+    assertTrue(processResult.isTruncated());
+  }
+
+  @Test
+  public void executeAsync_LineNotEnded_StreamedBeforeProcessEnd()
+          throws Exception {
+    CountDownLatch promptReceived = new CountDownLatch(1);
+    ProcessExecutor processExecutor = new ProcessExecutor();
+
+    CompletableFuture<ProcessResult> processResult = processExecutor.executeAsync(testCommand("prompt 5000"), (streamType, data) -> {
+      if (data.equals("prompt> ")) {
+        promptReceived.countDown();
+      }
+    });
+
+    assertTrue(promptReceived.await(4000, TimeUnit.MILLISECONDS));
+    assertFalse(processResult.isDone());
+    assertEquals("prompt> ", processResult.get(30, TimeUnit.SECONDS).getStdIn());
+  }
+
+  public static String testCommand(String arguments) {
+    try {
+      String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+      String classPath = Paths.get(TestCommand.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+
+      return String.format("%s -cp %s %s %s", java, classPath, TestCommand.class.getName(), arguments);
+    } catch (URISyntaxException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  public static class TestCommand {
+
+    public static void main(String[] args)
+            throws InterruptedException {
+      int value = Integer.parseInt(args[1]);
+
+      switch (args[0]) {
+        case "stderr":
+          String line = "e".repeat(99);
+          for (int written = 0; written < value; written += 100) {
+            System.err.println(line);
+          }
+          System.out.println("done");
+          break;
+        case "sleep":
+          Thread.sleep(value);
+          break;
+        case "nonewline":
+          char[] data = new char[4096];
+          Arrays.fill(data, 'x');
+          for (int written = 0; written < value; written += data.length) {
+            System.out.print(data);
+          }
+          System.out.flush();
+          break;
+        case "prompt":
+          System.out.print("prompt> ");
+          System.out.flush();
+          Thread.sleep(value);
+          break;
+        case "lines":
+          for (int i = 0; i < value; i++) {
+            System.out.println("line " + i);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
 }
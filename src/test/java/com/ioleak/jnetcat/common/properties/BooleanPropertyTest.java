@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.properties;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BooleanPropertyTest {
+
+  private final List<PropertyChangeEvent> events = new CopyOnWriteArrayList<>();
+  private BooleanProperty booleanProperty;
+
+  @BeforeEach
+  public void setUp() {
+    events.clear();
+    booleanProperty = new BooleanProperty(false);
+    booleanProperty.addListener(events::add);
+  }
+
+  @Test
+  public void set_NewValue_EventFired() {
+    booleanProperty.set(true);
+
+    assertTrue(booleanProperty.get());
+    assertEquals(1, events.size());
+    assertEquals(BooleanProperty.PROPERTYNAME, events.get(0).getPropertyName());
+    assertEquals(false, events.get(0).getOldValue());
+    assertEquals(true, events.get(0).getNewValue());
+  }
+
+  @Test
+  public void set_SameValue_NoEventFired() {
+    booleanProperty.set(false);
+    booleanProperty.set(true);
+    booleanProperty.set(true);
+
+    assertEquals(1, events.size());
+  }
+
+  @Test
+  public void removeListener_ValueChanged_NoEventFired() {
+    PropertyChangeListener listener = events::add;
+    BooleanProperty property = new BooleanProperty();
+    property.addListener(listener);
+    property.removeListener(listener);
+
+    property.set(true);
+
+    assertTrue(property.get());
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  public void setCoalescingIntervalMs_RapidUpdates_OneEvent()
+          throws InterruptedException {
+    CountDownLatch eventLatch = new CountDownLatch(1);
+    booleanProperty.addListener(event -> eventLatch.countDown());
+    booleanProperty.setCoalescingIntervalMs(50);
+
+    booleanProperty.set(true);
+    booleanProperty.set(false);
+    booleanProperty.set(true);
+
+    assertTrue(eventLatch.await(5, TimeUnit.SECONDS));
+    assertEquals(1, events.size());
+    assertEquals(false, events.get(0).getOldValue());
+    assertEquals(true, events.get(0).getNewValue());
+  }
+
+  @Test
+  public void setCoalescingIntervalMs_BackToFirstValue_NoEvent() {
+    booleanProperty.setCoalescingIntervalMs(60000);
+
+    booleanProperty.set(true);
+    booleanProperty.set(false);
+    booleanProperty.flushChanges();
+
+    assertFalse(booleanProperty.get());
+    assertTrue(events.isEmpty());
+  }
+}
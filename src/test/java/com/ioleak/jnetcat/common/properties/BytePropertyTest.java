@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.properties;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BytePropertyTest {
+
+  private final List<PropertyChangeEvent> events = new ArrayList<>();
+  private ByteProperty byteProperty;
+
+  @BeforeEach
+  public void setUp() {
+    events.clear();
+    byteProperty = new ByteProperty();
+    byteProperty.addListener(events::add);
+  }
+
+  @Test
+  public void set_SameValueTwice_TwoEvents() {
+    byteProperty.set((byte) 'a');
+    byteProperty.set((byte) 'a');
+
+    assertEquals(2, events.size());
+    assertEquals((byte) 'a', events.get(1).getOldValue());
+    assertEquals((byte) 'a', events.get(1).getNewValue());
+  }
+
+  @Test
+  public void set_NoListener_ValueSet() {
+    ByteProperty property = new ByteProperty((byte) 1);
+    property.set((byte) 2);
+
+    assertEquals(2, property.get());
+  }
+
+  @Test
+  public void setCoalescingIntervalMs_SeveralValues_FirstOldAndLastValue() {
+    byteProperty.setCoalescingIntervalMs(60000);
+
+    byteProperty.set((byte) 1);
+    byteProperty.set((byte) 2);
+    byteProperty.set((byte) 3);
+    assertTrue(events.isEmpty());
+
+    byteProperty.flushChanges();
+
+    assertEquals(1, events.size());
+    assertEquals((byte) 0, events.get(0).getOldValue());
+    assertEquals((byte) 3, events.get(0).getNewValue());
+  }
+
+  @Test
+  public void flushChanges_NoPendingChange_NoEvent() {
+    byteProperty.setCoalescingIntervalMs(60000);
+
+    byteProperty.flushChanges();
+
+    assertTrue(events.isEmpty());
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.properties;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PropertyListenersTest {
+
+  private final List<String> calls = new ArrayList<>();
+  private PropertyListeners listeners;
+
+  @BeforeEach
+  public void setUp() {
+    calls.clear();
+    listeners = new PropertyListeners();
+  }
+
+  @Test
+  public void isEmpty_NoListener_True() {
+    assertTrue(listeners.isEmpty());
+  }
+
+  @Test
+  public void firePropertyChange_TwoListeners_CalledInOrder() {
+    listeners.add(event -> calls.add("first " + event.getNewValue()));
+    listeners.add(event -> calls.add("second " + event.getNewValue()));
+
+    listeners.firePropertyChange(this, "test", null, "A");
+
+    assertEquals(List.of("first A", "second A"), calls);
+  }
+
+  @Test
+  public void firePropertyChange_EqualValues_NoEvent() {
+    listeners.add(event -> calls.add("called"));
+
+    listeners.firePropertyChange(this, "test", "A", "A");
+
+    assertTrue(calls.isEmpty());
+  }
+
+  @Test
+  public void fire_EqualValues_EventDelivered() {
+    listeners.add(event -> calls.add("called"));
+
+    listeners.fire(new PropertyChangeEvent(this, "test", "A", "A"));
+
+    assertEquals(1, calls.size());
+  }
+
+  @Test
+  public void remove_ListenerAddedTwice_OneRemoved() {
+    PropertyChangeListener listener = event -> calls.add("called");
+    listeners.add(listener);
+    listeners.add(listener);
+
+    listeners.remove(listener);
+    listeners.firePropertyChange(this, "test", null, "A");
+    assertEquals(1, calls.size());
+
+    listeners.remove(listener);
+    assertTrue(listeners.isEmpty());
+  }
+
+  @Test
+  public void add_DuringFire_NotCalledForCurrentEvent() {
+    listeners.add(event -> {
+      calls.add("first");
+      listeners.add(event2 -> calls.add("added"));
+    });
+
+    listeners.firePropertyChange(this, "test", null, "A");
+
+    assertEquals(List.of("first"), calls);
+    assertFalse(listeners.isEmpty());
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.stats;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+  private static final double MAX_RELATIVE_ERROR = 0.01;
+
+  @Test
+  public void recordValue_SmallValues_ExactPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 100; value++) {
+      histogram.recordValue(value);
+    }
+
+    assertEquals(100, histogram.getTotalCount());
+    assertEquals(1, histogram.getMinValue());
+    assertEquals(100, histogram.getMaxValue());
+    assertEquals(50, histogram.getValueAtPercentile(50));
+    assertEquals(90, histogram.getValueAtPercentile(90));
+    assertEquals(99, histogram.getValueAtPercentile(99));
+    assertEquals(100, histogram.getValueAtPercentile(100));
+    assertEquals(50.5, histogram.getMean(), 0.001);
+  }
+
+  @Test
+  public void recordValue_LargeValues_PercentilesWithinOnePercent() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 10000; value++) {
+      histogram.recordValue(value * 1000);
+    }
+
+    assertWithinError(5_000_000, histogram.getValueAtPercentile(50));
+    assertWithinError(9_900_000, histogram.getValueAtPercentile(99));
+    assertWithinError(9_990_000, histogram.getValueAtPercentile(99.9));
+    assertEquals(10_000_000, histogram.getMaxValue());
+  }
+
+  @Test
+  public void recordValue_ValueAboveHighestTrackable_MaxKept() {
+    LatencyHistogram histogram = new LatencyHistogram(TimeUnit.SECONDS.toNanos(1));
+    histogram.recordValue(TimeUnit.SECONDS.toNanos(10));
+
+    assertEquals(1, histogram.getTotalCount());
+    assertEquals(TimeUnit.SECONDS.toNanos(10), histogram.getMaxValue());
+    assertEquals(TimeUnit.SECONDS.toNanos(10), histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void recordValueWithExpectedInterval_StalledResponse_MissedSamplesAdded() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordValueWithExpectedInterval(1000, 100);
+
+    assertEquals(10, histogram.getTotalCount());
+    assertEquals(100, histogram.getMinValue());
+    assertEquals(1000, histogram.getMaxValue());
+    assertWithinError(500, histogram.getValueAtPercentile(50));
+  }
+
+  @Test
+  public void add_TwoHistograms_Merged() {
+    LatencyHistogram first = new LatencyHistogram();
+    LatencyHistogram second = new LatencyHistogram();
+    first.recordValue(10);
+    first.recordValue(20);
+    second.recordValue(1_000_000);
+
+    first.add(second);
+
+    assertEquals(3, first.getTotalCount());
+    assertEquals(10, first.getMinValue());
+    assertEquals(1_000_000, first.getMaxValue());
+    assertWithinError(1_000_000, first.getValueAtPercentile(100));
+    assertEquals(1, second.getTotalCount());
+  }
+
+  @Test
+  public void reset_RecordedValues_Empty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordValue(42);
+    histogram.reset();
+
+    assertEquals(0, histogram.getTotalCount());
+    assertEquals(0, histogram.getMaxValue());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void toPercentileDistribution_RecordedValues_OneLinePerBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordValue(1);
+    histogram.recordValue(2);
+    histogram.recordValue(2);
+
+    String[] lines = histogram.toPercentileDistribution(1).split(System.lineSeparator());
+
+    assertEquals(4, lines.length);
+    assertEquals("2.000 1.000000000000 3", lines[2].trim().replaceAll(" +", " "));
+    assertTrue(lines[3].startsWith("#[Mean = 1.667, Max = 2.000, Total count = 3]"));
+  }
+
+  private void assertWithinError(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) <= expected * MAX_RELATIVE_ERROR,
+               String.format("Expected %d (+/- 1%%) but was %d", expected, actual));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.stats;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PacketStreamStatsTest {
+
+  @Test
+  public void packetReceived_MissingAndLateSequences_LossAndOrderCounted() {
+    PacketStreamStats stats = new PacketStreamStats();
+
+    for (long sequence : new long[] {0, 1, 3, 2, 5, 6}) {
+      stats.packetReceived(sequence, 0, 0, 100);
+    }
+
+    assertEquals(6, stats.getReceived());
+    assertEquals(1, stats.getLost());
+    assertEquals(1, stats.getOutOfOrder());
+    assertEquals(600, stats.getBytes());
+  }
+
+  @Test
+  public void packetReceived_ConstantTransitTime_NoJitter() {
+    PacketStreamStats stats = new PacketStreamStats();
+
+    for (int sequence = 0; sequence < 100; sequence++) {
+      stats.packetReceived(sequence, sequence * 1000, 5_000_000 + sequence * 1000, 64);
+    }
+
+    assertEquals(0, stats.getJitterNanos());
+  }
+
+  @Test
+  public void packetReceived_AlternatingTransitTime_JitterConverges() {
+    PacketStreamStats stats = new PacketStreamStats();
+
+    for (int sequence = 0; sequence < 1000; sequence++) {
+      stats.packetReceived(sequence, 0, sequence % 2 == 0 ? 1000 : 2000, 64);
+    }
+
+    assertEquals(1000, stats.getJitterNanos(), 1);
+  }
+
+  @Test
+  public void writeReport_ReadReport_SameStatistics() {
+    PacketStreamStats stats = new PacketStreamStats();
+    stats.packetReceived(0, 0, 100, 64);
+    stats.packetReceived(4, 0, 300, 64);
+    stats.packetReceived(2, 0, 200, 64);
+
+    ByteBuffer buffer = ByteBuffer.allocate(PacketStreamStats.REPORT_SIZE);
+    stats.writeReport(buffer);
+    buffer.flip();
+    PacketStreamStats readStats = PacketStreamStats.readReport(buffer);
+
+    assertEquals(stats.getReceived(), readStats.getReceived());
+    assertEquals(stats.getLost(), readStats.getLost());
+    assertEquals(stats.getOutOfOrder(), readStats.getOutOfOrder());
+    assertEquals(stats.getJitterNanos(), readStats.getJitterNanos());
+    assertEquals(stats.getBytes(), readStats.getBytes());
+  }
+
+  @Test
+  public void readReport_DataPacket_Null() {
+    ByteBuffer buffer = ByteBuffer.allocate(PacketStreamStats.REPORT_SIZE);
+    buffer.putLong(0, 12);
+
+    assertNull(PacketStreamStats.readReport(buffer));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class HexDumpBenchmark {
+
+  private static final int DATA_SIZE = 4 * 1024 * 1024;
+  private static final int LINE_WIDTH = 16;
+  private static final int ITERATIONS = 5;
+
+  private static long blackhole = 0;
+
+  public static void main(String[] args) {
+    byte[] data = new byte[DATA_SIZE];
+    new Random(42).nextBytes(data);
+
+    // the first runs only warm up the JIT
+    for (int i = 0; i < 2; i++) {
+      renderLegacy(data);
+      renderHexDump(data);
+    }
+
+    double legacyMbps = measure("String.format + replace", () -> renderLegacy(data));
+    double hexDumpMbps = measure("HexDump lookup tables  ", () -> renderHexDump(data));
+
+    System.out.println(String.format("Speedup: %.1fx (checksum %d)", hexDumpMbps / legacyMbps, blackhole));
+  }
+
+  private static double measure(String name, Runnable renderer) {
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      renderer.run();
+    }
+    long elapsedNanos = System.nanoTime() - start;
+
+    double mbps = (double) DATA_SIZE * ITERATIONS / (1024 * 1024) / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    System.out.println(String.format("%s: %8.1f MB/s", name, mbps));
+    return mbps;
+  }
+
+  // the PRETTY_HEX rendering before the lookup tables: one String.format for every 2 bytes
+  private static void renderLegacy(byte[] data) {
+    StringBuilder hexLine = new StringBuilder();
+
+    for (int start = 0; start < data.length; start += LINE_WIDTH) {
+      int value = 0;
+      int shift = 1;
+
+      for (int i = start; i < start + LINE_WIDTH; i++) {
+        if (shift == 1) {
+          value += data[i] << 8 & 0xFFFF;
+        } else {
+          value += data[i] & 0x00FF;
+        }
+
+        shift--;
+        if (shift < 0) {
+          hexLine.append(String.format("%04X", value)).append(' ');
+          shift = 1;
+          value = 0;
+        }
+      }
+
+      String line = new String(data, start, LINE_WIDTH, StringUtils.DEFAULT_ENCODING_NETWORK);
+      hexLine.append("\t").append(line.replace("\r", "\\r").replace("\n", "\\n"));
+      blackhole += hexLine.toString().length();
+      hexLine.setLength(0);
+    }
+  }
+
+  private static void renderHexDump(byte[] data) {
+    HexDump hexDump = new HexDump(LINE_WIDTH);
+
+    for (int start = 0; start < data.length; start += LINE_WIDTH) {
+      blackhole += hexDump.renderLineToString(start, data, start, LINE_WIDTH).length();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HexDumpTest {
+
+  @Test
+  public void renderLine_FullLine_OffsetHexAndCharacters() {
+    HexDump hexDump = new HexDump(8);
+    byte[] data = StringUtils.getBytesFromString("Hello!\r\n");
+
+    assertEquals("00000010  4865 6C6C 6F21 0D0A \tHello!\\r\\n", hexDump.renderLineToString(16, data, 0, data.length));
+  }
+
+  @Test
+  public void renderLine_OddLineWidthShortLine_CharactersAligned() {
+    HexDump hexDump = new HexDump(5);
+
+    assertEquals("00000000  4142 4344 45 \tABCDE", hexDump.renderLineToString(0, StringUtils.getBytesFromString("ABCDE"), 0, 5));
+    assertEquals("00000005  4142         \tAB", hexDump.renderLineToString(5, StringUtils.getBytesFromString("AB"), 0, 2));
+    assertEquals("00000007  41           \tA", hexDump.renderLineToString(7, StringUtils.getBytesFromString("A"), 0, 1));
+  }
+
+  @Test
+  public void renderLine_NotPrintableBytes_Dots() {
+    HexDump hexDump = new HexDump(4);
+    byte[] data = new byte[] {0x00, 0x07, (byte) 0x80, (byte) 0xE9};
+
+    assertEquals("00000000  0007 80E9 \t...\u00E9", hexDump.renderLineToString(0, data, 0, data.length));
+  }
+
+  @Test
+  public void renderLine_LongerThanLineWidth_Truncated() {
+    HexDump hexDump = new HexDump(2);
+
+    assertEquals("00000000  3031 \t01", hexDump.renderLineToString(0, StringUtils.getBytesFromString("0123"), 0, 4));
+  }
+
+  @Test
+  public void appendHex_Values_AtLeastFourDigits() {
+    StringBuilder hex = new StringBuilder();
+    HexDump.appendHex(hex, 0x0A);
+    hex.append(' ');
+    HexDump.appendHex(hex, 0xBEEF);
+    hex.append(' ');
+    HexDump.appendHex(hex, 0x12345);
+    hex.append(' ');
+    HexDump.appendHex(hex, -1);
+
+    assertEquals("000A BEEF 12345 FFFFFFFF", hex.toString());
+    assertEquals(String.format("%04X", 0x28000000), StringUtils.toHex(0x28000000));
+  }
+
+  @Test
+  public void toHexGroups_OddLength_PaddedWithZero() {
+    assertEquals("4142 4300", HexDump.toHexGroups(StringUtils.getBytesFromString("ABC"), ' '));
+    assertEquals("41424300", HexDump.toHexGroups(StringUtils.getBytesFromString("ABC"), (char) 0));
+    assertEquals("", HexDump.toHexGroups(new byte[0], ' '));
+  }
+}
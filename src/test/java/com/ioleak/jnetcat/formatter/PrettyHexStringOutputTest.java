@@ -25,13 +25,19 @@
  */
 package com.ioleak.jnetcat.formatter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.console.ConsoleOutput;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 
 // TODO
 public class PrettyHexStringOutputTest {
@@ -68,4 +74,29 @@ public class PrettyHexStringOutputTest {
   public void testGetEndOfStreamData() {
 
   }  
+
+  @Test
+  public void formatDataOutput_ChunksAcrossLines_LinesWithOffset() {
+    List<String> lines = new ArrayList<>();
+    PrettyHexStringOutput prettyHexStringOutput = new PrettyHexStringOutput(4);
+    prettyHexStringOutput.setConsoleOutput(new ConsoleOutput() {
+      @Override
+      public void writeLine(String line) {
+        lines.add(line);
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+
+    byte[] data = StringUtils.getBytesFromString("0123456789\n");
+    prettyHexStringOutput.formatDataOutput(data, 0, 3);
+    prettyHexStringOutput.formatDataOutput(data, 3, 8);
+    prettyHexStringOutput.getEndOfStreamData();
+
+    assertEquals(List.of("00000000  3031 3233 \t0123",
+                         "00000004  3435 3637 \t4567",
+                         "00000008  3839 0A   \t89\\n"), lines);
+  }
 }
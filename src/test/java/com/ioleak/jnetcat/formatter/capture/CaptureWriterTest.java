@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.CaptureFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaptureWriterTest {
+
+  @TempDir
+  Path captureDirectory;
+
+  @Test
+  public void write_ReadAll_SameRecords()
+          throws IOException {
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    captureWriter.write(1, CaptureDirection.RECEIVED, StringUtils.getBytesFromString("PING\n"), 0, 5);
+    captureWriter.write(1, CaptureDirection.SENT, ByteBuffer.wrap(StringUtils.getBytesFromString("PONG\n")));
+    captureWriter.close();
+
+    List<CaptureRecord> records = CaptureReader.fromPath(captureDirectory).readAll();
+
+    assertEquals(2, records.size());
+    assertEquals(CaptureDirection.RECEIVED, records.get(0).getDirection());
+    assertEquals(CaptureDirection.SENT, records.get(1).getDirection());
+    assertArrayEquals(StringUtils.getBytesFromString("PING\n"), records.get(0).getData());
+    assertArrayEquals(StringUtils.getBytesFromString("PONG\n"), records.get(1).getData());
+    assertTrue(records.get(0).getTimestampNanos() <= records.get(1).getTimestampNanos());
+  }
+
+  @Test
+  public void write_SegmentFull_NewSegmentCreated()
+          throws IOException {
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    byte[] data = new byte[1000];
+
+    for (int i = 0; i < 10; i++) {
+      data[0] = (byte) i;
+      captureWriter.write(1, CaptureDirection.RECEIVED, data, 0, data.length);
+    }
+    captureWriter.close();
+
+    List<Path> segmentFiles = captureWriter.getSegmentFiles();
+    assertTrue(segmentFiles.size() > 1);
+    for (Path segmentFile : segmentFiles.subList(0, segmentFiles.size() - 1)) {
+      assertEquals(CaptureWriter.MIN_SEGMENT_SIZE, Files.size(segmentFile));
+    }
+    assertTrue(Files.size(segmentFiles.get(segmentFiles.size() - 1)) < CaptureWriter.MIN_SEGMENT_SIZE);
+
+    int totalLength = 0;
+    for (CaptureRecord record : CaptureReader.fromPath(captureDirectory).readAll()) {
+      totalLength += record.getData().length;
+    }
+    assertEquals(10 * data.length, totalLength);
+  }
+
+  @Test
+  public void readRecord_PositionsOfSeveralSegments_SameRecords()
+          throws IOException {
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    byte[] data = new byte[1000];
+
+    for (int i = 0; i < 10; i++) {
+      data[0] = (byte) i;
+      captureWriter.write(i % 2 + 1, CaptureDirection.RECEIVED, data, 0, data.length);
+    }
+    captureWriter.close();
+
+    List<CaptureRecord> records = CaptureReader.fromPath(captureDirectory).readAll();
+    CaptureReader captureReader = CaptureReader.fromPath(captureDirectory);
+    List<Long> positions = new ArrayList<>();
+
+    long position;
+    while ((position = captureReader.nextPosition()) >= 0) {
+      positions.add(position);
+    }
+
+    assertEquals(records.size(), positions.size());
+    for (int i = positions.size() - 1; i >= 0; i--) {
+      CaptureRecord record = captureReader.readRecord(positions.get(i));
+
+      assertEquals(records.get(i).getConnectionId(), captureReader.getConnectionId(positions.get(i)));
+      assertEquals(records.get(i).getTimestampNanos(), captureReader.getTimestampNanos(positions.get(i)));
+      assertEquals(records.get(i).getDirection(), record.getDirection());
+      assertArrayEquals(records.get(i).getData(), record.getData());
+    }
+  }
+
+  @Test
+  public void formatDataSent_TwoConnections_TaggedRecords()
+          throws IOException {
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    StreamFormatOutput firstConnection = new CaptureFormatOutput(captureWriter).newInstance();
+    StreamFormatOutput secondConnection = firstConnection.newInstance();
+
+    firstConnection.startReading(StringUtils.getBytesFromString("A"), 0, 1);
+    secondConnection.formatDataSent(StringUtils.getBytesFromString("B"), 0, 1);
+    captureWriter.close();
+
+    List<CaptureRecord> records = CaptureReader.fromPath(captureDirectory).readAll();
+
+    assertEquals(2, records.size());
+    assertEquals(CaptureDirection.RECEIVED, records.get(0).getDirection());
+    assertEquals(CaptureDirection.SENT, records.get(1).getDirection());
+    assertNotEquals(records.get(0).getConnectionId(), records.get(1).getConnectionId());
+  }
+
+  @Test
+  public void close_LastOutputClosed_SegmentTrimmed()
+          throws IOException {
+    CaptureWriter captureWriter = new CaptureWriter(captureDirectory, CaptureWriter.MIN_SEGMENT_SIZE);
+    StreamFormatOutput processOutput = new CaptureFormatOutput(captureWriter);
+    StreamFormatOutput sessionOutput = processOutput.newInstance();
+
+    sessionOutput.startReading(StringUtils.getBytesFromString("PING\n"), 0, 5);
+    processOutput.close();
+    sessionOutput.formatDataSent(StringUtils.getBytesFromString("PONG\n"), 0, 5);
+    sessionOutput.close();
+    sessionOutput.formatDataSent(StringUtils.getBytesFromString("LOST\n"), 0, 5);
+
+    Path segmentFile = captureWriter.getSegmentFiles().get(0);
+    assertEquals(CaptureWriter.MAGIC.length + 2 * (CaptureWriter.RECORD_HEADER_SIZE + 5) + Integer.BYTES, Files.size(segmentFile));
+    assertEquals(2, CaptureReader.fromPath(captureDirectory).readAll().size());
+  }
+}
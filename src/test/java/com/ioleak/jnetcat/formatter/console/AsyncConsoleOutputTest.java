@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.console;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncConsoleOutputTest {
+
+  private static final int NB_LINES = 10000;
+
+  @Test
+  public void writeLine_BlockPolicy_AllLinesInOrder() {
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    AsyncConsoleOutput consoleOutput = new AsyncConsoleOutput(new PrintStream(data), 16, OverflowPolicy.BLOCK, 1);
+
+    for (int i = 0; i < NB_LINES; i++) {
+      consoleOutput.writeLine(String.format("line-%d", i));
+    }
+    consoleOutput.close();
+
+    String[] lines = data.toString().split(System.lineSeparator());
+    assertEquals(NB_LINES, lines.length);
+    for (int i = 0; i < NB_LINES; i++) {
+      assertEquals(String.format("line-%d", i), lines[i]);
+    }
+    assertEquals(0, consoleOutput.getDroppedLines());
+  }
+
+  @Test
+  public void writeLine_ReusedCharArray_LinesCopiedWhenWritten() {
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    AsyncConsoleOutput consoleOutput = new AsyncConsoleOutput(new PrintStream(data), 16, OverflowPolicy.BLOCK, 1);
+    char[] line = new char[32];
+
+    for (int i = 0; i < NB_LINES; i++) {
+      String text = String.format("[line-%d]", i);
+      text.getChars(0, text.length(), line, 0);
+      consoleOutput.writeLine(line, 1, text.length() - 2);
+    }
+    consoleOutput.writeLine("last");
+    consoleOutput.close();
+
+    String[] lines = data.toString().split(System.lineSeparator());
+    assertEquals(NB_LINES + 1, lines.length);
+    for (int i = 0; i < NB_LINES; i++) {
+      assertEquals(String.format("line-%d", i), lines[i]);
+    }
+    assertEquals("last", lines[NB_LINES]);
+  }
+
+  @Test
+  public void writeLine_DropPolicySlowConsole_LinesDroppedAndCounted() throws InterruptedException {
+    BlockedOutputStream blockedOutputStream = new BlockedOutputStream();
+    AsyncConsoleOutput consoleOutput = new AsyncConsoleOutput(new PrintStream(blockedOutputStream), 4, OverflowPolicy.DROP, 1);
+
+    consoleOutput.writeLine("first");
+    assertTrue(blockedOutputStream.writeStarted.await(5, TimeUnit.SECONDS));
+
+    for (int i = 0; i < 10; i++) {
+      consoleOutput.writeLine(String.format("line-%d", i));
+    }
+
+    assertEquals(6, consoleOutput.getDroppedLines());
+    blockedOutputStream.release.countDown();
+    consoleOutput.close();
+
+    String output = blockedOutputStream.data.toString();
+    assertTrue(output.contains("line-3"));
+    assertTrue(output.contains("[6 line(s) dropped]"), output);
+  }
+
+  @Test
+  public void writeLine_SamplePolicySlowConsole_OneLineOutOfRateKept() throws InterruptedException {
+    BlockedOutputStream blockedOutputStream = new BlockedOutputStream();
+    AsyncConsoleOutput consoleOutput = new AsyncConsoleOutput(new PrintStream(blockedOutputStream), 8, OverflowPolicy.SAMPLE, 2);
+
+    consoleOutput.writeLine("first");
+    assertTrue(blockedOutputStream.writeStarted.await(5, TimeUnit.SECONDS));
+
+    // 6 lines before the sampling threshold, then one line out of 2 until the buffer is full
+    for (int i = 0; i < 20; i++) {
+      consoleOutput.writeLine(String.format("line-%d", i));
+    }
+
+    assertEquals(12, consoleOutput.getDroppedLines());
+    blockedOutputStream.release.countDown();
+    consoleOutput.close();
+  }
+
+  private static class BlockedOutputStream
+          extends OutputStream {
+
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+    private final CountDownLatch writeStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void write(int b) throws IOException {
+      writeStarted.countDown();
+
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        throw new IOException(ex);
+      }
+      data.write(b);
+    }
+  }
+}
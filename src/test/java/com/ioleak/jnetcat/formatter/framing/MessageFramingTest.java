@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.framing;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import com.ioleak.jnetcat.common.ByteArrayBuffer;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.exception.StreamFramingException;
+import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
+import com.ioleak.jnetcat.options.FramingConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class MessageFramingTest {
+
+  @Test
+  public void readMessage_RawFraming_AllAvailableData() throws Exception {
+    MessageFraming messageFraming = getMessageFraming(FramingType.RAW, 0);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+    String data = StringUtils.generateRandomString(20000);
+
+    messageFraming.readMessage(getInputStream(data), message);
+    assertEquals(data, toString(message));
+  }
+
+  @Test
+  public void readMessage_NewlineFraming_OneMessagePerLine() throws Exception {
+    MessageFraming messageFraming = getMessageFraming(FramingType.NEWLINE, 0);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+    InputStream inputStream = getInputStream("first\nsecond\nlast");
+
+    messageFraming.readMessage(inputStream, message);
+    assertEquals("first\n", toString(message));
+    messageFraming.readMessage(inputStream, message);
+    assertEquals("second\n", toString(message));
+    messageFraming.readMessage(inputStream, message);
+    assertEquals("last", toString(message));
+    assertThrows(StreamNoDataException.class, () -> messageFraming.readMessage(inputStream, message));
+  }
+
+  @Test
+  public void readMessage_LengthPrefixedFraming_FrameKeptWhole() throws Exception {
+    MessageFraming messageFraming = getMessageFraming(FramingType.LENGTH_PREFIXED, 0);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+    byte[] frames = new byte[] {0, 0, 0, 2, 'o', 'k', 0, 0, 0, 1, '!'};
+
+    InputStream inputStream = new ByteArrayInputStream(frames);
+    messageFraming.readMessage(inputStream, message);
+    assertEquals(6, message.size());
+    assertEquals('k', message.get(5));
+
+    messageFraming.readMessage(inputStream, message);
+    assertEquals(5, message.size());
+    assertEquals('!', message.get(4));
+  }
+
+  @Test
+  public void readMessage_LengthPrefixedTooLong_ExceptionThrown() {
+    MessageFraming messageFraming = getMessageFraming(FramingType.LENGTH_PREFIXED, 0);
+    InputStream inputStream = new ByteArrayInputStream(new byte[] {0x7F, 0, 0, 0, 'x'});
+
+    assertThrows(StreamFramingException.class, () -> messageFraming.readMessage(inputStream, new ByteArrayBuffer()));
+  }
+
+  @Test
+  public void readMessage_FixedSizeFraming_SplitOnSize() throws Exception {
+    MessageFraming messageFraming = getMessageFraming(FramingType.FIXED_SIZE, 4);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+    InputStream inputStream = getInputStream("abcdefgh");
+
+    messageFraming.readMessage(inputStream, message);
+    assertEquals("abcd", toString(message));
+    messageFraming.readMessage(inputStream, message);
+    assertEquals("efgh", toString(message));
+  }
+
+  @Test
+  public void createMessageFraming_FixedSizeWithoutSize_ExceptionThrown() {
+    assertThrows(StreamFramingException.class, () -> getMessageFraming(FramingType.FIXED_SIZE, 0));
+  }
+
+  @Test
+  public void readMessage_IdleTimeoutFraming_MessageEndsWhenIdle() throws Exception {
+    MessageFraming messageFraming = getMessageFraming(FramingType.IDLE_TIMEOUT, 0);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+
+    messageFraming.readMessage(getInputStream("no delimiter"), message);
+    assertEquals("no delimiter", toString(message));
+  }
+
+  @Test
+  public void nextMessage_NewlineFramingChunks_MessagesReassembled() {
+    MessageFraming messageFraming = getMessageFraming(FramingType.NEWLINE, 0);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+
+    append(messageFraming, "hel");
+    assertFalse(messageFraming.nextMessage(message));
+
+    append(messageFraming, "lo\nwor");
+    assertTrue(messageFraming.nextMessage(message));
+    assertEquals("hello\n", toString(message));
+    assertFalse(messageFraming.nextMessage(message));
+
+    append(messageFraming, "ld\n");
+    assertTrue(messageFraming.nextMessage(message));
+    assertEquals("world\n", toString(message));
+  }
+
+  @Test
+  public void idleMessage_IdleTimeoutFramingChunks_OneMessageWhenIdle() {
+    MessageFraming messageFraming = getMessageFraming(FramingType.IDLE_TIMEOUT, 0);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+
+    append(messageFraming, "chu");
+    assertFalse(messageFraming.nextMessage(message));
+    append(messageFraming, "nk");
+    assertFalse(messageFraming.nextMessage(message));
+    assertTrue(messageFraming.hasPendingData());
+
+    assertTrue(messageFraming.idleMessage(message));
+    assertEquals("chunk", toString(message));
+    assertFalse(messageFraming.hasPendingData());
+    assertFalse(messageFraming.idleMessage(message));
+  }
+
+  @Test
+  public void idleMessage_NewlineFraming_PendingDataKept() {
+    MessageFraming messageFraming = getMessageFraming(FramingType.NEWLINE, 0);
+    ByteArrayBuffer message = new ByteArrayBuffer();
+
+    append(messageFraming, "no newline");
+    assertFalse(messageFraming.idleMessage(message));
+    assertTrue(messageFraming.hasPendingData());
+  }
+
+  private MessageFraming getMessageFraming(FramingType framingType, int messageSize) {
+    return framingType.getMessageFraming(new FramingConfig(framingType, messageSize, FramingConfig.DEFAULT_MAX_MESSAGE_SIZE, 5));
+  }
+
+  private InputStream getInputStream(String data) {
+    return new ByteArrayInputStream(StringUtils.getBytesFromString(data));
+  }
+
+  private void append(MessageFraming messageFraming, String data) {
+    byte[] bytes = StringUtils.getBytesFromString(data);
+    messageFraming.appendData(bytes, 0, bytes.length);
+  }
+
+  private String toString(ByteArrayBuffer message) {
+    return message.toString(StringUtils.DEFAULT_ENCODING_NETWORK);
+  }
+}
@@ -26,6 +26,7 @@
 package com.ioleak.jnetcat.formatter.helpers;
 
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 
 import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.formatter.exception.StreamNoDataException;
@@ -63,6 +64,29 @@ public class StreamRawReaderNoOutputTest {
     assertEquals(randomData, streamRawReaderNotOutput.getEndOfStreamData());
   }
   
+  @Test
+  public void startReading_ByteArrayChunk_VerifyEndOfStreamData() throws Exception {
+    byte[] data = StringUtils.getBytesFromString("--chunk of data--");
+    streamRawReaderNotOutput.startReading(data, 2, 13);
+    assertEquals("chunk of data", streamRawReaderNotOutput.getEndOfStreamData());
+  }
+
+  @Test
+  public void startReading_DirectByteBuffer_VerifyEndOfStreamData() throws Exception {
+    byte[] data = StringUtils.getBytesFromString("direct data");
+    ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+    buffer.put(data).flip();
+
+    streamRawReaderNotOutput.startReading(buffer);
+    assertEquals("direct data", streamRawReaderNotOutput.getEndOfStreamData());
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void startReading_EmptyChunk_ExceptionThrown() throws Exception {
+    assertThrows(StreamNoDataException.class, () -> streamRawReaderNotOutput.startReading(new byte[0], 0, 0));
+  }
+
   @Test
   public void testGetLineWidth() {
     assertEquals(-1, streamRawReaderNotOutput.getLineWidth());
@@ -71,5 +95,10 @@ public class StreamRawReaderNoOutputTest {
   public class StreamRawReaderNoOutputImpl
           extends StreamRawReaderNoOutput {
     // base class tests
+
+    @Override
+    public StreamFormatOutput newInstance() {
+      return new StreamRawReaderNoOutputImpl();
+    }
   }
 }
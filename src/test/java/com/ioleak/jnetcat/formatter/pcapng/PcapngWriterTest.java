@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.formatter.pcapng;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.PcapngFormatOutput;
+import com.ioleak.jnetcat.formatter.capture.CaptureDirection;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.formatter.helpers.TransportProtocol;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PcapngWriterTest {
+
+  private static final InetSocketAddress SERVER_ADDRESS = new InetSocketAddress("127.0.0.1", 7);
+  private static final InetSocketAddress CLIENT_ADDRESS = new InetSocketAddress("127.0.0.1", 40000);
+
+  @TempDir
+  Path captureDirectory;
+
+  @Test
+  public void write_TcpExchange_SequenceNumbersFollowPayload()
+          throws IOException {
+    Path file = captureDirectory.resolve("tcp.pcapng");
+    PcapngWriter pcapngWriter = new PcapngWriter(file, 16);
+    PcapngFlow flow = new PcapngFlow(TransportProtocol.TCP, SERVER_ADDRESS, CLIENT_ADDRESS, 1);
+
+    pcapngWriter.write(flow, CaptureDirection.RECEIVED, StringUtils.getBytesFromString("PING\n"), 0, 5);
+    pcapngWriter.write(flow, CaptureDirection.SENT, StringUtils.getBytesFromString("PONG\n"), 0, 5);
+    pcapngWriter.write(flow, CaptureDirection.RECEIVED, StringUtils.getBytesFromString("QUIT\n"), 0, 5);
+    pcapngWriter.close();
+
+    ByteBuffer content = readSection(file);
+    List<ByteBuffer> packets = readPackets(content);
+
+    assertEquals(3, packets.size());
+    assertEquals(40000, Short.toUnsignedInt(packets.get(0).getShort(20)));
+    assertEquals(7, Short.toUnsignedInt(packets.get(0).getShort(22)));
+    assertEquals(1, packets.get(0).getInt(24));
+    assertEquals(7, Short.toUnsignedInt(packets.get(1).getShort(20)));
+    assertEquals(1, packets.get(1).getInt(24));
+    assertEquals(6, packets.get(1).getInt(28));
+    assertEquals(6, packets.get(2).getInt(24));
+    assertEquals("PONG\n", new String(copyPayload(packets.get(1), 40), StringUtils.DEFAULT_ENCODING_NETWORK));
+
+    for (ByteBuffer packet : packets) {
+      assertEquals(0, checksum(packet, 0, 20));
+      assertEquals(0, transportChecksum(packet, 20, 12, 8));
+    }
+  }
+
+  @Test
+  public void formatDataOutput_UdpIpv6Endpoints_Ipv6Packets()
+          throws IOException {
+    Path file = captureDirectory.resolve("udp.pcapng");
+    PcapngWriter pcapngWriter = new PcapngWriter(file, 16);
+    StreamFormatOutput streamFormatOutput = new PcapngFormatOutput(pcapngWriter);
+
+    streamFormatOutput.setEndpoints(TransportProtocol.UDP, new InetSocketAddress("::1", 13), new InetSocketAddress("::1", 50000));
+    streamFormatOutput.startReading(StringUtils.getBytesFromString("1"), 0, 1);
+    streamFormatOutput.formatDataSent(StringUtils.getBytesFromString("DATE\r\n"), 0, 6);
+    pcapngWriter.close();
+
+    List<ByteBuffer> packets = readPackets(readSection(file));
+
+    assertEquals(2, packets.size());
+    assertEquals(6, packets.get(0).get(0) >>> 4);
+    assertEquals(17, packets.get(0).get(6));
+    assertEquals(9, Short.toUnsignedInt(packets.get(0).getShort(4)));
+    assertEquals(14, Short.toUnsignedInt(packets.get(1).getShort(4)));
+    assertEquals(13, Short.toUnsignedInt(packets.get(1).getShort(40)));
+    assertEquals(0, transportChecksum(packets.get(1), 40, 8, 32));
+  }
+
+  @Test
+  public void write_PayloadBiggerThanIpPacket_Split()
+          throws IOException {
+    Path file = captureDirectory.resolve("split.pcapng");
+    PcapngWriter pcapngWriter = new PcapngWriter(file, 16);
+    PcapngFlow flow = new PcapngFlow(TransportProtocol.TCP, SERVER_ADDRESS, CLIENT_ADDRESS, 1);
+
+    pcapngWriter.write(flow, CaptureDirection.RECEIVED, new byte[PcapngWriter.MAX_PAYLOAD_SIZE + 100], 0, PcapngWriter.MAX_PAYLOAD_SIZE + 100);
+    pcapngWriter.close();
+
+    List<ByteBuffer> packets = readPackets(readSection(file));
+
+    assertEquals(2, packets.size());
+    assertEquals(1 + PcapngWriter.MAX_PAYLOAD_SIZE, packets.get(1).getInt(24));
+    assertEquals(140, packets.get(1).remaining());
+  }
+
+  @Test
+  public void close_LastOutputClosed_QueuedPacketsWritten()
+          throws IOException {
+    Path file = captureDirectory.resolve("close.pcapng");
+    PcapngWriter pcapngWriter = new PcapngWriter(file, 16);
+    StreamFormatOutput processOutput = new PcapngFormatOutput(pcapngWriter);
+    StreamFormatOutput sessionOutput = processOutput.newInstance();
+
+    sessionOutput.setEndpoints(TransportProtocol.TCP, SERVER_ADDRESS, CLIENT_ADDRESS);
+    processOutput.close();
+    sessionOutput.startReading(StringUtils.getBytesFromString("PING\n"), 0, 5);
+    sessionOutput.formatDataSent(StringUtils.getBytesFromString("PONG\n"), 0, 5);
+    sessionOutput.close();
+    sessionOutput.formatDataSent(StringUtils.getBytesFromString("LOST\n"), 0, 5);
+
+    assertEquals(2, readPackets(readSection(file)).size());
+  }
+
+  private ByteBuffer readSection(Path file)
+          throws IOException {
+    ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+
+    assertEquals(PcapngWriter.SECTION_HEADER_BLOCK, content.getInt(0));
+    assertEquals(PcapngWriter.BYTE_ORDER_MAGIC, content.getInt(8));
+    content.position(content.getInt(4));
+
+    assertEquals(PcapngWriter.INTERFACE_DESCRIPTION_BLOCK, content.getInt(content.position()));
+    assertEquals(PcapngWriter.LINKTYPE_RAW, content.getShort(content.position() + 8));
+    content.position(content.position() + content.getInt(content.position() + 4));
+
+    return content;
+  }
+
+  private List<ByteBuffer> readPackets(ByteBuffer content) {
+    List<ByteBuffer> packets = new ArrayList<>();
+
+    while (content.hasRemaining()) {
+      int blockStart = content.position();
+      int blockLength = content.getInt(blockStart + 4);
+
+      assertEquals(PcapngWriter.ENHANCED_PACKET_BLOCK, content.getInt(blockStart));
+      assertEquals(blockLength, content.getInt(blockStart + blockLength - 4));
+
+      int packetLength = content.getInt(blockStart + 20);
+      packets.add(content.duplicate().position(blockStart + 28).limit(blockStart + 28 + packetLength).slice().order(ByteOrder.BIG_ENDIAN));
+      content.position(blockStart + blockLength);
+    }
+
+    return packets;
+  }
+
+  private byte[] copyPayload(ByteBuffer packet, int payloadStart) {
+    byte[] payload = new byte[packet.remaining() - payloadStart];
+    packet.duplicate().position(payloadStart).get(payload);
+    return payload;
+  }
+
+  private int transportChecksum(ByteBuffer packet, int transportStart, int addressesStart, int addressesLength) {
+    int transportLength = packet.remaining() - transportStart;
+    int protocol = transportStart == 20 ? packet.get(9) : packet.get(6);
+    long sum = sum(packet, addressesStart, addressesStart + addressesLength) + protocol + transportLength
+               + sum(packet, transportStart, packet.remaining());
+
+    return fold(sum);
+  }
+
+  private int checksum(ByteBuffer packet, int start, int end) {
+    return fold(sum(packet, start, end));
+  }
+
+  private long sum(ByteBuffer packet, int start, int end) {
+    long sum = 0;
+    for (int i = start; i < end; i += 2) {
+      sum += ((packet.get(i) & 0xff) << 8) | (i + 1 < end ? packet.get(i + 1) & 0xff : 0);
+    }
+    return sum;
+  }
+
+  private int fold(long sum) {
+    while ((sum >>> 16) != 0) {
+      sum = (sum & 0xffff) + (sum >>> 16);
+    }
+    return (int) (~sum & 0xffff);
+  }
+}
@@ -25,15 +25,23 @@
  */
 package com.ioleak.jnetcat.options;
 
+import java.util.List;
+
 import com.ioleak.jnetcat.common.utils.JsonUtils;
+import com.ioleak.jnetcat.formatter.framing.FramingType;
+import com.ioleak.jnetcat.formatter.helpers.FormatOutputType;
 import com.ioleak.jnetcat.options.exception.ClientIncompatibleArgumentException;
 import com.ioleak.jnetcat.options.exception.IPv4InvalidArgumentException;
 import com.ioleak.jnetcat.options.exception.PortInvalidArgumentException;
 import com.ioleak.jnetcat.options.exception.ServerIncompatibleArgumentException;
 import com.ioleak.jnetcat.options.startup.ClientParametersTCP;
 import com.ioleak.jnetcat.options.startup.ClientParametersUDP;
+import com.ioleak.jnetcat.server.tcp.upstream.LoadBalancing;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -48,6 +56,66 @@ public class JNetcatParametersTest {
 
     assertTrue(params.isStartAsServer());
     assertTrue(params.isUseProtocolTCP());
+    assertEquals(FramingType.NEWLINE, params.getFramingConfig().getFramingType());
+    assertEquals(4096, params.getFramingConfig().getMaxMessageSize());
+    assertEquals(LoadBalancing.CONSISTENT_HASH, params.getServerParametersTCP().getLoadBalancing());
+    assertEquals(2, params.getServerParametersTCP().getUpstreams().size());
+    assertEquals(9002, params.getServerParametersTCP().getUpstreams().get(1).getPort());
+  }
+
+  @Test
+  public void jsonToObject_ProcessList_EachProcessParsed() {
+    String json = "{ \"processes\": ["
+                  + "{ \"startAsServer\": true, \"useProtocolTCP\": true, \"serverParametersTCP\": { \"port\": 10080, \"serverType\": \"ECHO\" } },"
+                  + "{ \"startAsServer\": true, \"useProtocolTCP\": false, \"serverParametersUDP\": { \"port\": 10081, \"serverType\": \"QUOTE\" },"
+                  + "  \"outputFormatConfig\": { \"formatOutputType\": \"SIMPLE\" } } ] }";
+    JNetcatParameters params = JsonUtils.jsonToObject(json, JNetcatParameters.class);
+
+    assertTrue(params.isProcessGroup());
+    assertEquals(2, params.getProcesses().size());
+    assertEquals(10080, params.getProcesses().get(0).getServerParametersTCP().getPort());
+    assertEquals(FormatOutputType.NO_OUTPUT, params.getProcesses().get(0).getOutputFormatConfig().getFormatOutputType());
+    assertEquals(UDPServerType.QUOTE, params.getProcesses().get(1).getServerParametersUDP().getServerType());
+    assertEquals(FormatOutputType.SIMPLE, params.getProcesses().get(1).getOutputFormatConfig().getFormatOutputType());
+  }
+
+  @Test
+  public void hasSameFormatOutput_SameCaptureFile_WriterKept() {
+    OutputFormatConfig pcapng = JsonUtils.jsonToObject("{ \"formatOutputType\": \"PCAPNG\", \"pcapngFile\": \"a.pcapng\" }", OutputFormatConfig.class);
+    OutputFormatConfig pcapngOtherQueue = JsonUtils.jsonToObject("{ \"formatOutputType\": \"PCAPNG\", \"pcapngFile\": \"a.pcapng\","
+                                                                 + " \"pcapngQueueSize\": 16, \"asyncOutput\": false }", OutputFormatConfig.class);
+    OutputFormatConfig pcapngOtherFile = JsonUtils.jsonToObject("{ \"formatOutputType\": \"PCAPNG\", \"pcapngFile\": \"b.pcapng\" }", OutputFormatConfig.class);
+    OutputFormatConfig capture = JsonUtils.jsonToObject("{ \"formatOutputType\": \"CAPTURE\", \"pcapngFile\": \"a.pcapng\" }", OutputFormatConfig.class);
+
+    assertTrue(pcapng.hasSameFormatOutput(pcapngOtherQueue));
+    assertFalse(pcapng.hasSameFormatOutput(pcapngOtherFile));
+    assertFalse(pcapng.hasSameFormatOutput(capture));
+  }
+
+  @Test
+  public void withOutputPathSuffix_CaptureAndPcapng_SuffixedPaths() {
+    OutputFormatConfig pcapng = JsonUtils.jsonToObject("{ \"formatOutputType\": \"PCAPNG\", \"pcapngFile\": \"out/a.b.pcapng\","
+                                                       + " \"captureDirectory\": \"out/capture\", \"lineWidth\": 20 }", OutputFormatConfig.class);
+    OutputFormatConfig suffixed = pcapng.withOutputPathSuffix("-2");
+
+    assertEquals("out/a.b-2.pcapng", suffixed.getOutputPath());
+    assertEquals("out/capture-2", suffixed.getCaptureDirectory());
+    assertEquals(20, suffixed.getLineWidth());
+    assertEquals("noextension-2", JsonUtils.jsonToObject("{ \"pcapngFile\": \"noextension\" }", OutputFormatConfig.class)
+            .withOutputPathSuffix("-2").getPcapngFile());
+  }
+
+  @Test
+  public void ParametersBulder_NestedProcessList_ThrowsException() {
+    JNetcatParameters group = new JNetcatParameters.ParametersBuilder(false, true, new OutputFormatConfig())
+            .withProcesses(List.of(new JNetcatParameters.ParametersBuilder(false, true, new OutputFormatConfig())
+                    .withClientParametersTCP(new ClientParametersTCP.ParametersBuilder("127.0.0.1", 80).build())
+                    .build()))
+            .build();
+
+    assertThrows(ServerIncompatibleArgumentException.class, () -> new JNetcatParameters.ParametersBuilder(false, true, new OutputFormatConfig())
+            .withProcesses(List.of(group))
+            .build());
   }
 
   @Test
@@ -75,4 +143,16 @@ public class JNetcatParametersTest {
     assertThrows(PortInvalidArgumentException.class, () -> new ClientParametersUDP.ParametersBuilder("192.168.1.255", -100).build());
     assertThrows(PortInvalidArgumentException.class, () -> new ClientParametersUDP.ParametersBuilder("192.168.1.255", 655356).build());
   }
+
+  @Test
+  public void ParametersBulder_NbExecution_NotMixedWithNbClientMax() {
+    ClientParametersTCP params = new ClientParametersTCP.ParametersBuilder("127.0.0.1", 80)
+            .withNbClientMax(3)
+            .withNbExecution(7)
+            .build();
+
+    assertEquals(3, params.getNbClientMax());
+    assertEquals(7, params.getNbExecution());
+    assertEquals(7, new ClientParametersTCP.ParametersBuilder(params).build().getNbExecution());
+  }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.generic;
+
+import java.beans.PropertyChangeEvent;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionRegistryTest {
+
+  private static final InetSocketAddress REMOTE_ADDRESS = new InetSocketAddress("127.0.0.1", 40000);
+
+  private ConnectionRegistry<String> registry;
+
+  @BeforeEach
+  public void setUp() {
+    registry = new ConnectionRegistry<>();
+  }
+
+  @Test
+  public void register_NewConnection_InfoCreated() {
+    ConnectionInfo<String> connectionInfo = registry.register("A", REMOTE_ADDRESS);
+
+    assertEquals("A", connectionInfo.getConnection());
+    assertEquals(REMOTE_ADDRESS, connectionInfo.getRemoteAddress());
+    assertTrue(registry.contains("A"));
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void register_SameConnectionTwice_SameInfo() {
+    ConnectionInfo<String> connectionInfo = registry.register("A", REMOTE_ADDRESS);
+
+    assertSame(connectionInfo, registry.register("A", REMOTE_ADDRESS));
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void unregister_UnknownConnection_Null() {
+    registry.register("A", REMOTE_ADDRESS);
+
+    assertNull(registry.unregister("B"));
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void unregister_ExistingConnection_InfoRemoved() {
+    ConnectionInfo<String> connectionInfo = registry.register("A", REMOTE_ADDRESS);
+
+    assertSame(connectionInfo, registry.unregister("A"));
+    assertTrue(registry.isEmpty());
+  }
+
+  @Test
+  public void addBytes_ReceivedAndSent_CountersUpdated() {
+    ConnectionInfo<String> connectionInfo = registry.register("A", REMOTE_ADDRESS);
+    connectionInfo.addBytesReceived(10);
+    connectionInfo.addBytesReceived(5);
+    connectionInfo.addBytesSent(7);
+
+    assertEquals(15, registry.get("A").getBytesReceived());
+    assertEquals(7, registry.get("A").getBytesSent());
+  }
+
+  @Test
+  public void getConnections_ModifiedDuringIteration_NoException() {
+    for (int i = 0; i < 100; i++) {
+      registry.register("C" + i, REMOTE_ADDRESS);
+    }
+
+    int iterated = 0;
+    for (ConnectionInfo<String> connectionInfo : registry.getConnections()) {
+      registry.unregister(connectionInfo.getConnection());
+      registry.register("N" + iterated, REMOTE_ADDRESS);
+      iterated++;
+    }
+
+    assertTrue(iterated >= 100);
+    assertFalse(registry.contains("C0"));
+  }
+
+  @Test
+  public void registerUnregister_ConcurrentThreads_RegistryEmpty()
+          throws InterruptedException {
+    int nbThreads = 8;
+    int nbConnections = 5000;
+    CountDownLatch startLatch = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+
+    for (int i = 0; i < nbThreads; i++) {
+      String prefix = "T" + i + "-";
+      Thread thread = new Thread(() -> {
+        try {
+          startLatch.await();
+        } catch (InterruptedException ex) {
+          return;
+        }
+
+        for (int j = 0; j < nbConnections; j++) {
+          registry.register(prefix + j, REMOTE_ADDRESS);
+        }
+        for (int j = 0; j < nbConnections; j++) {
+          registry.unregister(prefix + j);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    startLatch.countDown();
+    for (Thread thread : threads) {
+      thread.join(10000);
+    }
+
+    assertTrue(registry.isEmpty());
+  }
+
+  @Test
+  public void addListener_SeveralChanges_OneBatchedEvent()
+          throws InterruptedException {
+    List<PropertyChangeEvent> events = new CopyOnWriteArrayList<>();
+    CountDownLatch eventLatch = new CountDownLatch(1);
+    registry.addListener(event -> {
+      events.add(event);
+      eventLatch.countDown();
+    });
+
+    registry.register("A", REMOTE_ADDRESS);
+    registry.register("B", REMOTE_ADDRESS);
+    registry.register("C", REMOTE_ADDRESS);
+    registry.unregister("B");
+
+    assertTrue(eventLatch.await(5, TimeUnit.SECONDS));
+    assertEquals(1, events.size());
+    assertEquals(ConnectionRegistry.PROPERTYNAME, events.get(0).getPropertyName());
+    assertEquals(3, ((List<?>) events.get(0).getNewValue()).size());
+    assertEquals(1, ((List<?>) events.get(0).getOldValue()).size());
+  }
+
+  @Test
+  public void flushNotifications_NoListener_NoPendingChanges() {
+    List<PropertyChangeEvent> events = new ArrayList<>();
+    registry.register("A", REMOTE_ADDRESS);
+    registry.addListener(events::add);
+
+    registry.flushNotifications();
+
+    assertTrue(events.isEmpty());
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.generic;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkerPoolTest {
+
+  private static final String THREAD_NAME_PREFIX = "TestWorker-";
+
+  @Test
+  public void newSessionExecutor_PlatformMode_NamedDaemonThreads() throws Exception {
+    ExecutorService executor = WorkerPool.newSessionExecutor(ExecutionMode.PLATFORM, THREAD_NAME_PREFIX, 2, 2, WorkerRejectionPolicy.CLOSE);
+
+    Future<Thread> worker = executor.submit(Thread::currentThread);
+    assertTrue(worker.get().getName().startsWith(THREAD_NAME_PREFIX));
+    assertTrue(worker.get().isDaemon());
+
+    WorkerPool.shutdown(executor);
+    assertTrue(executor.isTerminated());
+  }
+
+  @Test
+  public void newSessionExecutor_VirtualMode_RunsTaskOnAnyJdk() throws Exception {
+    ExecutorService executor = WorkerPool.newSessionExecutor(ExecutionMode.VIRTUAL, THREAD_NAME_PREFIX, 1, 1, WorkerRejectionPolicy.CLOSE);
+
+    Future<String> worker = executor.submit(() -> Thread.currentThread().getName());
+    assertTrue(worker.get().startsWith(THREAD_NAME_PREFIX));
+
+    WorkerPool.shutdown(executor);
+    assertTrue(executor.isTerminated());
+  }
+
+  @Test
+  public void newBoundedPool_PoolAndQueueFull_TaskRejected() throws Exception {
+    ExecutorService executor = WorkerPool.newBoundedPool(THREAD_NAME_PREFIX, 1, 1, WorkerRejectionPolicy.CLOSE);
+    CountDownLatch release = new CountDownLatch(1);
+
+    executor.execute(() -> awaitQuietly(release));
+    executor.execute(() -> awaitQuietly(release));
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> awaitQuietly(release)));
+
+    release.countDown();
+    WorkerPool.shutdown(executor);
+  }
+
+  @Test
+  public void newBoundedPool_CallerRunsPolicy_TaskRunInCaller() throws Exception {
+    ExecutorService executor = WorkerPool.newBoundedPool(THREAD_NAME_PREFIX, 1, 1, WorkerRejectionPolicy.CALLER_RUNS);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread[] runner = new Thread[1];
+
+    executor.execute(() -> awaitQuietly(release));
+    executor.execute(() -> awaitQuietly(release));
+    executor.execute(() -> runner[0] = Thread.currentThread());
+
+    assertEquals(Thread.currentThread(), runner[0]);
+
+    release.countDown();
+    WorkerPool.shutdown(executor);
+  }
+
+  private void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
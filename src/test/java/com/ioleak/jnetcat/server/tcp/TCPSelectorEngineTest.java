@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.formatter.framing.FramingType;
+import com.ioleak.jnetcat.formatter.helpers.StreamFormatOutput;
+import com.ioleak.jnetcat.options.FramingConfig;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TCPSelectorEngineTest {
+
+  private static final int LISTEN_PORT = 0;
+  private static final int NB_CLIENTS = 5;
+  private static final int IO_THREADS = 2;
+  private static final int IDLE_TIMEOUT_MS = 400;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+  private static final int NB_LINES_NEVER_READ = 1024 * 1024;
+
+  private Thread tcpServerThread;
+  private TCPServer tcpServer;
+
+  @BeforeEach
+  public void setUp() {
+    ServerParametersTCP serverParametersTCP = new ServerParametersTCP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(TCPServerType.ECHO)
+            .withServerEngine(TCPServerEngine.SELECTOR)
+            .withIoThreads(IO_THREADS)
+            .build();
+
+    tcpServer = new TCPServer(serverParametersTCP);
+    tcpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    tcpServerThread = new Thread(tcpServer::start);
+    tcpServerThread.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    tcpServerThread.interrupt();
+    tcpServer.stopExecutions();
+
+    try {
+      tcpServerThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void start_ConcurrentClients_AllEchoed() throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    assertEquals(ServerState.WAITING_FOR_CONNECTION, tcpServer.getServerState());
+
+    List<Socket> clients = new ArrayList<>();
+    for (int i = 0; i < NB_CLIENTS; i++) {
+      Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort());
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      clients.add(client);
+    }
+
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != NB_CLIENTS);
+    assertEquals(NB_CLIENTS, tcpServer.getConnectedClientsNumber());
+    assertEquals(ServerState.CLIENT_CONNECTED, tcpServer.getServerState());
+
+    for (int i = 0; i < NB_CLIENTS; i++) {
+      clients.get(i).getOutputStream().write(StringUtils.getBytesFromString(String.format("client-%d\n", i)));
+    }
+
+    for (int i = 0; i < NB_CLIENTS; i++) {
+      assertTrue(readUntil(clients.get(i).getInputStream(), String.format("client-%d", i)));
+    }
+
+    for (Socket client : clients) {
+      client.close();
+    }
+
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    assertEquals(0, tcpServer.getConnectedClientsNumber());
+    assertEquals(ServerState.WAITING_FOR_CONNECTION, tcpServer.getServerState());
+  }
+
+  @Test
+  public void stopExecutions_ConnectedClients_ClosedNoConnectionLeft() throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+
+    Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort());
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != 1);
+    assertEquals(1, tcpServer.getConnectedClientsNumber());
+
+    tcpServer.stopExecutions();
+    waitFor(() -> tcpServer.getServerState() != ServerState.CLOSED);
+
+    assertEquals(0, tcpServer.getConnectedClientsNumber());
+    assertEquals(ServerState.CLOSED, tcpServer.getServerState());
+    client.close();
+  }
+
+  @Test
+  public void start_IdleTimeoutFraming_MessageEndsWhenIdle() throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    StreamFormatOutput streamFormatOutput = new SilentModeFormatOutput();
+    streamFormatOutput.setFramingConfig(new FramingConfig(FramingType.IDLE_TIMEOUT, 0, FramingConfig.DEFAULT_MAX_MESSAGE_SIZE, IDLE_TIMEOUT_MS));
+    tcpServer.setFormatOutput(streamFormatOutput);
+
+    try (Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort())) {
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      assertTrue(readUntil(client.getInputStream(), "quit\n\n"));
+
+      client.getOutputStream().write(StringUtils.getBytesFromString("first-"));
+      client.setSoTimeout(IDLE_TIMEOUT_MS / 4);
+      assertThrows(SocketTimeoutException.class, () -> client.getInputStream().read());
+
+      client.getOutputStream().write(StringUtils.getBytesFromString("second"));
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      assertTrue(readUntil(client.getInputStream(), "first-second"));
+    }
+  }
+
+  @Test
+  public void start_ClientNeverReading_ReadSuspended() throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+
+    Socket client = new Socket();
+    client.setReceiveBufferSize(TCPSelectorConnection.READ_BUFFER_SIZE);
+    client.connect(new InetSocketAddress("127.0.0.1", tcpServer.getLocalPort()));
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != 1);
+    ConnectionInfo<Socket> connectionInfo = tcpServer.getConnectionClients().getConnections().iterator().next();
+
+    // the writes block once the server stops reading: they end with the connection
+    Thread writerThread = new Thread(() -> {
+      byte[] line = StringUtils.getBytesFromString("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcde\n");
+      try {
+        OutputStream outputStream = client.getOutputStream();
+        for (int i = 0; i < NB_LINES_NEVER_READ; i++) {
+          outputStream.write(line);
+        }
+      } catch (IOException ex) {
+        Logging.getLogger().info("Client writes stopped: {}", ex.getMessage());
+      }
+    });
+    writerThread.start();
+
+    waitFor(() -> connectionInfo.getBytesReceived() - connectionInfo.getBytesSent() <= TCPSelectorConnection.WRITE_HIGH_WATER_MARK);
+    long bytesReceived = connectionInfo.getBytesReceived();
+    Thread.sleep(500);
+
+    assertEquals(bytesReceived, connectionInfo.getBytesReceived());
+    assertTrue(connectionInfo.getBytesReceived() - connectionInfo.getBytesSent()
+               <= TCPSelectorConnection.WRITE_HIGH_WATER_MARK + TCPSelectorConnection.READ_BUFFER_SIZE);
+
+    client.close();
+    writerThread.join(WAIT_TIMEOUT_MS);
+  }
+
+  @Test
+  public void start_ConnectionSetupFailure_OtherConnectionsServed() throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    tcpServer.setFormatOutput(new FailingOnceFormatOutput());
+
+    Socket failedClient = new Socket("127.0.0.1", tcpServer.getLocalPort());
+    failedClient.setSoTimeout(WAIT_TIMEOUT_MS);
+    assertEquals(-1, failedClient.getInputStream().read());
+    failedClient.close();
+
+    // one client per I/O thread: the thread of the failed connection is still running
+    for (int i = 0; i < IO_THREADS; i++) {
+      Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort());
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      client.getOutputStream().write(StringUtils.getBytesFromString("still-served\n"));
+
+      assertTrue(readUntil(client.getInputStream(), "still-served"));
+      client.close();
+    }
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private boolean readUntil(InputStream inputStream, String expected)
+          throws IOException {
+    StringBuilder received = new StringBuilder();
+    int oneByte;
+
+    while (received.indexOf(expected) < 0 && (oneByte = inputStream.read()) != -1) {
+      received.append((char) oneByte);
+    }
+
+    return received.indexOf(expected) >= 0;
+  }
+
+  private static class FailingOnceFormatOutput
+          extends SilentModeFormatOutput {
+
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    @Override
+    public StreamFormatOutput newInstance() {
+      if (failed.compareAndSet(false, true)) {
+        throw new IllegalStateException("Output unavailable");
+      }
+
+      return super.newInstance();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.JNetcatParameters;
+import com.ioleak.jnetcat.options.OutputFormatConfig;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TCPServerReconfigureTest {
+
+  private static final int LISTEN_PORT = 0;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private Thread tcpServerThread;
+  private TCPServer tcpServer;
+
+  @BeforeEach
+  public void setUp() {
+    tcpServer = new TCPServer(getServerParameters(LISTEN_PORT, TCPServerType.ECHO));
+    tcpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    tcpServerThread = new Thread(tcpServer::start);
+    tcpServerThread.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    tcpServerThread.interrupt();
+    tcpServer.stopExecutions();
+
+    try {
+      tcpServerThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void reconfigure_ServerTypeChanged_ConnectedClientKept()
+          throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    int localPort = tcpServer.getLocalPort();
+
+    try (Socket echoClient = new Socket("127.0.0.1", localPort)) {
+      echoClient.setSoTimeout(WAIT_TIMEOUT_MS);
+      assertTrue(readUntil(echoClient.getInputStream(), "Type 'exit' to quit"));
+
+      assertTrue(tcpServer.reconfigure(getParameters(LISTEN_PORT, TCPServerType.DAYTIME), new SilentModeFormatOutput()));
+      assertEquals(TCPServerType.DAYTIME, tcpServer.getServerType());
+      assertEquals(localPort, tcpServer.getLocalPort());
+
+      echoClient.getOutputStream().write(StringUtils.getBytesFromString("still echoed\n"));
+      assertTrue(readUntil(echoClient.getInputStream(), "still echoed"));
+
+      try (Socket daytimeClient = new Socket("127.0.0.1", localPort)) {
+        daytimeClient.setSoTimeout(WAIT_TIMEOUT_MS);
+        assertTrue(readUntil(daytimeClient.getInputStream(), "\r\n"));
+        assertEquals(-1, daytimeClient.getInputStream().read());
+      }
+
+      waitFor(() -> tcpServer.getConnectedClientsNumber() != 1);
+      assertEquals(1, tcpServer.getConnectedClientsNumber());
+    }
+  }
+
+  @Test
+  public void reconfigure_PortChanged_RestartRequired()
+          throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+
+    assertFalse(tcpServer.reconfigure(getParameters(LISTEN_PORT + 1, TCPServerType.DAYTIME), new SilentModeFormatOutput()));
+    assertEquals(TCPServerType.ECHO, tcpServer.getServerType());
+  }
+
+  @Test
+  public void reconfigure_ProtocolChanged_RestartRequired()
+          throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+
+    JNetcatParameters params = new JNetcatParameters.ParametersBuilder(true, false, new OutputFormatConfig())
+            .withServerParametersTCP(getServerParameters(LISTEN_PORT, TCPServerType.DAYTIME))
+            .withServerParametersUDP(new ServerParametersUDP.ParametersBuilder(LISTEN_PORT).withServerType(UDPServerType.ECHO).build())
+            .build();
+
+    assertFalse(tcpServer.reconfigure(params, new SilentModeFormatOutput()));
+    assertEquals(TCPServerType.ECHO, tcpServer.getServerType());
+  }
+
+  private JNetcatParameters getParameters(int port, TCPServerType serverType) {
+    return new JNetcatParameters.ParametersBuilder(true, true, new OutputFormatConfig())
+            .withServerParametersTCP(getServerParameters(port, serverType))
+            .build();
+  }
+
+  private ServerParametersTCP getServerParameters(int port, TCPServerType serverType) {
+    return new ServerParametersTCP.ParametersBuilder(port)
+            .withServerType(serverType)
+            .withServerEngine(TCPServerEngine.SELECTOR)
+            .withIoThreads(2)
+            .build();
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private boolean readUntil(InputStream inputStream, String expected)
+          throws IOException {
+    StringBuilder received = new StringBuilder();
+    int oneByte;
+
+    while (received.indexOf(expected) < 0 && (oneByte = inputStream.read()) != -1) {
+      received.append((char) oneByte);
+    }
+
+    return received.indexOf(expected) >= 0;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.generic.WorkerRejectionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TCPServerWorkerPoolTest {
+
+  private static final int LISTEN_PORT = 0;
+  private static final int MAX_THREADS = 2;
+  private static final int MAX_QUEUE_SIZE = 1;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private Thread tcpServerThread;
+  private TCPServer tcpServer;
+
+  @BeforeEach
+  public void setUp() {
+    ServerParametersTCP serverParametersTCP = new ServerParametersTCP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(TCPServerType.ECHO)
+            .withMultiThread(true)
+            .withMaxThreads(MAX_THREADS)
+            .withMaxQueueSize(MAX_QUEUE_SIZE)
+            .withRejectionPolicy(WorkerRejectionPolicy.CLOSE)
+            .build();
+
+    tcpServer = new TCPServer(serverParametersTCP);
+    tcpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    tcpServerThread = new Thread(tcpServer::start);
+    tcpServerThread.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    tcpServerThread.interrupt();
+    tcpServer.stopExecutions();
+
+    try {
+      tcpServerThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void start_ConcurrentClients_AllEchoed() throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    assertEquals(ServerState.WAITING_FOR_CONNECTION, tcpServer.getServerState());
+
+    List<Socket> clients = openClients(MAX_THREADS);
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != MAX_THREADS);
+    assertEquals(MAX_THREADS, tcpServer.getConnectedClientsNumber());
+    assertEquals(ServerState.CLIENT_CONNECTED, tcpServer.getServerState());
+
+    for (int i = MAX_THREADS - 1; i >= 0; i--) {
+      clients.get(i).getOutputStream().write(StringUtils.getBytesFromString(String.format("client-%d\n", i)));
+      assertTrue(readUntil(clients.get(i).getInputStream(), String.format("client-%d", i)));
+    }
+
+    for (Socket client : clients) {
+      client.close();
+    }
+
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    assertEquals(0, tcpServer.getConnectedClientsNumber());
+    assertEquals(ServerState.WAITING_FOR_CONNECTION, tcpServer.getServerState());
+  }
+
+  @Test
+  public void start_PoolAndQueueFull_ConnectionClosed() throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+
+    int nbAccepted = MAX_THREADS + MAX_QUEUE_SIZE;
+    List<Socket> clients = openClients(nbAccepted);
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != nbAccepted);
+
+    Socket rejectedClient = new Socket("127.0.0.1", tcpServer.getLocalPort());
+    rejectedClient.setSoTimeout(WAIT_TIMEOUT_MS);
+    assertEquals(-1, rejectedClient.getInputStream().read());
+    rejectedClient.close();
+
+    assertEquals(nbAccepted, tcpServer.getConnectedClientsNumber());
+
+    tcpServer.stopExecutions();
+    waitFor(() -> tcpServer.getServerState() != ServerState.CLOSED);
+
+    assertEquals(0, tcpServer.getConnectedClientsNumber());
+    assertEquals(ServerState.CLOSED, tcpServer.getServerState());
+
+    for (Socket client : clients) {
+      client.close();
+    }
+  }
+
+  private List<Socket> openClients(int nbClients)
+          throws IOException {
+    List<Socket> clients = new ArrayList<>();
+
+    for (int i = 0; i < nbClients; i++) {
+      Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort());
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      clients.add(client);
+    }
+
+    return clients;
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private boolean readUntil(InputStream inputStream, String expected)
+          throws IOException {
+    StringBuilder received = new StringBuilder();
+    int oneByte;
+
+    while (received.indexOf(expected) < 0 && (oneByte = inputStream.read()) != -1) {
+      received.append((char) oneByte);
+    }
+
+    return received.indexOf(expected) >= 0;
+  }
+}
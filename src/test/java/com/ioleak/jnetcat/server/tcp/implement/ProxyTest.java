@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.implement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.UpstreamConfig;
+import com.ioleak.jnetcat.options.exception.ServerIncompatibleArgumentException;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.server.generic.ConnectionInfo;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.tcp.TCPServer;
+import com.ioleak.jnetcat.server.tcp.TCPServerEngine;
+import com.ioleak.jnetcat.server.tcp.TCPServerType;
+import com.ioleak.jnetcat.server.tcp.upstream.LoadBalancing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProxyTest {
+
+  private static final int LISTEN_PORT = 0;
+  private static final int NB_CLIENTS = 5;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private ServerSocket upstreamSocket;
+  private Thread upstreamThread;
+  private Thread tcpServerThread;
+  private TCPServer tcpServer;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    upstreamSocket = new ServerSocket(LISTEN_PORT);
+    upstreamThread = new Thread(this::acceptUpstreamClients);
+    upstreamThread.setDaemon(true);
+    upstreamThread.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    if (tcpServer != null) {
+      tcpServerThread.interrupt();
+      tcpServer.stopExecutions();
+
+      try {
+        tcpServerThread.join();
+      } catch (InterruptedException ex) {
+        Logging.getLogger().error("InterruptedException", ex);
+      }
+    }
+
+    upstreamSocket.close();
+  }
+
+  @Test
+  public void build_ProxyWithoutUpstream_ThrowsException() {
+    ServerParametersTCP.ParametersBuilder builder = new ServerParametersTCP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(TCPServerType.PROXY);
+
+    assertThrows(ServerIncompatibleArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void start_BlockingEngine_DataForwardedBothWays() throws Exception {
+    startProxy(TCPServerEngine.BLOCKING, false);
+    verifyRoundTrip(1);
+  }
+
+  @Test
+  public void start_SelectorEngine_DataForwardedBothWays() throws Exception {
+    startProxy(TCPServerEngine.SELECTOR, false);
+    verifyRoundTrip(NB_CLIENTS);
+  }
+
+  @Test
+  public void start_CaptureEnabled_DataForwardedBothWays() throws Exception {
+    startProxy(TCPServerEngine.SELECTOR, true);
+    verifyRoundTrip(1);
+  }
+
+  @Test
+  public void start_UpstreamListWithWarmConnections_DataForwardedBothWays() throws Exception {
+    List<UpstreamConfig> upstreams = List.of(new UpstreamConfig("127.0.0.1", upstreamSocket.getLocalPort()),
+                                             new UpstreamConfig("127.0.0.1", upstreamSocket.getLocalPort()));
+
+    startProxy(new ServerParametersTCP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(TCPServerType.PROXY)
+            .withServerEngine(TCPServerEngine.SELECTOR)
+            .withUpstreams(upstreams)
+            .withLoadBalancing(LoadBalancing.LEAST_CONNECTIONS)
+            .withWarmConnections(2)
+            .build());
+    verifyRoundTrip(NB_CLIENTS);
+  }
+
+  @Test
+  public void start_ClientHalfClose_ResponseReceivedUntilEnd() throws Exception {
+    startProxy(TCPServerEngine.SELECTOR, false);
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+
+    byte[] data = new byte[256 * 1024];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+
+    try (Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort())) {
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+
+      Thread writer = new Thread(() -> {
+        try {
+          client.getOutputStream().write(data);
+          client.shutdownOutput();
+        } catch (IOException ex) {
+          Logging.getLogger().error("Unable to send data", ex);
+        }
+      });
+      writer.start();
+
+      assertArrayEquals(data, client.getInputStream().readAllBytes());
+      writer.join();
+    }
+
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != 0);
+    assertEquals(0, tcpServer.getConnectedClientsNumber());
+  }
+
+  private void startProxy(TCPServerEngine serverEngine, boolean capture) {
+    startProxy(new ServerParametersTCP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(TCPServerType.PROXY)
+            .withServerEngine(serverEngine)
+            .withIoThreads(2)
+            .withUpstreamHost("127.0.0.1")
+            .withUpstreamPort(upstreamSocket.getLocalPort())
+            .withCapture(capture)
+            .build());
+  }
+
+  private void startProxy(ServerParametersTCP serverParametersTCP) {
+    tcpServer = new TCPServer(serverParametersTCP);
+    tcpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    tcpServerThread = new Thread(tcpServer::start);
+    tcpServerThread.start();
+  }
+
+  private void verifyRoundTrip(int nbClients) throws Exception {
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    assertEquals(ServerState.WAITING_FOR_CONNECTION, tcpServer.getServerState());
+
+    List<Socket> clients = new ArrayList<>();
+    for (int i = 0; i < nbClients; i++) {
+      Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort());
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      clients.add(client);
+    }
+
+    for (int i = 0; i < nbClients; i++) {
+      clients.get(i).getOutputStream().write(StringUtils.getBytesFromString(String.format("client-%d\n", i)));
+    }
+
+    for (int i = 0; i < nbClients; i++) {
+      assertEquals(String.format("client-%d\n", i), readLine(clients.get(i).getInputStream()));
+    }
+
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != nbClients);
+    assertEquals(nbClients, tcpServer.getConnectedClientsNumber());
+
+    // each message is forwarded once to the upstream and once back to its client
+    int messageSize = String.format("client-%d\n", 0).length();
+    waitFor(() -> !tcpServer.getConnectionClients().getConnections().stream()
+            .allMatch(connection -> connection.getBytesReceived() == messageSize && connection.getBytesSent() == messageSize));
+    for (ConnectionInfo<Socket> connection : tcpServer.getConnectionClients().getConnections()) {
+      assertEquals(messageSize, connection.getBytesReceived());
+      assertEquals(messageSize, connection.getBytesSent());
+    }
+
+    for (Socket client : clients) {
+      client.close();
+    }
+
+    waitFor(() -> tcpServer.getConnectedClientsNumber() != 0);
+    assertEquals(0, tcpServer.getConnectedClientsNumber());
+  }
+
+  private void acceptUpstreamClients() {
+    while (!upstreamSocket.isClosed()) {
+      try {
+        Socket socket = upstreamSocket.accept();
+        Thread echoThread = new Thread(() -> echo(socket));
+        echoThread.setDaemon(true);
+        echoThread.start();
+      } catch (IOException ex) {
+        // upstream closed at the end of the test
+      }
+    }
+  }
+
+  private void echo(Socket socket) {
+    try (socket) {
+      InputStream in = socket.getInputStream();
+      OutputStream out = socket.getOutputStream();
+      byte[] buffer = new byte[8192];
+      int length;
+
+      while ((length = in.read(buffer)) != -1) {
+        out.write(buffer, 0, length);
+      }
+
+      socket.shutdownOutput();
+    } catch (IOException ex) {
+      Logging.getLogger().info(String.format("Upstream connection closed: %s", ex.getMessage()));
+    }
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private String readLine(InputStream inputStream)
+          throws IOException {
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    int oneByte;
+
+    while ((oneByte = inputStream.read()) != -1) {
+      received.write(oneByte);
+      if (oneByte == '\n') {
+        break;
+      }
+    }
+
+    return received.toString(StringUtils.DEFAULT_ENCODING_NETWORK);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.implement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.tcp.TCPServer;
+import com.ioleak.jnetcat.server.tcp.TCPServerEngine;
+import com.ioleak.jnetcat.server.tcp.TCPServerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StandardServicesTest {
+
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private TCPServer tcpServer;
+  private Thread tcpServerThread;
+
+  @AfterEach
+  public void tearDown() {
+    tcpServerThread.interrupt();
+    tcpServer.stopExecutions();
+
+    try {
+      tcpServerThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void start_Discard_ConnectionClosedAfterClientEnd() throws Exception {
+    startServer(TCPServerType.DISCARD, TCPServerEngine.SELECTOR);
+
+    try (Socket client = connect()) {
+      client.getOutputStream().write(new byte[1024 * 1024]);
+      client.shutdownOutput();
+
+      assertEquals(-1, client.getInputStream().read());
+    }
+  }
+
+  @Test
+  public void start_Chargen_RotatingPatternSent() throws Exception {
+    startServer(TCPServerType.CHARGEN, TCPServerEngine.SELECTOR);
+
+    try (Socket client = connect()) {
+      byte[] lines = client.getInputStream().readNBytes(96 * 74);
+
+      for (int line = 0; line < 96; line++) {
+        byte[] expected = new byte[74];
+        for (int i = 0; i < 72; i++) {
+          expected[i] = (byte) (' ' + (line + i) % 95);
+        }
+        expected[72] = '\r';
+        expected[73] = '\n';
+
+        byte[] actual = new byte[74];
+        System.arraycopy(lines, line * 74, actual, 0, 74);
+        assertArrayEquals(expected, actual, String.format("Line %d", line));
+      }
+    }
+  }
+
+  @Test
+  public void start_Daytime_DateSentThenClosed() throws Exception {
+    startServer(TCPServerType.DAYTIME, TCPServerEngine.BLOCKING);
+
+    try (Socket client = connect()) {
+      String daytime = readAll(client.getInputStream());
+
+      assertTrue(daytime.endsWith("\r\n"));
+      ZonedDateTime date = ZonedDateTime.parse(daytime.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      assertTrue(Math.abs(date.toEpochSecond() - ZonedDateTime.now().toEpochSecond()) < 60);
+    }
+  }
+
+  private void startServer(TCPServerType serverType, TCPServerEngine serverEngine) throws InterruptedException {
+    tcpServer = new TCPServer(new ServerParametersTCP.ParametersBuilder(0)
+            .withServerType(serverType)
+            .withServerEngine(serverEngine)
+            .build());
+    tcpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    tcpServerThread = new Thread(tcpServer::start);
+    tcpServerThread.start();
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+  }
+
+  private Socket connect() throws IOException {
+    Socket client = new Socket("127.0.0.1", tcpServer.getLocalPort());
+    client.setSoTimeout(WAIT_TIMEOUT_MS);
+    return client;
+  }
+
+  private String readAll(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    inputStream.transferTo(data);
+    return data.toString(StringUtils.DEFAULT_ENCODING_NETWORK);
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
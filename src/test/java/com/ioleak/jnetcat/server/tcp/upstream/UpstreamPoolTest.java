@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.tcp.upstream;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.ioleak.jnetcat.options.UpstreamConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UpstreamPoolTest {
+
+  private static final int NB_UPSTREAMS = 3;
+
+  private final List<ServerSocket> upstreamSockets = new ArrayList<>();
+  private final List<UpstreamConfig> upstreamConfigs = new ArrayList<>();
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    for (int i = 0; i < NB_UPSTREAMS; i++) {
+      ServerSocket upstreamSocket = new ServerSocket(0);
+      upstreamSockets.add(upstreamSocket);
+      upstreamConfigs.add(new UpstreamConfig("127.0.0.1", upstreamSocket.getLocalPort()));
+    }
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    for (ServerSocket upstreamSocket : upstreamSockets) {
+      upstreamSocket.close();
+    }
+  }
+
+  @Test
+  public void select_RoundRobin_EachUpstreamInTurn() {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs, LoadBalancing.ROUND_ROBIN, 0, 0);
+    List<Upstream> upstreams = upstreamPool.getUpstreams();
+
+    for (int i = 0; i < NB_UPSTREAMS * 2; i++) {
+      assertSame(upstreams.get(i % NB_UPSTREAMS), upstreamPool.select(clientAddress(1)));
+    }
+  }
+
+  @Test
+  public void select_LeastConnections_UpstreamWithFewestConnections() {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs, LoadBalancing.LEAST_CONNECTIONS, 0, 0);
+    List<Upstream> upstreams = upstreamPool.getUpstreams();
+
+    upstreams.get(0).connectionOpened();
+    upstreams.get(2).connectionOpened();
+    upstreams.get(2).connectionOpened();
+
+    for (int i = 0; i < NB_UPSTREAMS; i++) {
+      assertSame(upstreams.get(1), upstreamPool.select(clientAddress(1)));
+    }
+  }
+
+  @Test
+  public void select_ConsistentHash_SameClientSameUpstream() {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs, LoadBalancing.CONSISTENT_HASH, 0, 0);
+    Set<Upstream> usedUpstreams = new HashSet<>();
+
+    for (int client = 1; client < 100; client++) {
+      Upstream upstream = upstreamPool.select(clientAddress(client));
+      assertSame(upstream, upstreamPool.select(clientAddress(client)));
+      usedUpstreams.add(upstream);
+    }
+
+    assertEquals(NB_UPSTREAMS, usedUpstreams.size());
+  }
+
+  @Test
+  public void select_ConsistentHash_OnlyClientsOfDeadUpstreamMoved() throws IOException {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs, LoadBalancing.CONSISTENT_HASH, 0, 1000);
+    List<Upstream> before = new ArrayList<>();
+    for (int client = 1; client < 100; client++) {
+      before.add(upstreamPool.select(clientAddress(client)));
+    }
+
+    Upstream deadUpstream = upstreamPool.getUpstreams().get(0);
+    upstreamSockets.get(0).close();
+    upstreamPool.checkUpstreams();
+    upstreamPool.start();
+
+    for (int client = 1; client < 100; client++) {
+      Upstream upstream = upstreamPool.select(clientAddress(client));
+
+      if (before.get(client - 1) == deadUpstream) {
+        assertNotEquals(deadUpstream, upstream);
+      } else {
+        assertSame(before.get(client - 1), upstream);
+      }
+    }
+
+    upstreamPool.close();
+  }
+
+  @Test
+  public void checkUpstreams_DeadUpstream_RemovedFromRotation() throws IOException {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs, LoadBalancing.ROUND_ROBIN, 0, 1000);
+    Upstream deadUpstream = upstreamPool.getUpstreams().get(1);
+    upstreamSockets.get(1).close();
+
+    upstreamPool.checkUpstreams();
+    upstreamPool.start();
+
+    assertFalse(deadUpstream.isHealthy());
+    for (int i = 0; i < NB_UPSTREAMS * 2; i++) {
+      assertNotEquals(deadUpstream, upstreamPool.select(clientAddress(1)));
+    }
+
+    upstreamPool.close();
+  }
+
+  @Test
+  public void checkUpstreams_AllUpstreamsDead_NoneSelected() throws IOException {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs, LoadBalancing.LEAST_CONNECTIONS, 0, 1000);
+    for (ServerSocket upstreamSocket : upstreamSockets) {
+      upstreamSocket.close();
+    }
+
+    upstreamPool.checkUpstreams();
+    upstreamPool.start();
+
+    assertNull(upstreamPool.select(clientAddress(1)));
+    upstreamPool.close();
+  }
+
+  @Test
+  public void checkUpstreams_UpstreamBack_BackInRotation() throws IOException {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs.subList(0, 1), LoadBalancing.ROUND_ROBIN, 0, 0);
+    Upstream upstream = upstreamPool.getUpstreams().get(0);
+
+    upstream.connectionFailed(new IOException("Connection refused"));
+    assertFalse(upstream.isHealthy());
+
+    upstreamPool.checkUpstreams();
+    assertTrue(upstream.isHealthy());
+  }
+
+  @Test
+  public void takeWarmChannel_WarmConnections_PreConnectedChannel() throws IOException {
+    UpstreamPool upstreamPool = new UpstreamPool(upstreamConfigs.subList(0, 1), LoadBalancing.ROUND_ROBIN, 2, 0);
+    Upstream upstream = upstreamPool.getUpstreams().get(0);
+
+    upstreamPool.checkUpstreams();
+    assertEquals(2, upstream.getWarmChannelsCount());
+
+    SocketChannel channel = upstream.takeWarmChannel();
+    assertNotNull(channel);
+    assertTrue(channel.isConnected());
+    assertEquals(1, upstream.getWarmChannelsCount());
+
+    channel.close();
+    upstreamPool.close();
+    assertNull(upstream.takeWarmChannel());
+  }
+
+  private InetSocketAddress clientAddress(int client) {
+    return new InetSocketAddress(String.format("10.0.%d.%d", client / 250, client % 250 + 1), 40000 + client);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.udp;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.JNetcatParameters;
+import com.ioleak.jnetcat.options.OutputFormatConfig;
+import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UDPServerReconfigureTest {
+
+  private static final int LISTEN_PORT = 0;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private Thread udpServerThread;
+  private UDPServer udpServer;
+
+  @AfterEach
+  public void tearDown()
+          throws InterruptedException {
+    udpServer.stopExecutions();
+    udpServerThread.interrupt();
+    udpServerThread.join(WAIT_TIMEOUT_MS);
+  }
+
+  @Test
+  public void reconfigure_ServerTypeChanged_NextDatagramUsesNewType()
+          throws Exception {
+    startServer(false);
+    verifyServerTypeChange(false);
+  }
+
+  @Test
+  public void reconfigure_ServerTypeChangedMultiThread_NextDatagramUsesNewType()
+          throws Exception {
+    startServer(true);
+    verifyServerTypeChange(true);
+  }
+
+  @Test
+  public void reconfigure_PortChanged_RestartRequired()
+          throws Exception {
+    startServer(false);
+
+    assertFalse(udpServer.reconfigure(getParameters(LISTEN_PORT + 1, UDPServerType.DAYTIME, false), new SilentModeFormatOutput()));
+    assertEquals(UDPServerType.ECHO, udpServer.getServerType());
+  }
+
+  private void verifyServerTypeChange(boolean multiThread)
+          throws IOException {
+    try (DatagramSocket udpClient = new DatagramSocket(0)) {
+      udpClient.setSoTimeout(WAIT_TIMEOUT_MS);
+
+      assertEquals("ping", sendAndReceive(udpClient, "ping"));
+
+      assertTrue(udpServer.reconfigure(getParameters(LISTEN_PORT, UDPServerType.DAYTIME, multiThread), new SilentModeFormatOutput()));
+      assertEquals(UDPServerType.DAYTIME, udpServer.getServerType());
+
+      // a receiver already waiting in receive() answers with the new type
+      String response = sendAndReceive(udpClient, "ping");
+      assertTrue(response.endsWith("\r\n"), "Daytime response expected: " + response);
+    }
+  }
+
+  private void startServer(boolean multiThread)
+          throws InterruptedException {
+    udpServer = new UDPServer(getParameters(LISTEN_PORT, UDPServerType.ECHO, multiThread).getServerParametersUDP());
+    udpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    udpServerThread = new Thread(udpServer::start);
+    udpServerThread.start();
+
+    waitFor(() -> udpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+  }
+
+  private String sendAndReceive(DatagramSocket udpClient, String message)
+          throws IOException {
+    byte[] data = StringUtils.getBytesFromString(message);
+    udpClient.send(new DatagramPacket(data, data.length, InetAddress.getByName("127.0.0.1"), udpServer.getLocalPort()));
+
+    DatagramPacket response = new DatagramPacket(new byte[1024], 1024);
+    udpClient.receive(response);
+
+    return new String(response.getData(), 0, response.getLength(), StringUtils.DEFAULT_ENCODING_NETWORK);
+  }
+
+  private JNetcatParameters getParameters(int port, UDPServerType serverType, boolean multiThread) {
+    return new JNetcatParameters.ParametersBuilder(true, false, new OutputFormatConfig())
+            .withServerParametersUDP(new ServerParametersUDP.ParametersBuilder(port)
+                    .withServerType(serverType)
+                    .withMultiThread(multiThread)
+                    .withMaxThreads(2)
+                    .build())
+            .build();
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
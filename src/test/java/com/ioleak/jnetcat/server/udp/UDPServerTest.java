@@ -32,8 +32,11 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 
 import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.utils.StringUtils;
 import com.ioleak.jnetcat.common.utils.ThreadUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
 import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ExecutionMode;
 import com.ioleak.jnetcat.server.generic.ServerState;
 import com.ioleak.jnetcat.server.udp.exception.UDPServerUnitializatedStartException;
 import org.junit.jupiter.api.AfterEach;
@@ -41,6 +44,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -108,6 +112,36 @@ public class UDPServerTest {
     assertEquals(ServerState.WAITING_FOR_CONNECTION, udpServer.getServerState());
   }
 
+  @Test
+  public void startServer_VirtualExecutionMode_ReceiversStoppedOnClose() throws Exception {
+    ServerParametersUDP serverParametersUDP = new ServerParametersUDP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(UDPServerType.BASIC)
+            .withExecutionMode(ExecutionMode.VIRTUAL)
+            .withMaxThreads(2)
+            .build();
+    UDPServer concurrentServer = new UDPServer(serverParametersUDP);
+    concurrentServer.setFormatOutput(new SilentModeFormatOutput());
+
+    Thread concurrentServerThread = new Thread(concurrentServer::start);
+    concurrentServerThread.start();
+
+    ThreadUtils.waitForThread(() -> concurrentServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    assertEquals(ServerState.WAITING_FOR_CONNECTION, concurrentServer.getServerState());
+
+    try (DatagramSocket udpClient = new DatagramSocket(0)) {
+      byte[] sendData = StringUtils.getBytesFromString("Test UDP DATA");
+      for (int i = 0; i < 3; i++) {
+        udpClient.send(new DatagramPacket(sendData, sendData.length, InetAddress.getByName("127.0.0.1"), concurrentServer.getLocalPort()));
+      }
+    }
+
+    concurrentServer.stopExecutions();
+    concurrentServerThread.join(5000);
+
+    assertFalse(concurrentServerThread.isAlive());
+    assertEquals(ServerState.CLOSED, concurrentServer.getServerState());
+  }
+
   private UDPServer getUdpServer() {
     ServerParametersUDP serverParametersUDP = new ServerParametersUDP.ParametersBuilder(LISTEN_PORT).withServerType(UDPServerType.BASIC).build();
     return new UDPServer(serverParametersUDP);
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.server.udp.implement;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.Logging;
+import com.ioleak.jnetcat.common.ProcessExecutorTest;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.SilentModeFormatOutput;
+import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.udp.UDPServer;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StandardServicesTest {
+
+  private static final int WAIT_TIMEOUT_MS = 5000;
+  private static final int CHARGEN_DATAGRAM_SIZE = 512;
+  private static final int MAX_RUNNING_COMMANDS = 8;
+
+  private UDPServer udpServer;
+  private Thread udpServerThread;
+
+  @AfterEach
+  public void tearDown() {
+    udpServer.stopExecutions();
+    udpServerThread.interrupt();
+
+    try {
+      udpServerThread.join();
+    } catch (InterruptedException ex) {
+      Logging.getLogger().error("InterruptedException", ex);
+    }
+  }
+
+  @Test
+  public void start_Discard_NothingSentBack() throws Exception {
+    startServer(UDPServerType.DISCARD);
+
+    try (DatagramSocket client = new DatagramSocket()) {
+      client.setSoTimeout(200);
+      send(client, "data");
+
+      assertThrows(SocketTimeoutException.class, () -> client.receive(new DatagramPacket(new byte[16], 16)));
+    }
+  }
+
+  @Test
+  public void start_Chargen_PatternContinuesBetweenDatagrams() throws Exception {
+    startServer(UDPServerType.CHARGEN);
+
+    try (DatagramSocket client = new DatagramSocket()) {
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+
+      send(client, "");
+      assertEquals(getChargenPattern(0, CHARGEN_DATAGRAM_SIZE), receive(client));
+      send(client, "");
+      assertEquals(getChargenPattern(CHARGEN_DATAGRAM_SIZE, CHARGEN_DATAGRAM_SIZE), receive(client));
+    }
+  }
+
+  @Test
+  public void start_Daytime_DateSentBack() throws Exception {
+    startServer(UDPServerType.DAYTIME);
+
+    try (DatagramSocket client = new DatagramSocket()) {
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      send(client, "");
+
+      ZonedDateTime date = ZonedDateTime.parse(receive(client).trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      assertTrue(Math.abs(date.toEpochSecond() - ZonedDateTime.now().toEpochSecond()) < 60);
+    }
+  }
+
+  @Test
+  public void start_ShellTooManyCommands_CommandRejected() throws Exception {
+    startServer(UDPServerType.SHELL);
+
+    try (DatagramSocket client = new DatagramSocket()) {
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+
+      // the running commands are never answered before the rejected one
+      for (int i = 0; i <= MAX_RUNNING_COMMANDS; i++) {
+        send(client, ProcessExecutorTest.testCommand("sleep 3000") + "\n");
+      }
+
+      assertEquals("Too many commands running, command rejected\n", receive(client));
+    }
+  }
+
+  private String getChargenPattern(int offset, int length) {
+    StringBuilder pattern = new StringBuilder();
+
+    for (int line = 0; pattern.length() < offset + length; line++) {
+      for (int i = 0; i < 72; i++) {
+        pattern.append((char) (' ' + (line + i) % 95));
+      }
+      pattern.append("\r\n");
+    }
+
+    return pattern.substring(offset, offset + length);
+  }
+
+  private void startServer(UDPServerType serverType) throws InterruptedException {
+    udpServer = new UDPServer(new ServerParametersUDP.ParametersBuilder(0).withServerType(serverType).build());
+    udpServer.setFormatOutput(new SilentModeFormatOutput());
+
+    udpServerThread = new Thread(udpServer::start);
+    udpServerThread.start();
+    waitFor(() -> udpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+  }
+
+  private void send(DatagramSocket client, String data) throws IOException {
+    byte[] bytes = StringUtils.getBytesFromString(data);
+    client.send(new DatagramPacket(bytes, bytes.length, new InetSocketAddress("127.0.0.1", udpServer.getLocalPort())));
+  }
+
+  private String receive(DatagramSocket client) throws IOException {
+    DatagramPacket packet = new DatagramPacket(new byte[1024], 1024);
+    client.receive(packet);
+    return new String(packet.getData(), 0, packet.getLength(), StringUtils.DEFAULT_ENCODING_NETWORK);
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2021, crashdump (<xxxx>@ioleak.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ioleak.jnetcat.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import com.ioleak.jnetcat.common.utils.JsonUtils;
+import com.ioleak.jnetcat.common.utils.StringUtils;
+import com.ioleak.jnetcat.formatter.console.DirectConsoleOutput;
+import com.ioleak.jnetcat.options.JNetcatParameters;
+import com.ioleak.jnetcat.options.OutputFormatConfig;
+import com.ioleak.jnetcat.options.startup.ClientParametersUDP;
+import com.ioleak.jnetcat.options.startup.ServerParametersTCP;
+import com.ioleak.jnetcat.options.startup.ServerParametersUDP;
+import com.ioleak.jnetcat.server.generic.ServerState;
+import com.ioleak.jnetcat.server.tcp.TCPServer;
+import com.ioleak.jnetcat.server.tcp.TCPServerEngine;
+import com.ioleak.jnetcat.server.tcp.TCPServerType;
+import com.ioleak.jnetcat.server.udp.UDPServer;
+import com.ioleak.jnetcat.server.udp.UDPServerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JNetcatProcessGroupTest {
+
+  private static final int LISTEN_PORT = 0;
+  private static final int WAIT_TIMEOUT_MS = 5000;
+
+  private JNetcatProcessGroup processGroup;
+  private Thread processGroupThread;
+
+  private TCPServer echoServer;
+  private TCPServer secondEchoServer;
+  private UDPServer udpEchoServer;
+
+  @BeforeEach
+  public void setUp()
+          throws InterruptedException {
+    JNetcatParameters params = new JNetcatParameters.ParametersBuilder(false, false, new OutputFormatConfig())
+            .withProcesses(List.of(getTCPServerParameters(), getTCPServerParameters(), getUDPServerParameters()))
+            .build();
+
+    processGroup = (JNetcatProcessGroup) JNetcatProcessFactory.createProcessGroup(params, null, new DirectConsoleOutput());
+    echoServer = (TCPServer) processGroup.getProcessActions().get(0);
+    secondEchoServer = (TCPServer) processGroup.getProcessActions().get(1);
+    udpEchoServer = (UDPServer) processGroup.getProcessActions().get(2);
+
+    processGroupThread = new Thread(processGroup::start);
+    processGroupThread.start();
+
+    waitFor(() -> echoServer.getServerState() != ServerState.WAITING_FOR_CONNECTION
+                  || secondEchoServer.getServerState() != ServerState.WAITING_FOR_CONNECTION
+                  || udpEchoServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+  }
+
+  @AfterEach
+  public void tearDown()
+          throws InterruptedException {
+    processGroup.stopExecutions();
+    processGroupThread.join(WAIT_TIMEOUT_MS);
+  }
+
+  @Test
+  public void start_TCPAndUDPServers_AllListening()
+          throws IOException {
+    assertTrue(echo(echoServer.getLocalPort(), "first"));
+    assertTrue(echo(secondEchoServer.getLocalPort(), "second"));
+
+    try (DatagramSocket client = new DatagramSocket()) {
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      byte[] data = StringUtils.getBytesFromString("datagram");
+      client.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), udpEchoServer.getLocalPort()));
+
+      DatagramPacket response = new DatagramPacket(new byte[64], 64);
+      client.receive(response);
+      assertEquals("datagram", new String(response.getData(), 0, response.getLength(), StringUtils.DEFAULT_ENCODING_NETWORK));
+    }
+  }
+
+  @Test
+  public void stopExecution_OneServer_OthersStillListening()
+          throws IOException, InterruptedException {
+    assertTrue(processGroup.stopExecution(0));
+    waitFor(() -> echoServer.getServerState() != ServerState.CLOSED);
+
+    assertEquals(ServerState.CLOSED, echoServer.getServerState());
+    assertTrue(processGroupThread.isAlive());
+    assertTrue(echo(secondEchoServer.getLocalPort(), "still running"));
+  }
+
+  @Test
+  public void stopExecutions_AllServers_GroupEnded()
+          throws InterruptedException {
+    assertTrue(processGroup.stopExecutions());
+    processGroupThread.join(WAIT_TIMEOUT_MS);
+
+    assertFalse(processGroupThread.isAlive());
+    assertTrue(processGroup.isStateSuccessful());
+  }
+
+  private boolean echo(int port, String message)
+          throws IOException {
+    try (Socket client = new Socket("127.0.0.1", port)) {
+      client.setSoTimeout(WAIT_TIMEOUT_MS);
+      client.getOutputStream().write(StringUtils.getBytesFromString(message + "\n"));
+
+      return readUntil(client.getInputStream(), message);
+    }
+  }
+
+  private JNetcatParameters getTCPServerParameters() {
+    ServerParametersTCP serverParametersTCP = new ServerParametersTCP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(TCPServerType.ECHO)
+            .withServerEngine(TCPServerEngine.SELECTOR)
+            .withIoThreads(2)
+            .build();
+
+    return new JNetcatParameters.ParametersBuilder(true, true, new OutputFormatConfig())
+            .withServerParametersTCP(serverParametersTCP)
+            .build();
+  }
+
+  private JNetcatParameters getUDPServerParameters() {
+    ServerParametersUDP serverParametersUDP = new ServerParametersUDP.ParametersBuilder(LISTEN_PORT)
+            .withServerType(UDPServerType.ECHO)
+            .build();
+
+    return new JNetcatParameters.ParametersBuilder(true, false, new OutputFormatConfig())
+            .withServerParametersUDP(serverParametersUDP)
+            .build();
+  }
+
+  @Test
+  public void stopExecutions_UDPClientFirst_AllProcessesStopped()
+          throws InterruptedException {
+    ClientParametersUDP clientParametersUDP = new ClientParametersUDP.ParametersBuilder("127.0.0.1", udpEchoServer.getLocalPort())
+            .withInteractive(true)
+            .build();
+    JNetcatParameters udpClient = new JNetcatParameters.ParametersBuilder(false, false, new OutputFormatConfig())
+            .withClientParametersUDP(clientParametersUDP)
+            .build();
+    JNetcatParameters params = new JNetcatParameters.ParametersBuilder(false, false, new OutputFormatConfig())
+            .withProcesses(List.of(udpClient, getTCPServerParameters()))
+            .build();
+
+    JNetcatProcessGroup clientGroup = (JNetcatProcessGroup) JNetcatProcessFactory.createProcessGroup(params, null, new DirectConsoleOutput());
+    TCPServer tcpServer = (TCPServer) clientGroup.getProcessActions().get(1);
+    Thread clientGroupThread = new Thread(clientGroup::start);
+    clientGroupThread.start();
+
+    waitFor(() -> tcpServer.getServerState() != ServerState.WAITING_FOR_CONNECTION);
+    assertTrue(clientGroup.stopExecutions());
+    clientGroupThread.join(WAIT_TIMEOUT_MS);
+
+    assertFalse(clientGroupThread.isAlive());
+    assertEquals(ServerState.CLOSED, tcpServer.getServerState());
+  }
+
+  @Test
+  public void createProcessGroup_SamePcapngFile_OneFilePerProcess(@TempDir Path captureDirectory)
+          throws InterruptedException {
+    String pcapngFile = captureDirectory.resolve("group.pcapng").toString().replace('\\', '/');
+    OutputFormatConfig outputFormatConfig = JsonUtils.jsonToObject(String.format("{ \"formatOutputType\": \"PCAPNG\", \"pcapngFile\": \"%s\" }",
+                                                                                  pcapngFile), OutputFormatConfig.class);
+    JNetcatParameters pcapngServer = new JNetcatParameters.ParametersBuilder(getUDPServerParameters()).withOutputFormatConfig(outputFormatConfig).build();
+    JNetcatParameters params = new JNetcatParameters.ParametersBuilder(false, false, new OutputFormatConfig())
+            .withProcesses(List.of(pcapngServer, pcapngServer))
+            .build();
+
+    JNetcatProcessGroup pcapngGroup = (JNetcatProcessGroup) JNetcatProcessFactory.createProcessGroup(params, null, new DirectConsoleOutput());
+    Thread pcapngGroupThread = new Thread(pcapngGroup::start);
+    pcapngGroupThread.start();
+
+    waitFor(() -> !Files.exists(captureDirectory.resolve("group.pcapng")) || !Files.exists(captureDirectory.resolve("group-1.pcapng")));
+    pcapngGroup.stopExecutions();
+    pcapngGroupThread.join(WAIT_TIMEOUT_MS);
+
+    assertTrue(Files.exists(captureDirectory.resolve("group.pcapng")));
+    assertTrue(Files.exists(captureDirectory.resolve("group-1.pcapng")));
+  }
+
+  private void waitFor(BooleanSupplier conditionToWaitFor)
+          throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+    while (conditionToWaitFor.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private boolean readUntil(InputStream inputStream, String expected)
+          throws IOException {
+    StringBuilder received = new StringBuilder();
+    int oneByte;
+
+    while (received.indexOf(expected) < 0 && (oneByte = inputStream.read()) != -1) {
+      received.append((char) oneByte);
+    }
+
+    return received.indexOf(expected) >= 0;
+  }
+}